@@ -5,6 +5,7 @@ module space.arim.libertybans.api {
 	exports space.arim.libertybans.api.database;
 	exports space.arim.libertybans.api.event;
 	exports space.arim.libertybans.api.formatter;
+	exports space.arim.libertybans.api.metrics;
 	exports space.arim.libertybans.api.punish;
 	exports space.arim.libertybans.api.scope;
 	exports space.arim.libertybans.api.select;
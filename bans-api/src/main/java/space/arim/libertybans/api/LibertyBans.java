@@ -23,6 +23,7 @@ import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import space.arim.libertybans.api.database.PunishmentDatabase;
 import space.arim.libertybans.api.formatter.PunishmentFormatter;
+import space.arim.libertybans.api.metrics.MetricRegistry;
 import space.arim.libertybans.api.punish.PunishmentDrafter;
 import space.arim.libertybans.api.punish.PunishmentRevoker;
 import space.arim.libertybans.api.scope.ScopeManager;
@@ -103,4 +104,12 @@ public interface LibertyBans {
 	 */
 	UserResolver getUserResolver();
 
+	/**
+	 * Gets the metric registry, which reports timings and counts useful for diagnosing
+	 * performance, such as database query latency
+	 * 
+	 * @return the metric registry
+	 */
+	MetricRegistry getMetricRegistry();
+
 }
@@ -0,0 +1,48 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.api.metrics;
+
+/**
+ * A single measurement reported by LibertyBans. <br>
+ * <br>
+ * Each metric is one of {@link CounterMetric}, {@link GaugeMetric}, or {@link TimerMetric}.
+ * Metric values are read when the accessor methods are called, so a metric obtained once
+ * may be queried repeatedly to observe changes.
+ *
+ */
+public interface Metric {
+
+	/**
+	 * The name of this metric, such as {@code database.pool.permit_wait}. Names are
+	 * lowercase and dot-separated. Metrics which exist for each of several sources, such
+	 * as per database call site, end with the name of the source.
+	 *
+	 * @return the metric name
+	 */
+	String getName();
+
+	/**
+	 * A short human-readable description of what this metric measures
+	 *
+	 * @return the description
+	 */
+	String getDescription();
+
+}
@@ -0,0 +1,51 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.api.metrics;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Provides the metrics collected by LibertyBans, such as database query latencies,
+ * connection pool wait times, and mute cache hit ratios. <br>
+ * <br>
+ * The set of available metrics may change over time. For example, a metric for a database
+ * call site appears after the first query from that call site, and metrics for a feature
+ * which is disabled may be absent.
+ *
+ */
+public interface MetricRegistry {
+
+	/**
+	 * Gets all metrics currently available, sorted by name
+	 *
+	 * @return an immutable list of metrics
+	 */
+	List<Metric> getMetrics();
+
+	/**
+	 * Gets the metric with the given name, if it is currently available
+	 *
+	 * @param name the metric name
+	 * @return the metric if available, otherwise an empty optional
+	 */
+	Optional<Metric> getMetric(String name);
+
+}
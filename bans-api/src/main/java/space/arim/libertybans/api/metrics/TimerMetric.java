@@ -0,0 +1,70 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.api.metrics;
+
+import java.time.Duration;
+
+/**
+ * A metric which records the durations of an operation
+ *
+ */
+public interface TimerMetric extends Metric {
+
+	/**
+	 * Takes a snapshot of the durations recorded so far. The snapshot does not change
+	 * as further durations are recorded.
+	 *
+	 * @return the snapshot
+	 */
+	Snapshot takeSnapshot();
+
+	/**
+	 * Recorded durations at a point in time
+	 *
+	 */
+	interface Snapshot {
+
+		/**
+		 * The number of durations recorded
+		 *
+		 * @return the count
+		 */
+		long getCount();
+
+		/**
+		 * Finds the duration at the given percentile, such as 99 or 99.9. Implementations
+		 * may approximate the result.
+		 *
+		 * @param percentile the percentile, from 0 to 100
+		 * @return the duration at or below which the given percentage of durations fall,
+		 * or zero if nothing was recorded
+		 * @throws IllegalArgumentException if the percentile is not between 0 and 100
+		 */
+		Duration getPercentile(double percentile);
+
+		/**
+		 * The longest duration recorded
+		 *
+		 * @return the maximum, or zero if nothing was recorded
+		 */
+		Duration getMax();
+
+	}
+}
@@ -28,7 +28,9 @@ import space.arim.omnibus.util.concurrent.ReactionStage;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Flow;
 
 /**
  * A selection which will match punishments in the database with certain
@@ -116,6 +118,24 @@ public interface SelectionOrder {
 	 */
 	long seekAfterId();
 
+	/**
+	 * Gets the maximum start time before which punishments will be selected. <br>
+	 * <br>
+	 * See {@link SelectionOrderBuilder#seekBefore(Instant, long)}
+	 *
+	 * @return the maximum start time, or {@link Instant#MAX} for none
+	 */
+	Instant seekBeforeStartTime();
+
+	/**
+	 * Gets the maximum ID before which punishments will be selected. <br>
+	 * <br>
+	 * See {@link SelectionOrderBuilder#seekBefore(Instant, long)}
+	 *
+	 * @return the maximum ID, which is meaningless if {@link #seekBeforeStartTime()} is {@code Instant.MAX}
+	 */
+	long seekBeforeId();
+
 	/**
 	 * Gets the first punishment matching this selection, i.e. with the specified
 	 * details. <br>
@@ -155,6 +175,55 @@ public interface SelectionOrder {
 	 */
 	ReactionStage<List<Punishment>> getAllSpecificPunishments();
 
+	/**
+	 * Streams all punishments matching this selection. The punishments matched and their
+	 * order are the same as with {@link #getAllSpecificPunishments()}, but they are not
+	 * retrieved all at once. <br>
+	 * <br>
+	 * Each subscription to the returned publisher runs the selection anew. Punishments are
+	 * read from the database in batches as the subscriber requests them, such that
+	 * memory usage does not grow with the number of punishments matched. <br>
+	 * <br>
+	 * Each batch is retrieved separately, following on from the last punishment of the
+	 * previous batch, and no database connection is held between batches. Consequently,
+	 * punishments added or removed during a subscription may or may not be emitted.
+	 *
+	 * @return a publisher of all punishments matching this selection
+	 */
+	Flow.Publisher<Punishment> streamAllSpecificPunishments();
+
+	/**
+	 * Counts the punishments matching this selection, without retrieving them. <br>
+	 * <br>
+	 * Punishments are matched using the same criteria as {@link #getAllSpecificPunishments()}.
+	 * However, the count is unaffected by {@link #skipCount()} and {@link #limitToRetrieve()}.
+	 *
+	 * @return a future which yields the number of punishments matching this selection
+	 */
+	ReactionStage<Integer> countMatchingPunishments();
+
+	/**
+	 * Counts the punishments matching this selection for each punishment type, without
+	 * retrieving them. <br>
+	 * <br>
+	 * Punishments are matched as with {@link #countMatchingPunishments()}. Types for which
+	 * no punishments matched are absent from the resulting map.
+	 *
+	 * @return a future which yields the number of punishments matching this selection, by type
+	 */
+	ReactionStage<Map<PunishmentType, Integer>> countMatchingPunishmentsByType();
+
+	/**
+	 * Counts the punishments matching this selection for each operator, without retrieving
+	 * them. <br>
+	 * <br>
+	 * Punishments are matched as with {@link #countMatchingPunishments()}. Operators for which
+	 * no punishments matched are absent from the resulting map.
+	 *
+	 * @return a future which yields the number of punishments matching this selection, by operator
+	 */
+	ReactionStage<Map<Operator, Integer>> countMatchingPunishmentsByOperator();
+
 	/**
 	 * Whether this punishment selection is equal to another, i.e. if the other
 	 * selection would match the same punishments in all circumstances.
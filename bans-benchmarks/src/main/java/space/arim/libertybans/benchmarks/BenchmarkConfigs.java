@@ -0,0 +1,186 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.MainConfig;
+import space.arim.libertybans.core.config.MessagesConfig;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.Vendor;
+import space.arim.libertybans.core.importing.ImportConfig;
+import space.arim.libertybans.core.selector.AddressStrictness;
+import space.arim.libertybans.core.selector.EnforcementConfig;
+import space.arim.libertybans.core.uuid.RemoteApiBundle;
+import space.arim.libertybans.core.uuid.ServerType;
+import space.arim.libertybans.core.uuid.UUIDResolutionConfig;
+import space.arim.libertybans.it.DatabaseInfo;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Configuration read from the plugin folder, except for the database, the address strictness,
+ * and UUID resolution, which are set by the benchmark. Web lookups are disabled.
+ *
+ */
+final class BenchmarkConfigs implements Configs {
+
+	private final Configs delegate;
+	private final Vendor vendor;
+	private final DatabaseInfo databaseInfo;
+	private final AddressStrictness addressStrictness;
+
+	BenchmarkConfigs(Configs delegate, Vendor vendor, DatabaseInfo databaseInfo,
+					 AddressStrictness addressStrictness) {
+		this.delegate = delegate;
+		this.vendor = vendor;
+		this.databaseInfo = databaseInfo;
+		this.addressStrictness = addressStrictness;
+	}
+
+	/**
+	 * Creates a view of a configuration section with some values replaced
+	 *
+	 * @param clazz the configuration interface
+	 * @param original the original section
+	 * @param replacements the replacement for each method name, or null to use the original value
+	 * @param <T> the configuration type
+	 * @return the section with replaced values
+	 */
+	private static <T> T replace(Class<T> clazz, T original, Function<String, Object> replacements) {
+		return clazz.cast(Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[] {clazz}, (proxy, method, args) -> {
+			Object replacement = replacements.apply(method.getName());
+			if (replacement != null) {
+				return replacement;
+			}
+			try {
+				return method.invoke(original, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		}));
+	}
+
+	@Override
+	public SqlConfig getSqlConfig() {
+		return replace(SqlConfig.class, delegate.getSqlConfig(), (methodName) -> {
+			switch (methodName) {
+			case "vendor":
+				return vendor;
+			case "authDetails":
+				return authDetails();
+			default:
+				return null;
+			}
+		});
+	}
+
+	private SqlConfig.AuthDetails authDetails() {
+		return new SqlConfig.AuthDetails() {
+			@Override
+			public String host() {
+				return "127.0.0.1";
+			}
+
+			@Override
+			public int port() {
+				return databaseInfo.port();
+			}
+
+			@Override
+			public String database() {
+				return databaseInfo.database();
+			}
+
+			@Override
+			public String username() {
+				return vendor.userForITs();
+			}
+
+			@Override
+			public String password() {
+				return vendor.passwordForITs();
+			}
+		};
+	}
+
+	@Override
+	public MainConfig getMainConfig() {
+		MainConfig original = delegate.getMainConfig();
+		return replace(MainConfig.class, original, (methodName) -> {
+			switch (methodName) {
+			case "enforcement":
+				return replace(EnforcementConfig.class, original.enforcement(), (enforcementMethod) -> {
+					return (enforcementMethod.equals("addressStrictness")) ? addressStrictness : null;
+				});
+			case "uuidResolution":
+				return uuidResolution(original.uuidResolution());
+			default:
+				return null;
+			}
+		});
+	}
+
+	private static UUIDResolutionConfig uuidResolution(UUIDResolutionConfig original) {
+		return replace(UUIDResolutionConfig.class, original, (methodName) -> {
+			switch (methodName) {
+			case "serverType":
+				return ServerType.ONLINE;
+			case "remoteApis":
+				return new RemoteApiBundle(List.of());
+			default:
+				return null;
+			}
+		});
+	}
+
+	@Override
+	public MessagesConfig getMessagesConfig() {
+		return delegate.getMessagesConfig();
+	}
+
+	@Override
+	public ImportConfig getImportConfig() {
+		return delegate.getImportConfig();
+	}
+
+	@Override
+	public CompletableFuture<Boolean> reloadConfigs() {
+		return delegate.reloadConfigs();
+	}
+
+	@Override
+	public void startup() {
+		delegate.startup();
+	}
+
+	@Override
+	public void restart() {
+		delegate.restart();
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.benchmarks;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jooq.DSLContext;
+import space.arim.libertybans.core.database.Vendor;
+import space.arim.libertybans.core.database.flyway.MigrateWithFlyway;
+import space.arim.libertybans.core.database.flyway.MigrationFailedException;
+import space.arim.libertybans.core.database.jooq.JooqContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A migrated HyperSQL database in a temporary directory, configured like the plugin's
+ * own local database
+ *
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+	private final Path temporaryFolder;
+	private final HikariDataSource dataSource;
+	private final JooqContext jooqContext;
+
+	private BenchmarkDatabase(Path temporaryFolder, HikariDataSource dataSource, JooqContext jooqContext) {
+		this.temporaryFolder = temporaryFolder;
+		this.dataSource = dataSource;
+		this.jooqContext = jooqContext;
+	}
+
+	/**
+	 * Creates a database in a temporary directory, which is deleted when the database is closed
+	 *
+	 * @return the database
+	 */
+	static BenchmarkDatabase create() {
+		Path folder = createTempDirectory();
+		return create(folder.resolve("punishments-database"), folder);
+	}
+
+	/**
+	 * Creates the database used by a plugin instance with the given folder. The plugin can be
+	 * started on the database once it is closed
+	 *
+	 * @param pluginFolder the plugin folder
+	 * @return the database
+	 */
+	static BenchmarkDatabase createForPlugin(Path pluginFolder) {
+		Path databaseFolder = pluginFolder.resolve("internal").resolve("hypersql");
+		try {
+			Files.createDirectories(databaseFolder);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return create(databaseFolder.resolve("punishments-database"), null);
+	}
+
+	static Path createTempDirectory() {
+		try {
+			return Files.createTempDirectory("libertybans-benchmark");
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	static void deleteDirectory(Path folder) throws IOException {
+		try (Stream<Path> files = Files.walk(folder)) {
+			files.sorted(Comparator.reverseOrder()).forEach((file) -> {
+				try {
+					Files.delete(file);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		}
+	}
+
+	private static BenchmarkDatabase create(Path databaseFile, Path temporaryFolder) {
+		HikariConfig hikariConf = new HikariConfig();
+		hikariConf.setJdbcUrl("jdbc:hsqldb:file:" + databaseFile.toAbsolutePath()
+				+ ";sql.restrict_exec=true;sql.sys_index_names=true"
+				+ ";sql.enforce_names=true;sql.enforce_refs=true;sql.enforce_types=true"
+				+ ";hsqldb.tx_interrupt_rollback=true;hsqldb.default_table_type=cached");
+		hikariConf.setUsername("SA");
+		hikariConf.setPassword("");
+		hikariConf.setAutoCommit(false);
+		hikariConf.setMaximumPoolSize(Runtime.getRuntime().availableProcessors());
+		hikariConf.setConnectionInitSql("SET DATABASE TRANSACTION CONTROL MVLOCKS");
+		hikariConf.setPoolName("LibertyBansPool-Benchmark");
+		HikariDataSource dataSource = new HikariDataSource(hikariConf);
+
+		JooqContext jooqContext = new JooqContext(Vendor.HSQLDB.dialect());
+		try {
+			new MigrateWithFlyway(dataSource, Vendor.HSQLDB).migrate(jooqContext);
+		} catch (MigrationFailedException ex) {
+			dataSource.close();
+			throw new IllegalStateException("Unable to migrate benchmark database", ex);
+		}
+		return new BenchmarkDatabase(temporaryFolder, dataSource, jooqContext);
+	}
+
+	HikariDataSource dataSource() {
+		return dataSource;
+	}
+
+	/**
+	 * Runs a query with its own connection and commits afterward
+	 *
+	 * @param query the query
+	 * @param <R> the result type
+	 * @return the result
+	 */
+	<R> R query(Function<DSLContext, R> query) {
+		try (Connection connection = dataSource.getConnection()) {
+			R result = query.apply(jooqContext.createContext(connection));
+			connection.commit();
+			return result;
+		} catch (SQLException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	void execute(Consumer<DSLContext> command) {
+		query((context) -> {
+			command.accept(context);
+			return null;
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		execute((context) -> context.query("SHUTDOWN").execute());
+		dataSource.close();
+		if (temporaryFolder != null) {
+			deleteDirectory(temporaryFolder);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import jakarta.inject.Singleton;
+import space.arim.libertybans.core.PillarOneBindModuleMinusConfigs;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.StandardConfigs;
+import space.arim.libertybans.core.database.Vendor;
+import space.arim.libertybans.core.selector.AddressStrictness;
+import space.arim.libertybans.core.service.LiveTime;
+import space.arim.libertybans.core.service.Time;
+import space.arim.libertybans.it.DatabaseInfo;
+
+/**
+ * Binds the standard services, with configuration adjusted by {@link BenchmarkConfigs}
+ *
+ */
+public class BenchmarkPillarOneModule extends PillarOneBindModuleMinusConfigs {
+
+	private final Vendor vendor;
+	private final DatabaseInfo databaseInfo;
+	private final AddressStrictness addressStrictness;
+
+	BenchmarkPillarOneModule(Vendor vendor, DatabaseInfo databaseInfo, AddressStrictness addressStrictness) {
+		this.vendor = vendor;
+		this.databaseInfo = databaseInfo;
+		this.addressStrictness = addressStrictness;
+	}
+
+	@Singleton
+	public Configs configs(StandardConfigs configs) {
+		return new BenchmarkConfigs(configs, vendor, databaseInfo, addressStrictness);
+	}
+
+	public Time time() {
+		return LiveTime.INSTANCE;
+	}
+
+}
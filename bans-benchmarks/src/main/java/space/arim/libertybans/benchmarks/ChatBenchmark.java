@@ -0,0 +1,85 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.libertybans.core.punish.Guardian;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mute check performed for each chat message, using both mute cache
+ * implementations. Chatting users are logged in beforehand, as on a real server.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8G", "-Dorg.jooq.no-logo=true", "-Dorg.jooq.no-tips=true"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ChatBenchmark extends PluginBenchmark {
+
+	@Param({"ON_DEMAND", "ALWAYS_AVAILABLE"})
+	public MuteCacheKind muteCache;
+
+	private static final int ONLINE_USERS = 1000;
+
+	private Guardian guardian;
+	private int[] onlineUsers;
+
+	@Override
+	MuteCacheKind muteCacheKind() {
+		return muteCache;
+	}
+
+	@Override
+	void prepare() {
+		guardian = plugin.request(Guardian.class);
+		onlineUsers = new int[Math.min(ONLINE_USERS, users)];
+		for (int n = 0; n < onlineUsers.length; n++) {
+			// Every muted user, among others, is muted on their first personal address
+			int user = dataset.randomUser();
+			guardian.executeAndCheckConnection(
+					SyntheticDataset.user(user), SyntheticDataset.name(user),
+					SyntheticDataset.personalAddress(user, 0)
+			).join();
+			onlineUsers[n] = user;
+		}
+	}
+
+	@Benchmark
+	public Component checkChat() {
+		int user = onlineUsers[ThreadLocalRandom.current().nextInt(onlineUsers.length)];
+		return guardian.checkChat(
+				SyntheticDataset.user(user), SyntheticDataset.personalAddress(user, 0), null
+		).join();
+	}
+}
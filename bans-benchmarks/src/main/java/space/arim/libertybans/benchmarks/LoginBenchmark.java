@@ -0,0 +1,65 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.libertybans.core.selector.InternalSelector;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the connection check performed on each login, including recording the user's
+ * name and address and checking for an applicable ban
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8G", "-Dorg.jooq.no-logo=true", "-Dorg.jooq.no-tips=true"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LoginBenchmark extends PluginBenchmark {
+
+	private InternalSelector selector;
+
+	@Override
+	void prepare() {
+		selector = plugin.request(InternalSelector.class);
+	}
+
+	@Benchmark
+	public Component executeAndCheckConnection() {
+		int user = dataset.randomUser();
+		int whichAddress = ThreadLocalRandom.current().nextInt(SyntheticDataset.ADDRESSES_PER_USER - 1);
+		return selector.executeAndCheckConnection(
+				SyntheticDataset.user(user), SyntheticDataset.name(user),
+				SyntheticDataset.personalAddress(user, whichAddress)
+		).join();
+	}
+}
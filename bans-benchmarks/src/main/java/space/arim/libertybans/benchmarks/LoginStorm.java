@@ -0,0 +1,242 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import net.kyori.adventure.text.Component;
+import space.arim.libertybans.api.LibertyBans;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.database.Vendor;
+import space.arim.libertybans.core.database.execute.LatencyHistogram;
+import space.arim.libertybans.core.database.execute.PoolStatistics;
+import space.arim.libertybans.core.punish.Guardian;
+import space.arim.libertybans.core.selector.AddressStrictness;
+import space.arim.libertybans.it.DatabaseInfo;
+import space.arim.libertybans.it.env.platform.QuackPlatform;
+import space.arim.libertybans.it.env.platform.QuackPlayerBuilder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator simulating a join storm, such as when a network restarts. <br>
+ * <br>
+ * Many simulated players connect at once through the same connection check used by platform
+ * listeners. Allowed players join the Quack platform, chat, and are occasionally banned, so that
+ * enforcement runs against online players. Afterward, login decision latency percentiles, login
+ * timeouts, and connection pool wait times are reported. <br>
+ * <br>
+ * Run with {@code java -cp benchmarks.jar space.arim.libertybans.benchmarks.LoginStorm [options]}.
+ * Options are given as {@code --name=value}:
+ * <ul>
+ *     <li>{@code vendor}: HSQLDB (default), MARIADB, MYSQL, POSTGRES or COCKROACH. Remote databases
+ *     are reached at 127.0.0.1 using the same credentials as integration tests, and are cleared first</li>
+ *     <li>{@code port} and {@code database}: the port and database name of a remote database</li>
+ *     <li>{@code users}: the number of users in the dataset, default 100000</li>
+ *     <li>{@code logins}: the number of logins, default 20000</li>
+ *     <li>{@code concurrency}: the number of players connecting at once, default 500</li>
+ *     <li>{@code chats-per-login}: chat messages sent by each allowed player, default 5</li>
+ *     <li>{@code ban-every}: ban one in every so many allowed players, default 100</li>
+ *     <li>{@code address-strictness}: LENIENT, NORMAL (default) or STRICT</li>
+ *     <li>{@code mute-cache}: ON_DEMAND (default) or ALWAYS_AVAILABLE</li>
+ *     <li>{@code config-folder}: a folder of configuration files to use, such as sql.yml to set the
+ *     pool size. The database vendor, credentials and address strictness are still overridden</li>
+ * </ul>
+ *
+ */
+public final class LoginStorm {
+
+	private final Map<String, String> options;
+
+	private final LatencyHistogram loginLatency = new LatencyHistogram();
+	private final LatencyHistogram chatLatency = new LatencyHistogram();
+	private final LatencyHistogram banLatency = new LatencyHistogram();
+	private final LongAdder allowedLogins = new LongAdder();
+	private final LongAdder deniedLogins = new LongAdder();
+	private final LongAdder timedOutLogins = new LongAdder();
+	private final LongAdder failedLogins = new LongAdder();
+
+	private LoginStorm(Map<String, String> options) {
+		this.options = options;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || arg.indexOf('=') == -1) {
+				throw new IllegalArgumentException("Options must be given as --name=value, not " + arg);
+			}
+			String[] nameAndValue = arg.substring(2).split("=", 2);
+			options.put(nameAndValue[0], nameAndValue[1]);
+		}
+		new LoginStorm(options).run();
+	}
+
+	private String option(String name, String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+
+	private int intOption(String name, int defaultValue) {
+		return Integer.parseInt(option(name, Integer.toString(defaultValue)));
+	}
+
+	private void run() throws InterruptedException {
+		Vendor vendor = Vendor.valueOf(option("vendor", "HSQLDB"));
+		DatabaseInfo databaseInfo;
+		if (vendor == Vendor.HSQLDB) {
+			databaseInfo = new DatabaseInfo();
+		} else {
+			String port = option("port", null);
+			if (port == null) {
+				throw new IllegalArgumentException("--port is required for remote databases");
+			}
+			databaseInfo = new DatabaseInfo(Integer.parseInt(port), option("database", "libertybans"));
+		}
+		String configFolder = option("config-folder", null);
+		int logins = intOption("logins", 20_000);
+		int concurrency = intOption("concurrency", 500);
+		int chatsPerLogin = intOption("chats-per-login", 5);
+		int banEvery = intOption("ban-every", 100);
+
+		SyntheticDataset dataset = new SyntheticDataset(intOption("users", 100_000));
+		System.out.println("Populating database and starting plugin...");
+		PluginInstance plugin = PluginInstance.start(
+				vendor, databaseInfo,
+				AddressStrictness.valueOf(option("address-strictness", "NORMAL")),
+				MuteCacheKind.valueOf(option("mute-cache", "ON_DEMAND")),
+				(configFolder == null) ? null : Path.of(configFolder),
+				PluginBenchmark.populator(dataset)
+		);
+		try {
+			Guardian guardian = plugin.request(Guardian.class);
+			LibertyBans api = plugin.request(LibertyBans.class);
+			QuackPlayerBuilder playerBuilder = new QuackPlayerBuilder(plugin.request(QuackPlatform.class));
+
+			System.out.println("Starting " + logins + " logins with " + concurrency + " connecting at once...");
+			ExecutorService players = Executors.newFixedThreadPool(concurrency);
+			long stormStart = System.nanoTime();
+			for (int n = 0; n < logins; n++) {
+				boolean ban = n % banEvery == 0;
+				players.execute(() -> {
+					int user = dataset.randomUser();
+					UUID uuid = SyntheticDataset.user(user);
+					String name = SyntheticDataset.name(user);
+					NetworkAddress address = SyntheticDataset.personalAddress(
+							user, ThreadLocalRandom.current().nextInt(SyntheticDataset.ADDRESSES_PER_USER - 1));
+					if (!login(guardian, uuid, name, address)) {
+						return;
+					}
+					playerBuilder.build(uuid, name, address);
+					for (int chat = 0; chat < chatsPerLogin; chat++) {
+						long chatStart = System.nanoTime();
+						guardian.checkChat(uuid, address, null).join();
+						chatLatency.record(System.nanoTime() - chatStart);
+					}
+					if (ban) {
+						long banStart = System.nanoTime();
+						api.getDrafter().draftBuilder()
+								.type(PunishmentType.BAN)
+								.victim(PlayerVictim.of(uuid))
+								.reason("Login storm")
+								.build()
+								.enactPunishment()
+								.toCompletableFuture().join();
+						banLatency.record(System.nanoTime() - banStart);
+					}
+				});
+			}
+			players.shutdown();
+			if (!players.awaitTermination(1L, TimeUnit.HOURS)) {
+				throw new IllegalStateException("Login storm did not finish within an hour");
+			}
+			Duration stormDuration = Duration.ofNanos(System.nanoTime() - stormStart);
+			report(stormDuration, plugin.request(InternalDatabase.class).poolStatistics());
+		} finally {
+			plugin.close();
+		}
+	}
+
+	/**
+	 * Performs a login
+	 *
+	 * @return true if the login was allowed
+	 */
+	private boolean login(Guardian guardian, UUID uuid, String name, NetworkAddress address) {
+		long loginStart = System.nanoTime();
+		Component denialMessage;
+		try {
+			denialMessage = guardian.executeAndCheckConnection(uuid, name, address).join();
+		} catch (CompletionException ex) {
+			loginLatency.record(System.nanoTime() - loginStart);
+			Throwable cause = ex.getCause();
+			if (cause instanceof IllegalStateException && cause.getCause() instanceof TimeoutException) {
+				timedOutLogins.increment();
+			} else {
+				failedLogins.increment();
+				ex.printStackTrace();
+			}
+			return false;
+		}
+		loginLatency.record(System.nanoTime() - loginStart);
+		if (denialMessage != null) {
+			deniedLogins.increment();
+			return false;
+		}
+		allowedLogins.increment();
+		return true;
+	}
+
+	private void report(Duration stormDuration, PoolStatistics poolStatistics) {
+		LatencyHistogram.Snapshot logins = loginLatency.snapshot();
+		System.out.println();
+		System.out.println("Login storm finished in " + stormDuration);
+		System.out.printf("Logins: %d per second, %d allowed, %d denied, %d timed out, %d failed%n",
+				logins.count() * 1000 / Math.max(1L, stormDuration.toMillis()),
+				allowedLogins.sum(), deniedLogins.sum(), timedOutLogins.sum(), failedLogins.sum());
+		printLatencies("Login decision", logins);
+		printLatencies("Chat check", chatLatency.snapshot());
+		printLatencies("Ban enactment", banLatency.snapshot());
+		printLatencies("Connection permit wait", poolStatistics.permitWait().snapshot());
+		printLatencies("Connection acquisition", poolStatistics.connectionAcquisition().snapshot());
+		System.out.println("Connection timeouts: " + poolStatistics.connectionTimeouts());
+	}
+
+	private static void printLatencies(String label, LatencyHistogram.Snapshot latencies) {
+		System.out.printf("%-24s count %8d  p50 %9.3f ms  p99 %9.3f ms  p999 %9.3f ms  max %9.3f ms%n",
+				label, latencies.count(),
+				millis(latencies.percentile(50)), millis(latencies.percentile(99)),
+				millis(latencies.percentile(99.9)), millis(latencies.max()));
+	}
+
+	private static double millis(Duration duration) {
+		return duration.toNanos() / 1_000_000D;
+	}
+}
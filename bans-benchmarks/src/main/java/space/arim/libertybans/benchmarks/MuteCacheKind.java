@@ -0,0 +1,57 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import space.arim.libertybans.core.selector.cache.AlwaysAvailableMuteCache;
+import space.arim.libertybans.core.selector.cache.MuteCache;
+import space.arim.libertybans.core.selector.cache.OnDemandMuteCache;
+
+/**
+ * The mute cache implementations, as chosen by each platform
+ *
+ */
+public enum MuteCacheKind {
+	ON_DEMAND,
+	ALWAYS_AVAILABLE;
+
+	Object bindModule() {
+		switch (this) {
+		case ON_DEMAND:
+			return new OnDemandModule();
+		case ALWAYS_AVAILABLE:
+			return new AlwaysAvailableModule();
+		default:
+			throw new IllegalStateException("Unknown mute cache kind " + this);
+		}
+	}
+
+	public static final class OnDemandModule {
+
+		public MuteCache muteCache(OnDemandMuteCache muteCache) {
+			return muteCache;
+		}
+	}
+
+	public static final class AlwaysAvailableModule {
+
+		public MuteCache muteCache(AlwaysAvailableMuteCache muteCache) {
+			return muteCache;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.core.selector.AddressStrictness;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Base class for benchmarks running against a started plugin. <br>
+ * <br>
+ * One in every 200 users is banned and as many are muted, each punishment alternately
+ * targeting the user's uuid or first personal address.
+ *
+ */
+public abstract class PluginBenchmark {
+
+	@Param({"10000", "1000000"})
+	public int users;
+
+	@Param({"LENIENT", "NORMAL", "STRICT"})
+	public AddressStrictness addressStrictness;
+
+	static final int PUNISH_EVERY = 200;
+	static final int BAN_OFFSET = 0;
+	static final int MUTE_OFFSET = PUNISH_EVERY / 2;
+
+	SyntheticDataset dataset;
+	PluginInstance plugin;
+
+	MuteCacheKind muteCacheKind() {
+		return MuteCacheKind.ON_DEMAND;
+	}
+
+	/**
+	 * Called once the plugin is started and the dataset is present
+	 *
+	 */
+	void prepare() {}
+
+	@Setup(Level.Trial)
+	public void startPlugin() {
+		dataset = new SyntheticDataset(users);
+		plugin = PluginInstance.start(addressStrictness, muteCacheKind(), populator(dataset));
+		prepare();
+	}
+
+	static Consumer<SyntheticDataset.Writer> populator(SyntheticDataset dataset) {
+		return (writer) -> {
+			dataset.insertAddresses(writer);
+			dataset.insertPunishments(writer, PunishmentType.BAN, PUNISH_EVERY, BAN_OFFSET);
+			dataset.insertPunishments(writer, PunishmentType.MUTE, PUNISH_EVERY, MUTE_OFFSET);
+			dataset.finish(writer);
+		};
+	}
+
+	@TearDown(Level.Trial)
+	public void stopPlugin() throws IOException {
+		plugin.close();
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import space.arim.injector.Identifier;
+import space.arim.injector.Injector;
+import space.arim.injector.InjectorBuilder;
+import space.arim.injector.SpecificationSupport;
+import space.arim.libertybans.bootstrap.BaseFoundation;
+import space.arim.libertybans.core.ApiBindModule;
+import space.arim.libertybans.core.CommandsModule;
+import space.arim.libertybans.core.PillarTwoBindModule;
+import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.database.Vendor;
+import space.arim.libertybans.core.selector.AddressStrictness;
+import space.arim.libertybans.it.DatabaseInfo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * A running plugin instance on the integration test platform
+ *
+ */
+final class PluginInstance implements AutoCloseable {
+
+	private final Path folder;
+	private final Injector injector;
+	private final BaseFoundation base;
+
+	private PluginInstance(Path folder, Injector injector, BaseFoundation base) {
+		this.folder = folder;
+		this.injector = injector;
+		this.base = base;
+	}
+
+	/**
+	 * Populates the local database, then starts the plugin on it. Populating beforehand ensures
+	 * caches filled on startup see the whole dataset
+	 *
+	 * @param addressStrictness the address strictness
+	 * @param muteCacheKind the mute cache implementation
+	 * @param populator writes the dataset
+	 * @return the started plugin
+	 */
+	static PluginInstance start(AddressStrictness addressStrictness, MuteCacheKind muteCacheKind,
+								Consumer<SyntheticDataset.Writer> populator) {
+		return start(Vendor.HSQLDB, new DatabaseInfo(), addressStrictness, muteCacheKind, null, populator);
+	}
+
+	/**
+	 * Starts the plugin on the given database with a dataset. <br>
+	 * <br>
+	 * The local database is populated before startup. Remote databases, which use the same
+	 * credentials as integration tests, are cleared and populated after startup, after which the
+	 * plugin is restarted.
+	 *
+	 * @param vendor the database vendor
+	 * @param databaseInfo the port and database name, if the database is remote
+	 * @param addressStrictness the address strictness
+	 * @param muteCacheKind the mute cache implementation
+	 * @param configFolder a folder whose configuration files are copied to the plugin, or null
+	 * @param populator writes the dataset
+	 * @return the started plugin
+	 */
+	static PluginInstance start(Vendor vendor, DatabaseInfo databaseInfo,
+								AddressStrictness addressStrictness, MuteCacheKind muteCacheKind,
+								Path configFolder, Consumer<SyntheticDataset.Writer> populator) {
+		Path folder = BenchmarkDatabase.createTempDirectory();
+		if (configFolder != null) {
+			copyConfigFiles(configFolder, folder);
+		}
+		if (vendor == Vendor.HSQLDB) {
+			try (BenchmarkDatabase database = BenchmarkDatabase.createForPlugin(folder)) {
+				populator.accept(database::execute);
+			} catch (IOException ex) {
+				throw new IllegalStateException("Unable to populate database", ex);
+			}
+		}
+		Injector injector = new InjectorBuilder()
+				.bindInstance(Identifier.ofTypeAndNamed(Path.class, "folder"), folder)
+				.addBindModules(
+						new ApiBindModule(),
+						new BenchmarkPillarOneModule(vendor, databaseInfo, addressStrictness),
+						new PillarTwoBindModule(),
+						new CommandsModule(),
+						new BenchmarkBindModule(),
+						muteCacheKind.bindModule())
+				.specification(SpecificationSupport.JAKARTA)
+				.multiBindings(true)
+				.build();
+		BaseFoundation base = injector.request(BaseFoundation.class);
+		base.startup();
+		if (vendor != Vendor.HSQLDB) {
+			InternalDatabase database = injector.request(InternalDatabase.class);
+			database.truncateAllTables();
+			populator.accept((command) -> database.execute(command::accept).join());
+			if (!base.fullRestart()) {
+				throw new IllegalStateException("Unable to restart after populating database");
+			}
+		}
+		return new PluginInstance(folder, injector, base);
+	}
+
+	private static void copyConfigFiles(Path configFolder, Path pluginFolder) {
+		try (Stream<Path> configFiles = Files.list(configFolder)) {
+			for (Path configFile : (Iterable<Path>) configFiles::iterator) {
+				if (Files.isRegularFile(configFile)) {
+					Files.copy(configFile, pluginFolder.resolve(configFile.getFileName()));
+				}
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Unable to copy configuration", ex);
+		}
+	}
+
+	<T> T request(Class<T> type) {
+		return injector.request(type);
+	}
+
+	@Override
+	public void close() throws IOException {
+		base.shutdown();
+		BenchmarkDatabase.deleteDirectory(folder);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.api.jsonchat.adventure.util.ComponentText;
+import space.arim.libertybans.api.LibertyBans;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.InternalFormatter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures enacting punishments, selecting punishments, and formatting punishment messages
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8G", "-Dorg.jooq.no-logo=true", "-Dorg.jooq.no-tips=true"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PunishmentBenchmark extends PluginBenchmark {
+
+	private LibertyBans api;
+	private InternalFormatter formatter;
+	private ComponentText banLayout;
+	private Punishment ban;
+
+	@Override
+	void prepare() {
+		api = plugin.request(LibertyBans.class);
+		formatter = plugin.request(InternalFormatter.class);
+		banLayout = plugin.request(Configs.class).getMessagesConfig().additions().bans().layout();
+		ban = api.getSelector()
+				.getActivePunishmentByIdAndType(1L, PunishmentType.BAN)
+				.toCompletableFuture().join()
+				.orElseThrow();
+	}
+
+	@Benchmark
+	public Optional<Punishment> enactPunishment() {
+		return api.getDrafter().draftBuilder()
+				.type(PunishmentType.BAN)
+				.victim(PlayerVictim.of(UUID.randomUUID()))
+				.reason("Benchmark")
+				.build()
+				.enactPunishment()
+				.toCompletableFuture().join();
+	}
+
+	@Benchmark
+	public List<Punishment> selectByVictim() {
+		UUID uuid = SyntheticDataset.user(dataset.randomUser());
+		return api.getSelector().selectionBuilder()
+				.victim(PlayerVictim.of(uuid))
+				.selectAll()
+				.build()
+				.getAllSpecificPunishments()
+				.toCompletableFuture().join();
+	}
+
+	@Benchmark
+	public List<Punishment> selectBanListPage() {
+		return api.getSelector().selectionBuilder()
+				.type(PunishmentType.BAN)
+				.limitToRetrieve(10)
+				.build()
+				.getAllSpecificPunishments()
+				.toCompletableFuture().join();
+	}
+
+	@Benchmark
+	public Component formatWithPunishment() {
+		return formatter.formatWithPunishment(banLayout, ban).join();
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.core.database.sql.EndTimeCondition;
+import space.arim.libertybans.core.punish.ApplicableIndexWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
+import static space.arim.libertybans.core.schema.tables.ApplicableAddressIndex.APPLICABLE_ADDRESS_INDEX;
+import static space.arim.libertybans.core.schema.tables.ApplicableIndex.APPLICABLE_INDEX;
+import static space.arim.libertybans.core.schema.tables.StrictLinks.STRICT_LINKS;
+
+/**
+ * Compares STRICT address enforcement using the strict_links view against the maintained
+ * applicable_address_index table. <br>
+ * <br>
+ * The dataset is generated by {@link SyntheticDataset}, with one in every 200 users banned.
+ * The login benchmarks measure the applicable ban lookup. The enforcement benchmark measures
+ * finding the users affected by a new address ban, which always uses the view.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8G", "-Dorg.jooq.no-logo=true", "-Dorg.jooq.no-tips=true"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class StrictLinksBenchmark {
+
+	@Param({"1000000", "10000000"})
+	public int addressRows;
+
+	private static final int BAN_EVERY = 200;
+
+	private BenchmarkDatabase database;
+	private SyntheticDataset dataset;
+
+	@Setup(Level.Trial)
+	public void populate() {
+		database = BenchmarkDatabase.create();
+		dataset = new SyntheticDataset(addressRows / SyntheticDataset.ADDRESSES_PER_USER);
+		dataset.insertAddresses(database::execute);
+		dataset.insertPunishments(database::execute, PunishmentType.BAN, BAN_EVERY, 0);
+		database.execute((context) -> new ApplicableIndexWriter(context).setAddressIndexMaintained(true));
+		dataset.finish(database::execute);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() throws IOException {
+		database.close();
+	}
+
+	private UUID randomUser() {
+		return SyntheticDataset.user(dataset.randomUser());
+	}
+
+	private NetworkAddress randomSharedAddress() {
+		return SyntheticDataset.sharedAddress(dataset.randomUser());
+	}
+
+	@Benchmark
+	public Long loginWithView() {
+		UUID uuid = randomUser();
+		Instant currentTime = Instant.now();
+		return database.query((context) -> {
+			return context
+					.select(APPLICABLE_INDEX.ID)
+					.from(APPLICABLE_INDEX)
+					.innerJoin(STRICT_LINKS)
+					.on(APPLICABLE_INDEX.UUID.eq(STRICT_LINKS.UUID1))
+					.where(STRICT_LINKS.UUID2.eq(uuid))
+					.and(APPLICABLE_INDEX.TYPE.eq(PunishmentType.BAN))
+					.and(new EndTimeCondition(APPLICABLE_INDEX.END).isNotExpired(currentTime))
+					.limit(1)
+					.fetchOne(APPLICABLE_INDEX.ID);
+		});
+	}
+
+	@Benchmark
+	public Long loginWithAddressIndex() {
+		UUID uuid = randomUser();
+		Instant currentTime = Instant.now();
+		return database.query((context) -> {
+			return context
+					.select(APPLICABLE_ADDRESS_INDEX.ID)
+					.from(ADDRESSES)
+					.innerJoin(APPLICABLE_ADDRESS_INDEX)
+					.on(APPLICABLE_ADDRESS_INDEX.ADDRESS.eq(ADDRESSES.ADDRESS))
+					.where(ADDRESSES.UUID.eq(uuid))
+					.and(APPLICABLE_ADDRESS_INDEX.TYPE.eq(PunishmentType.BAN))
+					.and(new EndTimeCondition(APPLICABLE_ADDRESS_INDEX.END).isNotExpired(currentTime))
+					.limit(1)
+					.fetchOne(APPLICABLE_ADDRESS_INDEX.ID);
+		});
+	}
+
+	@Benchmark
+	public Set<UUID> enforceWithView() {
+		NetworkAddress address = randomSharedAddress();
+		return database.query((context) -> {
+			return context
+					.select(STRICT_LINKS.UUID2)
+					.from(STRICT_LINKS)
+					.innerJoin(ADDRESSES)
+					.on(STRICT_LINKS.UUID1.eq(ADDRESSES.UUID))
+					.where(ADDRESSES.ADDRESS.eq(address))
+					.fetchSet(STRICT_LINKS.UUID2);
+		});
+	}
+}
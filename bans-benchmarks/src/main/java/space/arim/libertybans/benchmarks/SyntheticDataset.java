@@ -0,0 +1,204 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.benchmarks;
+
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import space.arim.libertybans.api.ConsoleOperator;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.database.sql.EmptyData;
+import space.arim.libertybans.core.database.sql.SequenceValue;
+import space.arim.libertybans.core.database.sql.TableForType;
+import space.arim.libertybans.core.punish.ApplicableIndexWriter;
+import space.arim.libertybans.core.scope.ScopeImpl;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static space.arim.libertybans.core.schema.Sequences.LIBERTYBANS_PUNISHMENT_IDS;
+import static space.arim.libertybans.core.schema.Sequences.LIBERTYBANS_VICTIM_IDS;
+import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
+import static space.arim.libertybans.core.schema.tables.Punishments.PUNISHMENTS;
+import static space.arim.libertybans.core.schema.tables.Victims.VICTIMS;
+
+/**
+ * Generates users, addresses and punishments directly in the database. <br>
+ * <br>
+ * Each user has three addresses of their own and one address shared with around 16 other
+ * users. Punishments are permanent and alternately target a user's uuid and one of their
+ * personal addresses. The same users and addresses are always generated for the same user count.
+ *
+ */
+final class SyntheticDataset {
+
+	private final int userCount;
+	private int lastId;
+
+	static final int ADDRESSES_PER_USER = 4;
+	private static final int USERS_PER_SHARED_ADDRESS = 16;
+	private static final int BATCH_SIZE = 10_000;
+	private static final long UUID_MOST_SIGNIFICANT_BITS = 0x4c69626572747942L;
+
+	SyntheticDataset(int userCount) {
+		this.userCount = userCount;
+	}
+
+	interface Writer {
+
+		void execute(Consumer<DSLContext> command);
+
+	}
+
+	int userCount() {
+		return userCount;
+	}
+
+	static UUID user(int index) {
+		return new UUID(UUID_MOST_SIGNIFICANT_BITS, index);
+	}
+
+	static String name(int index) {
+		return "User" + index;
+	}
+
+	private static NetworkAddress ipv4(int value) {
+		return NetworkAddress.of(new byte[] {
+				(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value
+		});
+	}
+
+	static NetworkAddress personalAddress(int user, int which) {
+		// Start at 1.0.0.0 to avoid the empty address
+		return ipv4((1 << 24) + user * (ADDRESSES_PER_USER - 1) + which);
+	}
+
+	static NetworkAddress sharedAddress(int user) {
+		// Start at 224.0.0.0, above the range used for personal addresses
+		return ipv4((224 << 24) + user / USERS_PER_SHARED_ADDRESS);
+	}
+
+	int randomUser() {
+		return ThreadLocalRandom.current().nextInt(userCount);
+	}
+
+	/**
+	 * Inserts the addresses of all users
+	 *
+	 * @param writer the writer
+	 */
+	void insertAddresses(Writer writer) {
+		Instant updated = Instant.EPOCH;
+		for (int start = 0; start < userCount; start += BATCH_SIZE) {
+			int end = Math.min(start + BATCH_SIZE, userCount);
+			int batchStart = start;
+			writer.execute((context) -> {
+				BatchBindStep batch = context.batch(context
+						.insertInto(ADDRESSES)
+						.columns(ADDRESSES.UUID, ADDRESSES.ADDRESS, ADDRESSES.UPDATED)
+						.values((UUID) null, null, null));
+				for (int user = batchStart; user < end; user++) {
+					for (int which = 0; which < ADDRESSES_PER_USER - 1; which++) {
+						batch.bind(user(user), personalAddress(user, which), updated);
+					}
+					batch.bind(user(user), sharedAddress(user), updated);
+				}
+				batch.execute();
+			});
+		}
+	}
+
+	/**
+	 * Punishes one in every {@code every} users, starting with the user at {@code offset}
+	 *
+	 * @param writer the writer
+	 * @param type the punishment type
+	 * @param every how many users per punished user
+	 * @param offset the first user punished
+	 */
+	void insertPunishments(Writer writer, PunishmentType type, int every, int offset) {
+		writer.execute((context) -> {
+			for (int user = offset; user < userCount; user += every) {
+				if ((user / every) % 2 == 0) {
+					insertPunishment(context, type, Victim.VictimType.PLAYER, user(user), EmptyData.ADDRESS);
+				} else {
+					insertPunishment(context, type, Victim.VictimType.ADDRESS, EmptyData.UUID, personalAddress(user, 0));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Whether the given user is punished with {@link #insertPunishments(Writer, PunishmentType, int, int)}
+	 *
+	 * @param user the user
+	 * @param every how many users per punished user
+	 * @param offset the first user punished
+	 * @return true if punished
+	 */
+	static boolean isPunished(int user, int every, int offset) {
+		return user >= offset && (user - offset) % every == 0;
+	}
+
+	private void insertPunishment(DSLContext context, PunishmentType type,
+								  Victim.VictimType victimType, UUID uuid, NetworkAddress address) {
+		int id = ++lastId;
+		context
+				.insertInto(PUNISHMENTS)
+				.columns(
+						PUNISHMENTS.ID, PUNISHMENTS.TYPE,
+						PUNISHMENTS.OPERATOR, PUNISHMENTS.REASON,
+						PUNISHMENTS.SCOPE, PUNISHMENTS.START, PUNISHMENTS.END)
+				.values(
+						(long) id, type,
+						ConsoleOperator.INSTANCE, "Benchmark",
+						ScopeImpl.GLOBAL, Instant.EPOCH, Punishment.PERMANENT_END_DATE)
+				.execute();
+		context
+				.insertInto(VICTIMS)
+				.columns(VICTIMS.ID, VICTIMS.TYPE, VICTIMS.UUID, VICTIMS.ADDRESS)
+				.values(id, victimType, uuid, address)
+				.execute();
+		var dataTable = new TableForType(type).dataTable();
+		context
+				.insertInto(dataTable.table())
+				.columns(dataTable.id(), dataTable.victimId())
+				.values((long) id, id)
+				.execute();
+	}
+
+	/**
+	 * Fills the tables derived from addresses and punishments, and moves the id sequences past
+	 * the inserted punishments so that the plugin may enact further punishments
+	 *
+	 * @param writer the writer
+	 */
+	void finish(Writer writer) {
+		int nextId = lastId + 1;
+		writer.execute((context) -> {
+			new ApplicableIndexWriter(context).rebuild();
+			new SequenceValue<>(LIBERTYBANS_PUNISHMENT_IDS).setValue(context, (long) nextId);
+			new SequenceValue<>(LIBERTYBANS_VICTIM_IDS).setValue(context, nextId);
+		});
+	}
+}
@@ -76,9 +76,8 @@ public final class WarnActionsListener implements AsynchronousEventConsumer<Post
 				.victim(punishment.getVictim())
 				.selectActiveOnly()
 				.build()
-				.getAllSpecificPunishments()
-				.thenCompose((punishmentList) -> {
-					int numberOfWarns = punishmentList.size();
+				.countMatchingPunishments()
+				.thenCompose((numberOfWarns) -> {
 					return new Handler(punishment, numberOfWarns).handleActions();
 				})
 				.whenComplete((ignore, ex) -> {
@@ -49,7 +49,6 @@ import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
 
 import java.time.Duration;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -132,9 +131,7 @@ public class WarnActionsListenerTest {
 		when(selectionBuilder.victim(any())).thenReturn(selectionBuilder);
 		when(selectionBuilder.selectActiveOnly()).thenReturn(selectionBuilder);
 		when(selectionBuilder.build()).thenReturn(selectionOrder);
-		when(selectionOrder.getAllSpecificPunishments()).thenReturn(futuresFactory.completedStage(
-				List.of(mock(Punishment.class), mock(Punishment.class)) // Two warns
-		));
+		when(selectionOrder.countMatchingPunishments()).thenReturn(futuresFactory.completedStage(2)); // Two warns
 		fireEvent();
 		verifyNoInteractions(envEnforcer, drafter);
 	}
@@ -156,9 +153,7 @@ public class WarnActionsListenerTest {
 		when(selectionBuilder.victim(any())).thenReturn(selectionBuilder);
 		when(selectionBuilder.selectActiveOnly()).thenReturn(selectionBuilder);
 		when(selectionBuilder.build()).thenReturn(selectionOrder);
-		when(selectionOrder.getAllSpecificPunishments()).thenReturn(futuresFactory.completedStage(
-				List.of(mock(Punishment.class), mock(Punishment.class), mock(Punishment.class))
-		));
+		when(selectionOrder.countMatchingPunishments()).thenReturn(futuresFactory.completedStage(3));
 		when(formatter.formatWithPunishment(any(), eq(punishment))).thenAnswer((invocation) -> {
 			return futuresFactory.completedFuture(invocation.getArgument(0, ComponentText.class).asComponent());
 		});
@@ -33,6 +33,7 @@ module space.arim.libertybans.core {
 	exports space.arim.libertybans.core.database.flyway to org.flywaydb.core;
 	exports space.arim.libertybans.core.env;
 	exports space.arim.libertybans.core.importing;
+	exports space.arim.libertybans.core.metrics to space.arim.injector;
 	exports space.arim.libertybans.core.punish;
 	exports space.arim.libertybans.core.punish.sync to space.arim.injector;
 	exports space.arim.libertybans.core.scope;
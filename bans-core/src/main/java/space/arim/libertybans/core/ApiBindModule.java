@@ -25,6 +25,7 @@ import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 import space.arim.libertybans.api.LibertyBans;
 import space.arim.libertybans.api.database.PunishmentDatabase;
 import space.arim.libertybans.api.formatter.PunishmentFormatter;
+import space.arim.libertybans.api.metrics.MetricRegistry;
 import space.arim.libertybans.api.punish.PunishmentDrafter;
 import space.arim.libertybans.api.punish.PunishmentRevoker;
 import space.arim.libertybans.api.scope.ScopeManager;
@@ -32,6 +33,7 @@ import space.arim.libertybans.api.select.PunishmentSelector;
 import space.arim.libertybans.api.user.UserResolver;
 import space.arim.libertybans.core.config.InternalFormatter;
 import space.arim.libertybans.core.database.DatabaseManager;
+import space.arim.libertybans.core.metrics.StandardMetricRegistry;
 import space.arim.libertybans.core.punish.Enactor;
 import space.arim.libertybans.core.punish.InternalRevoker;
 import space.arim.libertybans.core.scope.InternalScopeManager;
@@ -79,4 +81,8 @@ public class ApiBindModule {
 		return uuidManager;
 	}
 
+	public MetricRegistry metricRegistry(StandardMetricRegistry metricRegistry) {
+		return metricRegistry;
+	}
+
 }
@@ -28,6 +28,7 @@ import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 import space.arim.libertybans.api.LibertyBans;
 import space.arim.libertybans.api.database.PunishmentDatabase;
 import space.arim.libertybans.api.formatter.PunishmentFormatter;
+import space.arim.libertybans.api.metrics.MetricRegistry;
 import space.arim.libertybans.api.punish.PunishmentDrafter;
 import space.arim.libertybans.api.punish.PunishmentRevoker;
 import space.arim.libertybans.api.scope.ScopeManager;
@@ -46,11 +47,13 @@ public class LibertyBansApi implements LibertyBans {
 	private final PunishmentFormatter formatter;
 	private final ScopeManager scopeManager;
 	private final UserResolver userResolver;
+	private final MetricRegistry metricRegistry;
 
 	@Inject
 	public LibertyBansApi(Omnibus omnibus, FactoryOfTheFuture futuresFactory, PunishmentDrafter drafter,
 			PunishmentRevoker revoker, PunishmentSelector selector, Provider<PunishmentDatabase> databaseProvider,
-			PunishmentFormatter formatter, ScopeManager scopeManager, UserResolver userResolver) {
+			PunishmentFormatter formatter, ScopeManager scopeManager, UserResolver userResolver,
+			MetricRegistry metricRegistry) {
 		this.omnibus = omnibus;
 		this.futuresFactory = futuresFactory;
 		this.drafter = drafter;
@@ -60,6 +63,7 @@ public class LibertyBansApi implements LibertyBans {
 		this.formatter = formatter;
 		this.scopeManager = scopeManager;
 		this.userResolver = userResolver;
+		this.metricRegistry = metricRegistry;
 	}
 
 	@Override
@@ -107,4 +111,9 @@ public class LibertyBansApi implements LibertyBans {
 		return userResolver;
 	}
 
+	@Override
+	public MetricRegistry getMetricRegistry() {
+		return metricRegistry;
+	}
+
 }
@@ -29,6 +29,9 @@ import space.arim.libertybans.core.commands.extra.TabCompletion;
 import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.database.DatabaseManager;
 import space.arim.libertybans.core.env.EnvironmentManager;
+import space.arim.libertybans.core.punish.AssociationQueue;
+import space.arim.libertybans.core.selector.cache.ActiveBanIndex;
+import space.arim.libertybans.core.selector.cache.BanVictimFilter;
 import space.arim.libertybans.core.selector.cache.MuteCache;
 import space.arim.libertybans.core.service.AsynchronicityManager;
 import space.arim.libertybans.core.uuid.UUIDManager;
@@ -44,6 +47,9 @@ public class LifecycleGodfather extends AbstractBaseFoundation {
 	private final DatabaseManager databaseManager;
 	private final UUIDManager uuidManager;
 	private final MuteCache muteCache;
+	private final ActiveBanIndex banIndex;
+	private final BanVictimFilter banVictimFilter;
+	private final AssociationQueue associationQueue;
 	private final TabCompletion tabCompletion;
 	private final EnvironmentManager envManager;
 	private final AddonCenter addonCenter;
@@ -55,7 +61,9 @@ public class LifecycleGodfather extends AbstractBaseFoundation {
 
 	@Inject
 	public LifecycleGodfather(AsynchronicityManager asyncManager, Configs configs, DatabaseManager databaseManager,
-							  UUIDManager uuidManager, MuteCache muteCache, TabCompletion tabCompletion,
+							  UUIDManager uuidManager, MuteCache muteCache, ActiveBanIndex banIndex,
+							  BanVictimFilter banVictimFilter,
+							  AssociationQueue associationQueue, TabCompletion tabCompletion,
 							  EnvironmentManager envManager, AddonCenter addonCenter,
 							  LibertyBans api) {
 		this.asyncManager = asyncManager;
@@ -63,6 +71,9 @@ public class LifecycleGodfather extends AbstractBaseFoundation {
 		this.databaseManager = databaseManager;
 		this.uuidManager = uuidManager;
 		this.muteCache = muteCache;
+		this.banIndex = banIndex;
+		this.banVictimFilter = banVictimFilter;
+		this.associationQueue = associationQueue;
 		this.tabCompletion = tabCompletion;
 		this.envManager = envManager;
 		this.addonCenter = addonCenter;
@@ -77,6 +88,9 @@ public class LifecycleGodfather extends AbstractBaseFoundation {
 		databaseManager.startup();
 		uuidManager.startup();
 		muteCache.startup();
+		banIndex.startup();
+		banVictimFilter.startup();
+		associationQueue.startup();
 		tabCompletion.startup();
 		addonCenter.startup();
 		envManager.startup();
@@ -96,6 +110,9 @@ public class LifecycleGodfather extends AbstractBaseFoundation {
 		databaseManager.restart();
 		uuidManager.restart();
 		muteCache.restart();
+		banIndex.restart();
+		banVictimFilter.restart();
+		associationQueue.restart();
 		tabCompletion.restart();
 		addonCenter.restart();
 		envManager.startup();
@@ -106,6 +123,9 @@ public class LifecycleGodfather extends AbstractBaseFoundation {
 		envManager.shutdown();
 		addonCenter.shutdown();
 		tabCompletion.shutdown();
+		associationQueue.shutdown();
+		banVictimFilter.shutdown();
+		banIndex.shutdown();
 		muteCache.shutdown();
 		uuidManager.shutdown();
 		configs.shutdown();
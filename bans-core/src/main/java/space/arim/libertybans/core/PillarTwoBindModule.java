@@ -25,10 +25,13 @@ import space.arim.libertybans.core.commands.extra.TabCompletion;
 import space.arim.libertybans.core.commands.usage.PluginInfoMessage;
 import space.arim.libertybans.core.commands.usage.StandardUsageGlossary;
 import space.arim.libertybans.core.commands.usage.UsageGlossary;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
 import space.arim.libertybans.core.database.execute.QueryExecutor;
 import space.arim.libertybans.core.punish.sync.EnforcingMessageReceiver;
 import space.arim.libertybans.core.punish.sync.MessageReceiver;
-import space.arim.libertybans.core.punish.sync.SQLSynchronizationMessenger;
+import space.arim.libertybans.core.punish.sync.PluginMessageSynchronizationMessenger;
+import space.arim.libertybans.core.punish.sync.PostgresSynchronizationMessenger;
 import space.arim.libertybans.core.punish.sync.SynchronizationMessenger;
 import space.arim.omnibus.util.concurrent.EnhancedExecutor;
 
@@ -71,8 +74,14 @@ public class PillarTwoBindModule {
 		return database;
 	}
 
-	public SynchronizationMessenger synchronizationMessenger(SQLSynchronizationMessenger synchronizationMessenger) {
-		return synchronizationMessenger;
+	public SynchronizationMessenger synchronizationMessenger(Configs configs,
+															 PostgresSynchronizationMessenger databaseMessenger,
+															 PluginMessageSynchronizationMessenger pluginMessenger) {
+		SqlConfig.Synchronization.SyncMode mode = configs.getSqlConfig().synchronization().mode();
+		if (mode == SqlConfig.Synchronization.SyncMode.PLUGIN_MESSAGING) {
+			return pluginMessenger;
+		}
+		return databaseMessenger;
 	}
 
 	public MessageReceiver messageReceiver(EnforcingMessageReceiver messageReceiver) {
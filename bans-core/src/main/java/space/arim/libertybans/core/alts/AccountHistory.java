@@ -29,6 +29,7 @@ import space.arim.libertybans.api.PlayerVictim;
 import space.arim.libertybans.api.Victim;
 import space.arim.libertybans.core.database.execute.QueryExecutor;
 import space.arim.libertybans.core.database.execute.SQLFunction;
+import space.arim.libertybans.core.punish.ApplicableIndexWriter;
 import space.arim.libertybans.core.punish.MiscUtil;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
@@ -99,11 +100,20 @@ public class AccountHistory {
 
 	public CentralisedFuture<Boolean> deleteAccount(UUID user, Instant recorded) {
 		return queryExecutor.get().queryWithRetry((context, transaction) -> {
+			List<NetworkAddress> removedAddresses = context
+					.select(ADDRESSES.ADDRESS)
+					.from(ADDRESSES)
+					.where(ADDRESSES.UUID.eq(user))
+					.and(ADDRESSES.UPDATED.eq(recorded))
+					.fetch(ADDRESSES.ADDRESS);
 			int updateCount = context
 					.deleteFrom(ADDRESSES)
 					.where(ADDRESSES.UUID.eq(user))
 					.and(ADDRESSES.UPDATED.eq(recorded))
 					.execute();
+			if (updateCount != 0) {
+				new ApplicableIndexWriter(context).reindexUser(user, removedAddresses);
+			}
 			return updateCount != 0;
 		});
 	}
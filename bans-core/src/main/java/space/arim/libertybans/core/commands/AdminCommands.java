@@ -22,13 +22,16 @@ package space.arim.libertybans.core.commands;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
+import net.kyori.adventure.text.Component;
 import space.arim.api.env.PlatformHandle;
+import space.arim.api.jsonchat.adventure.util.ComponentText;
 import space.arim.libertybans.bootstrap.BaseFoundation;
 import space.arim.libertybans.bootstrap.plugin.PluginInfo;
 import space.arim.libertybans.core.addon.AddonCenter;
 import space.arim.libertybans.core.config.MessagesConfig;
 import space.arim.libertybans.core.env.CmdSender;
 import space.arim.libertybans.core.env.Environment;
+import space.arim.libertybans.core.metrics.MetricsExporter;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.ReactionStage;
 
@@ -44,21 +47,28 @@ public final class AdminCommands extends AbstractSubCommandGroup {
 	private final Provider<Environment> environment;
 	private final AddonCenter addonCenter;
 	private final PlatformHandle envHandle;
+	private final MetricsExporter metricsExporter;
 
 	@Inject
 	public AdminCommands(Dependencies dependencies, Provider<BaseFoundation> foundation,
-						 Provider<Environment> environment, AddonCenter addonCenter, PlatformHandle envHandle) {
+						 Provider<Environment> environment, AddonCenter addonCenter, PlatformHandle envHandle,
+						 MetricsExporter metricsExporter) {
 		super(dependencies, Arrays.stream(Type.values()).map(Type::toString));
 		this.foundation = foundation;
 		this.environment = environment;
 		this.addonCenter = addonCenter;
 		this.envHandle = envHandle;
+		this.metricsExporter = metricsExporter;
 	}
 
 	private MessagesConfig.Admin adminConfig() {
 		return messages().admin();
 	}
 
+	private MessagesConfig.Admin.Metrics metricsConfig() {
+		return adminConfig().metrics();
+	}
+
 	@Override
 	public CommandExecution execute(CmdSender sender, CommandPackage command, String arg) {
 		return new Execution(sender, command, Type.fromString(arg));
@@ -77,7 +87,8 @@ public final class AdminCommands extends AbstractSubCommandGroup {
 	private enum Type {
 		RELOAD,
 		RESTART,
-		DEBUG;
+		DEBUG,
+		METRICS;
 
 		boolean hasPermission(CmdSender sender) {
 			return sender.hasPermission("libertybans.admin." + this);
@@ -117,6 +128,8 @@ public final class AdminCommands extends AbstractSubCommandGroup {
 			case DEBUG:
 				debugCmd();
 				break;
+			case METRICS:
+				return metricsCmd();
 			default:
 				throw new IllegalArgumentException("Command mismatch");
 			}
@@ -158,6 +171,30 @@ public final class AdminCommands extends AbstractSubCommandGroup {
 					"Platform Version: " + envHandle.getPlatformVersion()); // TODO add more debug information
 			debugInfo.forEach(sender()::sendLiteralMessage);
 		}
+
+		private ReactionStage<Void> metricsCmd() {
+			if (command().hasNext() && command().next().equalsIgnoreCase("export")) {
+				sender().sendMessage(adminConfig().ellipses());
+				return metricsExporter.exportToFile().thenAccept((file) -> {
+					if (file == null) {
+						sender().sendMessage(metricsConfig().exportFailed());
+					} else {
+						sender().sendMessage(metricsConfig().exported().replaceText("%FILE%", file.toString()));
+					}
+				});
+			}
+			var layout = metricsConfig().layout();
+			sender().sendMessage(Component.text()
+					.append(metricsConfig().summary())
+					.append(Component.newline())
+					.append(Component.join(
+							Component.newline(),
+							metricsExporter.summary().stream()
+									.map((metric) -> layout.replaceText("%METRIC%", metric))
+									.toArray(ComponentText[]::new)
+					)));
+			return null;
+		}
 		
 	}
 
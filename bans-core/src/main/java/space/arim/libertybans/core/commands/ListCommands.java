@@ -19,12 +19,15 @@
 
 package space.arim.libertybans.core.commands;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.ComponentLike;
 import space.arim.api.jsonchat.adventure.util.ComponentText;
 import space.arim.libertybans.api.CompositeVictim;
+import space.arim.libertybans.api.Operator;
 import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.Victim;
 import space.arim.libertybans.api.punish.Punishment;
@@ -42,6 +45,8 @@ import space.arim.libertybans.core.env.CmdSender;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.ReactionStage;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -57,6 +62,13 @@ public class ListCommands extends AbstractSubCommandGroup {
 	private final PunishmentSelector selector;
 	private final InternalFormatter formatter;
 	private final TabCompletion tabCompletion;
+	/**
+	 * The last page shown to each command sender, so that the following page may be
+	 * retrieved with a keyset seek rather than by skipping all previous punishments
+	 */
+	private final Cache<Operator, PageCursor> pageCursors = Caffeine.newBuilder()
+			.expireAfterWrite(Duration.ofMinutes(10L))
+			.build();
 
 	@Inject
 	public ListCommands(Dependencies dependencies, PunishmentSelector selector,
@@ -167,11 +179,26 @@ public class ListCommands extends AbstractSubCommandGroup {
 				return completedFuture(null);
 			}
 			int perPage = section.perPage();
-			SelectionOrder selection = selectionOrderBuilder
-					.skipFirstRetrieved(perPage * (selectedPage - 1))
+			SelectionOrder firstPageSelection = selectionOrderBuilder
 					.limitToRetrieve(perPage)
 					.build();
-			return continueWithPageAndSelection(selection, selectedPage);
+			Operator operator = sender().getOperator();
+			PageCursor cursor = pageCursors.getIfPresent(operator);
+			if (cursor != null && cursor.precedes(firstPageSelection, selectedPage)) {
+				cursor.seekNextPage(selectionOrderBuilder);
+			} else {
+				selectionOrderBuilder.skipFirstRetrieved(perPage * (selectedPage - 1));
+			}
+			SelectionOrder selection = selectionOrderBuilder.build();
+			return selection.getAllSpecificPunishments().thenCompose((punishments) -> {
+				if (!punishments.isEmpty()) {
+					Punishment lastShown = punishments.get(punishments.size() - 1);
+					pageCursors.put(operator, new PageCursor(
+							firstPageSelection, selectedPage, lastShown.getStartDate(), lastShown.getIdentifier()
+					));
+				}
+				return showPunishmentsOnPage(punishments, selectedPage);
+			});
 		}
 
 		private int parsePage() {
@@ -187,12 +214,6 @@ public class ListCommands extends AbstractSubCommandGroup {
 			return page;
 		}
 
-		private ReactionStage<Void> continueWithPageAndSelection(SelectionOrder selectionOrder, int page) {
-			return selectionOrder.getAllSpecificPunishments().thenCompose((punishments) -> {
-				return showPunishmentsOnPage(punishments, page);
-			});
-		}
-
 		private String replaceTargetIn(String str) {
 			return (target == null) ? str : str.replace("%TARGET%", target);
 		}
@@ -257,4 +278,39 @@ public class ListCommands extends AbstractSubCommandGroup {
 		
 	}
 
+	/**
+	 * The position of the last punishment shown on a page. Punishments are listed with the
+	 * latest first, so the next page begins with the punishment preceding this one.
+	 *
+	 */
+	private static final class PageCursor {
+
+		private final SelectionOrder firstPageSelection;
+		private final int page;
+		private final Instant lastStartTime;
+		private final long lastId;
+
+		PageCursor(SelectionOrder firstPageSelection, int page, Instant lastStartTime, long lastId) {
+			this.firstPageSelection = firstPageSelection;
+			this.page = page;
+			this.lastStartTime = lastStartTime;
+			this.lastId = lastId;
+		}
+
+		/**
+		 * Whether the requested page directly follows the page of this cursor
+		 *
+		 * @param firstPageSelection the selection of the first page of the requested list
+		 * @param requestedPage the requested page
+		 * @return true if the next page may be retrieved using {@link #seekNextPage(SelectionOrderBuilder)}
+		 */
+		boolean precedes(SelectionOrder firstPageSelection, int requestedPage) {
+			return requestedPage == page + 1 && this.firstPageSelection.equals(firstPageSelection);
+		}
+
+		void seekNextPage(SelectionOrderBuilder selectionOrderBuilder) {
+			selectionOrderBuilder.seekBefore(lastStartTime, lastId - 1);
+		}
+	}
+
 }
@@ -45,6 +45,7 @@ enum UsageSection {
 			"&e/libertybans &7debug - outputs debug information"),
 	ADMIN("&e/libertybans &7reload - reload config.yml and language configuration",
 			"&e/libertybans &7restart - perform a full restart; reloads everything including database connections",
+			"&e/libertybans &7metrics [export] - show performance metrics, or write them to a file",
 			"&e/libertybans &7addon - manage installed addons",
 			"&e/libertybans &7import - imports from another plugin");
 	
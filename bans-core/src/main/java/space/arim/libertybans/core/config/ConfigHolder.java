@@ -19,6 +19,7 @@
 
 package space.arim.libertybans.core.config;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import space.arim.dazzleconf.AuxiliaryKeys;
@@ -42,6 +43,7 @@ import java.util.concurrent.CompletableFuture;
 public final class ConfigHolder<C> {
 
 	private final Class<C> configClass;
+	private final Validator<C> validator;
 	
 	private volatile C instance;
 	
@@ -59,7 +61,30 @@ public final class ConfigHolder<C> {
 	}
 	
 	public ConfigHolder(Class<C> configClass) {
+		this(configClass, (config) -> null);
+	}
+
+	public ConfigHolder(Class<C> configClass, Validator<C> validator) {
 		this.configClass = Objects.requireNonNull(configClass);
+		this.validator = Objects.requireNonNull(validator);
+	}
+
+	/**
+	 * Checks loaded values against conditions which cannot be expressed by annotations,
+	 * such as those depending on the platform
+	 *
+	 * @param <C> the config type
+	 */
+	public interface Validator<C> {
+
+		/**
+		 * Checks the loaded configuration
+		 *
+		 * @param config the configuration
+		 * @return a description of the invalid value, or null if the configuration is valid
+		 */
+		@Nullable String findInvalidValue(C config);
+
 	}
 
 	public Class<C> getConfigClass() {
@@ -130,6 +155,14 @@ public final class ConfigHolder<C> {
 					+ "For now, the default configuration will be used.", ex);
 			return defaults;
 		}
+		String invalidValue = validator.findInvalidValue(config);
+		if (invalidValue != null) {
+			logger.warn(
+					"The values in your configuration are invalid: " + invalidValue + " "
+					+ "Please correct the issue and run /libertybans reload. "
+					+ "For now, the default configuration will be used.");
+			return defaults;
+		}
 		if (config instanceof AuxiliaryKeys) {
 			// Update existing configuration with missing keys
 			try (FileChannel fileChannel = FileChannel.open(path,
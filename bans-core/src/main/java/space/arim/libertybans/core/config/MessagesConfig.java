@@ -213,6 +213,27 @@ public interface MessagesConfig {
 
 			}
 		}
+
+		@SubSection
+		Metrics metrics();
+
+		interface Metrics {
+
+			@ConfComments("Shown above the summary of metrics. The metrics of every call site are only exported.")
+			@DefaultString("&b&lMetrics &7(use /libertybans metrics export for every call site)")
+			Component summary();
+
+			@DefaultString("&7- %METRIC%")
+			ComponentText layout();
+
+			@DefaultString("&aExported metrics to &e%FILE%&a.")
+			ComponentText exported();
+
+			@ConfKey("export-failed")
+			@DefaultString("&cFailed to export metrics. Please check the server console.")
+			Component exportFailed();
+
+		}
 		
 	}
 	
@@ -20,6 +20,7 @@
 package space.arim.libertybans.core.config;
 
 import space.arim.dazzleconf.annote.ConfComments;
+import space.arim.dazzleconf.annote.ConfDefault.DefaultBoolean;
 import space.arim.dazzleconf.annote.ConfDefault.DefaultInteger;
 import space.arim.dazzleconf.annote.ConfDefault.DefaultString;
 import space.arim.dazzleconf.annote.ConfHeader;
@@ -94,12 +95,110 @@ public interface SqlConfig extends DatabaseSettingsConfig {
 		@DefaultString("EXPIRE_AFTER_ACCESS")
 		ExpirationSemantic expirationSemantic();
 
+		@ConfKey("refresh-interval-seconds")
+		@ConfComments({"On Bukkit and Sponge, the mutes of online players are always kept in memory.",
+				"These are updated whenever a mute is added or removed through LibertyBans, including on other",
+				"instances if synchronization is enabled. As a safety net, they are additionally refreshed from",
+				"the database at this interval.",
+				"",
+				"If you set expiration-semantics to EXPIRE_AFTER_WRITE, the expiration time is used instead,",
+				"since other programs may be modifying mutes in the database.",
+				"",
+				"With synchronization enabled, this interval is still used, unless you set",
+				"expiration-semantics to EXPIRE_AFTER_WRITE yourself."})
+		@DefaultInteger(900)
+		int refreshIntervalSeconds();
+
 		enum ExpirationSemantic {
 			EXPIRE_AFTER_ACCESS,
 			EXPIRE_AFTER_WRITE
 		}
 	}
 
+	@ConfKey("ban-index")
+	@SubSection
+	BanIndex banIndex();
+
+	@ConfHeader({"Bans may additionally be held in memory, so that logins can be checked without querying",
+			"the database for applicable bans. The database is still used to record the player's name and address.",
+			"",
+			"The index is kept up to date by punishments made through LibertyBans. If you use multiple instances,",
+			"you must enable synchronization so that bans from other instances are received.",
+			"Do not enable this if any program besides LibertyBans adds or removes bans in the database.",
+			"",
+			"Note: It is likely you do not need to touch this."})
+	interface BanIndex {
+
+		@ConfComments({"Whether to enable the in-memory ban index.",
+				"The index applies to the LENIENT and NORMAL address strictness settings.",
+				"With STRICT address strictness, the database is always queried."})
+		@DefaultBoolean(false)
+		boolean enable();
+
+	}
+
+	@ConfKey("ban-victim-filter")
+	@SubSection
+	BanVictimFilter banVictimFilter();
+
+	@ConfHeader({"A compact filter of the players and addresses which are banned may be held in memory.",
+			"Logins by players who are certainly not banned then skip the query for applicable bans.",
+			"If the filter cannot rule out a ban, the database is queried as usual.",
+			"",
+			"Like the ban index, the filter is kept up to date by punishments made through LibertyBans.",
+			"If you use multiple instances, you must enable synchronization so that bans from other instances are received.",
+			"Do not enable this if any program besides LibertyBans adds bans in the database.",
+			"",
+			"Note: It is likely you do not need to touch this."})
+	interface BanVictimFilter {
+
+		@ConfComments({"Whether to enable the ban victim filter.",
+				"The filter applies to the LENIENT and NORMAL address strictness settings, when the ban index is disabled."})
+		@DefaultBoolean(false)
+		boolean enable();
+
+	}
+
+	@ConfKey("deferred-associations")
+	@SubSection
+	DeferredAssociations deferredAssociations();
+
+	@ConfHeader({"When players join, their name and address are recorded in the database.",
+			"These records may instead be queued and written in batches, which reduces the work done for each login.",
+			"",
+			"The player's address is still recorded during the login if the login check reads it back,",
+			"namely if the address-strictness is STRICT, the connection limiter is enabled, or alts-auto-show",
+			"is enabled. With alts-auto-show enabled, only names are deferred, so the benefit is smaller.",
+			"Otherwise, a deferred address is not seen by the /alts command until it is written.",
+			"",
+			"Note: It is likely you do not need to touch this."})
+	interface DeferredAssociations {
+
+		@ConfComments("Whether to enable deferred writing of names and addresses")
+		@DefaultBoolean(false)
+		boolean enable();
+
+		@ConfKey("flush-interval-millis")
+		@ConfComments("How frequently queued records are written to the database, in milliseconds")
+		@IntegerRange(min = 50L, max = 60000L)
+		@DefaultInteger(1000)
+		long flushIntervalMillis();
+
+		@ConfKey("batch-size")
+		@ConfComments("Once this many records are queued, they are written without waiting for the flush interval")
+		@IntegerRange(min = 1L)
+		@DefaultInteger(250)
+		int batchSize();
+
+		@ConfKey("max-queued")
+		@ConfComments({"The maximum number of queued records.",
+				"If the queue is full, records are written during the login as if this feature were disabled."})
+		@IntegerRange(min = 1L)
+		@DefaultInteger(10000)
+		int maxQueued();
+
+	}
+
 	@SubSection
 	Synchronization synchronization();
 
@@ -109,13 +208,30 @@ public interface SqlConfig extends DatabaseSettingsConfig {
 		@ConfComments({"Availalble synchronization options:",
 				"NONE - no synchronization",
 				"ANSI_SQL - uses your database to synchronize punishments (called ANSI_SQL because it uses standard SQL)",
+				"PLUGIN_MESSAGING - uses the plugin messaging channel of a BungeeCord or Velocity proxy to synchronize",
+				"punishments between backend servers, without using the database. This requires LibertyBans on each backend",
+				"server. On Velocity, bungee-plugin-message-channel must be enabled. Note that messages can only be sent and",
+				"received by servers with players online, so the ban index cannot be used with this option.",
+				"This option is rejected on proxies and on Sponge, where the default option is used instead.",
 				"Other options may be added in the future, upon feature request."})
 		@DefaultString("NONE")
 		SyncMode mode();
 
 		enum SyncMode {
 			NONE,
-			ANSI_SQL
+			ANSI_SQL,
+			PLUGIN_MESSAGING;
+
+			/**
+			 * Whether every instance receives every message. Plugin messages only reach servers
+			 * with players online, so a node-local cache kept up to date by messages would become
+			 * stale under PLUGIN_MESSAGING.
+			 *
+			 * @return false if messages may be missed
+			 */
+			public boolean reachesEveryInstance() {
+				return this != PLUGIN_MESSAGING;
+			}
 		}
 
 		@ConfKey("poll-rate-millis")
@@ -128,8 +244,18 @@ public interface SqlConfig extends DatabaseSettingsConfig {
 		@DefaultInteger(4000)
 		long pollRateMillis();
 
+		@ConfKey("use-native-notifications")
+		@ConfComments({"Whether to receive synchronization messages through native database notifications, where supported.",
+				"This is currently supported for PostgreSQL, using LISTEN and NOTIFY. Messages are then received as soon",
+				"as they are sent, and the database is not polled while the listening connection remains open.",
+				"Note that the listening connection occupies one connection from the pool.",
+				"",
+				"For other databases, or if the listening connection is lost, the database is polled as usual."})
+		@DefaultBoolean(true)
+		boolean useNativeNotifications();
+
 		default boolean enabled() {
-			return mode() == SyncMode.ANSI_SQL;
+			return mode() != SyncMode.NONE;
 		}
 	}
 
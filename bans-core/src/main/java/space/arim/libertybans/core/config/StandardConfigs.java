@@ -20,8 +20,11 @@ package space.arim.libertybans.core.config;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
+import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import space.arim.libertybans.bootstrap.StartupException;
+import space.arim.libertybans.core.env.EnvMessageChannel;
 import space.arim.libertybans.core.importing.ImportConfig;
 
 import java.io.IOException;
@@ -42,15 +45,28 @@ import java.util.concurrent.CompletableFuture;
 public class StandardConfigs implements Configs {
 	
 	private final Path folder;
+	private final Provider<EnvMessageChannel> messageChannel;
 	
 	private final ConfigHolder<MainConfig> mainHolder = new ConfigHolder<>(MainConfig.class);
 	private final ConfigHolder<MessagesConfig> messagesHolder = new ConfigHolder<>(MessagesConfig.class);
-	private final ConfigHolder<SqlConfig> sqlHolder = new ConfigHolder<>(SqlConfig.class);
+	private final ConfigHolder<SqlConfig> sqlHolder = new ConfigHolder<>(SqlConfig.class, this::findInvalidValue);
 	private final ConfigHolder<ImportConfig> importHolder = new ConfigHolder<>(ImportConfig.class);
 	
 	@Inject
-	public StandardConfigs(@Named("folder") Path folder) {
+	public StandardConfigs(@Named("folder") Path folder, Provider<EnvMessageChannel> messageChannel) {
 		this.folder = folder;
+		this.messageChannel = messageChannel;
+	}
+
+	private @Nullable String findInvalidValue(SqlConfig sqlConfig) {
+		if (sqlConfig.synchronization().mode() == SqlConfig.Synchronization.SyncMode.PLUGIN_MESSAGING) {
+			String unavailableReason = messageChannel.get().unavailableReason();
+			if (unavailableReason != null) {
+				return "The PLUGIN_MESSAGING synchronization mode in sql.yml cannot be used, because "
+						+ unavailableReason + ".";
+			}
+		}
+		return null;
 	}
 	
 	@Override
@@ -34,7 +34,7 @@ import static space.arim.libertybans.core.schema.Tables.*;
 public final class DatabaseConstants {
 
 	static final boolean AUTOCOMMIT = false;
-	static final int FETCH_SIZE = 1000;
+	public static final int FETCH_SIZE = 1000;
 	static final long SOCKET_TIMEOUT = Duration.ofSeconds(30L).toMillis();
 
 	public static final String LIBERTYBANS_08X_FLYWAY_TABLE = "libertybans_flyway";
@@ -51,7 +51,7 @@ public final class DatabaseConstants {
 	public static Table<?>[] allTables(TableOrder tableOrder) {
 		// Referees first, referents last with respect to foreign keys
 		Table<?>[] tables = new Table[] {
-				NAMES, ADDRESSES, HISTORY, BANS, MUTES, WARNS, PUNISHMENTS, VICTIMS, MESSAGES, REVISION
+				NAMES, ADDRESSES, APPLICABLE_ADDRESS_INDEX, APPLICABLE_INDEX, HISTORY, BANS, MUTES, WARNS, PUNISHMENTS, VICTIMS, MESSAGES, REVISION
 		};
 		if (tableOrder == TableOrder.REFERENTS_FIRST) {
 			// Reverse array
@@ -26,7 +26,10 @@ import space.arim.libertybans.api.database.PunishmentDatabase;
 import space.arim.libertybans.bootstrap.StartupException;
 import space.arim.libertybans.core.Part;
 import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.punish.AddressIndexSynchronizer;
 import space.arim.libertybans.core.punish.GlobalEnforcement;
+import space.arim.libertybans.core.selector.cache.ActiveBanIndex;
+import space.arim.libertybans.core.selector.cache.BanVictimFilter;
 import space.arim.libertybans.core.service.Time;
 import space.arim.omnibus.util.concurrent.EnhancedExecutor;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
@@ -42,19 +45,24 @@ public class DatabaseManager implements Part {
 	private final Configs configs;
 	private final Time time;
 	private final GlobalEnforcement globalEnforcement;
+	private final ActiveBanIndex activeBanIndex;
+	private final BanVictimFilter banVictimFilter;
 
 	private volatile StandardDatabase database;
 
 	@Inject
 	public DatabaseManager(@Named("folder") Path folder, FactoryOfTheFuture futuresFactory,
 						   EnhancedExecutor enhancedExecutor, Configs configs, Time time,
-						   GlobalEnforcement globalEnforcement) {
+						   GlobalEnforcement globalEnforcement, ActiveBanIndex activeBanIndex,
+						   BanVictimFilter banVictimFilter) {
 		this.folder = folder;
 		this.futuresFactory = futuresFactory;
 		this.enhancedExecutor = enhancedExecutor;
 		this.configs = configs;
 		this.time = time;
 		this.globalEnforcement = globalEnforcement;
+		this.activeBanIndex = activeBanIndex;
+		this.banVictimFilter = banVictimFilter;
 	}
 
 	public FactoryOfTheFuture futuresFactory() {
@@ -73,6 +81,14 @@ public class DatabaseManager implements Part {
 		return globalEnforcement;
 	}
 
+	ActiveBanIndex activeBanIndex() {
+		return activeBanIndex;
+	}
+
+	BanVictimFilter banVictimFilter() {
+		return banVictimFilter;
+	}
+
 	public InternalDatabase getInternal() {
 		return database;
 	}
@@ -90,8 +106,10 @@ public class DatabaseManager implements Part {
 			throw new StartupException("Database initialisation failed");
 		}
 		dbResult.preinitializeJooqClasses();
-		database.startTasks(time);
 		this.database = database;
+		new AddressIndexSynchronizer(database).synchronize(configs.getMainConfig().enforcement().addressStrictness());
+		// Tasks may use the database through providers
+		database.startTasks(time);
 	}
 	
 	@Override
@@ -113,8 +131,10 @@ public class DatabaseManager implements Part {
 			dbResult.preinitializeJooqClasses();
 		}
 
-		database.startTasks(time);
 		this.database = database;
+		new AddressIndexSynchronizer(database).synchronize(configs.getMainConfig().enforcement().addressStrictness());
+		// Tasks may use the database through providers
+		database.startTasks(time);
 	}
 
 	@Override
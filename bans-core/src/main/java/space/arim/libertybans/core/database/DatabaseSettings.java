@@ -20,6 +20,7 @@
 package space.arim.libertybans.core.database;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
@@ -28,6 +29,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,9 @@ import space.arim.libertybans.core.database.flyway.MigrationFailedException;
 import space.arim.libertybans.core.database.jooq.JooqClassloading;
 import space.arim.libertybans.core.database.jooq.JooqContext;
 import space.arim.libertybans.core.database.execute.JooqQueryExecutor;
+import space.arim.libertybans.core.database.execute.PoolStatistics;
+import space.arim.libertybans.core.database.execute.QueryStatistics;
+import space.arim.libertybans.core.database.execute.RetryStatistics;
 import space.arim.libertybans.core.service.SimpleThreadFactory;
 import space.arim.omnibus.util.ThisClass;
 
@@ -113,16 +118,24 @@ public class DatabaseSettings {
 	 */
 	public DatabaseResult create(DatabaseSettingsConfig config) {
 		HikariDataSource hikariDataSource = createDataSource(config);
+		PoolStatistics poolStatistics = new PoolStatistics();
+		hikariDataSource.setMetricsTrackerFactory(poolStatistics);
 
 		JooqContext jooqContext = new JooqContext(vendor.dialect());
-		ExecutorService threadPool = Executors.newFixedThreadPool(
-				hikariConf.getMaximumPoolSize(),
-				SimpleThreadFactory.create("Database")
-		);
+		int poolSize = config.poolSize();
+		ExecutorService threadPool = createThreadPool(poolSize);
+		RetryStatistics retryStatistics = new RetryStatistics();
+		QueryStatistics queryStatistics = new QueryStatistics();
 		StandardDatabase database  = new StandardDatabase(
 				manager, vendor, hikariDataSource,
-				new JooqQueryExecutor(jooqContext, hikariDataSource, manager.futuresFactory(), threadPool),
-				threadPool
+				new JooqQueryExecutor(
+						jooqContext, hikariDataSource, manager.futuresFactory(), threadPool,
+						// Queue waiting queries fairly, rather than letting them race for connections
+						new Semaphore(poolSize, true),
+						manager.enhancedExecutor(), retryStatistics, poolStatistics, queryStatistics,
+						Duration.ofMillis(config.slowQueryThresholdMillis())
+				),
+				threadPool, retryStatistics, poolStatistics, queryStatistics
 		);
 
 		JooqClassloading jooqClassloading = new JooqClassloading(jooqContext);
@@ -137,6 +150,20 @@ public class DatabaseSettings {
 		return new DatabaseResult(database, jooqClassloading, true);
 	}
 
+	private ExecutorService createThreadPool(int poolSize) {
+		if (config.useVirtualThreads()) {
+			try {
+				// Available since Java 21
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (NoSuchMethodException ex) {
+				logger.warn("Virtual threads require Java 21 or later. The thread pool will be used instead.");
+			} catch (IllegalAccessException | InvocationTargetException ex) {
+				logger.warn("Unable to use virtual threads. The thread pool will be used instead.", ex);
+			}
+		}
+		return Executors.newFixedThreadPool(poolSize, SimpleThreadFactory.create("Database"));
+	}
+
 	private void setHikariConfig() {
 		setUsernameAndPassword();
 		setConfiguredDriver();
@@ -151,7 +178,9 @@ public class DatabaseSettings {
 		// Pool size
 		int poolSize = config.poolSize();
 		hikariConf.setMinimumIdle(poolSize);
-		hikariConf.setMaximumPoolSize(poolSize);
+		// Queries are limited to poolSize connections. The extra connection is for connections held
+		// outside the query executor, such as the one listening for synchronization messages
+		hikariConf.setMaximumPoolSize(poolSize + 1);
 
 		// Other settings
 		hikariConf.setAutoCommit(DatabaseConstants.AUTOCOMMIT);
@@ -22,6 +22,7 @@ package space.arim.libertybans.core.database;
 import space.arim.dazzleconf.annote.ConfComments;
 import space.arim.dazzleconf.annote.ConfDefault;
 import space.arim.dazzleconf.annote.ConfKey;
+import space.arim.dazzleconf.annote.NumericRange;
 import space.arim.dazzleconf.annote.SubSection;
 import space.arim.libertybans.core.config.SqlConfig;
 import space.arim.libertybans.core.importing.ImportConfig;
@@ -52,10 +53,32 @@ public interface DatabaseSettingsConfig {
 			"",
 			"How large should the connection pool be?",
 			"A thread pool of similar size is derived from the connection pool size.",
+			"One further connection may be opened for tasks which hold a connection long-term,",
+			"such as listening for synchronization messages on PostgreSQL.",
 			"For most servers, the default option is suitable."})
 	@ConfDefault.DefaultInteger(6)
 	int poolSize();
 
+	@ConfKey("use-virtual-threads")
+	@ConfComments({
+			"",
+			"Whether to run queries on virtual threads instead of the thread pool. Requires Java 21 or later.",
+			"The number of queries running at once remains limited by the connection pool size. However, queries",
+			"waiting for a connection, such as during a burst of logins, no longer occupy threads while waiting.",
+			"If virtual threads are unavailable, the thread pool is used."})
+	@ConfDefault.DefaultBoolean(false)
+	boolean useVirtualThreads();
+
+	@ConfKey("slow-query-threshold-millis")
+	@ConfComments({
+			"",
+			"Queries taking at least this long, in milliseconds, are logged along with the SQL they executed.",
+			"The time includes waiting for a connection, so slow queries may also indicate a connection pool",
+			"which is too small. Set to 0 to disable the slow query log."})
+	@ConfDefault.DefaultInteger(2000)
+	@NumericRange(min = 0)
+	int slowQueryThresholdMillis();
+
 	@SubSection
 	@ConfComments({
 			"",
@@ -0,0 +1,175 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.database;
+
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.punish.Punishment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Time-ordered index of the upcoming expirations of active punishments. <br>
+ * <br>
+ * The index holds punishments ending within {@link #LOOKAHEAD} of the last reload. It is
+ * reloaded from the database by the refresh task, and fed directly by punishments enacted
+ * on this instance. Entries are removed as they become due, so that only those rows which
+ * have expired need be deleted.
+ *
+ */
+public final class ExpiryIndex {
+
+	private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(
+			Comparator.comparing(Entry::end).thenComparingLong(Entry::id));
+
+	/**
+	 * How far ahead of the current time expirations are indexed. Must exceed the interval
+	 * between reloads, so that every punishment is indexed by some reload before it expires
+	 */
+	static final Duration LOOKAHEAD = Duration.ofHours(6L);
+
+	/**
+	 * Adds an expiration to the index. Permanent punishments and kicks are ignored
+	 *
+	 * @param id the punishment id
+	 * @param type the punishment type
+	 * @param end the punishment end date
+	 */
+	void add(long id, PunishmentType type, Instant end) {
+		if (type == PunishmentType.KICK || end.equals(Punishment.PERMANENT_END_DATE)) {
+			return;
+		}
+		entries.add(new Entry(id, type, end));
+	}
+
+	/**
+	 * Adds the expiration of a newly enacted punishment, if it falls within the lookahead.
+	 * Later expirations are picked up by a subsequent reload
+	 *
+	 * @param punishment the punishment
+	 * @param currentTime the current time
+	 */
+	public void schedule(Punishment punishment, Instant currentTime) {
+		if (punishment.getEndDate().isAfter(currentTime.plus(LOOKAHEAD))) {
+			return;
+		}
+		add(punishment.getIdentifier(), punishment.getType(), punishment.getEndDate());
+	}
+
+	/**
+	 * Removes and returns the earliest expirations which are due
+	 *
+	 * @param currentTime the current time
+	 * @param limit the maximum number of entries to remove
+	 * @return the due entries, in order of expiration, at most {@code limit}
+	 */
+	List<Entry> pollDue(Instant currentTime, int limit) {
+		List<Entry> due = new ArrayList<>(Math.min(limit, 16));
+		for (Entry entry : entries) {
+			if (due.size() == limit || !entry.end().isBefore(currentTime)) {
+				break;
+			}
+			// Removal may fail if the entry was concurrently polled
+			if (entries.remove(entry)) {
+				due.add(entry);
+			}
+		}
+		return due;
+	}
+
+	/**
+	 * Restores entries which could not be processed, so they are retried later
+	 *
+	 * @param failed the entries
+	 */
+	void restore(List<Entry> failed) {
+		entries.addAll(failed);
+	}
+
+	/**
+	 * Gets the number of indexed expirations
+	 *
+	 * @return the number of pending expirations
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	static final class Entry {
+
+		private final long id;
+		private final PunishmentType type;
+		private final Instant end;
+
+		Entry(long id, PunishmentType type, Instant end) {
+			this.id = id;
+			this.type = Objects.requireNonNull(type, "type");
+			this.end = Objects.requireNonNull(end, "end");
+		}
+
+		long id() {
+			return id;
+		}
+
+		PunishmentType type() {
+			return type;
+		}
+
+		Instant end() {
+			return end;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Entry entry = (Entry) o;
+			return id == entry.id && type == entry.type && end.equals(entry.end);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = Long.hashCode(id);
+			result = 31 * result + type.hashCode();
+			result = 31 * result + end.hashCode();
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return "ExpiryIndex.Entry{" +
+					"id=" + id +
+					", type=" + type +
+					", end=" + end +
+					'}';
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ExpiryIndex{" +
+				"size=" + entries.size() +
+				'}';
+	}
+}
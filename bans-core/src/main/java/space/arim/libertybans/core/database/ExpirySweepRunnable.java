@@ -0,0 +1,94 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.core.service.Time;
+import space.arim.omnibus.util.ThisClass;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes punishments whose expirations have come due in the {@link ExpiryIndex}. <br>
+ * <br>
+ * Rows are deleted by id in small batches, each in its own transaction, so that no single
+ * query locks or scans much of a table. Each batch acquires a connection permit like any other
+ * query, so the sweep never competes with other queries beyond the permitted concurrency.
+ * The number of batches per run is bounded; any remainder is handled by the next run.
+ *
+ */
+final class ExpirySweepRunnable implements Runnable {
+
+	private final DatabaseManager manager;
+	private final StandardDatabase database;
+	private final ExpiryIndex expiryIndex;
+	private final Time time;
+
+	static final int BATCH_SIZE = 50;
+	static final int MAX_BATCHES_PER_RUN = 20;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	ExpirySweepRunnable(DatabaseManager manager, StandardDatabase database, ExpiryIndex expiryIndex, Time time) {
+		this.manager = manager;
+		this.database = database;
+		this.expiryIndex = expiryIndex;
+		this.time = time;
+	}
+
+	@Override
+	public void run() {
+		if (manager.getInternal() != database) {
+			// cancelled but not stopped yet, or failed to stop
+			logger.warn("Expiry sweep continues after shutdown");
+			return;
+		}
+		Instant currentTime = time.currentTimestamp();
+		List<ExpiryIndex.Entry> due = expiryIndex.pollDue(currentTime, BATCH_SIZE);
+		if (due.isEmpty()) {
+			return;
+		}
+		try {
+			int batches = 0;
+			while (!due.isEmpty()) {
+				Map<PunishmentType, List<Long>> idsByType = new EnumMap<>(PunishmentType.class);
+				for (ExpiryIndex.Entry entry : due) {
+					idsByType.computeIfAbsent(entry.type(), (t) -> new ArrayList<>()).add(entry.id());
+				}
+				database.executeWithRetry((context, transaction) -> {
+					idsByType.forEach((type, ids) -> database.clearExpiredPunishments(context, type, ids));
+				}).join();
+				due = (++batches < MAX_BATCHES_PER_RUN) ? expiryIndex.pollDue(currentTime, BATCH_SIZE) : List.of();
+			}
+		} catch (RuntimeException ex) {
+			// Failures after retrying are reported as CompletionException
+			logger.warn("Failed to clear expired punishments", ex);
+		} finally {
+			// Only an unfinished batch remains here. Deleting by id is idempotent,
+			// so the batch is simply retried on the next run
+			expiryIndex.restore(due);
+		}
+	}
+}
@@ -19,14 +19,14 @@
 
 package space.arim.libertybans.core.database;
 
-import org.jooq.DSLContext;
-import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.database.PunishmentDatabase;
+import space.arim.libertybans.core.database.execute.PoolStatistics;
 import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.execute.QueryStatistics;
+import space.arim.libertybans.core.database.execute.RetryStatistics;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.time.Instant;
 
 public interface InternalDatabase extends QueryExecutor {
 
@@ -34,7 +34,33 @@ public interface InternalDatabase extends QueryExecutor {
 
 	Vendor getVendor();
 
-	void clearExpiredPunishments(DSLContext context, PunishmentType type, Instant currentTime);
+	/**
+	 * Gets the serialization failure and retry counts for commands run with retry
+	 *
+	 * @return the retry statistics
+	 */
+	RetryStatistics retryStatistics();
+
+	/**
+	 * Gets the time spent by queries waiting for database connections
+	 *
+	 * @return the pool statistics
+	 */
+	PoolStatistics poolStatistics();
+
+	/**
+	 * Gets the latency of queries, by command type
+	 *
+	 * @return the query statistics
+	 */
+	QueryStatistics queryStatistics();
+
+	/**
+	 * Gets the index of upcoming expirations, by which expired punishments are deleted
+	 *
+	 * @return the expiry index
+	 */
+	ExpiryIndex expiryIndex();
 
 	/**
 	 * Designed to be used by testing, to clear all tables after one integration test
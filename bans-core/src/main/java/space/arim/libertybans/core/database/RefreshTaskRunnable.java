@@ -21,8 +21,8 @@ package space.arim.libertybans.core.database;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import space.arim.libertybans.api.PunishmentType;
-import space.arim.libertybans.core.punish.MiscUtil;
+import space.arim.libertybans.core.selector.cache.ActiveBanIndex;
+import space.arim.libertybans.core.selector.cache.BanVictimFilter;
 import space.arim.libertybans.core.service.Time;
 import space.arim.omnibus.util.ThisClass;
 
@@ -32,17 +32,25 @@ import java.time.Duration;
 import java.time.Instant;
 
 import static space.arim.libertybans.core.schema.tables.Messages.MESSAGES;
+import static space.arim.libertybans.core.schema.tables.SimpleActive.SIMPLE_ACTIVE;
 
 /**
- * Responsible for periodically purging expired punishments and expired messages
+ * Responsible for periodically reloading the {@link ExpiryIndex}, pruning expired bans from the
+ * {@link ActiveBanIndex}, rebuilding the {@link BanVictimFilter}, and purging expired messages. <br>
+ * <br>
+ * Reloading the index picks up punishments enacted elsewhere, as well as punishments which
+ * expired while the plugin was not running. Their deletion is left to the expiry sweep.
  *
  */
 public final class RefreshTaskRunnable implements Runnable {
 
 	private final DatabaseManager manager;
 	private final InternalDatabase database;
+	private final ExpiryIndex expiryIndex;
 	private final Time time;
 
+	static final Duration INTERVAL = Duration.ofHours(3L);
+
 	/*
 	We do not want punishments to expire before their messages are polled.
 	So, we make the max poll rate 30 seconds less than the expiration time;
@@ -53,9 +61,10 @@ public final class RefreshTaskRunnable implements Runnable {
 
 	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
-	RefreshTaskRunnable(DatabaseManager manager, InternalDatabase database, Time time) {
+	RefreshTaskRunnable(DatabaseManager manager, InternalDatabase database, ExpiryIndex expiryIndex, Time time) {
 		this.manager = manager;
 		this.database = database;
+		this.expiryIndex = expiryIndex;
 		this.time = time;
 	}
 
@@ -66,15 +75,25 @@ public final class RefreshTaskRunnable implements Runnable {
 			logger.warn("Refresh task continues after shutdown");
 			return;
 		}
+		Instant currentTime = time.currentTimestamp();
+		manager.activeBanIndex().pruneExpired(currentTime);
+		try {
+			// Drops revoked and expired bans, which the filter cannot remove
+			manager.banVictimFilter().rebuild();
+		} catch (RuntimeException ex) {
+			logger.warn("Failed to rebuild ban victim filter", ex);
+		}
 		try (Connection connection = database.getConnection()) {
-			// These DELETE queries may delete many rows. As such, they are run in single-query transactions
-			// Grouping them together in the same transaction would require unnecessary exertion from the RDMS
-			Instant currentTime = time.currentTimestamp();
-			for (PunishmentType type : MiscUtil.punishmentTypesExcludingKick()) {
-				database.executeWithExistingConnection(connection, (context, transaction) -> {
-					database.clearExpiredPunishments(context, type, currentTime);
-				});
-			}
+			Instant horizon = currentTime.plus(ExpiryIndex.LOOKAHEAD);
+			database.executeWithExistingConnection(connection, (context, transaction) -> {
+				context
+						.select(SIMPLE_ACTIVE.ID, SIMPLE_ACTIVE.TYPE, SIMPLE_ACTIVE.END)
+						.from(SIMPLE_ACTIVE)
+						.where(SIMPLE_ACTIVE.END.notEqual(Instant.MAX))
+						.and(SIMPLE_ACTIVE.END.lessOrEqual(horizon))
+						.fetch()
+						.forEach((record) -> expiryIndex.add(record.value1(), record.value2(), record.value3()));
+			});
 			if (manager.configs().getSqlConfig().synchronization().enabled()) {
 				Instant deleteMessagesBefore = currentTime.minus(MESSAGE_EXPIRATION_TIME);
 				database.executeWithExistingConnection(connection, (context, transaction) -> {
@@ -87,7 +106,7 @@ public final class RefreshTaskRunnable implements Runnable {
 		} catch (SQLException ex) {
 			// Note that we have no retry logic. This could be due to serialization failure.
 			// However, it is reasonable to expect the RDMS to retry single-query transactions
-			logger.warn("Failed to clear expired punishments or messages", ex);
+			logger.warn("Failed to reload expiry index or clear expired messages", ex);
 		}
 	}
 }
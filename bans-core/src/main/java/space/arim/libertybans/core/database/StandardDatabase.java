@@ -27,12 +27,16 @@ import org.slf4j.LoggerFactory;
 import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.database.PunishmentDatabase;
 import space.arim.libertybans.bootstrap.plugin.PluginInfo;
+import space.arim.libertybans.core.database.execute.PoolStatistics;
 import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.execute.QueryStatistics;
+import space.arim.libertybans.core.database.execute.RetryStatistics;
 import space.arim.libertybans.core.database.execute.SQLFunction;
 import space.arim.libertybans.core.database.execute.SQLRunnable;
 import space.arim.libertybans.core.database.execute.SQLTransactionalFunction;
 import space.arim.libertybans.core.database.execute.SQLTransactionalRunnable;
 import space.arim.libertybans.core.database.sql.TableForType;
+import space.arim.libertybans.core.punish.ApplicableIndexWriter;
 import space.arim.libertybans.core.service.Time;
 import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
@@ -43,12 +47,10 @@ import space.arim.omnibus.util.concurrent.ScheduledTask;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.Collection;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
-import static space.arim.libertybans.core.schema.Tables.PUNISHMENTS;
-
 public final class StandardDatabase implements InternalDatabase, AutoCloseable {
 
 	private final DatabaseManager manager;
@@ -56,20 +58,30 @@ public final class StandardDatabase implements InternalDatabase, AutoCloseable {
 	private final HikariDataSource dataSource;
 	private final QueryExecutor queryExecutor;
 	private final ExecutorService threadPool;
+	private final RetryStatistics retryStatistics;
+	private final PoolStatistics poolStatistics;
+	private final QueryStatistics queryStatistics;
+	private final ExpiryIndex expiryIndex = new ExpiryIndex();
 	private final PunishmentDatabase external = new External();
 
 	private ScheduledTask expirationRefreshTask;
+	private ScheduledTask expirySweepTask;
 	private ScheduledTask synchronizationPollTask;
 
 	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
 	StandardDatabase(DatabaseManager manager, Vendor vendor,
-					 HikariDataSource dataSource, QueryExecutor queryExecutor, ExecutorService threadPool) {
+					 HikariDataSource dataSource, QueryExecutor queryExecutor, ExecutorService threadPool,
+					 RetryStatistics retryStatistics, PoolStatistics poolStatistics,
+					 QueryStatistics queryStatistics) {
 		this.manager = manager;
 		this.vendor = vendor;
 		this.dataSource = dataSource;
 		this.queryExecutor = queryExecutor;
 		this.threadPool = threadPool;
+		this.retryStatistics = retryStatistics;
+		this.poolStatistics = poolStatistics;
+		this.queryStatistics = queryStatistics;
 	}
 
 	/*
@@ -80,24 +92,36 @@ public final class StandardDatabase implements InternalDatabase, AutoCloseable {
 
 	void startTasks(Time time) {
 		EnhancedExecutor enhancedExecutor = manager.enhancedExecutor();
+		RefreshTaskRunnable refreshTask = new RefreshTaskRunnable(manager, this, expiryIndex, time);
+		// Load the expiry index immediately, rather than waiting for the first repetition
+		enhancedExecutor.execute(refreshTask);
 		expirationRefreshTask = enhancedExecutor.scheduleRepeating(
-				new RefreshTaskRunnable(manager, this, time),
-				Duration.ofHours(3L),
+				refreshTask,
+				RefreshTaskRunnable.INTERVAL,
+				DelayCalculators.fixedDelay()
+		);
+		expirySweepTask = enhancedExecutor.scheduleRepeating(
+				new ExpirySweepRunnable(manager, this, expiryIndex, time),
+				Duration.ofSeconds(30L),
 				DelayCalculators.fixedDelay()
 		);
 		var synchronizationConf = manager.configs().getSqlConfig().synchronization();
 		if (synchronizationConf.enabled()) {
+			// Polling continues while listening, in case the messenger stops receiving pushed messages
 			synchronizationPollTask = enhancedExecutor.scheduleRepeating(
 					manager.globalEnforcement(),
 					Duration.ofMillis(synchronizationConf.pollRateMillis()),
 					DelayCalculators.fixedDelay()
 			);
+			manager.globalEnforcement().startListening();
 		}
 	}
 
 	void cancelTasks() {
 		expirationRefreshTask.cancel();
+		expirySweepTask.cancel();
 		if (synchronizationPollTask != null) {
+			manager.globalEnforcement().stopListening();
 			synchronizationPollTask.cancel();
 			synchronizationPollTask = null;
 		}
@@ -105,6 +129,13 @@ public final class StandardDatabase implements InternalDatabase, AutoCloseable {
 
 	@Override
 	public void close() {
+		var retryCounts = retryStatistics.snapshot();
+		if (!retryCounts.isEmpty()) {
+			logger.debug("Transaction retries by command type: {}", retryCounts);
+		}
+		logger.debug("Connection permit wait: {}; connection acquisition: {}; connection timeouts: {}",
+				poolStatistics.permitWait().snapshot(), poolStatistics.connectionAcquisition().snapshot(),
+				poolStatistics.connectionTimeouts());
 		dataSource.close();
 		threadPool.shutdown();
 	}
@@ -116,6 +147,26 @@ public final class StandardDatabase implements InternalDatabase, AutoCloseable {
 		close();
 	}
 	
+	@Override
+	public RetryStatistics retryStatistics() {
+		return retryStatistics;
+	}
+
+	@Override
+	public PoolStatistics poolStatistics() {
+		return poolStatistics;
+	}
+
+	@Override
+	public QueryStatistics queryStatistics() {
+		return queryStatistics;
+	}
+
+	@Override
+	public ExpiryIndex expiryIndex() {
+		return expiryIndex;
+	}
+
 	@Override
 	public PunishmentDatabase asExternal() {
 		return external;
@@ -151,18 +202,21 @@ public final class StandardDatabase implements InternalDatabase, AutoCloseable {
 		return queryExecutor.queryWithRetry(retryCount, command);
 	}
 
-	@Override
-	public void clearExpiredPunishments(DSLContext context, PunishmentType type, Instant currentTime) {
+	/**
+	 * Deletes expired punishments of a certain type by id
+	 *
+	 * @param context the query source
+	 * @param type the punishment type
+	 * @param ids the ids of punishments which have expired
+	 */
+	void clearExpiredPunishments(DSLContext context, PunishmentType type, Collection<Long> ids) {
 		assert type != PunishmentType.KICK;
 		var dataTable = new TableForType(type).dataTable();
 		context
 				.deleteFrom(dataTable.table())
-				.where(dataTable.id().in(context
-						.select(PUNISHMENTS.ID)
-						.from(PUNISHMENTS)
-						.where(PUNISHMENTS.END.notEqual(Instant.MAX))
-						.and(PUNISHMENTS.END.lessThan(currentTime))
-				)).execute();
+				.where(dataTable.id().in(ids))
+				.execute();
+		new ApplicableIndexWriter(context).unindexExpired(ids);
 	}
 
 	@Override
@@ -20,17 +20,22 @@
 package space.arim.libertybans.core.database.execute;
 
 import org.jooq.DSLContext;
+import org.jooq.ExecuteListener;
 import org.jooq.exception.DataAccessException;
 import space.arim.libertybans.core.database.jooq.JooqContext;
 import space.arim.omnibus.util.ArraysUtil;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.EnhancedExecutor;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
 
 public final class JooqQueryExecutor implements QueryExecutor {
@@ -39,13 +44,47 @@ public final class JooqQueryExecutor implements QueryExecutor {
 	private final DataSource dataSource;
 	private final FactoryOfTheFuture futuresFactory;
 	private final Executor threadPool;
+	private final Semaphore connectionPermits;
+	private final EnhancedExecutor enhancedExecutor;
+	private final RetryStatistics retryStatistics;
+	private final PoolStatistics poolStatistics;
+	private final QueryStatistics queryStatistics;
+	private final Duration slowQueryThreshold;
 
+	/**
+	 * Creates the query executor
+	 *
+	 * @param jooqContext the jOOQ context
+	 * @param dataSource the data source
+	 * @param futuresFactory the futures factory
+	 * @param threadPool the executor on which queries run
+	 * @param connectionPermits limits the number of queries holding a connection at once. Needed if
+	 *                          the executor does not limit the number of concurrent tasks itself
+	 * @param enhancedExecutor the executor used to schedule retries after back-off
+	 * @param retryStatistics where to record serialization failures and retries
+	 * @param poolStatistics where to record time spent waiting for connection permits
+	 * @param queryStatistics where to record query timings by call site
+	 * @param slowQueryThreshold attempts taking at least this long are logged with their SQL.
+	 *                           Zero disables the slow query log
+	 */
 	public JooqQueryExecutor(JooqContext jooqContext, DataSource dataSource,
-							 FactoryOfTheFuture futuresFactory, Executor threadPool) {
+							 FactoryOfTheFuture futuresFactory, Executor threadPool, Semaphore connectionPermits,
+							 EnhancedExecutor enhancedExecutor, RetryStatistics retryStatistics,
+							 PoolStatistics poolStatistics, QueryStatistics queryStatistics,
+							 Duration slowQueryThreshold) {
 		this.jooqContext = Objects.requireNonNull(jooqContext, "jooqContext");
 		this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
 		this.futuresFactory = Objects.requireNonNull(futuresFactory, "futuresFactory");
 		this.threadPool = Objects.requireNonNull(threadPool, "threadPool");
+		this.connectionPermits = Objects.requireNonNull(connectionPermits, "connectionPermits");
+		this.enhancedExecutor = Objects.requireNonNull(enhancedExecutor, "enhancedExecutor");
+		this.retryStatistics = Objects.requireNonNull(retryStatistics, "retryStatistics");
+		this.poolStatistics = Objects.requireNonNull(poolStatistics, "poolStatistics");
+		this.queryStatistics = Objects.requireNonNull(queryStatistics, "queryStatistics");
+		this.slowQueryThreshold = Objects.requireNonNull(slowQueryThreshold, "slowQueryThreshold");
+		if (slowQueryThreshold.isNegative()) {
+			throw new IllegalArgumentException("Slow query threshold must not be negative");
+		}
 	}
 
 	private static <E extends Throwable> E rollbackBeforeThrow(Connection connection, E reason) throws E {
@@ -57,24 +96,69 @@ public final class JooqQueryExecutor implements QueryExecutor {
 		throw reason;
 	}
 
-	private <R> R obtainUnfailing(SQLFunction<R> command) {
+	private interface ConnectionUser<R> {
+
+		R use(Connection connection) throws SQLException;
+
+	}
+
+	private QueryTrace beginTrace(String label, QueryStatistics.CallSiteTimings timings, long queuedSince) {
+		return new QueryTrace(label, timings, queuedSince, slowQueryThreshold);
+	}
+
+	private <R> R useConnection(QueryTrace trace, ConnectionUser<R> user) throws SQLException {
+		long waitStart = System.nanoTime();
+		try {
+			connectionPermits.acquire();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection", ex);
+		}
+		long permitAcquired = System.nanoTime();
+		poolStatistics.recordPermitWait(permitAcquired - waitStart);
+		trace.recordPermitAcquired(permitAcquired);
 		try (Connection connection = dataSource.getConnection()) {
-			if (command.isReadOnly()) {
-				connection.setReadOnly(true);
-			}
-			DSLContext context = jooqContext.createContext(connection);
+			trace.recordConnectionAcquisition(System.nanoTime() - permitAcquired);
+			return user.use(connection);
+		} finally {
+			connectionPermits.release();
+		}
+	}
 
-			R value;
-			try {
-				value = command.obtain(context);
-			} catch (RuntimeException ex) {
-				throw rollbackBeforeThrow(connection, ex);
-			}
-			connection.commit();
-			return value;
+	private DSLContext createContext(Connection connection, QueryTrace trace) {
+		ExecuteListener executeListener = trace.executeListener();
+		if (executeListener == null) {
+			return jooqContext.createContext(connection);
+		}
+		return jooqContext.createContext(connection, executeListener);
+	}
 
+	private <R> R obtainUnfailing(SQLFunction<R> command, QueryTrace trace) {
+		try {
+			return useConnection(trace, (connection) -> {
+				if (command.isReadOnly()) {
+					connection.setReadOnly(true);
+				}
+				DSLContext context = createContext(connection, trace);
+
+				R value;
+				long executionStart = System.nanoTime();
+				try {
+					value = command.obtain(context);
+				} catch (RuntimeException ex) {
+					throw rollbackBeforeThrow(connection, ex);
+				} finally {
+					trace.recordExecution(System.nanoTime() - executionStart);
+				}
+				long commitStart = System.nanoTime();
+				connection.commit();
+				trace.recordCommit(System.nanoTime() - commitStart);
+				return value;
+			});
 		} catch (SQLException ex) {
 			throw new DataAccessException("Miscellaneous failure", ex);
+		} finally {
+			trace.finish();
 		}
 	}
 
@@ -93,68 +177,139 @@ public final class JooqQueryExecutor implements QueryExecutor {
 		return ex.getErrorCode() == 40001;
 	}
 
-	private static void exponentialBackoff(int retry) {
-		int sleepMs = 50 * ((int) Math.pow(2, retry)) + ThreadLocalRandom.current().nextInt(0, 100);
-		try {
-			Thread.sleep(sleepMs);
-		} catch (InterruptedException ex) {
-			Thread.currentThread().interrupt();
-			throw new RuntimeException("Interrupted during retry back-off", ex);
-		}
+	private static Duration exponentialBackoff(int retry) {
+		return Duration.ofMillis(50L * (1L << retry) + ThreadLocalRandom.current().nextInt(0, 100));
 	}
 
-	private <R> R obtainWithRetry(int retryCount, SQLTransactionalFunction<R> command) {
+	/**
+	 * A command run with retries. Attempts never overlap, so the state here is confined to
+	 * one attempt at a time.
+	 *
+	 * @param <R> the result type
+	 */
+	private final class RetryingCommand<R> {
+
+		private final int retryCount;
+		private final SQLTransactionalFunction<R> command;
+		private final String label;
+		private final QueryStatistics.CallSiteTimings timings;
+		private final CentralisedFuture<R> future = futuresFactory.newIncompleteFuture();
+
 		// Collect serialization failures and report them
-		Exception[] serializationFailures = new Exception[0];
+		private Exception[] serializationFailures = new Exception[0];
+		private int failedAttempts;
+		// When the next attempt was submitted to the thread pool
+		private long attemptQueuedSince;
 
-		try (Connection connection = dataSource.getConnection()) {
-			DSLContext context = jooqContext.createContext(connection);
+		RetryingCommand(int retryCount, SQLTransactionalFunction<R> command, String label,
+						QueryStatistics.CallSiteTimings timings, long submitted) {
+			this.retryCount = retryCount;
+			this.command = command;
+			this.label = label;
+			this.timings = timings;
+			attemptQueuedSince = submitted;
+		}
 
-			for (int retry = 0; retry < retryCount; retry++) {
-				if (retry != 0) {
-					// This is not the first attempt
-					connection.rollback();
-					exponentialBackoff(retry);
+		void attempt() {
+			QueryTrace trace = beginTrace(label, timings, attemptQueuedSince);
+			Attempt<R> attempt;
+			try {
+				attempt = useConnection(trace, (connection) -> attemptTransaction(connection, command, trace));
+			} catch (SQLException ex) {
+				future.completeExceptionally(new DataAccessException("Unable to manage connection", ex));
+				return;
+			} catch (RuntimeException | Error ex) {
+				future.completeExceptionally(ex);
+				return;
+			} finally {
+				trace.finish();
+			}
+			if (attempt.serializationFailure == null) {
+				future.complete(attempt.value);
+				return;
+			}
+			retryStatistics.recordSerializationFailure(label);
+			serializationFailures = ArraysUtil.expandAndInsert(serializationFailures, attempt.serializationFailure, 0);
+
+			if (++failedAttempts >= retryCount) {
+				retryStatistics.recordRetriesExhausted(label);
+				DataAccessException failure = new DataAccessException(
+						"Retry count exceeded. Here are the serialization failures in reverse order of occurrence.");
+				for (Exception serializationFailure : serializationFailures) {
+					failure.addSuppressed(serializationFailure);
 				}
-				RollbackTrackingTransaction transaction = new RollbackTrackingTransaction(context, connection);
-				R value;
+				future.completeExceptionally(failure);
+				return;
+			}
+			retryStatistics.recordRetry(label);
+			// The connection is back in the pool. Free this thread as well during the back-off
+			enhancedExecutor.schedule(() -> {
+				attemptQueuedSince = System.nanoTime();
 				try {
-					value = command.obtain(context, transaction);
-				} catch (DataAccessException ex) {
-					SQLException rootCause;
-					if ((rootCause = ex.getCause(SQLException.class)) != null && isSerializationFailure(rootCause)) {
-						// Retry
-						serializationFailures = ArraysUtil.expandAndInsert(serializationFailures, ex, 0);
-						continue;
-					}
-					throw rollbackBeforeThrow(connection, ex);
-				} catch (RuntimeException ex) {
-					throw rollbackBeforeThrow(connection, ex);
+					threadPool.execute(this::attempt);
+				} catch (RejectedExecutionException ex) {
+					future.completeExceptionally(ex);
 				}
-				if (transaction.wasNotRolledBack()) {
-					try {
-						connection.commit();
-					} catch (SQLException ex) {
-						if (isSerializationFailure(ex)) {
-							// Retry
-							serializationFailures = ArraysUtil.expandAndInsert(serializationFailures, ex, 0);
-							continue;
-						}
-						throw rollbackBeforeThrow(connection, new DataAccessException("Unable to commit", ex));
-					}
+			}, exponentialBackoff(failedAttempts));
+		}
+	}
+
+	private <R> Attempt<R> attemptTransaction(Connection connection, SQLTransactionalFunction<R> command,
+											  QueryTrace trace) throws SQLException {
+		DSLContext context = createContext(connection, trace);
+		RollbackTrackingTransaction transaction = new RollbackTrackingTransaction(context, connection);
+		R value;
+		long executionStart = System.nanoTime();
+		try {
+			value = command.obtain(context, transaction);
+		} catch (DataAccessException ex) {
+			SQLException rootCause;
+			if ((rootCause = ex.getCause(SQLException.class)) != null && isSerializationFailure(rootCause)) {
+				// Retry
+				connection.rollback();
+				return Attempt.serializationFailure(ex);
+			}
+			throw rollbackBeforeThrow(connection, ex);
+		} catch (RuntimeException ex) {
+			throw rollbackBeforeThrow(connection, ex);
+		} finally {
+			trace.recordExecution(System.nanoTime() - executionStart);
+		}
+		if (transaction.wasNotRolledBack()) {
+			long commitStart = System.nanoTime();
+			try {
+				connection.commit();
+			} catch (SQLException ex) {
+				if (isSerializationFailure(ex)) {
+					// Retry
+					connection.rollback();
+					return Attempt.serializationFailure(ex);
 				}
-				return value;
+				throw rollbackBeforeThrow(connection, new DataAccessException("Unable to commit", ex));
+			} finally {
+				trace.recordCommit(System.nanoTime() - commitStart);
 			}
+		}
+		return Attempt.success(value);
+	}
 
-		} catch (SQLException ex) {
-			throw new DataAccessException("Unable to manage connection", ex);
+	private static final class Attempt<R> {
+
+		private final R value;
+		private final Exception serializationFailure;
+
+		private Attempt(R value, Exception serializationFailure) {
+			this.value = value;
+			this.serializationFailure = serializationFailure;
 		}
-		DataAccessException failure = new DataAccessException(
-				"Retry count exceeded. Here are the serialization failures in reverse order of occurrence.");
-		for (Exception serializationFailure : serializationFailures) {
-			failure.addSuppressed(serializationFailure);
+
+		static <R> Attempt<R> success(R value) {
+			return new Attempt<>(value, null);
+		}
+
+		static <R> Attempt<R> serializationFailure(Exception serializationFailure) {
+			return new Attempt<>(null, serializationFailure);
 		}
-		throw failure;
 	}
 
 	@Override
@@ -186,6 +341,11 @@ public final class JooqQueryExecutor implements QueryExecutor {
 				return command.isReadOnly();
 			}
 
+			@Override
+			public String label() {
+				return command.label();
+			}
+
 			@Override
 			public Void obtain(DSLContext context) throws RuntimeException {
 				command.run(context);
@@ -197,13 +357,27 @@ public final class JooqQueryExecutor implements QueryExecutor {
 
 	@Override
 	public <R> CentralisedFuture<R> query(SQLFunction<R> command) {
-		return futuresFactory.supplyAsync(() -> obtainUnfailing(command), threadPool);
+		String label = command.label();
+		QueryStatistics.CallSiteTimings timings = queryStatistics.timings(label);
+		long submitted = System.nanoTime();
+		return futuresFactory.supplyAsync(() -> {
+			try {
+				return obtainUnfailing(command, beginTrace(label, timings, submitted));
+			} finally {
+				timings.total().record(System.nanoTime() - submitted);
+			}
+		}, threadPool);
 	}
 
 	@Override
 	public CentralisedFuture<Void> executeWithRetry(int retryCount, SQLTransactionalRunnable command) {
 		class RunnableAsFunction implements SQLTransactionalFunction<Void> {
 
+			@Override
+			public String label() {
+				return command.label();
+			}
+
 			@Override
 			public Void obtain(DSLContext context, Transaction transaction) throws RuntimeException {
 				command.run(context, transaction);
@@ -215,7 +389,15 @@ public final class JooqQueryExecutor implements QueryExecutor {
 
 	@Override
 	public <R> CentralisedFuture<R> queryWithRetry(int retryCount, SQLTransactionalFunction<R> command) {
-		return futuresFactory.supplyAsync(() -> obtainWithRetry(retryCount, command), threadPool);
+		String label = command.label();
+		QueryStatistics.CallSiteTimings timings = queryStatistics.timings(label);
+		long submitted = System.nanoTime();
+		RetryingCommand<R> retryingCommand = new RetryingCommand<>(retryCount, command, label, timings, submitted);
+		retryingCommand.future.whenComplete((ignore1, ignore2) -> {
+			timings.total().record(System.nanoTime() - submitted);
+		});
+		threadPool.execute(retryingCommand::attempt);
+		return retryingCommand.future;
 	}
 
 }
@@ -0,0 +1,154 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.database.execute;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Concurrent histogram of durations recorded in nanoseconds. <br>
+ * <br>
+ * Each power of two is split into 8 buckets, so percentiles are accurate to within
+ * an eighth of the value. Recording is lock-free and does not allocate.
+ *
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) Math.max(value, 0L);
+		}
+		int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		int subBucket = index % SUB_BUCKETS;
+		long lowerBound = ((long) (SUB_BUCKETS + subBucket)) << shift;
+		return lowerBound + ((1L << shift) - 1);
+	}
+
+	/**
+	 * Records a duration
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		counts.incrementAndGet(bucketIndex(nanos));
+		max.accumulate(nanos);
+	}
+
+	/**
+	 * Takes a snapshot of the recorded durations
+	 *
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot() {
+		long[] countsCopy = new long[BUCKET_COUNT];
+		long total = 0;
+		for (int n = 0; n < BUCKET_COUNT; n++) {
+			total += (countsCopy[n] = counts.get(n));
+		}
+		return new Snapshot(countsCopy, total, max.get());
+	}
+
+	/**
+	 * Recorded durations at a point in time
+	 *
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.max = max;
+		}
+
+		/**
+		 * The number of durations recorded
+		 *
+		 * @return the count
+		 */
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * The longest duration recorded
+		 *
+		 * @return the maximum, or zero if nothing was recorded
+		 */
+		public Duration max() {
+			return Duration.ofNanos(max);
+		}
+
+		/**
+		 * Finds the duration at the given percentile, such as 99 or 99.9
+		 *
+		 * @param percentile the percentile, from 0 to 100
+		 * @return the duration at or below which the given percentage of durations fall,
+		 * or zero if nothing was recorded
+		 */
+		public Duration percentile(double percentile) {
+			if (percentile < 0 || percentile > 100) {
+				throw new IllegalArgumentException("Percentile out of range: " + percentile);
+			}
+			if (count == 0) {
+				return Duration.ZERO;
+			}
+			long rank = Math.max(1L, (long) Math.ceil(count * (percentile / 100)));
+			long seen = 0;
+			for (int n = 0; n < counts.length; n++) {
+				seen += counts[n];
+				if (seen >= rank) {
+					return Duration.ofNanos(Math.min(bucketUpperBound(n), max));
+				}
+			}
+			return Duration.ofNanos(max);
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot{" +
+					"count=" + count +
+					", p50=" + percentile(50) +
+					", p99=" + percentile(99) +
+					", p999=" + percentile(99.9) +
+					", max=" + max() +
+					'}';
+		}
+	}
+}
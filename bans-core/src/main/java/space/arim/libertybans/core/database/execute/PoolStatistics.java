@@ -0,0 +1,89 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.database.execute;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long queries wait for a database connection. <br>
+ * <br>
+ * Queries first wait for a permit from the query executor, which queues them fairly, then
+ * acquire a connection from the pool. Both waits are recorded. Connection acquisition is
+ * reported by Hikari, for which this class serves as the metrics tracker factory.
+ *
+ */
+public final class PoolStatistics implements MetricsTrackerFactory {
+
+	private final LatencyHistogram permitWait = new LatencyHistogram();
+	private final LatencyHistogram connectionAcquisition = new LatencyHistogram();
+	private final LongAdder connectionTimeouts = new LongAdder();
+
+	void recordPermitWait(long nanos) {
+		permitWait.record(nanos);
+	}
+
+	/**
+	 * Time spent waiting for a permit to use a connection
+	 *
+	 * @return the permit wait histogram
+	 */
+	public LatencyHistogram permitWait() {
+		return permitWait;
+	}
+
+	/**
+	 * Time spent acquiring a connection from the pool, as reported by Hikari
+	 *
+	 * @return the connection acquisition histogram
+	 */
+	public LatencyHistogram connectionAcquisition() {
+		return connectionAcquisition;
+	}
+
+	/**
+	 * The number of times the pool's connection timeout was reached
+	 *
+	 * @return the connection timeout count
+	 */
+	public long connectionTimeouts() {
+		return connectionTimeouts.sum();
+	}
+
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		return new Tracker();
+	}
+
+	private final class Tracker implements IMetricsTracker {
+
+		@Override
+		public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+			connectionAcquisition.record(elapsedAcquiredNanos);
+		}
+
+		@Override
+		public void recordConnectionTimeout() {
+			connectionTimeouts.increment();
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.database.execute;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records query timings, grouped by call-site label (see {@link SQLFunction#label()}). <br>
+ * <br>
+ * The total time of a query is measured from when it is submitted to when it completes. It
+ * therefore includes, for commands run with retry, the back-off between attempts. The other
+ * timings are recorded for each attempt: <br>
+ * - queue wait, from submission or the start of the attempt until a connection permit is obtained <br>
+ * - connection acquisition from the pool <br>
+ * - execution of the command itself <br>
+ * - commit of the transaction
+ *
+ */
+public final class QueryStatistics {
+
+	private final ConcurrentHashMap<String, CallSiteTimings> timingsByLabel = new ConcurrentHashMap<>();
+
+	CallSiteTimings timings(String label) {
+		return timingsByLabel.computeIfAbsent(label, (l) -> new CallSiteTimings());
+	}
+
+	/**
+	 * Gets the timings for each call site which has run a query
+	 *
+	 * @return an unmodifiable view of the timings, keyed by call-site label
+	 */
+	public Map<String, CallSiteTimings> timingsByLabel() {
+		return Collections.unmodifiableMap(timingsByLabel);
+	}
+
+	/**
+	 * Timings for a single call site
+	 *
+	 */
+	public static final class CallSiteTimings {
+
+		private final LatencyHistogram total = new LatencyHistogram();
+		private final LatencyHistogram queueWait = new LatencyHistogram();
+		private final LatencyHistogram connectionAcquisition = new LatencyHistogram();
+		private final LatencyHistogram execution = new LatencyHistogram();
+		private final LatencyHistogram commit = new LatencyHistogram();
+
+		CallSiteTimings() {}
+
+		/**
+		 * Time from submission to completion
+		 *
+		 * @return the total time histogram
+		 */
+		public LatencyHistogram total() {
+			return total;
+		}
+
+		/**
+		 * Time spent waiting for a thread and a connection permit
+		 *
+		 * @return the queue wait histogram
+		 */
+		public LatencyHistogram queueWait() {
+			return queueWait;
+		}
+
+		/**
+		 * Time spent acquiring a connection from the pool
+		 *
+		 * @return the connection acquisition histogram
+		 */
+		public LatencyHistogram connectionAcquisition() {
+			return connectionAcquisition;
+		}
+
+		/**
+		 * Time spent executing the command
+		 *
+		 * @return the execution histogram
+		 */
+		public LatencyHistogram execution() {
+			return execution;
+		}
+
+		/**
+		 * Time spent committing the transaction
+		 *
+		 * @return the commit histogram
+		 */
+		public LatencyHistogram commit() {
+			return commit;
+		}
+	}
+}
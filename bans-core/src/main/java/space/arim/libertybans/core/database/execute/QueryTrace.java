@@ -0,0 +1,158 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.database.execute;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.impl.DefaultExecuteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.omnibus.util.ThisClass;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timings of a single attempt to run a command. Records each phase to the call site's
+ * statistics and, if the attempt exceeds the slow query threshold, logs it along with the
+ * SQL it executed. Only the first statements are kept, since some commands execute thousands. <br>
+ * <br>
+ * An attempt runs on a single thread, so no synchronization is required.
+ *
+ */
+final class QueryTrace {
+
+	private final String label;
+	private final QueryStatistics.CallSiteTimings timings;
+	private final long queuedSince;
+	private final long slowQueryThresholdNanos;
+	private final StatementRecorder statementRecorder;
+
+	private long queueWait;
+	private long connectionAcquisition;
+	private long execution;
+	private long commit;
+
+	/** How many statements are kept for the slow query log */
+	static final int MAX_RECORDED_STATEMENTS = 20;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	/**
+	 * Begins a trace
+	 *
+	 * @param label the call-site label
+	 * @param timings the call site's timings
+	 * @param queuedSince when the attempt was submitted or scheduled, per {@link System#nanoTime()}
+	 * @param slowQueryThreshold the slow query threshold, or zero to never log slow queries
+	 */
+	QueryTrace(String label, QueryStatistics.CallSiteTimings timings, long queuedSince, Duration slowQueryThreshold) {
+		this.label = label;
+		this.timings = timings;
+		this.queuedSince = queuedSince;
+		slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+		// Only keep SQL if it may be logged
+		statementRecorder = (slowQueryThresholdNanos == 0L) ? null : new StatementRecorder();
+	}
+
+	/**
+	 * The listener which records executed statements, if statements are being recorded
+	 *
+	 * @return the listener or {@code null}
+	 */
+	ExecuteListener executeListener() {
+		return statementRecorder;
+	}
+
+	void recordPermitAcquired(long permitAcquiredAt) {
+		timings.queueWait().record(queueWait = permitAcquiredAt - queuedSince);
+	}
+
+	void recordConnectionAcquisition(long nanos) {
+		timings.connectionAcquisition().record(connectionAcquisition = nanos);
+	}
+
+	void recordExecution(long nanos) {
+		timings.execution().record(execution = nanos);
+	}
+
+	void recordCommit(long nanos) {
+		timings.commit().record(commit = nanos);
+	}
+
+	/**
+	 * Finishes the trace, logging the attempt if it was slow
+	 *
+	 */
+	void finish() {
+		long attemptTime = queueWait + connectionAcquisition + execution + commit;
+		if (statementRecorder == null || attemptTime < slowQueryThresholdNanos) {
+			return;
+		}
+		logger.warn("Slow query from {} took {} ms (queue wait {} ms, connection acquisition {} ms, " +
+						"execution {} ms, commit {} ms). Statements executed:{}",
+				label, toMillis(attemptTime), toMillis(queueWait), toMillis(connectionAcquisition),
+				toMillis(execution), toMillis(commit), statementRecorder);
+	}
+
+	private static long toMillis(long nanos) {
+		return Duration.ofNanos(nanos).toMillis();
+	}
+
+	private static final class StatementRecorder extends DefaultExecuteListener {
+
+		private final List<String> statements = new ArrayList<>();
+		private int omittedStatements;
+		private long executeStart;
+
+		@Override
+		public void executeStart(ExecuteContext ctx) {
+			executeStart = System.nanoTime();
+		}
+
+		@Override
+		public void executeEnd(ExecuteContext ctx) {
+			if (statements.size() == MAX_RECORDED_STATEMENTS) {
+				omittedStatements++;
+				return;
+			}
+			long statementTime = System.nanoTime() - executeStart;
+			String sql = ctx.sql();
+			if (sql == null) {
+				String[] batchSql = ctx.batchSQL();
+				sql = (batchSql.length == 0) ? "<unknown>" : "batch: " + String.join("; ", batchSql);
+			}
+			statements.add("[" + toMillis(statementTime) + " ms] " + sql);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			for (String statement : statements) {
+				builder.append("\n  ").append(statement);
+			}
+			if (omittedStatements != 0) {
+				builder.append("\n  ...and ").append(omittedStatements).append(" more");
+			}
+			return builder.toString();
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.database.execute;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts serialization failures and transaction retries, grouped by call-site label. <br>
+ * <br>
+ * Unless a command is given an explicit label, its label is its command type: the simple name
+ * of the class which declared the command. For lambdas, this is the class in which the lambda
+ * was written.
+ *
+ */
+public final class RetryStatistics {
+
+	private final ConcurrentHashMap<String, Counters> countersByType = new ConcurrentHashMap<>();
+
+	private static final ClassValue<String> COMMAND_TYPES = new ClassValue<>() {
+		@Override
+		protected String computeValue(Class<?> type) {
+			String name = type.getName();
+			int lambdaIndex = name.indexOf("$$Lambda");
+			if (lambdaIndex != -1) {
+				name = name.substring(0, lambdaIndex);
+			}
+			return name.substring(name.lastIndexOf('.') + 1);
+		}
+	};
+
+	/**
+	 * Determines the command type of a command, which is its default call-site label
+	 *
+	 * @param command the command
+	 * @return the command type
+	 */
+	static String commandType(Object command) {
+		return COMMAND_TYPES.get(command.getClass());
+	}
+
+	private Counters counters(String commandType) {
+		return countersByType.computeIfAbsent(commandType, (t) -> new Counters());
+	}
+
+	void recordSerializationFailure(String commandType) {
+		counters(commandType).serializationFailures.increment();
+	}
+
+	void recordRetry(String commandType) {
+		counters(commandType).retries.increment();
+	}
+
+	void recordRetriesExhausted(String commandType) {
+		counters(commandType).retriesExhausted.increment();
+	}
+
+	/**
+	 * Takes a snapshot of the current counts
+	 *
+	 * @return the counts for each command type which has encountered a serialization failure
+	 */
+	public Map<String, Counts> snapshot() {
+		Map<String, Counts> snapshot = new HashMap<>(countersByType.size());
+		countersByType.forEach((commandType, counters) -> {
+			snapshot.put(commandType, new Counts(
+					counters.serializationFailures.sum(), counters.retries.sum(), counters.retriesExhausted.sum()
+			));
+		});
+		return Map.copyOf(snapshot);
+	}
+
+	private static final class Counters {
+
+		final LongAdder serializationFailures = new LongAdder();
+		final LongAdder retries = new LongAdder();
+		final LongAdder retriesExhausted = new LongAdder();
+	}
+
+	/**
+	 * Counts for a single command type
+	 *
+	 */
+	public static final class Counts {
+
+		private final long serializationFailures;
+		private final long retries;
+		private final long retriesExhausted;
+
+		Counts(long serializationFailures, long retries, long retriesExhausted) {
+			this.serializationFailures = serializationFailures;
+			this.retries = retries;
+			this.retriesExhausted = retriesExhausted;
+		}
+
+		/**
+		 * The number of serialization failures encountered
+		 *
+		 * @return the serialization failure count
+		 */
+		public long serializationFailures() {
+			return serializationFailures;
+		}
+
+		/**
+		 * The number of retries scheduled after a serialization failure
+		 *
+		 * @return the retry count
+		 */
+		public long retries() {
+			return retries;
+		}
+
+		/**
+		 * The number of commands which failed because the retry count was exceeded
+		 *
+		 * @return the count of commands which exhausted their retries
+		 */
+		public long retriesExhausted() {
+			return retriesExhausted;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Counts counts = (Counts) o;
+			return serializationFailures == counts.serializationFailures
+					&& retries == counts.retries && retriesExhausted == counts.retriesExhausted;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(serializationFailures, retries, retriesExhausted);
+		}
+
+		@Override
+		public String toString() {
+			return "Counts{" +
+					"serializationFailures=" + serializationFailures +
+					", retries=" + retries +
+					", retriesExhausted=" + retriesExhausted +
+					'}';
+		}
+	}
+}
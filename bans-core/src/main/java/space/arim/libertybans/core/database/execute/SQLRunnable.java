@@ -21,12 +21,25 @@ package space.arim.libertybans.core.database.execute;
 
 import org.jooq.DSLContext;
 
+import java.util.Objects;
+
 public interface SQLRunnable {
 
 	default boolean isReadOnly() {
 		return false;
 	}
 
+	/**
+	 * The call-site label of this command, by which its timings and retries are recorded.
+	 * By default, this is the simple name of the class declaring the command. For lambdas,
+	 * it is the class in which the lambda was written.
+	 *
+	 * @return the call-site label
+	 */
+	default String label() {
+		return RetryStatistics.commandType(this);
+	}
+
 	void run(DSLContext context) throws RuntimeException;
 
 	static SQLRunnable readOnly(SQLRunnable command) {
@@ -37,6 +50,51 @@ public interface SQLRunnable {
 				return true;
 			}
 
+			@Override
+			public String label() {
+				return command.label();
+			}
+
+			@Override
+			public void run(DSLContext context) throws RuntimeException {
+				command.run(context);
+			}
+		};
+	}
+
+	/**
+	 * Makes a command read-only and gives it an explicit call-site label
+	 *
+	 * @param label the call-site label
+	 * @param command the command
+	 * @return a read-only command with the given label
+	 */
+	static SQLRunnable readOnly(String label, SQLRunnable command) {
+		return readOnly(labeled(label, command));
+	}
+
+	/**
+	 * Gives a command an explicit call-site label. Useful where a class declares several
+	 * commands which should be told apart
+	 *
+	 * @param label the call-site label
+	 * @param command the command
+	 * @return a command with the given label
+	 */
+	static SQLRunnable labeled(String label, SQLRunnable command) {
+		Objects.requireNonNull(label, "label");
+		return new SQLRunnable() {
+
+			@Override
+			public boolean isReadOnly() {
+				return command.isReadOnly();
+			}
+
+			@Override
+			public String label() {
+				return label;
+			}
+
 			@Override
 			public void run(DSLContext context) throws RuntimeException {
 				command.run(context);
@@ -23,5 +23,16 @@ import org.jooq.DSLContext;
 
 public interface SQLTransactionalRunnable {
 
+	/**
+	 * The call-site label of this command, by which its timings and retries are recorded.
+	 * By default, this is the simple name of the class declaring the command. For lambdas,
+	 * it is the class in which the lambda was written.
+	 *
+	 * @return the call-site label
+	 */
+	default String label() {
+		return RetryStatistics.commandType(this);
+	}
+
 	void run(DSLContext context, Transaction transaction) throws RuntimeException;
 }
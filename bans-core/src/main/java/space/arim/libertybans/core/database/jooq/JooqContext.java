@@ -20,12 +20,14 @@
 package space.arim.libertybans.core.database.jooq;
 
 import org.jooq.DSLContext;
+import org.jooq.ExecuteListener;
 import org.jooq.SQLDialect;
 import org.jooq.conf.MappedSchema;
 import org.jooq.conf.MappedTable;
 import org.jooq.conf.RenderMapping;
 import org.jooq.conf.Settings;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultExecuteListenerProvider;
 
 import java.sql.Connection;
 import java.util.Objects;
@@ -47,6 +49,19 @@ public final class JooqContext {
 		return DSL.using(connection, dialect, createSettings());
 	}
 
+	/**
+	 * Creates a context which notifies the given listener of query execution
+	 *
+	 * @param connection the connection
+	 * @param executeListener the execute listener
+	 * @return the context
+	 */
+	public DSLContext createContext(Connection connection, ExecuteListener executeListener) {
+		DSLContext context = createContext(connection);
+		context.configuration().set(new DefaultExecuteListenerProvider(executeListener));
+		return context;
+	}
+
 	public DSLContext createRenderOnlyContext() {
 		return DSL.using(dialect, createSettings());
 	}
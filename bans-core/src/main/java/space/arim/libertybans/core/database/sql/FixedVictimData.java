@@ -56,6 +56,22 @@ public final class FixedVictimData implements VictimData {
 		return address;
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		FixedVictimData that = (FixedVictimData) o;
+		return type == that.type && uuid.equals(that.uuid) && address.equals(that.address);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = type.hashCode();
+		result = 31 * result + uuid.hashCode();
+		result = 31 * result + address.hashCode();
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return "FixedVictimData{" +
@@ -20,7 +20,6 @@
 package space.arim.libertybans.core.database.sql;
 
 import org.jooq.Record10;
-import org.jooq.Record12;
 import org.jooq.Record2;
 import org.jooq.Table;
 import space.arim.libertybans.api.NetworkAddress;
@@ -29,9 +28,6 @@ import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.Victim;
 import space.arim.libertybans.api.scope.ServerScope;
 import space.arim.libertybans.core.punish.MiscUtil;
-import space.arim.libertybans.core.schema.tables.ApplicableBans;
-import space.arim.libertybans.core.schema.tables.ApplicableMutes;
-import space.arim.libertybans.core.schema.tables.ApplicableWarns;
 import space.arim.libertybans.core.schema.tables.Bans;
 import space.arim.libertybans.core.schema.tables.Mutes;
 import space.arim.libertybans.core.schema.tables.SimpleBans;
@@ -95,33 +91,6 @@ public final class TableForType {
 		}
 	}
 
-	public ApplicableViewFields<? extends Record12<
-			Long, PunishmentType,
-			Victim.VictimType, UUID, NetworkAddress,
-			Operator, String, ServerScope, Instant, Instant,
-			UUID, NetworkAddress>> applicableView() {
-		return new ApplicableViewFields<>(applicableView0());
-	}
-
-	private Table<? extends Record12<
-			Long, PunishmentType,
-			Victim.VictimType, UUID, NetworkAddress,
-			Operator, String, ServerScope, Instant, Instant,
-			UUID, NetworkAddress>> applicableView0() {
-		switch (type) {
-		case BAN:
-			return ApplicableBans.APPLICABLE_BANS;
-		case MUTE:
-			return ApplicableMutes.APPLICABLE_MUTES;
-		case WARN:
-			return ApplicableWarns.APPLICABLE_WARNS;
-		case KICK:
-			throw new UnsupportedOperationException("Does not exist for kicks");
-		default:
-			throw MiscUtil.unknownType(type);
-		}
-	}
-
 	@Override
 	public String toString() {
 		return "TableForType{" +
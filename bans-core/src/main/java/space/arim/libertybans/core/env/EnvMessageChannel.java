@@ -0,0 +1,74 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.env;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel for exchanging raw messages with other servers on the same network, such as
+ * through the plugin messaging channels of a proxy
+ *
+ */
+public interface EnvMessageChannel {
+
+	/**
+	 * Installs the handler of incoming messages, replacing any existing handler
+	 *
+	 * @param handler the handler
+	 */
+	void installHandler(Consumer<byte[]> handler);
+
+	/**
+	 * Uninstalls the handler of incoming messages
+	 *
+	 */
+	void uninstallHandler();
+
+	/**
+	 * Sends a message to the other servers. Sending may not be possible at the moment,
+	 * such as if there is no connection available to carry the message.
+	 *
+	 * @param message the message, no larger than {@link #maxMessageSize()}
+	 * @return a future yielding true if the message was sent, false if it could not be sent now
+	 * @throws IllegalArgumentException if the message is too large
+	 */
+	CentralisedFuture<Boolean> send(byte[] message);
+
+	/**
+	 * The size in bytes of the largest message which may be sent
+	 *
+	 * @return the maximum message size
+	 */
+	int maxMessageSize();
+
+	/**
+	 * Why this channel cannot be used on the current platform, if it cannot. Used to reject
+	 * configuration which requires the channel
+	 *
+	 * @return the reason, or null if the channel may be used
+	 */
+	default @Nullable String unavailableReason() {
+		return null;
+	}
+
+}
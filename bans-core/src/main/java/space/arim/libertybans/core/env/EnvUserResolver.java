@@ -23,6 +23,7 @@ import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
 import java.net.InetAddress;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -39,4 +40,11 @@ public interface EnvUserResolver {
 
 	CentralisedFuture<Optional<UUIDAndAddress>> lookupPlayer(String name);
 
+	/**
+	 * Takes a snapshot of the uuids of all online players, in a single pass over the player list
+	 *
+	 * @return a future yielding the uuids of online players
+	 */
+	CentralisedFuture<Set<UUID>> lookupOnlineUUIDs();
+
 }
@@ -23,6 +23,7 @@ import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
 import java.net.InetAddress;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Supplier;
 
@@ -62,6 +63,11 @@ public abstract class SimpleEnvUserResolver implements EnvUserResolver {
 		return performLookup(() -> lookupPlayer0(name));
 	}
 
+	@Override
+	public final CentralisedFuture<Set<UUID>> lookupOnlineUUIDs() {
+		return performLookup(this::lookupOnlineUUIDs0);
+	}
+
 	protected abstract Optional<UUID> lookupUUID0(String name);
 
 	protected abstract Optional<String> lookupName0(UUID uuid);
@@ -70,4 +76,6 @@ public abstract class SimpleEnvUserResolver implements EnvUserResolver {
 
 	protected abstract Optional<UUIDAndAddress> lookupPlayer0(String name);
 
+	protected abstract Set<UUID> lookupOnlineUUIDs0();
+
 }
@@ -0,0 +1,69 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.env;
+
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Message channel for platforms on which no message channel is available. Configuration
+ * requiring a message channel is rejected, so this channel is never used
+ *
+ */
+public final class UnavailableMessageChannel implements EnvMessageChannel {
+
+	private final String reason;
+
+	/**
+	 * Creates the channel
+	 *
+	 * @param reason why no message channel is available, completing the sentence
+	 *               "This feature cannot be used, because ..."
+	 */
+	public UnavailableMessageChannel(String reason) {
+		this.reason = Objects.requireNonNull(reason, "reason");
+	}
+
+	@Override
+	public void installHandler(Consumer<byte[]> handler) {
+		throw new IllegalStateException(reason);
+	}
+
+	@Override
+	public void uninstallHandler() {
+		throw new IllegalStateException(reason);
+	}
+
+	@Override
+	public CentralisedFuture<Boolean> send(byte[] message) {
+		throw new IllegalStateException(reason);
+	}
+
+	@Override
+	public int maxMessageSize() {
+		return 0;
+	}
+
+	@Override
+	public String unavailableReason() {
+		return reason;
+	}
+}
@@ -60,7 +60,7 @@ public class AdvancedBanImportSource implements ImportSource {
 	public Stream<PortablePunishment> sourcePunishments() {
 
 		DatabaseStream databaseStream = new DatabaseStream(
-				config.advancedBan().toConnectionSource(), config.retrievalSize());
+				config.advancedBan().toConnectionSource(), config.retrievalSize(), config.readerConnections());
 
 		// Map active punishments first. Stream.of has guaranteed order
 		return Stream.of(new RowMapper(true), new RowMapper(false))
@@ -71,7 +71,7 @@ public class AdvancedBanImportSource implements ImportSource {
 				.map(AdvancedBanUniquePunishmentDetails::portablePunishment);
 	}
 
-	private class RowMapper implements SchemaRowMapper<PortablePunishment> {
+	private class RowMapper implements PartitionedRowMapper<PortablePunishment> {
 
 		private final boolean active;
 
@@ -79,9 +79,23 @@ public class AdvancedBanImportSource implements ImportSource {
 			this.active = active;
 		}
 
+		private String tableName() {
+			return (active) ? "Punishments" : "PunishmentHistory";
+		}
+
 		@Override
 		public String selectStatement() {
-			return "SELECT * FROM " + (active ? "Punishments" : "PunishmentHistory");
+			return "SELECT * FROM " + tableName();
+		}
+
+		@Override
+		public String keyRangeStatement() {
+			return "SELECT MIN(id), MAX(id) FROM " + tableName();
+		}
+
+		@Override
+		public String partitionStatement() {
+			return "SELECT * FROM " + tableName() + " WHERE id >= ? AND id < ?";
 		}
 
 		@Override
@@ -51,7 +51,7 @@ public class BanManagerImportSource implements ImportSource {
 
 	private DatabaseStream databaseStream() {
 		return new DatabaseStream(
-				config.banManager().toConnectionSource(), config.retrievalSize());
+				config.banManager().toConnectionSource(), config.retrievalSize(), config.readerConnections());
 	}
 
 	@Override
@@ -74,7 +74,7 @@ public class BanManagerImportSource implements ImportSource {
 	 * which maintains integrity, so we do not need null checks on NONNULL columns.
 	 *
 	 */
-	private final class RowMapper implements SchemaRowMapper<PortablePunishment> {
+	private final class RowMapper implements PartitionedRowMapper<PortablePunishment> {
 
 		private final BanManagerTable table;
 		private final UUID consoleUuid;
@@ -84,10 +84,23 @@ public class BanManagerImportSource implements ImportSource {
 			this.consoleUuid = consoleUuid;
 		}
 
+		private String quotedTableName() {
+			return '"' + table.tableName(config.banManager().tablePrefix()) + '"';
+		}
+
 		@Override
 		public String selectStatement() {
-			String tableName = table.tableName(config.banManager().tablePrefix());
-			return "SELECT * FROM \"" + tableName + '"';
+			return "SELECT * FROM " + quotedTableName();
+		}
+
+		@Override
+		public String keyRangeStatement() {
+			return "SELECT MIN(\"id\"), MAX(\"id\") FROM " + quotedTableName();
+		}
+
+		@Override
+		public String partitionStatement() {
+			return "SELECT * FROM " + quotedTableName() + " WHERE \"id\" >= ? AND \"id\" < ?";
 		}
 
 		@Override
@@ -0,0 +1,346 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.importing;
+
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.database.sql.FixedVictimData;
+import space.arim.libertybans.core.database.sql.SequenceValue;
+import space.arim.libertybans.core.database.sql.SerializedVictim;
+import space.arim.libertybans.core.database.sql.TableForType;
+import space.arim.libertybans.core.punish.Association;
+import space.arim.libertybans.core.punish.Enaction;
+import space.arim.libertybans.core.punish.MiscUtil;
+import space.arim.omnibus.util.ThisClass;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static space.arim.libertybans.core.schema.Sequences.LIBERTYBANS_PUNISHMENT_IDS;
+import static space.arim.libertybans.core.schema.Sequences.LIBERTYBANS_VICTIM_IDS;
+import static space.arim.libertybans.core.schema.tables.History.HISTORY;
+import static space.arim.libertybans.core.schema.tables.Punishments.PUNISHMENTS;
+import static space.arim.libertybans.core.schema.tables.Victims.VICTIMS;
+
+/**
+ * Import sink which writes punishments and name and address records in batches. <br>
+ * <br>
+ * Punishment and victim IDs are reserved in ranges, so that punishments can be inserted
+ * using JDBC batches rather than one at a time. Existing victims and active bans and mutes
+ * are loaded into memory, so that victims are deduplicated and conflicting active punishments
+ * are detected without querying the database. For this reason, no punishments may be enacted
+ * by other means while the import runs.
+ *
+ */
+final class BulkImportSink implements ImportSink, AutoCloseable {
+
+	private final ImportStatistics statistics;
+	private final int batchSize;
+
+	private final PipelinedWriter punishmentWriter;
+	private final PipelinedWriter nameAddressWriter;
+	/** Confined to the punishment writer thread */
+	private final PunishmentTables punishmentTables = new PunishmentTables();
+
+	/** Confined to the thread transferring punishments */
+	private List<PendingPunishment> pendingPunishments;
+	/** Guarded by itself */
+	private final List<NameAddressRecord> pendingNameAddressRecords;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	BulkImportSink(InternalDatabase database, ImportStatistics statistics, int batchSize) {
+		this.statistics = statistics;
+		this.batchSize = batchSize;
+		// Allow the next batch to be filled while the previous one is written
+		punishmentWriter = new PipelinedWriter(database, "Importer-Punishments", 2);
+		nameAddressWriter = new PipelinedWriter(database, "Importer-History", 2);
+		pendingPunishments = new ArrayList<>(batchSize);
+		pendingNameAddressRecords = new ArrayList<>(batchSize);
+	}
+
+	@Override
+	public void addActivePunishment(Enaction enaction) {
+		addPunishment(new PendingPunishment(enaction.orderDetails(), true));
+		statistics.transferredActive();
+	}
+
+	@Override
+	public void addHistoricalPunishment(Enaction enaction) {
+		addPunishment(new PendingPunishment(enaction.orderDetails(), false));
+		statistics.transferredHistorical();
+	}
+
+	private void addPunishment(PendingPunishment punishment) {
+		MiscUtil.checkNoCompositeVictimWildcards(punishment.orderDetails.victim());
+		pendingPunishments.add(punishment);
+		if (pendingPunishments.size() >= batchSize) {
+			flushPunishments();
+		}
+	}
+
+	private void flushPunishments() {
+		List<PendingPunishment> batch = pendingPunishments;
+		if (batch.isEmpty()) {
+			return;
+		}
+		pendingPunishments = new ArrayList<>(batchSize);
+		punishmentWriter.submit((batchExecutor) -> punishmentTables.write(batchExecutor, batch));
+	}
+
+	@Override
+	public void addNameAddressRecord(NameAddressRecord nameAddressRecord) {
+		List<NameAddressRecord> batch = null;
+		synchronized (pendingNameAddressRecords) {
+			pendingNameAddressRecords.add(nameAddressRecord);
+			if (pendingNameAddressRecords.size() >= batchSize) {
+				batch = drainNameAddressRecords();
+			}
+		}
+		statistics.transferredNameAddressRecord();
+		if (batch != null) {
+			writeNameAddressRecords(batch);
+		}
+	}
+
+	private List<NameAddressRecord> drainNameAddressRecords() {
+		List<NameAddressRecord> batch = new ArrayList<>(pendingNameAddressRecords);
+		pendingNameAddressRecords.clear();
+		return batch;
+	}
+
+	private void writeNameAddressRecords(List<NameAddressRecord> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		nameAddressWriter.submit((batchExecutor) -> batchExecutor.runOperation((context, transaction) -> {
+			List<Query> inserts = new ArrayList<>(batch.size() * 2);
+			for (NameAddressRecord nameAddressRecord : batch) {
+				Association association = new Association(nameAddressRecord.uuid(), context);
+				Instant timeRecorded = nameAddressRecord.timeRecorded();
+				nameAddressRecord.name().ifPresent((name) -> {
+					inserts.add(association.pastNameInsert(name, timeRecorded));
+				});
+				nameAddressRecord.address().ifPresent((address) -> {
+					inserts.add(association.pastAddressInsert(address, timeRecorded));
+				});
+			}
+			if (!inserts.isEmpty()) {
+				context.batch(inserts).execute();
+			}
+		}));
+	}
+
+	/**
+	 * Writes remaining batches and waits for all writing to complete. Must be called after
+	 * all punishments and name and address records are added.
+	 *
+	 * @throws SQLException if a connection could not be closed
+	 * @throws ImportException if writing failed
+	 */
+	@Override
+	public void close() throws SQLException {
+		try (nameAddressWriter; punishmentWriter) {
+			flushPunishments();
+			List<NameAddressRecord> remainingNameAddressRecords;
+			synchronized (pendingNameAddressRecords) {
+				remainingNameAddressRecords = drainNameAddressRecords();
+			}
+			writeNameAddressRecords(remainingNameAddressRecords);
+		}
+	}
+
+	private static final class PendingPunishment {
+
+		private final Enaction.OrderDetails orderDetails;
+		private final boolean active;
+
+		PendingPunishment(Enaction.OrderDetails orderDetails, boolean active) {
+			this.orderDetails = orderDetails;
+			this.active = active;
+		}
+	}
+
+	private static final class PunishmentTables {
+
+		private boolean loaded;
+		private final Map<FixedVictimData, Integer> victimIds = new HashMap<>();
+		/** Victims with an active ban or mute, i.e. a singular punishment type */
+		private final Map<PunishmentType, Set<FixedVictimData>> activeSingularVictims = new EnumMap<>(PunishmentType.class);
+
+		void write(BatchOperationExecutor batchExecutor, List<PendingPunishment> batch) {
+			if (!loaded) {
+				batchExecutor.runOperation((context, transaction) -> loadExisting(context));
+				loaded = true;
+			}
+			// Deduplicate victims and skip conflicting active punishments
+			Set<FixedVictimData> newVictims = new LinkedHashSet<>();
+			List<PendingPunishment> accepted = new ArrayList<>(batch.size());
+			for (PendingPunishment punishment : batch) {
+				Enaction.OrderDetails orderDetails = punishment.orderDetails;
+				FixedVictimData victimData = FixedVictimData.from(new SerializedVictim(orderDetails.victim()));
+				PunishmentType type = orderDetails.type();
+				if (punishment.active && type.isSingular()
+						&& !activeSingularVictims.get(type).add(victimData)) {
+					logger.warn(
+							"There is a conflicting active punishment: {}. For example two bans for the same user. " +
+									"This is harmless in most cases. The punishment will be skipped.",
+							orderDetails);
+					continue;
+				}
+				if (!victimIds.containsKey(victimData)) {
+					newVictims.add(victimData);
+				}
+				accepted.add(punishment);
+			}
+			if (accepted.isEmpty()) {
+				return;
+			}
+			// Reserve IDs in a separate transaction, since sequences are not transactional
+			long[] firstPunishmentId = new long[1];
+			int[] firstVictimId = new int[1];
+			batchExecutor.runOperation((context, transaction) -> {
+				firstPunishmentId[0] = reservePunishmentIds(context, accepted.size());
+				if (!newVictims.isEmpty()) {
+					firstVictimId[0] = reserveVictimIds(context, newVictims.size());
+				}
+			});
+			int nextVictimId = firstVictimId[0];
+			for (FixedVictimData newVictim : newVictims) {
+				victimIds.put(newVictim, nextVictimId++);
+			}
+			batchExecutor.runOperation((context, transaction) -> {
+				insert(context, accepted, newVictims, firstPunishmentId[0]);
+			});
+		}
+
+		private void loadExisting(DSLContext context) {
+			context
+					.select(VICTIMS.ID, VICTIMS.TYPE, VICTIMS.UUID, VICTIMS.ADDRESS)
+					.from(VICTIMS)
+					.fetch()
+					.forEach((record) -> {
+						victimIds.put(new FixedVictimData(record.value2(), record.value3(), record.value4()), record.value1());
+					});
+			for (PunishmentType type : PunishmentType.values()) {
+				if (!type.isSingular()) {
+					continue;
+				}
+				var dataTable = new TableForType(type).dataTable();
+				Set<FixedVictimData> victims = new HashSet<>();
+				context
+						.select(VICTIMS.TYPE, VICTIMS.UUID, VICTIMS.ADDRESS)
+						.from(dataTable.table())
+						.innerJoin(VICTIMS)
+						.on(dataTable.victimId().eq(VICTIMS.ID))
+						.fetch()
+						.forEach((record) -> {
+							victims.add(new FixedVictimData(record.value1(), record.value2(), record.value3()));
+						});
+				activeSingularVictims.put(type, victims);
+			}
+			logger.info("Loaded {} existing victims for bulk import", victimIds.size());
+		}
+
+		private static long reservePunishmentIds(DSLContext context, int count) {
+			SequenceValue<Long> sequence = new SequenceValue<>(LIBERTYBANS_PUNISHMENT_IDS);
+			long firstId = context.select(sequence.nextValue(context)).fetchSingle().value1();
+			sequence.setValue(context, firstId + count);
+			return firstId;
+		}
+
+		private static int reserveVictimIds(DSLContext context, int count) {
+			SequenceValue<Integer> sequence = new SequenceValue<>(LIBERTYBANS_VICTIM_IDS);
+			int firstId = context.select(sequence.nextValue(context)).fetchSingle().value1();
+			sequence.setValue(context, firstId + count);
+			return firstId;
+		}
+
+		private void insert(DSLContext context, List<PendingPunishment> punishments,
+							Set<FixedVictimData> newVictims, long firstPunishmentId) {
+			if (!newVictims.isEmpty()) {
+				BatchBindStep victimsBatch = context.batch(context
+						.insertInto(VICTIMS)
+						.columns(VICTIMS.ID, VICTIMS.TYPE, VICTIMS.UUID, VICTIMS.ADDRESS)
+						.values(new Object[4]));
+				for (FixedVictimData newVictim : newVictims) {
+					victimsBatch = victimsBatch.bind(
+							victimIds.get(newVictim), newVictim.type(), newVictim.uuid(), newVictim.address());
+				}
+				victimsBatch.execute();
+			}
+			BatchBindStep punishmentsBatch = context.batch(context
+					.insertInto(PUNISHMENTS)
+					.columns(
+							PUNISHMENTS.ID, PUNISHMENTS.TYPE,
+							PUNISHMENTS.OPERATOR, PUNISHMENTS.REASON,
+							PUNISHMENTS.SCOPE, PUNISHMENTS.START, PUNISHMENTS.END)
+					.values(new Object[7]));
+			BatchBindStep historyBatch = context.batch(context
+					.insertInto(HISTORY)
+					.columns(HISTORY.ID, HISTORY.VICTIM)
+					.values(new Object[2]));
+			Map<PunishmentType, BatchBindStep> dataTableBatches = new EnumMap<>(PunishmentType.class);
+
+			long punishmentId = firstPunishmentId;
+			for (PendingPunishment punishment : punishments) {
+				Enaction.OrderDetails orderDetails = punishment.orderDetails;
+				PunishmentType type = orderDetails.type();
+				Integer victimId = victimIds.get(FixedVictimData.from(new SerializedVictim(orderDetails.victim())));
+
+				punishmentsBatch = punishmentsBatch.bind(
+						punishmentId, type,
+						orderDetails.operator(), orderDetails.reason(),
+						orderDetails.scope(), orderDetails.start(), orderDetails.end());
+				if (punishment.active && type != PunishmentType.KICK) {
+					BatchBindStep dataTableBatch = dataTableBatches.computeIfAbsent(type, (t) -> {
+						var dataTable = new TableForType(t).dataTable();
+						return context.batch(context
+								.insertInto(dataTable.table())
+								.columns(dataTable.id(), dataTable.victimId())
+								.values(new Object[2]));
+					});
+					dataTableBatches.put(type, dataTableBatch.bind(punishmentId, victimId));
+				}
+				historyBatch = historyBatch.bind(punishmentId, victimId);
+				punishmentId++;
+			}
+			// Referenced rows must be inserted first
+			punishmentsBatch.execute();
+			for (BatchBindStep dataTableBatch : dataTableBatches.values()) {
+				dataTableBatch.execute();
+			}
+			historyBatch.execute();
+		}
+	}
+}
@@ -31,13 +31,30 @@ class DatabaseStream {
 
 	private final ConnectionSource connectionSource;
 	private final int retrievalSize;
+	private final int readerConnections;
 
 	DatabaseStream(ConnectionSource connectionSource, int retrievalSize) {
+		this(connectionSource, retrievalSize, 1);
+	}
+
+	/**
+	 * Creates the database stream
+	 *
+	 * @param connectionSource the connection source
+	 * @param retrievalSize the fetch size
+	 * @param readerConnections how many connections to read with, if the row mapper supports
+	 *                          reading in partitions. Values below 2 mean rows are read sequentially.
+	 */
+	DatabaseStream(ConnectionSource connectionSource, int retrievalSize, int readerConnections) {
 		this.connectionSource = Objects.requireNonNull(connectionSource);
 		this.retrievalSize = retrievalSize;
+		this.readerConnections = readerConnections;
 	}
 
 	<T> Stream<T> streamRows(SchemaRowMapper<T> schemaRowMapper) {
+		if (readerConnections > 1 && schemaRowMapper instanceof PartitionedRowMapper) {
+			return streamPartitions((PartitionedRowMapper<T>) schemaRowMapper);
+		}
 		Connection connection;
 		try {
 			connection = connectionSource.openConnection();
@@ -70,5 +87,17 @@ class DatabaseStream {
 				});
 	}
 
+	private <T> Stream<T> streamPartitions(PartitionedRowMapper<T> rowMapper) {
+		PartitionedReader<T> reader = new PartitionedReader<>(
+				connectionSource, rowMapper, retrievalSize, readerConnections);
+		try {
+			reader.start();
+		} catch (SQLException ex) {
+			reader.close();
+			throw new ImportException("Unable to select imported punishments", ex);
+		}
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.IMMUTABLE), false)
+				.onClose(reader::close);
+	}
 
 }
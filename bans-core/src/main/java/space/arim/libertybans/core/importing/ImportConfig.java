@@ -64,6 +64,44 @@ public interface ImportConfig {
 	@IntegerRange(min = 1)
 	int retrievalSize();
 
+	@ConfKey("reader-connections")
+	@ConfComments({
+			"How many connections to read punishments and history with at once.",
+			"Tables are split into ranges of IDs, which are read in parallel. This helps",
+			"especially when the plugin you are importing from uses a remote database.",
+			"Set this to 1 to read every table in sequence with a single connection.",
+			"",
+			"This applies to importing from AdvancedBan, LiteBans, and BanManager."})
+	@ConfDefault.DefaultInteger(4)
+	@IntegerRange(min = 1, max = 32)
+	int readerConnections();
+
+	@ConfKey("bulk-mode")
+	@SubSection
+	BulkMode bulkMode();
+
+	@ConfHeader({
+			"Bulk mode speeds up large imports from other plugins, but it requires that no punishments",
+			"are enacted while the import runs. It is best used on a server without players online.",
+			"",
+			"Punishments are written in batches rather than one at a time. Punishment and victim IDs are",
+			"reserved in ranges, existing victims are loaded into memory, and punishments are written",
+			"while name and address history is imported at the same time.",
+			"",
+			"Bulk mode does not apply to self-importing, which already uses batches."})
+	interface BulkMode {
+
+		@ConfDefault.DefaultBoolean(false)
+		boolean enable();
+
+		@ConfKey("batch-size")
+		@ConfComments("How many punishments or name and address records to write in a single batch")
+		@ConfDefault.DefaultInteger(1000)
+		@IntegerRange(min = 1, max = 100000)
+		int batchSize();
+
+	}
+
 	@ConfKey("advancedban")
 	@SubSection
 	AdvancedBanSettings advancedBan();
@@ -24,62 +24,85 @@ import jakarta.inject.Provider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.service.Time;
 import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.punish.ApplicableIndexWriter;
 import space.arim.libertybans.core.punish.Enaction;
 import space.arim.libertybans.core.punish.PunishmentCreator;
+import space.arim.libertybans.core.selector.cache.BanVictimFilter;
+import space.arim.libertybans.core.service.SimpleThreadFactory;
 import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
+import static space.arim.libertybans.core.schema.tables.SimpleActive.SIMPLE_ACTIVE;
+
 public class ImportExecutor {
 
 	private final FactoryOfTheFuture futuresFactory;
+	private final Configs configs;
 	private final ImportFunction importFunction;
 	private final Provider<InternalDatabase> dbProvider;
 	private final PunishmentCreator creator;
 	private final Time time;
+	private final BanVictimFilter banVictimFilter;
 
 	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
 	@Inject
-	public ImportExecutor(FactoryOfTheFuture futuresFactory, ImportFunction importFunction,
-						  Provider<InternalDatabase> dbProvider, PunishmentCreator creator, Time time) {
+	public ImportExecutor(FactoryOfTheFuture futuresFactory, Configs configs, ImportFunction importFunction,
+						  Provider<InternalDatabase> dbProvider, PunishmentCreator creator, Time time,
+						  BanVictimFilter banVictimFilter) {
 		this.futuresFactory = futuresFactory;
+		this.configs = configs;
 		this.importFunction = importFunction;
 		this.dbProvider = dbProvider;
 		this.creator = creator;
 		this.time = time;
+		this.banVictimFilter = banVictimFilter;
 	}
 
 	public CentralisedFuture<ImportStatistics> performImport(ImportSource importSource) {
 		Objects.requireNonNull(importSource, "importSource");
 
 		CentralisedFuture<ImportStatistics> future = futuresFactory.newIncompleteFuture();
-		new Thread(() -> {
+		SimpleThreadFactory.create("Importer").newThread(() -> {
 			try {
 				future.complete(runImport(importSource));
 			} catch (Throwable ex) {
 				future.completeExceptionally(ex);
 			}
-		}, "LibertyBans-Importer").start();
+		}).start();
 		return future;
 	}
 
 	private ImportStatistics runImport(ImportSource importSource) {
 		ImportStatistics statistics = new ImportStatistics();
-		try (BatchOperationExecutor batchExecutor = new BatchOperationExecutor(dbProvider.get())) {
-
-			ImportSink importSink = new ImportSink(batchExecutor, statistics);
-			transferPunishments(importSource, importSink);
-			transferExplicitNameAddressRecords(importSource, importSink);
+		ImportConfig.BulkMode bulkMode = configs.getImportConfig().bulkMode();
+		long startTime = System.nanoTime();
+		try {
+			if (bulkMode.enable()) {
+				runBulkImport(importSource, statistics, bulkMode.batchSize());
+			} else {
+				runSequentialImport(importSource, statistics);
+			}
+			// Imported bans were not added to the filter
+			banVictimFilter.rebuild();
+			statistics.recordElapsedTime(Duration.ofNanos(System.nanoTime() - startTime));
 
 			logger.info("Import completed successfully. {}", statistics);
 
@@ -93,6 +116,79 @@ public class ImportExecutor {
 		return statistics;
 	}
 
+	private void runSequentialImport(ImportSource importSource, ImportStatistics statistics) throws SQLException {
+		try (BatchOperationExecutor batchExecutor = new BatchOperationExecutor(dbProvider.get())) {
+
+			ImportSink importSink = new SequentialImportSink(batchExecutor, statistics);
+			transferPunishments(importSource, importSink);
+			transferExplicitNameAddressRecords(importSource, importSink);
+		}
+	}
+
+	private void runBulkImport(ImportSource importSource, ImportStatistics statistics,
+							   int batchSize) throws SQLException {
+		try (BulkImportSink importSink = new BulkImportSink(dbProvider.get(), statistics, batchSize)) {
+
+			// Name and address history is independent of punishments, so both are transferred at once
+			ExecutorService historyThread = Executors.newSingleThreadExecutor(
+					SimpleThreadFactory.create("Importer-History"));
+			try {
+				CompletableFuture<Void> historyTransfer = CompletableFuture.runAsync(
+						() -> transferExplicitNameAddressRecords(importSource, importSink), historyThread);
+				try {
+					transferPunishments(importSource, importSink);
+				} finally {
+					awaitTransfer(historyTransfer);
+				}
+			} finally {
+				historyThread.shutdown();
+			}
+		}
+		// The bulk sink does not maintain derived tables, since punishments and addresses are written apart
+		logger.info("Rebuilding applicable index after bulk import");
+		indexActivePunishments(batchSize);
+	}
+
+	/**
+	 * Indexes all active punishments, in batches ordered by ID. Each batch uses its own transaction.
+	 * Because imports only add punishments and addresses, nothing need be removed from the index.
+	 *
+	 * @param batchSize the number of punishments per batch
+	 */
+	private void indexActivePunishments(int batchSize) {
+		InternalDatabase database = dbProvider.get();
+		Long lastId = 0L;
+		while (lastId != null) {
+			long previousId = lastId;
+			lastId = database.queryWithRetry((context, transaction) -> {
+				List<Long> ids = context
+						.select(SIMPLE_ACTIVE.ID)
+						.from(SIMPLE_ACTIVE)
+						.where(SIMPLE_ACTIVE.ID.gt(previousId))
+						.orderBy(SIMPLE_ACTIVE.ID)
+						.limit(batchSize)
+						.fetch(SIMPLE_ACTIVE.ID);
+				if (ids.isEmpty()) {
+					return null;
+				}
+				new ApplicableIndexWriter(context).indexActive(ids);
+				return ids.get(ids.size() - 1);
+			}).join();
+		}
+	}
+
+	private static void awaitTransfer(CompletableFuture<Void> transfer) {
+		try {
+			transfer.join();
+		} catch (CompletionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw ex;
+		}
+	}
+
 	private void transferPunishments(ImportSource importSource, ImportSink importSink) {
 		try (Stream<PortablePunishment> punishmentStream = importSource.sourcePunishments()) {
 			punishmentStream.forEach(punishment -> {
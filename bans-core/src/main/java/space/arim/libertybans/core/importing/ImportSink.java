@@ -1,6 +1,6 @@
 /*
  * LibertyBans
- * Copyright © 2020 Anand Beh
+ * Copyright © 2022 Anand Beh
  *
  * LibertyBans is free software: you can redistribute it and/or modify
  * it under the terms of the GNU Affero General Public License as
@@ -17,63 +17,27 @@
  * and navigate to version 3 of the GNU Affero General Public License.
  */
 
+
 package space.arim.libertybans.core.importing;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import space.arim.libertybans.api.punish.Punishment;
-import space.arim.libertybans.core.punish.Association;
 import space.arim.libertybans.core.punish.Enaction;
-import space.arim.omnibus.util.ThisClass;
-
-import java.time.Instant;
-
-class ImportSink {
-
-	private final BatchOperationExecutor batchExecutor;
-	private final ImportStatistics statistics;
 
-	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
-
-	ImportSink(BatchOperationExecutor batchExecutor, ImportStatistics statistics) {
-		this.batchExecutor = batchExecutor;
-		this.statistics = statistics;
-	}
-
-	void addActivePunishment(Enaction enaction) {
-		addPunishment(enaction, true);
-		statistics.transferredActive();
-	}
+/**
+ * Receives the punishments and name and address records being imported
+ *
+ */
+interface ImportSink {
 
-	void addHistoricalPunishment(Enaction enaction) {
-		addPunishment(enaction, false);
-		statistics.transferredHistorical();
-	}
+	void addActivePunishment(Enaction enaction);
 
-	private void addPunishment(Enaction enaction, boolean active) {
-		batchExecutor.runOperation((context, transaction) -> {
-			if (active) {
-				Punishment enacted = transaction.executeNested(enaction::enactActive);
-				if (enacted == null) {
-					logger.warn(
-							"There is a conflicting active punishment: {}. For example two bans for the same user. " +
-									"This is harmless in most cases. The punishment will be skipped.",
-							enaction.orderDetails());
-				}
-			} else {
-				enaction.enactHistorical(context);
-			}
-		});
-	}
+	void addHistoricalPunishment(Enaction enaction);
 
-	void addNameAddressRecord(NameAddressRecord nameAddressRecord) {
-		batchExecutor.runOperation((context, transaction) -> {
-			Association association = new Association(nameAddressRecord.uuid(), context);
-			Instant timeRecorded = nameAddressRecord.timeRecorded();
-			nameAddressRecord.name().ifPresent((name) -> association.associatePastName(name, timeRecorded));
-			nameAddressRecord.address().ifPresent((address) -> association.associatePastAddress(address, timeRecorded));
-		});
-		statistics.transferredNameAddressRecord();
-	}
+	/**
+	 * Adds a name and address record. In bulk mode, this may be called concurrently with
+	 * the other methods, since name and address history is imported alongside punishments
+	 *
+	 * @param nameAddressRecord the name and address record
+	 */
+	void addNameAddressRecord(NameAddressRecord nameAddressRecord);
 
 }
@@ -19,6 +19,8 @@
 
 package space.arim.libertybans.core.importing;
 
+import java.time.Duration;
+
 public final class ImportStatistics {
 
 	private int active;
@@ -26,6 +28,7 @@ public final class ImportStatistics {
 	private int nameAddressRecord;
 
 	private boolean failed;
+	private Duration elapsedTime;
 
 	public ImportStatistics() {}
 
@@ -43,18 +46,42 @@ public final class ImportStatistics {
 		failed = true;
 	}
 
-	void transferredActive() {
+	void recordElapsedTime(Duration elapsedTime) {
+		this.elapsedTime = elapsedTime;
+	}
+
+	/*
+	 * Punishments and name/address history may be transferred concurrently
+	 */
+
+	synchronized void transferredActive() {
 		active++;
 	}
 
-	void transferredHistorical() {
+	synchronized void transferredHistorical() {
 		historical++;
 	}
 
-	void transferredNameAddressRecord() {
+	synchronized void transferredNameAddressRecord() {
 		nameAddressRecord++;
 	}
 
+	/**
+	 * Computes the throughput of the import in records per second, including punishments and
+	 * name and address history records
+	 *
+	 * @return the throughput, or 0 if the elapsed time is unknown
+	 */
+	public double throughputPerSecond() {
+		if (elapsedTime == null || elapsedTime.isZero()) {
+			return 0D;
+		}
+		long total = (long) active + historical + nameAddressRecord;
+		return total / (elapsedTime.toMillis() / 1000D);
+	}
+
+	// The elapsed time is deliberately excluded from equals and hashCode
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -79,6 +106,9 @@ public final class ImportStatistics {
 		return "-- Import statistics " + failure + "-- \n" +
 				"Active punishments: " + active + "\n" +
 				"Historical punishments: " + historical + "\n" +
-				"Name or address history records: " + nameAddressRecord;
+				"Name or address history records: " + nameAddressRecord +
+				((elapsedTime == null) ? "" : "\n" +
+						"Elapsed time: " + elapsedTime.toSeconds() + " seconds\n" +
+						"Throughput: " + Math.round(throughputPerSecond()) + " records per second");
 	}
 }
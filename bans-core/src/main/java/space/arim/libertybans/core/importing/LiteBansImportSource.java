@@ -62,7 +62,7 @@ public class LiteBansImportSource implements ImportSource {
 
 	private DatabaseStream databaseStream() {
 		return new DatabaseStream(
-				config.litebans().toConnectionSource(), config.retrievalSize());
+				config.litebans().toConnectionSource(), config.retrievalSize(), config.readerConnections());
 	}
 
 	@Override
@@ -73,7 +73,7 @@ public class LiteBansImportSource implements ImportSource {
 				.flatMap(databaseStream::streamRows);
 	}
 
-	private class PunishmentRowMapper implements SchemaRowMapper<PortablePunishment> {
+	private class PunishmentRowMapper implements PartitionedRowMapper<PortablePunishment> {
 
 		private final LiteBansTable table;
 
@@ -81,9 +81,23 @@ public class LiteBansImportSource implements ImportSource {
 			this.table = table;
 		}
 
+		private String tableName() {
+			return config.litebans().tablePrefix() + table;
+		}
+
 		@Override
 		public String selectStatement() {
-			return "SELECT * FROM " + config.litebans().tablePrefix() + table;
+			return "SELECT * FROM " + tableName();
+		}
+
+		@Override
+		public String keyRangeStatement() {
+			return "SELECT MIN(id), MAX(id) FROM " + tableName();
+		}
+
+		@Override
+		public String partitionStatement() {
+			return "SELECT * FROM " + tableName() + " WHERE id >= ? AND id < ?";
 		}
 
 		@Override
@@ -217,11 +231,25 @@ public class LiteBansImportSource implements ImportSource {
 		return databaseStream().streamRows(new HistoryRowMapper());
 	}
 
-	private class HistoryRowMapper implements SchemaRowMapper<NameAddressRecord> {
+	private class HistoryRowMapper implements PartitionedRowMapper<NameAddressRecord> {
+
+		private String tableName() {
+			return config.litebans().tablePrefix() + "history";
+		}
 
 		@Override
 		public String selectStatement() {
-			return "SELECT uuid, name, ip, date FROM " + config.litebans().tablePrefix() + "history";
+			return "SELECT uuid, name, ip, date FROM " + tableName();
+		}
+
+		@Override
+		public String keyRangeStatement() {
+			return "SELECT MIN(id), MAX(id) FROM " + tableName();
+		}
+
+		@Override
+		public String partitionStatement() {
+			return "SELECT uuid, name, ip, date FROM " + tableName() + " WHERE id >= ? AND id < ?";
 		}
 
 		@Override
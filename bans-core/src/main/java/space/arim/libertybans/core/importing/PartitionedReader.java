@@ -0,0 +1,207 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.importing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.core.service.SimpleThreadFactory;
+import space.arim.omnibus.util.ThisClass;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a table in partitions by key range, using several connections at once. Rows are
+ * handed to the consuming thread through a bounded queue, in no particular order.
+ *
+ * @param <T> the relational object type
+ */
+final class PartitionedReader<T> implements Iterator<T>, AutoCloseable {
+
+	private final ConnectionSource connectionSource;
+	private final PartitionedRowMapper<T> rowMapper;
+	private final int retrievalSize;
+	private final int threadCount;
+
+	private final ExecutorService readerThreads;
+	private final BlockingQueue<Object> queue;
+	private int remainingPartitions;
+	private Object nextElement;
+
+	// Statistics
+	private final AtomicInteger totalCount = new AtomicInteger();
+	private final AtomicInteger skipped = new AtomicInteger();
+
+	private static final Object END_OF_PARTITION = new Object();
+	private static final int PARTITIONS_PER_THREAD = 4;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	PartitionedReader(ConnectionSource connectionSource, PartitionedRowMapper<T> rowMapper,
+					  int retrievalSize, int threadCount) {
+		this.connectionSource = connectionSource;
+		this.rowMapper = rowMapper;
+		this.retrievalSize = retrievalSize;
+		this.threadCount = threadCount;
+		readerThreads = Executors.newFixedThreadPool(threadCount, SimpleThreadFactory.create("Importer-Reader"));
+		queue = new ArrayBlockingQueue<>(retrievalSize * threadCount);
+	}
+
+	/**
+	 * Determines the key range and begins reading partitions
+	 *
+	 * @throws SQLException if the key range could not be determined
+	 */
+	void start() throws SQLException {
+		long minKey;
+		long maxKey;
+		try (Connection connection = connectionSource.openConnection();
+			 PreparedStatement prepStmt = connection.prepareStatement(rowMapper.keyRangeStatement());
+			 ResultSet resultSet = prepStmt.executeQuery()) {
+
+			if (!resultSet.next()) {
+				return;
+			}
+			minKey = resultSet.getLong(1);
+			if (resultSet.wasNull()) {
+				// Empty table
+				return;
+			}
+			maxKey = resultSet.getLong(2);
+		}
+		long keySpan = maxKey - minKey + 1;
+		long partitionCount = Math.min(keySpan, (long) threadCount * PARTITIONS_PER_THREAD);
+		long partitionSize = (keySpan + partitionCount - 1) / partitionCount;
+		logger.debug("Reading keys {} to {} in {} partitions", minKey, maxKey, partitionCount);
+
+		for (long start = minKey; start <= maxKey; start += partitionSize) {
+			long partitionStart = start;
+			long partitionEnd = Math.min(start + partitionSize, maxKey + 1);
+			remainingPartitions++;
+			readerThreads.execute(() -> readPartition(partitionStart, partitionEnd));
+		}
+	}
+
+	private void readPartition(long start, long end) {
+		try (Connection connection = connectionSource.openConnection();
+			 PreparedStatement prepStmt = connection.prepareStatement(rowMapper.partitionStatement())) {
+
+			prepStmt.setLong(1, start);
+			prepStmt.setLong(2, end);
+			prepStmt.setFetchSize(retrievalSize);
+			try (ResultSet resultSet = prepStmt.executeQuery()) {
+				while (resultSet.next()) {
+					Optional<T> mapped = rowMapper.mapRow(resultSet);
+					if (mapped.isPresent()) {
+						queue.put(mapped.get());
+						int count = totalCount.incrementAndGet();
+						if (count % retrievalSize == 0) {
+							logger.info("Iterated over " + count + " rows so far. Iterating further...");
+						}
+					} else {
+						skipped.incrementAndGet();
+					}
+				}
+			}
+			queue.put(END_OF_PARTITION);
+		} catch (InterruptedException ex) {
+			// Reading was cancelled
+			Thread.currentThread().interrupt();
+		} catch (SQLException | RuntimeException ex) {
+			try {
+				queue.put(new PartitionFailure(ex));
+			} catch (InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (nextElement == null) {
+			if (remainingPartitions == 0) {
+				return false;
+			}
+			Object element;
+			try {
+				element = queue.take();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new ImportException("Interrupted while waiting for import rows", ex);
+			}
+			if (element == END_OF_PARTITION) {
+				remainingPartitions--;
+			} else if (element instanceof PartitionFailure) {
+				throw new ImportException("Failed to read partition", ((PartitionFailure) element).cause);
+			} else {
+				nextElement = element;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		@SuppressWarnings("unchecked")
+		T next = (T) nextElement;
+		nextElement = null;
+		return next;
+	}
+
+	@Override
+	public void close() {
+		// Interrupts readers blocked on the queue if the stream was not fully consumed
+		readerThreads.shutdownNow();
+		try {
+			if (!readerThreads.awaitTermination(10L, TimeUnit.SECONDS)) {
+				logger.warn("Import readers did not terminate in time");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		int skipped = this.skipped.get();
+		if (skipped > 0) {
+			logger.info("Skipping " + skipped + " rows.");
+		}
+	}
+
+	private static final class PartitionFailure {
+
+		private final Exception cause;
+
+		PartitionFailure(Exception cause) {
+			this.cause = cause;
+		}
+	}
+}
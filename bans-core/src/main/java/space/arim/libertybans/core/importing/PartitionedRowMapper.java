@@ -0,0 +1,46 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.importing;
+
+/**
+ * Row mapper for a table with a numeric key, such that the table may be read in partitions
+ * by key range using several connections at once.
+ *
+ * @param <T> the relational object type
+ */
+public interface PartitionedRowMapper<T> extends SchemaRowMapper<T> {
+
+	/**
+	 * The statement selecting the minimum and maximum key, in that order. If the table is empty,
+	 * the values should be null.
+	 *
+	 * @return the key range statement
+	 */
+	String keyRangeStatement();
+
+	/**
+	 * The select statement for a single partition. The first parameter is the inclusive start
+	 * of the key range, the second parameter the exclusive end.
+	 *
+	 * @return the partition select statement
+	 */
+	String partitionStatement();
+
+}
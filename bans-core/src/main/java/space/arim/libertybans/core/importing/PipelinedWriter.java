@@ -0,0 +1,113 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.importing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.service.SimpleThreadFactory;
+import space.arim.omnibus.util.ThisClass;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes batches on a dedicated thread, so that the next batch may be read from the
+ * import source while the previous batch is written. <br>
+ * <br>
+ * The number of batches waiting to be written is bounded. The first failure to write
+ * a batch is rethrown to the submitting thread.
+ *
+ */
+final class PipelinedWriter implements AutoCloseable {
+
+	private final BatchOperationExecutor batchExecutor;
+	private final ExecutorService writerThread;
+	private final Semaphore pendingBatches;
+	private volatile RuntimeException failure;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	PipelinedWriter(InternalDatabase database, String name, int maxPendingBatches) {
+		batchExecutor = new BatchOperationExecutor(database);
+		writerThread = Executors.newSingleThreadExecutor(SimpleThreadFactory.create(name));
+		pendingBatches = new Semaphore(maxPendingBatches);
+	}
+
+	private void checkFailure() {
+		RuntimeException failure = this.failure;
+		if (failure != null) {
+			throw new ImportException("Failed to write batch", failure);
+		}
+	}
+
+	/**
+	 * Submits a batch to be written. Blocks if too many batches are pending
+	 *
+	 * @param batch the batch, which receives the batch executor confined to the writer thread
+	 * @throws ImportException if a previous batch could not be written
+	 */
+	void submit(Consumer<BatchOperationExecutor> batch) {
+		checkFailure();
+		try {
+			pendingBatches.acquire();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new ImportException("Interrupted while waiting to write batch", ex);
+		}
+		writerThread.execute(() -> {
+			try {
+				if (failure == null) {
+					batch.accept(batchExecutor);
+				}
+			} catch (RuntimeException ex) {
+				failure = ex;
+			} finally {
+				pendingBatches.release();
+			}
+		});
+	}
+
+	/**
+	 * Waits for all pending batches to be written and releases resources
+	 *
+	 * @throws SQLException if the connection could not be closed
+	 * @throws ImportException if any batch could not be written
+	 */
+	@Override
+	public void close() throws SQLException {
+		writerThread.shutdown();
+		try {
+			while (!writerThread.awaitTermination(1L, TimeUnit.MINUTES)) {
+				logger.info("Waiting for the remaining batches to be written...");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new ImportException("Interrupted while waiting for batches to be written", ex);
+		} finally {
+			batchExecutor.close();
+		}
+		checkFailure();
+	}
+}
@@ -37,6 +37,7 @@ import space.arim.libertybans.core.database.StandardDatabase;
 import space.arim.libertybans.core.database.execute.QueryExecutor;
 import space.arim.libertybans.core.database.jooq.BatchTransfer;
 import space.arim.libertybans.core.database.sql.SequenceValue;
+import space.arim.libertybans.core.punish.ApplicableIndexWriter;
 import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
@@ -48,6 +49,7 @@ import java.util.Set;
 
 import static space.arim.libertybans.core.schema.Sequences.LIBERTYBANS_PUNISHMENT_IDS;
 import static space.arim.libertybans.core.schema.Sequences.LIBERTYBANS_VICTIM_IDS;
+import static space.arim.libertybans.core.schema.tables.ApplicableAddressIndex.APPLICABLE_ADDRESS_INDEX;
 import static space.arim.libertybans.core.schema.tables.Messages.MESSAGES;
 import static space.arim.libertybans.core.schema.tables.Punishments.PUNISHMENTS;
 import static space.arim.libertybans.core.schema.tables.Revision.REVISION;
@@ -92,6 +94,7 @@ public final class SelfImportProcess {
 					var selfImport = new SelfImport(source, target, importConfig.retrievalSize());
 					selfImport.runTransfer();
 					selfImport.updateSequences();
+					selfImport.fillAddressIndex();
 				}).join();
 			}
 			logger.info("Completed self-import process");
@@ -112,7 +115,8 @@ public final class SelfImportProcess {
 
 		private void runTransfer() {
 			for (Table<?> table : DatabaseConstants.allTables(DatabaseConstants.TableOrder.REFERENTS_FIRST)) {
-				if (table.equals(REVISION) || table.equals(MESSAGES)) {
+				// The address index depends on the address strictness of the target
+				if (table.equals(REVISION) || table.equals(MESSAGES) || table.equals(APPLICABLE_ADDRESS_INDEX)) {
 					continue;
 				}
 				logger.info("Beginning transfer of data from table: {}", table.getName());
@@ -159,6 +163,10 @@ public final class SelfImportProcess {
 			).transferData(maxBatchSize);
 		}
 
+		private void fillAddressIndex() {
+			new ApplicableIndexWriter(target).rebuildAddressIndex();
+		}
+
 		private void updateSequences() {
 			// Make sure to select MAX + 1 of sequence value
 			long nextPunishmentId = target
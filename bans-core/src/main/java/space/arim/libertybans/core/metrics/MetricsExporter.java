@@ -0,0 +1,121 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.metrics;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.metrics.Metric;
+import space.arim.libertybans.core.service.Time;
+import space.arim.omnibus.util.ThisClass;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the metrics of the {@link StandardMetricRegistry} as text, for display and for
+ * export to files in the plugin's metrics folder
+ *
+ */
+@Singleton
+public final class MetricsExporter {
+
+	private final FactoryOfTheFuture futuresFactory;
+	private final Path folder;
+	private final StandardMetricRegistry metricRegistry;
+	private final Time time;
+
+	private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd_HH-mm-ss").withZone(ZoneOffset.UTC);
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public MetricsExporter(FactoryOfTheFuture futuresFactory, @Named("folder") Path folder,
+						   StandardMetricRegistry metricRegistry, Time time) {
+		this.futuresFactory = futuresFactory;
+		this.folder = folder;
+		this.metricRegistry = metricRegistry;
+		this.time = time;
+	}
+
+	/**
+	 * Renders the current metrics, one per line
+	 *
+	 * @return the rendered metrics
+	 */
+	public List<String> report() {
+		return render(metricRegistry.getMetrics());
+	}
+
+	/**
+	 * Renders a summary of the current metrics, one per line. Unlike {@link #report()}, the
+	 * metrics of most call sites are left out, keeping the summary short enough for chat.
+	 *
+	 * @return the rendered summary
+	 */
+	public List<String> summary() {
+		return render(metricRegistry.getSummaryMetrics());
+	}
+
+	private static List<String> render(List<Metric> metrics) {
+		List<String> lines = new ArrayList<>(metrics.size());
+		for (Metric metric : metrics) {
+			// The registry only creates SimpleMetric, whose toString renders the value
+			lines.add(metric.toString());
+		}
+		return lines;
+	}
+
+	/**
+	 * Writes the current metrics to a new file in the metrics folder
+	 *
+	 * @return a future yielding the path of the written file, or {@code null} if an I/O error occurred
+	 */
+	public CentralisedFuture<Path> exportToFile() {
+		Instant timestamp = time.currentTimestamp();
+		List<String> lines = new ArrayList<>();
+		lines.add("# LibertyBans metrics at " + timestamp);
+		lines.addAll(report());
+		return futuresFactory.supplyAsync(() -> {
+			Path metricsFolder = folder.resolve("metrics");
+			Path file = metricsFolder.resolve("metrics-" + FILE_TIMESTAMP.format(timestamp) + ".txt");
+			try {
+				Files.createDirectories(metricsFolder);
+				Files.write(file, lines, StandardCharsets.UTF_8);
+			} catch (IOException ex) {
+				logger.warn("Encountered I/O error while exporting metrics", ex);
+				return null;
+			}
+			return file;
+		});
+	}
+}
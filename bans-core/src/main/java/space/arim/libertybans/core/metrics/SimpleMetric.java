@@ -0,0 +1,170 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.metrics;
+
+import space.arim.libertybans.api.metrics.CounterMetric;
+import space.arim.libertybans.api.metrics.GaugeMetric;
+import space.arim.libertybans.api.metrics.Metric;
+import space.arim.libertybans.api.metrics.TimerMetric;
+import space.arim.libertybans.core.database.execute.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+abstract class SimpleMetric implements Metric {
+
+	private final String name;
+	private final String description;
+
+	private SimpleMetric(String name, String description) {
+		this.name = Objects.requireNonNull(name, "name");
+		this.description = Objects.requireNonNull(description, "description");
+	}
+
+	static CounterMetric counter(String name, String description, LongSupplier count) {
+		return new Counter(name, description, count);
+	}
+
+	static GaugeMetric gauge(String name, String description, DoubleSupplier value) {
+		return new Gauge(name, description, value);
+	}
+
+	static TimerMetric timer(String name, String description, LatencyHistogram histogram) {
+		return new Timer(name, description, histogram);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Formats the current value of this metric on a single line
+	 *
+	 * @return the formatted value
+	 */
+	abstract String formatValue();
+
+	@Override
+	public String toString() {
+		return name + ' ' + formatValue();
+	}
+
+	private static final class Counter extends SimpleMetric implements CounterMetric {
+
+		private final LongSupplier count;
+
+		Counter(String name, String description, LongSupplier count) {
+			super(name, description);
+			this.count = count;
+		}
+
+		@Override
+		public long getCount() {
+			return count.getAsLong();
+		}
+
+		@Override
+		String formatValue() {
+			return Long.toString(getCount());
+		}
+	}
+
+	private static final class Gauge extends SimpleMetric implements GaugeMetric {
+
+		private final DoubleSupplier value;
+
+		Gauge(String name, String description, DoubleSupplier value) {
+			super(name, description);
+			this.value = value;
+		}
+
+		@Override
+		public double getValue() {
+			return value.getAsDouble();
+		}
+
+		@Override
+		String formatValue() {
+			return String.format(Locale.ROOT, "%.3f", getValue());
+		}
+	}
+
+	private static final class Timer extends SimpleMetric implements TimerMetric {
+
+		private final LatencyHistogram histogram;
+
+		Timer(String name, String description, LatencyHistogram histogram) {
+			super(name, description);
+			this.histogram = histogram;
+		}
+
+		@Override
+		public Snapshot takeSnapshot() {
+			return new HistogramSnapshot(histogram.snapshot());
+		}
+
+		@Override
+		String formatValue() {
+			Snapshot snapshot = takeSnapshot();
+			return "count=" + snapshot.getCount()
+					+ " p50=" + formatMillis(snapshot.getPercentile(50))
+					+ " p99=" + formatMillis(snapshot.getPercentile(99))
+					+ " p999=" + formatMillis(snapshot.getPercentile(99.9))
+					+ " max=" + formatMillis(snapshot.getMax());
+		}
+
+		private static String formatMillis(Duration duration) {
+			return String.format(Locale.ROOT, "%.3fms", duration.toNanos() / 1_000_000D);
+		}
+	}
+
+	private static final class HistogramSnapshot implements TimerMetric.Snapshot {
+
+		private final LatencyHistogram.Snapshot snapshot;
+
+		HistogramSnapshot(LatencyHistogram.Snapshot snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public long getCount() {
+			return snapshot.count();
+		}
+
+		@Override
+		public Duration getPercentile(double percentile) {
+			return snapshot.percentile(percentile);
+		}
+
+		@Override
+		public Duration getMax() {
+			return snapshot.max();
+		}
+	}
+}
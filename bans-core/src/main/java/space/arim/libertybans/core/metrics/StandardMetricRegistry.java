@@ -0,0 +1,255 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.metrics;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import space.arim.libertybans.api.metrics.Metric;
+import space.arim.libertybans.api.metrics.MetricRegistry;
+import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.database.execute.PoolStatistics;
+import space.arim.libertybans.core.database.execute.QueryStatistics;
+import space.arim.libertybans.core.database.execute.RetryStatistics;
+import space.arim.libertybans.core.punish.StandardGlobalEnforcement;
+import space.arim.libertybans.core.selector.Gatekeeper;
+import space.arim.libertybans.core.selector.LoginAdmission;
+import space.arim.libertybans.core.selector.cache.MuteCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Collects metrics from the statistics kept by the database, mute cache, synchronization,
+ * and login checks. Metrics are assembled on each request, so that metrics for newly seen
+ * call sites are included and statistics replaced on restart are followed.
+ *
+ */
+@Singleton
+public final class StandardMetricRegistry implements MetricRegistry {
+
+	private final Provider<InternalDatabase> dbProvider;
+	private final Provider<MuteCache> muteCache;
+	private final StandardGlobalEnforcement globalEnforcement;
+	private final Gatekeeper gatekeeper;
+	private final LoginAdmission loginAdmission;
+
+	/** How many call sites are included in the summary */
+	private static final int SUMMARY_CALL_SITES = 3;
+
+	@Inject
+	public StandardMetricRegistry(Provider<InternalDatabase> dbProvider, Provider<MuteCache> muteCache,
+								  StandardGlobalEnforcement globalEnforcement, Gatekeeper gatekeeper,
+								  LoginAdmission loginAdmission) {
+		this.dbProvider = dbProvider;
+		this.muteCache = muteCache;
+		this.globalEnforcement = globalEnforcement;
+		this.gatekeeper = gatekeeper;
+		this.loginAdmission = loginAdmission;
+	}
+
+	@Override
+	public List<Metric> getMetrics() {
+		return collectMetrics(true);
+	}
+
+	/**
+	 * Gets the metrics without those kept for each call site, except for the total time of the
+	 * call sites which are slowest at the 99th percentile. Suitable for display in chat.
+	 *
+	 * @return the summary metrics
+	 */
+	List<Metric> getSummaryMetrics() {
+		return collectMetrics(false);
+	}
+
+	private List<Metric> collectMetrics(boolean everyCallSite) {
+		List<Metric> metrics = new ArrayList<>();
+		InternalDatabase database = dbProvider.get();
+		if (everyCallSite) {
+			addCallSiteMetrics(database, metrics);
+		} else {
+			addSlowestCallSiteMetrics(database, metrics);
+		}
+		addDatabaseMetrics(database, metrics);
+		addMuteCacheMetrics(metrics);
+		addSynchronizationMetrics(metrics);
+		addLoginMetrics(metrics);
+		metrics.sort(Comparator.comparing(Metric::getName));
+		return List.copyOf(metrics);
+	}
+
+	@Override
+	public Optional<Metric> getMetric(String name) {
+		for (Metric metric : getMetrics()) {
+			if (metric.getName().equals(name)) {
+				return Optional.of(metric);
+			}
+		}
+		return Optional.empty();
+	}
+
+	private void addCallSiteMetrics(InternalDatabase database, List<Metric> metrics) {
+		database.queryStatistics().timingsByLabel().forEach((label, timings) -> {
+			metrics.add(SimpleMetric.timer(
+					"database.query.total." + label,
+					"Time from submission to completion of queries from " + label,
+					timings.total()));
+			metrics.add(SimpleMetric.timer(
+					"database.query.queue_wait." + label,
+					"Time queries from " + label + " waited for a thread and a connection permit",
+					timings.queueWait()));
+			metrics.add(SimpleMetric.timer(
+					"database.query.connection_acquisition." + label,
+					"Time queries from " + label + " spent acquiring a connection from the pool",
+					timings.connectionAcquisition()));
+			metrics.add(SimpleMetric.timer(
+					"database.query.execution." + label,
+					"Time spent executing queries from " + label,
+					timings.execution()));
+			metrics.add(SimpleMetric.timer(
+					"database.query.commit." + label,
+					"Time spent committing queries from " + label,
+					timings.commit()));
+		});
+		database.retryStatistics().snapshot().forEach((label, counts) -> {
+			metrics.add(SimpleMetric.counter(
+					"database.serialization_failures." + label,
+					"Transaction serialization failures for queries from " + label,
+					() -> countsFor(database, label).serializationFailures()));
+			metrics.add(SimpleMetric.counter(
+					"database.retries." + label,
+					"Transaction retries for queries from " + label,
+					() -> countsFor(database, label).retries()));
+			metrics.add(SimpleMetric.counter(
+					"database.retries_exhausted." + label,
+					"Queries from " + label + " which failed after exhausting their retries",
+					() -> countsFor(database, label).retriesExhausted()));
+		});
+	}
+
+	private void addSlowestCallSiteMetrics(InternalDatabase database, List<Metric> metrics) {
+		Map<String, QueryStatistics.CallSiteTimings> timingsByLabel = database.queryStatistics().timingsByLabel();
+		timingsByLabel.entrySet().stream()
+				.map((entry) -> Map.entry(entry.getKey(), entry.getValue().total().snapshot().percentile(99)))
+				.sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+				.limit(SUMMARY_CALL_SITES)
+				.forEach((entry) -> {
+					String label = entry.getKey();
+					metrics.add(SimpleMetric.timer(
+							"database.query.total." + label,
+							"Time from submission to completion of queries from " + label,
+							timingsByLabel.get(label).total()));
+				});
+	}
+
+	private void addDatabaseMetrics(InternalDatabase database, List<Metric> metrics) {
+		PoolStatistics poolStatistics = database.poolStatistics();
+		metrics.add(SimpleMetric.timer(
+				"database.pool.permit_wait",
+				"Time spent by queries waiting for a permit to use a connection",
+				poolStatistics.permitWait()));
+		metrics.add(SimpleMetric.timer(
+				"database.pool.connection_acquisition",
+				"Time spent acquiring a connection from the connection pool",
+				poolStatistics.connectionAcquisition()));
+		metrics.add(SimpleMetric.counter(
+				"database.pool.connection_timeouts",
+				"Times the connection pool's connection timeout was reached",
+				poolStatistics::connectionTimeouts));
+		metrics.add(SimpleMetric.gauge(
+				"database.expiry.pending",
+				"Upcoming punishment expirations held in the expiry index",
+				database.expiryIndex()::size));
+	}
+
+	private static RetryStatistics.Counts countsFor(InternalDatabase database, String label) {
+		// Labels are never removed from the statistics
+		return database.retryStatistics().snapshot().get(label);
+	}
+
+	private void addMuteCacheMetrics(List<Metric> metrics) {
+		MuteCache muteCache = this.muteCache.get();
+		metrics.add(SimpleMetric.counter(
+				"mutecache.hits", "Mute requests answered from the mute cache",
+				() -> muteCache.statistics().hits()));
+		metrics.add(SimpleMetric.counter(
+				"mutecache.misses", "Mute requests which required a query",
+				() -> muteCache.statistics().misses()));
+		metrics.add(SimpleMetric.counter(
+				"mutecache.refreshes", "Cached mutes queried again because they became outdated",
+				() -> muteCache.statistics().refreshes()));
+		metrics.add(SimpleMetric.counter(
+				"mutecache.invalidations", "Cached mutes dropped because the mute was removed",
+				() -> muteCache.statistics().invalidations()));
+		metrics.add(SimpleMetric.gauge(
+				"mutecache.hit_ratio", "Proportion of mute requests answered from the mute cache",
+				() -> muteCache.statistics().hitRatio()));
+	}
+
+	private void addSynchronizationMetrics(List<Metric> metrics) {
+		if (globalEnforcement.timeSinceLastPoll() == null) {
+			// Synchronization is disabled or has yet to poll
+			return;
+		}
+		metrics.add(SimpleMetric.timer(
+				"sync.poll", "Time taken to poll for synchronization messages and receive them",
+				globalEnforcement.pollDuration()));
+		metrics.add(SimpleMetric.gauge(
+				"sync.poll_lag_seconds", "Seconds since the last poll for synchronization messages completed",
+				() -> {
+					Duration timeSinceLastPoll = globalEnforcement.timeSinceLastPoll();
+					return (timeSinceLastPoll == null) ? 0D : timeSinceLastPoll.toNanos() / 1_000_000_000D;
+				}));
+	}
+
+	private void addLoginMetrics(List<Metric> metrics) {
+		metrics.add(SimpleMetric.timer(
+				"login.decision", "Time taken to decide whether a player may join",
+				gatekeeper.decisionTime()));
+		metrics.add(SimpleMetric.timer(
+				"login.admission.queue_wait", "Time logins spent queued by admission control",
+				loginAdmission.queueWait()));
+		metrics.add(SimpleMetric.gauge(
+				"login.admission.queue_depth", "Logins currently queued by admission control",
+				loginAdmission::queueDepth));
+		metrics.add(SimpleMetric.gauge(
+				"login.admission.peak_queue_depth", "Most logins ever queued by admission control at once",
+				loginAdmission::peakQueueDepth));
+		metrics.add(SimpleMetric.gauge(
+				"login.admission.in_flight", "Login checks currently running",
+				loginAdmission::inFlight));
+		metrics.add(SimpleMetric.counter(
+				"login.admission.denied", "Logins denied because admission control was saturated",
+				loginAdmission::deniedLogins));
+		metrics.add(SimpleMetric.counter(
+				"login.admission.deferred",
+				"Logins admitted with a deferred check because admission control was saturated",
+				loginAdmission::deferredLogins));
+		metrics.add(SimpleMetric.counter(
+				"login.admission.deferred_dropped",
+				"Logins admitted without a check because too many deferred checks were waiting",
+				loginAdmission::droppedDeferredChecks));
+	}
+}
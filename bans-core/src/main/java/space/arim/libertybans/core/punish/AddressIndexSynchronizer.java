@@ -0,0 +1,145 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish;
+
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.execute.SQLFunction;
+import space.arim.libertybans.core.selector.AddressStrictness;
+import space.arim.omnibus.util.ThisClass;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
+import static space.arim.libertybans.core.schema.tables.ApplicableAddressIndex.APPLICABLE_ADDRESS_INDEX;
+
+/**
+ * Starts or stops maintaining the address index to match the configured address strictness. <br>
+ * <br>
+ * The address index is only needed, and so only maintained, under STRICT address strictness.
+ * Switching to STRICT fills the index, and switching away clears it. Both are done in batches
+ * of addresses, each in its own transaction, so that no single transaction grows with the
+ * size of the database.
+ *
+ */
+public final class AddressIndexSynchronizer {
+
+	private final QueryExecutor queryExecutor;
+
+	/** Number of addresses per transaction */
+	private static final int BATCH_SIZE = 500;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	public AddressIndexSynchronizer(QueryExecutor queryExecutor) {
+		this.queryExecutor = Objects.requireNonNull(queryExecutor, "queryExecutor");
+	}
+
+	/**
+	 * Synchronizes the address index with the given address strictness. Blocks until complete
+	 *
+	 * @param strictness the configured address strictness
+	 */
+	public void synchronize(AddressStrictness strictness) {
+		boolean strict = strictness == AddressStrictness.STRICT;
+		boolean maintained = queryExecutor.query(SQLFunction.readOnly((context) -> {
+			return new ApplicableIndexWriter(context).isAddressIndexMaintained();
+		})).join();
+		if (strict) {
+			boolean filled = maintained && queryExecutor.query(SQLFunction.readOnly((context) -> {
+				return new ApplicableIndexWriter(context).isAddressIndexFilled();
+			})).join();
+			if (!filled) {
+				fill();
+			}
+		} else if (maintained) {
+			logger.info("Clearing the address index, which is only used for strict address strictness");
+			queryExecutor.executeWithRetry((context, transaction) -> {
+				new ApplicableIndexWriter(context).setAddressIndexMaintained(false);
+			}).join();
+			clear();
+		}
+	}
+
+	private void fill() {
+		logger.info("Filling the address index for strict address strictness. This may take a while.");
+		// Remove rows left behind by an interrupted fill or clear
+		clear();
+		queryExecutor.executeWithRetry((context, transaction) -> {
+			new ApplicableIndexWriter(context).setAddressIndexMaintained(true);
+		}).join();
+		forEachBatch(
+				(context, lastAddress) -> {
+					return context
+							.selectDistinct(ADDRESSES.ADDRESS)
+							.from(ADDRESSES)
+							.where((lastAddress == null) ? ADDRESSES.ADDRESS.isNotNull() : ADDRESSES.ADDRESS.gt(lastAddress))
+							.orderBy(ADDRESSES.ADDRESS)
+							.limit(BATCH_SIZE)
+							.fetch(ADDRESSES.ADDRESS);
+				},
+				(writer, addresses) -> writer.reindexAddresses(addresses)
+		);
+		queryExecutor.executeWithRetry((context, transaction) -> {
+			new ApplicableIndexWriter(context).setAddressIndexFilled();
+		}).join();
+		logger.info("Filled the address index");
+	}
+
+	private void clear() {
+		// Deleting the first batch of addresses each time, no keyset is needed
+		forEachBatch(
+				(context, lastAddress) -> {
+					return context
+							.selectDistinct(APPLICABLE_ADDRESS_INDEX.ADDRESS)
+							.from(APPLICABLE_ADDRESS_INDEX)
+							.orderBy(APPLICABLE_ADDRESS_INDEX.ADDRESS)
+							.limit(BATCH_SIZE)
+							.fetch(APPLICABLE_ADDRESS_INDEX.ADDRESS);
+				},
+				(writer, addresses) -> writer.unindexAddresses(addresses)
+		);
+	}
+
+	private void forEachBatch(BiFunction<DSLContext, NetworkAddress, List<NetworkAddress>> nextBatch,
+							  BiConsumer<ApplicableIndexWriter, List<NetworkAddress>> action) {
+		NetworkAddress lastAddress = null;
+		while (true) {
+			NetworkAddress previousAddress = lastAddress;
+			lastAddress = queryExecutor.queryWithRetry((context, transaction) -> {
+				List<NetworkAddress> addresses = nextBatch.apply(context, previousAddress);
+				if (addresses.isEmpty()) {
+					return null;
+				}
+				action.accept(new ApplicableIndexWriter(context), addresses);
+				return addresses.get(addresses.size() - 1);
+			}).join();
+			if (lastAddress == null) {
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,407 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish;
+
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.database.sql.FixedVictimData;
+import space.arim.libertybans.core.database.sql.SerializedVictim;
+import space.arim.libertybans.core.database.sql.SimpleViewFields;
+import space.arim.libertybans.core.database.sql.VictimCondition;
+import space.arim.libertybans.core.database.sql.VictimData;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.jooq.impl.DSL.exists;
+import static org.jooq.impl.DSL.noCondition;
+import static org.jooq.impl.DSL.val;
+import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
+import static space.arim.libertybans.core.schema.tables.ApplicableActive.APPLICABLE_ACTIVE;
+import static space.arim.libertybans.core.schema.tables.ApplicableAddressIndex.APPLICABLE_ADDRESS_INDEX;
+import static space.arim.libertybans.core.schema.tables.ApplicableAddressIndexState.APPLICABLE_ADDRESS_INDEX_STATE;
+import static space.arim.libertybans.core.schema.tables.ApplicableIndex.APPLICABLE_INDEX;
+import static space.arim.libertybans.core.schema.tables.SimpleActive.SIMPLE_ACTIVE;
+
+/**
+ * Maintains the applicable index table, which pairs each active punishment with the uuids
+ * to which it applies by uuid or by past address. <br>
+ * <br>
+ * The table holds the same pairs as the applicable_* views, but may be probed by uuid
+ * using an index. It must therefore be updated whenever an active punishment is added
+ * or removed, and whenever an address is associated with or removed from a user. <br>
+ * <br>
+ * For STRICT address enforcement, the applicable address index pairs each address with the
+ * punishments in the applicable index of every user who has used the address. A user is then
+ * subject to the punishments of each of their own addresses. The address index is derived
+ * from the applicable index and the addresses, and is only maintained while its state table
+ * has a row, see {@link #setAddressIndexMaintained(boolean)}.
+ *
+ */
+public final class ApplicableIndexWriter {
+
+	private final DSLContext context;
+
+	public ApplicableIndexWriter(DSLContext context) {
+		this.context = Objects.requireNonNull(context, "context");
+	}
+
+	/**
+	 * Indexes a newly enacted active punishment for all users with a matching uuid or address
+	 *
+	 * @param id the punishment id
+	 * @param type the punishment type
+	 * @param end the punishment end date
+	 * @param victim the punishment victim, which must not have wildcards
+	 */
+	void indexPunishment(long id, PunishmentType type, Instant end, VictimData victim) {
+		indexPunishment(id, type, end, victim, noCondition());
+	}
+
+	/**
+	 * Indexes an active punishment again, in a transaction begun after its enactment was committed.
+	 * Does nothing if the punishment is no longer active. <br>
+	 * <br>
+	 * Under repeatable read, the enacting transaction does not see addresses newly associated by
+	 * concurrent transactions, which in turn do not see the new punishment. Likewise, a transaction
+	 * associating an address does not see the same address associated with other users concurrently.
+	 * Both sides therefore repeat their inserts once committed, and the later of the two sees the
+	 * other. The address side is {@link Association#recheckNewAddress(NetworkAddress)}.
+	 *
+	 * @param punishment the punishment, which must not be a kick
+	 */
+	public void reindexPunishment(Punishment punishment) {
+		var simpleActive = new SimpleViewFields<>(SIMPLE_ACTIVE);
+		long id = punishment.getIdentifier();
+		indexPunishment(
+				id, punishment.getType(), punishment.getEndDate(),
+				FixedVictimData.from(new SerializedVictim(punishment.getVictim())),
+				exists(context.selectOne().from(simpleActive.table()).where(simpleActive.id().eq(id)))
+		);
+	}
+
+	private void indexPunishment(long id, PunishmentType type, Instant end, VictimData victim,
+								 Condition stillActive) {
+		Condition addressMatchesVictim;
+		switch (victim.type()) {
+		case PLAYER:
+			addressMatchesVictim = ADDRESSES.UUID.eq(victim.uuid());
+			break;
+		case ADDRESS:
+			addressMatchesVictim = ADDRESSES.ADDRESS.eq(victim.address());
+			break;
+		case COMPOSITE:
+			addressMatchesVictim = ADDRESSES.UUID.eq(victim.uuid()).or(ADDRESSES.ADDRESS.eq(victim.address()));
+			break;
+		default:
+			throw MiscUtil.unknownVictimType(victim.type());
+		}
+		context
+				.insertInto(APPLICABLE_INDEX)
+				.columns(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID, APPLICABLE_INDEX.TYPE, APPLICABLE_INDEX.END)
+				.select(context
+						.selectDistinct(
+								ADDRESSES.UUID, val(id, APPLICABLE_INDEX.ID),
+								val(type, APPLICABLE_INDEX.TYPE), val(end, APPLICABLE_INDEX.END)
+						)
+						.from(ADDRESSES)
+						.where(addressMatchesVictim)
+						.and(stillActive)
+				)
+				.onConflict(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID)
+				.doNothing()
+				.execute();
+		addressIndexInsertWhere(APPLICABLE_INDEX.ID.eq(id).and(stillActive)).execute();
+	}
+
+	/**
+	 * Creates a query indexing the active punishments which apply to a user by virtue of
+	 * an address association. Should be executed alongside the association itself
+	 *
+	 * @param uuid the user's uuid
+	 * @param address the associated address
+	 * @return the query
+	 */
+	Query associationInsert(UUID uuid, NetworkAddress address) {
+		var simpleActive = new SimpleViewFields<>(SIMPLE_ACTIVE);
+		return context
+				.insertInto(APPLICABLE_INDEX)
+				.columns(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID, APPLICABLE_INDEX.TYPE, APPLICABLE_INDEX.END)
+				.select(context
+						.select(
+								val(uuid, APPLICABLE_INDEX.UUID), simpleActive.id(),
+								simpleActive.type(), simpleActive.end()
+						)
+						.from(simpleActive.table())
+						.where(new VictimCondition(simpleActive).simplyMatches(val(uuid), val(address)))
+				)
+				.onConflict(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID)
+				.doNothing();
+	}
+
+	/**
+	 * Creates a query adding the punishments in the applicable index of a user to the address
+	 * index, for each of the user's addresses. Should be executed after the user's applicable
+	 * index entries for a new address association are written
+	 *
+	 * @param uuid the user's uuid
+	 * @return the query
+	 */
+	Query addressIndexInsert(UUID uuid) {
+		return addressIndexInsertWhere(ADDRESSES.UUID.eq(uuid));
+	}
+
+	/**
+	 * Removes a punishment which is no longer active from the index
+	 *
+	 * @param id the punishment id
+	 */
+	void unindexPunishment(long id) {
+		context
+				.deleteFrom(APPLICABLE_INDEX)
+				.where(APPLICABLE_INDEX.ID.eq(id))
+				.execute();
+		context
+				.deleteFrom(APPLICABLE_ADDRESS_INDEX)
+				.where(APPLICABLE_ADDRESS_INDEX.ID.eq(id))
+				.execute();
+	}
+
+	/**
+	 * Removes expired punishments from the index
+	 *
+	 * @param ids the ids of the expired punishments
+	 */
+	public void unindexExpired(Collection<Long> ids) {
+		context
+				.deleteFrom(APPLICABLE_INDEX)
+				.where(APPLICABLE_INDEX.ID.in(ids))
+				.execute();
+		context
+				.deleteFrom(APPLICABLE_ADDRESS_INDEX)
+				.where(APPLICABLE_ADDRESS_INDEX.ID.in(ids))
+				.execute();
+	}
+
+	/**
+	 * Recomputes the index entries of a single user, and the address index entries of the
+	 * user's addresses. Used after addresses are removed
+	 *
+	 * @param uuid the user's uuid
+	 * @param removedAddresses the addresses removed from the user
+	 */
+	public void reindexUser(UUID uuid, Collection<NetworkAddress> removedAddresses) {
+		context
+				.deleteFrom(APPLICABLE_INDEX)
+				.where(APPLICABLE_INDEX.UUID.eq(uuid))
+				.execute();
+		context
+				.insertInto(APPLICABLE_INDEX)
+				.columns(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID, APPLICABLE_INDEX.TYPE, APPLICABLE_INDEX.END)
+				.select(context
+						.selectDistinct(
+								APPLICABLE_ACTIVE.UUID, APPLICABLE_ACTIVE.ID,
+								APPLICABLE_ACTIVE.TYPE, APPLICABLE_ACTIVE.END
+						)
+						.from(APPLICABLE_ACTIVE)
+						.where(APPLICABLE_ACTIVE.UUID.eq(uuid))
+				)
+				.execute();
+		Set<NetworkAddress> addresses = new HashSet<>(removedAddresses);
+		addresses.addAll(context
+				.select(ADDRESSES.ADDRESS)
+				.from(ADDRESSES)
+				.where(ADDRESSES.UUID.eq(uuid))
+				.fetch(ADDRESSES.ADDRESS));
+		reindexAddresses(addresses);
+	}
+
+	/**
+	 * Recomputes the address index entries of the given addresses
+	 *
+	 * @param addresses the addresses
+	 */
+	public void reindexAddresses(Collection<NetworkAddress> addresses) {
+		unindexAddresses(addresses);
+		addressIndexInsertWhere(ADDRESSES.ADDRESS.in(addresses)).execute();
+	}
+
+	/**
+	 * Removes the address index entries of the given addresses
+	 *
+	 * @param addresses the addresses
+	 */
+	public void unindexAddresses(Collection<NetworkAddress> addresses) {
+		context
+				.deleteFrom(APPLICABLE_ADDRESS_INDEX)
+				.where(APPLICABLE_ADDRESS_INDEX.ADDRESS.in(addresses))
+				.execute();
+	}
+
+	/**
+	 * Whether the address index is maintained
+	 *
+	 * @return true if maintained
+	 */
+	public boolean isAddressIndexMaintained() {
+		return context.fetchExists(APPLICABLE_ADDRESS_INDEX_STATE);
+	}
+
+	/**
+	 * Whether the address index is maintained and has been filled since maintenance started
+	 *
+	 * @return true if maintained and filled
+	 */
+	public boolean isAddressIndexFilled() {
+		return context.fetchExists(
+				APPLICABLE_ADDRESS_INDEX_STATE, APPLICABLE_ADDRESS_INDEX_STATE.FILLED.eq((short) 1));
+	}
+
+	/**
+	 * Marks the address index as filled, if it is maintained
+	 *
+	 */
+	public void setAddressIndexFilled() {
+		context
+				.update(APPLICABLE_ADDRESS_INDEX_STATE)
+				.set(APPLICABLE_ADDRESS_INDEX_STATE.FILLED, (short) 1)
+				.execute();
+	}
+
+	/**
+	 * Starts or stops maintaining the address index. Starting does not fill the index, which
+	 * must be done separately, for example with {@link #reindexAddresses(Collection)}, and
+	 * then marked with {@link #setAddressIndexFilled()}
+	 *
+	 * @param maintained whether to maintain the address index
+	 */
+	public void setAddressIndexMaintained(boolean maintained) {
+		if (maintained) {
+			context
+					.insertInto(APPLICABLE_ADDRESS_INDEX_STATE)
+					.columns(APPLICABLE_ADDRESS_INDEX_STATE.CONSTANT, APPLICABLE_ADDRESS_INDEX_STATE.FILLED)
+					.values("Constant", (short) 0)
+					.onConflict(APPLICABLE_ADDRESS_INDEX_STATE.CONSTANT)
+					.doNothing()
+					.execute();
+		} else {
+			context
+					.deleteFrom(APPLICABLE_ADDRESS_INDEX_STATE)
+					.execute();
+		}
+	}
+
+	private Query addressIndexInsertWhere(Condition condition) {
+		return context
+				.insertInto(APPLICABLE_ADDRESS_INDEX)
+				.columns(
+						APPLICABLE_ADDRESS_INDEX.ADDRESS, APPLICABLE_ADDRESS_INDEX.ID,
+						APPLICABLE_ADDRESS_INDEX.TYPE, APPLICABLE_ADDRESS_INDEX.END
+				)
+				.select(context
+						.selectDistinct(ADDRESSES.ADDRESS, APPLICABLE_INDEX.ID, APPLICABLE_INDEX.TYPE, APPLICABLE_INDEX.END)
+						.from(ADDRESSES)
+						.innerJoin(APPLICABLE_INDEX)
+						.on(APPLICABLE_INDEX.UUID.eq(ADDRESSES.UUID))
+						.where(condition)
+						.and(addressIndexMaintained())
+				)
+				.onConflict(APPLICABLE_ADDRESS_INDEX.ADDRESS, APPLICABLE_ADDRESS_INDEX.ID)
+				.doNothing();
+	}
+
+	private Condition addressIndexMaintained() {
+		return exists(context.selectOne().from(APPLICABLE_ADDRESS_INDEX_STATE));
+	}
+
+	/**
+	 * Indexes the given active punishments, adding to the existing index. Used after data is
+	 * written in bulk without maintaining the index, one batch of punishments at a time
+	 *
+	 * @param ids the ids of the active punishments
+	 */
+	public void indexActive(Collection<Long> ids) {
+		context
+				.insertInto(APPLICABLE_INDEX)
+				.columns(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID, APPLICABLE_INDEX.TYPE, APPLICABLE_INDEX.END)
+				.select(context
+						.selectDistinct(
+								APPLICABLE_ACTIVE.UUID, APPLICABLE_ACTIVE.ID,
+								APPLICABLE_ACTIVE.TYPE, APPLICABLE_ACTIVE.END
+						)
+						.from(APPLICABLE_ACTIVE)
+						.where(APPLICABLE_ACTIVE.ID.in(ids))
+				)
+				.onConflict(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID)
+				.doNothing()
+				.execute();
+		addressIndexInsertWhere(APPLICABLE_INDEX.ID.in(ids)).execute();
+	}
+
+	/**
+	 * Recomputes the entire index in a single transaction. Used after data is written in bulk
+	 * without maintaining the index
+	 *
+	 */
+	public void rebuild() {
+		context
+				.deleteFrom(APPLICABLE_INDEX)
+				.execute();
+		context
+				.insertInto(APPLICABLE_INDEX)
+				.columns(APPLICABLE_INDEX.UUID, APPLICABLE_INDEX.ID, APPLICABLE_INDEX.TYPE, APPLICABLE_INDEX.END)
+				.select(context
+						.selectDistinct(
+								APPLICABLE_ACTIVE.UUID, APPLICABLE_ACTIVE.ID,
+								APPLICABLE_ACTIVE.TYPE, APPLICABLE_ACTIVE.END
+						)
+						.from(APPLICABLE_ACTIVE)
+				)
+				.execute();
+		rebuildAddressIndex();
+	}
+
+	/**
+	 * Recomputes the entire address index in a single transaction, or clears it if it is not
+	 * maintained. The applicable index must be complete
+	 *
+	 */
+	public void rebuildAddressIndex() {
+		context
+				.deleteFrom(APPLICABLE_ADDRESS_INDEX)
+				.execute();
+		addressIndexInsertWhere(noCondition()).execute();
+	}
+
+	@Override
+	public String toString() {
+		return "ApplicableIndexWriter{" +
+				"context=" + context +
+				'}';
+	}
+}
@@ -20,9 +20,11 @@
 package space.arim.libertybans.core.punish;
 
 import org.jooq.DSLContext;
+import org.jooq.Query;
 import space.arim.libertybans.api.NetworkAddress;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -40,53 +42,128 @@ public final class Association {
 	}
 
 	public void associateCurrentName(String name, Instant currentTime) {
+		currentNameUpsert(name, currentTime).execute();
+	}
+
+	Query currentNameUpsert(String name, Instant currentTime) {
 		Objects.requireNonNull(name, "name");
 		Objects.requireNonNull(currentTime, "currentTime");
-		context
+		return context
 				.insertInto(NAMES)
 				.columns(NAMES.UUID, NAMES.NAME, NAMES.UPDATED)
 				.values(uuid, name, currentTime)
 				.onConflict(NAMES.UUID, NAMES.NAME)
 				.doUpdate()
-				.set(NAMES.UPDATED, currentTime)
-				.execute();
+				.set(NAMES.UPDATED, currentTime);
 	}
 
 	public void associatePastName(String name, Instant pastTime) {
+		pastNameInsert(name, pastTime).execute();
+	}
+
+	public Query pastNameInsert(String name, Instant pastTime) {
 		Objects.requireNonNull(name, "name");
 		Objects.requireNonNull(pastTime, "pastTime");
-		context
+		return context
 				.insertInto(NAMES)
 				.columns(NAMES.UUID, NAMES.NAME, NAMES.UPDATED)
 				.values(uuid, name, pastTime)
 				.onConflict(NAMES.UUID, NAMES.NAME)
-				.doNothing()
-				.execute();
+				.doNothing();
+	}
+
+	/**
+	 * Associates the user with their current address. The rows derived from the association are
+	 * only written if the user has not used the address before.
+	 *
+	 * @param address the current address
+	 * @param currentTime the current time
+	 * @return true if the address was newly associated, false if the association already existed
+	 */
+	public boolean associateCurrentAddress(NetworkAddress address, Instant currentTime) {
+		if (addressInsert(address, currentTime).execute() == 0) {
+			// Already associated. Only the time of the association changes
+			context
+					.update(ADDRESSES)
+					.set(ADDRESSES.UPDATED, currentTime)
+					.where(ADDRESSES.UUID.eq(uuid))
+					.and(ADDRESSES.ADDRESS.eq(address))
+					.execute();
+			return false;
+		}
+		applicableIndexInsert(address).execute();
+		addressIndexInsert().execute();
+		return true;
 	}
 
-	public void associateCurrentAddress(NetworkAddress address, Instant currentTime) {
+	Query currentAddressUpsert(NetworkAddress address, Instant currentTime) {
 		Objects.requireNonNull(address, "address");
 		Objects.requireNonNull(currentTime, "currentTime");
-		context
+		return context
 				.insertInto(ADDRESSES)
 				.columns(ADDRESSES.UUID, ADDRESSES.ADDRESS, ADDRESSES.UPDATED)
 				.values(uuid, address, currentTime)
 				.onConflict(ADDRESSES.UUID, ADDRESSES.ADDRESS)
 				.doUpdate()
-				.set(ADDRESSES.UPDATED, currentTime)
-				.execute();
+				.set(ADDRESSES.UPDATED, currentTime);
 	}
 
 	public void associatePastAddress(NetworkAddress address, Instant pastTime) {
-		Objects.requireNonNull(address, "address");
+		if (pastAddressInsert(address, pastTime).execute() != 0) {
+			applicableIndexInsert(address).execute();
+			addressIndexInsert().execute();
+		}
+	}
+
+	public Query pastAddressInsert(NetworkAddress address, Instant pastTime) {
 		Objects.requireNonNull(pastTime, "pastTime");
-		context
+		return addressInsert(address, pastTime);
+	}
+
+	private Query addressInsert(NetworkAddress address, Instant time) {
+		Objects.requireNonNull(address, "address");
+		Objects.requireNonNull(time, "time");
+		return context
 				.insertInto(ADDRESSES)
 				.columns(ADDRESSES.UUID, ADDRESSES.ADDRESS, ADDRESSES.UPDATED)
-				.values(uuid, address, pastTime)
+				.values(uuid, address, time)
 				.onConflict(ADDRESSES.UUID, ADDRESSES.ADDRESS)
-				.doNothing()
-				.execute();
+				.doNothing();
+	}
+
+	/**
+	 * Creates a query which adds the punishments applicable through the given address to the
+	 * applicable index. Must be executed after the address association
+	 *
+	 * @param address the associated address
+	 * @return the query
+	 */
+	Query applicableIndexInsert(NetworkAddress address) {
+		Objects.requireNonNull(address, "address");
+		return new ApplicableIndexWriter(context).associationInsert(uuid, address);
+	}
+
+	/**
+	 * Creates a query which adds the punishments applicable to the user to the address index,
+	 * for each of the user's addresses. Must be executed after {@link #applicableIndexInsert(NetworkAddress)}
+	 *
+	 * @return the query
+	 */
+	Query addressIndexInsert() {
+		return new ApplicableIndexWriter(context).addressIndexInsert(uuid);
+	}
+
+	/**
+	 * Creates the queries which recheck the rows derived from a new address association, in a
+	 * transaction begun after the association was committed. This is the address side of
+	 * {@link ApplicableIndexWriter#reindexPunishment(space.arim.libertybans.api.punish.Punishment)},
+	 * which explains why both are needed.
+	 *
+	 * @param address the newly associated address
+	 * @return the queries
+	 */
+	List<Query> recheckNewAddress(NetworkAddress address) {
+		return List.of(applicableIndexInsert(address), addressIndexInsert());
 	}
 
 	@Override
@@ -0,0 +1,364 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.core.Part;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.omnibus.util.ThisClass;
+import space.arim.omnibus.util.concurrent.DelayCalculators;
+import space.arim.omnibus.util.concurrent.EnhancedExecutor;
+import space.arim.omnibus.util.concurrent.ScheduledTask;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
+
+/**
+ * Write-behind queue for the name and address associations recorded on login. <br>
+ * <br>
+ * When enabled, associations are queued and later written in batches, either periodically
+ * or once enough associations are queued. When disabled, or if the queue is full, associations
+ * are written immediately using the caller's context. <br>
+ * <br>
+ * Deferred associations are only queued once the caller's transaction has committed, so that
+ * a retried or failed transaction does not queue them. <br>
+ * <br>
+ * The applicable index and address index entries derived from an address association are only written
+ * when the address is new to the user. Once such an association has committed, they are
+ * written again to include concurrently enacted punishments and concurrent associations. <br>
+ * <br>
+ * If writing a batch fails, its associations are put back in the queue as far as it has room.
+ * The rest are written one at a time.
+ *
+ */
+@Singleton
+public final class AssociationQueue implements Part {
+
+	private final Configs configs;
+	private final EnhancedExecutor enhancedExecutor;
+	private final Provider<QueryExecutor> queryExecutor;
+
+	private volatile @Nullable Queue queue;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public AssociationQueue(Configs configs, EnhancedExecutor enhancedExecutor,
+							Provider<QueryExecutor> queryExecutor) {
+		this.configs = configs;
+		this.enhancedExecutor = enhancedExecutor;
+		this.queryExecutor = queryExecutor;
+	}
+
+	@Override
+	public void startup() {
+		SqlConfig.DeferredAssociations conf = configs.getSqlConfig().deferredAssociations();
+		if (!conf.enable()) {
+			return;
+		}
+		Queue queue = new Queue(new ArrayBlockingQueue<>(conf.maxQueued()), conf.batchSize());
+		queue.flushTask = enhancedExecutor.scheduleRepeating(
+				queue::flush,
+				Duration.ofMillis(conf.flushIntervalMillis()),
+				DelayCalculators.fixedDelay()
+		);
+		this.queue = queue;
+	}
+
+	@Override
+	public void restart() {
+		shutdown();
+		startup();
+	}
+
+	@Override
+	public void shutdown() {
+		Queue queue = this.queue;
+		if (queue == null) {
+			return;
+		}
+		this.queue = null;
+		queue.flushTask.cancel();
+		// Write whatever remains
+		queue.flush().join();
+	}
+
+	/**
+	 * Associates the player's current name and address. The name association may be deferred.
+	 * The address association may be deferred unless {@code addressRequiredNow} is true. <br>
+	 * <br>
+	 * Deferred associations are not yet queued. Once the transaction using the given context has
+	 * committed, the caller must pass the result to {@link #enqueue(PendingAssociation)}.
+	 *
+	 * @param context the database context, used for associations which are not deferred
+	 * @param uuid the player's uuid
+	 * @param name the player's name
+	 * @param address the player's address
+	 * @param currentTime the current time
+	 * @param addressRequiredNow whether the address association must be visible in the current transaction
+	 * @return the deferred associations and the new address association to recheck, or null if
+	 * there are neither
+	 */
+	public @Nullable PendingAssociation associateCurrent(DSLContext context, UUID uuid, String name,
+														 NetworkAddress address, Instant currentTime,
+														 boolean addressRequiredNow) {
+		Association association = new Association(uuid, context);
+		Queue queue = this.queue;
+		if (queue == null || queue.pending.remainingCapacity() == 0) {
+			// Disabled, or the queue is full
+			// In the latter case, apply back-pressure by writing in the login transaction
+			association.associateCurrentName(name, currentTime);
+			if (association.associateCurrentAddress(address, currentTime)) {
+				return new PendingAssociation(uuid, null, null, address, currentTime);
+			}
+			return null;
+		}
+		if (addressRequiredNow) {
+			boolean newAddress = association.associateCurrentAddress(address, currentTime);
+			return new PendingAssociation(uuid, name, null, (newAddress) ? address : null, currentTime);
+		}
+		return new PendingAssociation(uuid, name, address, null, currentTime);
+	}
+
+	/**
+	 * Queues associations deferred by {@link #associateCurrent(DSLContext, UUID, String, NetworkAddress, Instant, boolean)}.
+	 * Must be called after the transaction in which they were deferred has committed. <br>
+	 * <br>
+	 * If the queue has since filled up or been shut down, the associations are written without queueing.
+	 * If an address was newly associated in the committed transaction, its derived rows are rechecked.
+	 *
+	 * @param association the deferred associations, or null if there are none
+	 */
+	public void enqueue(@Nullable PendingAssociation association) {
+		if (association == null) {
+			return;
+		}
+		if (association.newAddress != null) {
+			recheckNewAddresses(List.of(Map.entry(association.uuid, association.newAddress)));
+		}
+		if (association.name == null && association.address == null) {
+			return;
+		}
+		Queue queue = this.queue;
+		if (queue == null || !queue.offer(association)) {
+			write(List.of(association));
+		}
+	}
+
+	private CompletableFuture<?> write(List<PendingAssociation> associations) {
+		return writeNow(associations).handle((ignore, ex) -> {
+			if (ex == null) {
+				return CompletableFuture.completedFuture(null);
+			}
+			logger.warn("Failed to write {} deferred name and address associations. They will be written again.",
+					associations.size(), ex);
+			return writeAgain(associations);
+		}).thenCompose(Function.identity());
+	}
+
+	private CompletableFuture<?> writeAgain(List<PendingAssociation> associations) {
+		Queue queue = this.queue;
+		List<CompletableFuture<?>> singleWrites = new ArrayList<>();
+		for (PendingAssociation association : associations) {
+			// Bypass Queue#offer, which may flush immediately and fail again
+			if (queue != null && queue.pending.offer(association)) {
+				continue;
+			}
+			singleWrites.add(writeNow(List.of(association)).whenComplete((ignore, ex) -> {
+				if (ex != null) {
+					logger.error("Failed to write deferred name and address associations of {}", association.uuid, ex);
+				}
+			}));
+		}
+		return CompletableFuture.allOf(singleWrites.toArray(CompletableFuture[]::new));
+	}
+
+	private CompletableFuture<?> writeNow(List<PendingAssociation> associations) {
+		// Coalesce repeated logins, keeping the latest time
+		Map<Map.Entry<UUID, String>, Instant> names = new HashMap<>();
+		Map<Map.Entry<UUID, NetworkAddress>, Instant> addresses = new HashMap<>();
+		for (PendingAssociation association : associations) {
+			if (association.name != null) {
+				names.merge(Map.entry(association.uuid, association.name), association.time, AssociationQueue::latest);
+			}
+			if (association.address != null) {
+				addresses.merge(Map.entry(association.uuid, association.address), association.time, AssociationQueue::latest);
+			}
+		}
+		return queryExecutor.get().queryWithRetry((context, transaction) -> {
+			Set<Map.Entry<UUID, NetworkAddress>> existing = existingAddresses(context, addresses.keySet());
+			List<Map.Entry<UUID, NetworkAddress>> newAddresses = new ArrayList<>();
+			List<Query> upserts = new ArrayList<>(names.size() + 3 * addresses.size());
+			names.forEach((key, time) -> {
+				upserts.add(new Association(key.getKey(), context).currentNameUpsert(key.getValue(), time));
+			});
+			addresses.forEach((key, time) -> {
+				Association association = new Association(key.getKey(), context);
+				upserts.add(association.currentAddressUpsert(key.getValue(), time));
+				if (!existing.contains(key)) {
+					// Derived rows need only be written for new associations
+					upserts.add(association.applicableIndexInsert(key.getValue()));
+					upserts.add(association.addressIndexInsert());
+					newAddresses.add(key);
+				}
+			});
+			context.batch(upserts).execute();
+			return newAddresses;
+		}).thenAccept((newAddresses) -> {
+			logger.trace("Wrote {} deferred associations", associations.size());
+			if (!newAddresses.isEmpty()) {
+				recheckNewAddresses(newAddresses);
+			}
+		});
+	}
+
+	private static Set<Map.Entry<UUID, NetworkAddress>> existingAddresses(DSLContext context,
+																		  Set<Map.Entry<UUID, NetworkAddress>> addresses) {
+		if (addresses.isEmpty()) {
+			return Set.of();
+		}
+		Set<UUID> uuids = new HashSet<>();
+		Set<NetworkAddress> addressValues = new HashSet<>();
+		for (Map.Entry<UUID, NetworkAddress> address : addresses) {
+			uuids.add(address.getKey());
+			addressValues.add(address.getValue());
+		}
+		return context
+				.select(ADDRESSES.UUID, ADDRESSES.ADDRESS)
+				.from(ADDRESSES)
+				.where(ADDRESSES.UUID.in(uuids))
+				.and(ADDRESSES.ADDRESS.in(addressValues))
+				.fetchSet((record) -> Map.entry(record.value1(), record.value2()));
+	}
+
+	private void recheckNewAddresses(List<Map.Entry<UUID, NetworkAddress>> newAddresses) {
+		// Runs in a later transaction than the one which associated the addresses
+		queryExecutor.get().executeWithRetry((context, transaction) -> {
+			List<Query> rechecks = new ArrayList<>();
+			for (Map.Entry<UUID, NetworkAddress> newAddress : newAddresses) {
+				rechecks.addAll(new Association(newAddress.getKey(), context).recheckNewAddress(newAddress.getValue()));
+			}
+			context.batch(rechecks).execute();
+		}).whenComplete((ignore, ex) -> {
+			if (ex != null) {
+				logger.warn("Failed to recheck {} new address associations", newAddresses.size(), ex);
+			}
+		});
+	}
+
+	private final class Queue {
+
+		private final BlockingQueue<PendingAssociation> pending;
+		private final int batchSize;
+		private final AtomicBoolean flushScheduled = new AtomicBoolean();
+		private ScheduledTask flushTask;
+
+		private Queue(BlockingQueue<PendingAssociation> pending, int batchSize) {
+			this.pending = pending;
+			this.batchSize = batchSize;
+		}
+
+		boolean offer(PendingAssociation association) {
+			if (!pending.offer(association)) {
+				return false;
+			}
+			if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+				enhancedExecutor.execute(this::flush);
+			}
+			return true;
+		}
+
+		/**
+		 * Writes the queued associations. Does not wait for the write to complete
+		 *
+		 * @return a future completed once the write completes, whether or not it succeeded
+		 */
+		CompletableFuture<?> flush() {
+			flushScheduled.set(false);
+			List<PendingAssociation> drained = new ArrayList<>(pending.size());
+			pending.drainTo(drained);
+			if (drained.isEmpty()) {
+				return CompletableFuture.completedFuture(null);
+			}
+			return write(drained).exceptionally((ex) -> null);
+		}
+	}
+
+	private static Instant latest(Instant time1, Instant time2) {
+		return (time1.isAfter(time2)) ? time1 : time2;
+	}
+
+	/**
+	 * Name and address associations deferred during a login transaction, and the address newly
+	 * associated in it, if any
+	 *
+	 */
+	public static final class PendingAssociation {
+
+		private final UUID uuid;
+		private final @Nullable String name;
+		private final @Nullable NetworkAddress address;
+		private final @Nullable NetworkAddress newAddress;
+		private final Instant time;
+
+		private PendingAssociation(UUID uuid, @Nullable String name, @Nullable NetworkAddress address,
+								   @Nullable NetworkAddress newAddress, Instant time) {
+			this.uuid = Objects.requireNonNull(uuid, "uuid");
+			this.name = name;
+			this.address = address;
+			this.newAddress = newAddress;
+			this.time = Objects.requireNonNull(time, "time");
+		}
+
+		/**
+		 * Whether the address association was deferred. If not, it was written in the login transaction
+		 *
+		 * @return true if the address association was deferred
+		 */
+		public boolean addressDeferred() {
+			return address != null;
+		}
+	}
+}
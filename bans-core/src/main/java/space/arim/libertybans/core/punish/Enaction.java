@@ -94,9 +94,9 @@ public class Enaction {
 				.execute();
 
 		Field<Long> punishmentIdField = punishmentIdSequence.lastValueInSession(context);
+		VictimData victimData = FixedVictimData.from(new SerializedVictim(victim));
 		Field<Integer> victimIdField;
 		{
-			VictimData victimData = FixedVictimData.from(new SerializedVictim(victim));
 			Integer existingVictimId = context
 					.select(VICTIMS.ID)
 					.from(VICTIMS)
@@ -121,6 +121,23 @@ public class Enaction {
 		if (active && type != PunishmentType.KICK) {
 			var dataTable = new TableForType(type).dataTable();
 			if (type.isSingular()) {
+				// An expired punishment for this victim may not have been swept yet
+				Long expiredId = context
+						.select(dataTable.id())
+						.from(dataTable.table())
+						.innerJoin(PUNISHMENTS)
+						.on(PUNISHMENTS.ID.eq(dataTable.id()))
+						.where(dataTable.victimId().eq(victimIdField))
+						.and(PUNISHMENTS.END.notEqual(Instant.MAX))
+						.and(PUNISHMENTS.END.lessThan(start))
+						.fetchOne(dataTable.id());
+				if (expiredId != null) {
+					context
+							.deleteFrom(dataTable.table())
+							.where(dataTable.id().eq(expiredId))
+							.execute();
+					new ApplicableIndexWriter(context).unindexPunishment(expiredId);
+				}
 				int updateCount = context
 						.insertInto(dataTable.table())
 						.columns(dataTable.id(), dataTable.victimId())
@@ -149,6 +166,9 @@ public class Enaction {
 				.select(punishmentIdField)
 				.fetchSingle()
 				.value1();
+		if (active && type != PunishmentType.KICK) {
+			new ApplicableIndexWriter(context).indexPunishment(id, type, end, victimData);
+		}
 		Punishment punishment = creator.createPunishment(id, type, victim, operator, reason, scope, start, end);
 		if (punishment == null) { // Shouldn't happen
 			throw new IllegalStateException("Internal error: Unable to create punishment for id " + id);
@@ -22,6 +22,8 @@ package space.arim.libertybans.core.punish;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.punish.DraftPunishment;
 import space.arim.libertybans.api.punish.DraftPunishmentBuilder;
@@ -29,7 +31,10 @@ import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.api.punish.PunishmentDrafter;
 import space.arim.libertybans.core.database.InternalDatabase;
 import space.arim.libertybans.core.scope.InternalScopeManager;
+import space.arim.libertybans.core.selector.cache.ActiveBanIndex;
+import space.arim.libertybans.core.selector.cache.BanVictimFilter;
 import space.arim.libertybans.core.service.Time;
+import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
 import java.time.Duration;
@@ -42,14 +47,21 @@ public class Enactor implements PunishmentDrafter {
 	private final Provider<InternalDatabase> dbProvider;
 	private final PunishmentCreator creator;
 	private final Time time;
+	private final ActiveBanIndex banIndex;
+	private final BanVictimFilter banVictimFilter;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
 	@Inject
 	public Enactor(InternalScopeManager scopeManager, Provider<InternalDatabase> dbProvider,
-				   PunishmentCreator creator, Time time) {
+				   PunishmentCreator creator, Time time, ActiveBanIndex banIndex,
+				   BanVictimFilter banVictimFilter) {
 		this.scopeManager = scopeManager;
 		this.dbProvider = dbProvider;
 		this.creator = creator;
 		this.time = time;
+		this.banIndex = banIndex;
+		this.banVictimFilter = banVictimFilter;
 	}
 
 	@Override
@@ -76,11 +88,27 @@ public class Enactor implements PunishmentDrafter {
 						draftPunishment.getReason(), draftPunishment.getScope(), start, end),
 				creator);
 
-		return database.queryWithRetry((context, transaction) -> {
-			if (type != PunishmentType.KICK) {
-				database.clearExpiredPunishments(context, type, start);
+		return database.queryWithRetry(enaction::enactActive).thenApply((punishment) -> {
+			if (punishment != null) {
+				database.expiryIndex().schedule(punishment, start);
+				banIndex.indexPunishment(punishment);
+				banVictimFilter.addPunishment(punishment);
+				if (type != PunishmentType.KICK) {
+					reindexPunishment(database, punishment);
+				}
+			}
+			return punishment;
+		});
+	}
+
+	private void reindexPunishment(InternalDatabase database, Punishment punishment) {
+		// Picks up addresses associated concurrently with the enactment
+		database.executeWithRetry((context, transaction) -> {
+			new ApplicableIndexWriter(context).reindexPunishment(punishment);
+		}).whenComplete((ignore, ex) -> {
+			if (ex != null) {
+				logger.warn("Failed to reindex punishment {}", punishment.getIdentifier(), ex);
 			}
-			return enaction.enactActive(context, transaction);
 		});
 	}
 
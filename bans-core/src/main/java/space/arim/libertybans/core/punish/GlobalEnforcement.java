@@ -36,4 +36,17 @@ public interface GlobalEnforcement extends Runnable {
 
 	CentralisedFuture<?> unenforce(long id, PunishmentType type, EnforcementOpts enforcementOptions);
 
+	/**
+	 * Starts receiving synchronization messages as they are pushed, if the messenger supports doing so.
+	 * Polling through {@link #run()} should continue regardless
+	 *
+	 */
+	void startListening();
+
+	/**
+	 * Stops receiving synchronization messages started by {@link #startListening()}
+	 *
+	 */
+	void stopListening();
+
 }
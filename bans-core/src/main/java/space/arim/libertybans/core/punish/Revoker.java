@@ -36,6 +36,7 @@ import space.arim.libertybans.core.database.sql.EndTimeCondition;
 import space.arim.libertybans.core.database.sql.TableForType;
 import space.arim.libertybans.core.database.sql.VictimCondition;
 import space.arim.libertybans.core.database.sql.VictimFields;
+import space.arim.libertybans.core.selector.cache.ActiveBanIndex;
 import space.arim.libertybans.core.service.Time;
 import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
@@ -56,17 +57,20 @@ public class Revoker implements InternalRevoker {
 	private final PunishmentCreator creator;
 	private final GlobalEnforcement enforcement;
 	private final Time time;
+	private final ActiveBanIndex banIndex;
 
 	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
 	@Inject
 	public Revoker(FactoryOfTheFuture futuresFactory, Provider<InternalDatabase> dbProvider,
-				   PunishmentCreator creator, GlobalEnforcement enforcement, Time time) {
+				   PunishmentCreator creator, GlobalEnforcement enforcement, Time time,
+				   ActiveBanIndex banIndex) {
 		this.futuresFactory = futuresFactory;
 		this.dbProvider = dbProvider;
 		this.creator = creator;
 		this.enforcement = enforcement;
 		this.time = time;
+		this.banIndex = banIndex;
 	}
 
 	FactoryOfTheFuture futuresFactory() {
@@ -120,6 +124,7 @@ public class Revoker implements InternalRevoker {
 			assert deleteCount == 0;
 			return false;
 		}
+		new ApplicableIndexWriter(context).unindexPunishment(id);
 		boolean wasNotExpired = context.fetchExists(context
 				.selectFrom(PUNISHMENTS)
 				.where(PUNISHMENTS.ID.eq(id))
@@ -142,6 +147,7 @@ public class Revoker implements InternalRevoker {
 		if (deleteCount != 1) {
 			return null;
 		}
+		new ApplicableIndexWriter(context).unindexPunishment(id);
 		Punishment result = context
 				.select(
 						SIMPLE_HISTORY.VICTIM_TYPE, SIMPLE_HISTORY.VICTIM_UUID, SIMPLE_HISTORY.VICTIM_ADDRESS,
@@ -165,6 +171,9 @@ public class Revoker implements InternalRevoker {
 		InternalDatabase database = dbProvider.get();
 		return database.queryWithRetry((context, transaction) -> {
 			return deleteActivePunishmentByIdAndType(context, id, type);
+		}).thenApply((revoked) -> {
+			unindexIfBan(id, type);
+			return revoked;
 		});
 	}
 
@@ -176,6 +185,9 @@ public class Revoker implements InternalRevoker {
 		InternalDatabase database = dbProvider.get();
 		return database.queryWithRetry((context, transaction) -> {
 			return deleteAndGetActivePunishmentByIdAndType(context, id, type);
+		}).thenApply((punishment) -> {
+			unindexIfBan(id, type);
+			return punishment;
 		});
 	}
 
@@ -192,6 +204,9 @@ public class Revoker implements InternalRevoker {
 				return null;
 			}
 			return type;
+		}).thenApply((type) -> {
+			unindexIfBan(id, type);
+			return type;
 		});
 	}
 
@@ -208,9 +223,20 @@ public class Revoker implements InternalRevoker {
 				return null;
 			}
 			return deleteAndGetActivePunishmentByIdAndType(context, id, type);
+		}).thenApply((punishment) -> {
+			if (punishment != null) {
+				unindexIfBan(id, punishment.getType());
+			}
+			return punishment;
 		});
 	}
 
+	private void unindexIfBan(long id, PunishmentType type) {
+		if (type == PunishmentType.BAN) {
+			banIndex.unindexPunishment(id);
+		}
+	}
+
 	private static Condition matchesAnyVictim(VictimFields victimFields, List<Victim> victims) {
 		Condition matchesAnyVictim = DSL.noCondition();
 		VictimCondition victimCondition = new VictimCondition(victimFields);
@@ -237,6 +263,11 @@ public class Revoker implements InternalRevoker {
 				return null;
 			}
 			return id;
+		}).thenApply((id) -> {
+			if (id != null) {
+				unindexIfBan(id, type);
+			}
+			return id;
 		});
 	}
 
@@ -255,6 +286,11 @@ public class Revoker implements InternalRevoker {
 				return null;
 			}
 			return deleteAndGetActivePunishmentByIdAndType(context, id, type);
+		}).thenApply((punishment) -> {
+			if (punishment != null) {
+				unindexIfBan(punishment.getIdentifier(), type);
+			}
+			return punishment;
 		});
 	}
 	
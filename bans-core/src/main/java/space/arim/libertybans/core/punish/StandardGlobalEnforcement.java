@@ -22,12 +22,14 @@ package space.arim.libertybans.core.punish;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.punish.EnforcementOptions;
 import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.database.execute.LatencyHistogram;
 import space.arim.libertybans.core.punish.sync.MessageReceiver;
 import space.arim.libertybans.core.punish.sync.SynchronizationMessage;
 import space.arim.libertybans.core.punish.sync.SynchronizationMessenger;
@@ -36,6 +38,7 @@ import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 import space.arim.omnibus.util.concurrent.ReactionStage;
 
+import java.time.Duration;
 import java.util.function.Supplier;
 
 @Singleton
@@ -48,6 +51,13 @@ public final class StandardGlobalEnforcement implements GlobalEnforcement {
 	private final Provider<SynchronizationMessenger> synchronizationMessenger;
 	private final MessageReceiver messageReceiver;
 
+	private volatile SynchronizationMessenger listeningMessenger;
+	private ReactionStage<?> pushedReception;
+
+	private final LatencyHistogram pollDuration = new LatencyHistogram();
+	private volatile long lastPollCompletion;
+	private volatile boolean polledOnce;
+
 	@Inject
 	public StandardGlobalEnforcement(Configs configs, FactoryOfTheFuture futuresFactory, LocalEnforcer enforcer,
 									 SynchronizationProtocol synchronizationProtocol,
@@ -118,9 +128,16 @@ public final class StandardGlobalEnforcement implements GlobalEnforcement {
 
 	@Override
 	public void run() {
+		long pollStart = System.nanoTime();
 		synchronizationMessenger.get()
 				.poll()
 				.thenCompose(this::receiveAllMessages)
+				.whenComplete((ignore1, ignore2) -> {
+					long pollEnd = System.nanoTime();
+					pollDuration.record(pollEnd - pollStart);
+					lastPollCompletion = pollEnd;
+					polledOnce = true;
+				})
 				.exceptionally((ex) -> {
 					Logger logger = LoggerFactory.getLogger(getClass());
 					logger.warn("Exception while polling for synchronization messages", ex);
@@ -128,6 +145,60 @@ public final class StandardGlobalEnforcement implements GlobalEnforcement {
 				});
 	}
 
+	/**
+	 * Time taken to poll for synchronization messages and receive them
+	 *
+	 * @return the poll duration histogram
+	 */
+	public LatencyHistogram pollDuration() {
+		return pollDuration;
+	}
+
+	/**
+	 * Time since the last poll for synchronization messages completed. If this grows
+	 * much beyond the configured poll rate, polls are taking too long or are not running.
+	 *
+	 * @return the time since the last poll completed, or null if no poll has completed
+	 */
+	public @Nullable Duration timeSinceLastPoll() {
+		if (!polledOnce) {
+			return null;
+		}
+		return Duration.ofNanos(System.nanoTime() - lastPollCompletion);
+	}
+
+	@Override
+	public void startListening() {
+		SynchronizationMessenger messenger = synchronizationMessenger.get();
+		listeningMessenger = messenger;
+		messenger.startListening(this::receivePushedMessages);
+	}
+
+	@Override
+	public void stopListening() {
+		// The configured messenger may have changed since listening started
+		SynchronizationMessenger messenger = listeningMessenger;
+		if (messenger != null) {
+			listeningMessenger = null;
+			messenger.stopListening();
+		}
+	}
+
+	private synchronized void receivePushedMessages(byte[][] messages) {
+		// Chain receptions so that messages are received in order, without blocking the caller
+		ReactionStage<?> previous = pushedReception;
+		if (previous == null) {
+			previous = futuresFactory.completedFuture(null);
+		}
+		pushedReception = previous
+				.thenCompose((ignore) -> receiveAllMessages(messages))
+				.exceptionally((ex) -> {
+					Logger logger = LoggerFactory.getLogger(getClass());
+					logger.warn("Exception while receiving pushed synchronization messages", ex);
+					return null;
+				});
+	}
+
 	ReactionStage<?> receiveAllMessages(byte[][] messages) {
 		// Receive the messages in order
 		ReactionStage<?> future = null;
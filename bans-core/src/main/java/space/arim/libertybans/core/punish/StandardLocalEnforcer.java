@@ -23,6 +23,7 @@ import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 import net.kyori.adventure.text.Component;
+import org.jooq.DSLContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import space.arim.api.jsonchat.adventure.util.ComponentText;
@@ -45,6 +46,7 @@ import space.arim.libertybans.core.database.execute.QueryExecutor;
 import space.arim.libertybans.core.database.execute.SQLFunction;
 import space.arim.libertybans.core.env.AdditionalUUIDTargetMatcher;
 import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.libertybans.core.env.EnvUserResolver;
 import space.arim.libertybans.core.env.ExactTargetMatcher;
 import space.arim.libertybans.core.env.TargetMatcher;
 import space.arim.libertybans.core.env.UUIDTargetMatcher;
@@ -54,8 +56,13 @@ import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
@@ -71,19 +78,25 @@ public final class StandardLocalEnforcer implements LocalEnforcer {
 	private final InternalFormatter formatter;
 	private final MuteCache muteCache;
 	private final EnvEnforcer<?> envEnforcer;
+	private final EnvUserResolver envUserResolver;
+
+	/** Maximum number of online uuids used in one address enforcement query */
+	private static final int ONLINE_UUIDS_PER_QUERY = 1000;
 
 	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
 	@Inject
 	public StandardLocalEnforcer(Configs configs, FactoryOfTheFuture futuresFactory,
 								 Provider<QueryExecutor> queryExecutor, PunishmentSelector selector,
-								 InternalFormatter formatter, EnvEnforcer<?> envEnforcer, MuteCache muteCache) {
+								 InternalFormatter formatter, EnvEnforcer<?> envEnforcer,
+								 EnvUserResolver envUserResolver, MuteCache muteCache) {
 		this.configs = configs;
 		this.futuresFactory = futuresFactory;
 		this.queryExecutor = queryExecutor;
 		this.selector = selector;
 		this.formatter = formatter;
 		this.envEnforcer = envEnforcer;
+		this.envUserResolver = envUserResolver;
 		this.muteCache = muteCache;
 	}
 
@@ -276,33 +289,70 @@ public final class StandardLocalEnforcer implements LocalEnforcer {
 
 		private CentralisedFuture<TargetMatcher<P>> matchAddressPunishmentNormal(
 				NetworkAddress address, Punishment punishment, Component message) {
-			return queryExecutor.get().query(SQLFunction.readOnly((context) -> {
+			return selectAmongOnlineUUIDs((context, onlineUUIDs) -> {
 				return context
 						.select(ADDRESSES.UUID)
 						.from(ADDRESSES)
 						.where(ADDRESSES.ADDRESS.eq(address))
+						.and(ADDRESSES.UUID.in(onlineUUIDs))
 						.fetchSet(ADDRESSES.UUID);
-			})).thenApply((uuids) -> {
+			}).thenApply((uuids) -> {
 				return new UUIDTargetMatcher<>(uuids, enforcementCallback(punishment, message));
 			});
 		}
 
 		private CentralisedFuture<TargetMatcher<P>> matchAddressPunishmentStrict(
 				NetworkAddress address, Punishment punishment, Component message) {
-			return queryExecutor.get().query(SQLFunction.readOnly((context) -> {
+			return selectAmongOnlineUUIDs((context, onlineUUIDs) -> {
 				return context
 						.select(STRICT_LINKS.UUID2)
 						.from(STRICT_LINKS)
 						.innerJoin(ADDRESSES)
 						.on(STRICT_LINKS.UUID1.eq(ADDRESSES.UUID))
 						.where(ADDRESSES.ADDRESS.eq(address))
+						.and(STRICT_LINKS.UUID2.in(onlineUUIDs))
 						.fetchSet(STRICT_LINKS.UUID2);
-			})).thenApply((uuids) -> {
+			}).thenApply((uuids) -> {
 				return new UUIDTargetMatcher<>(uuids, enforcementCallback(punishment, message));
 			});
 		}
 	}
 
+	/**
+	 * Runs a query restricted to the uuids of online players. Only online players can be
+	 * enforced against, and restricting the query bounds its result size, which may otherwise
+	 * be huge for shared addresses.
+	 *
+	 * @param query the query, given a batch of online uuids
+	 * @return a future yielding the combined results of the query
+	 */
+	private CentralisedFuture<Set<UUID>> selectAmongOnlineUUIDs(BiFunction<DSLContext, Set<UUID>, Set<UUID>> query) {
+		return envUserResolver.lookupOnlineUUIDs().thenCompose((onlineUUIDs) -> {
+			if (onlineUUIDs.isEmpty()) {
+				return futuresFactory.completedFuture(Set.<UUID>of());
+			}
+			List<Set<UUID>> batches = new ArrayList<>();
+			Set<UUID> batch = new HashSet<>();
+			for (UUID uuid : onlineUUIDs) {
+				batch.add(uuid);
+				if (batch.size() == ONLINE_UUIDS_PER_QUERY) {
+					batches.add(batch);
+					batch = new HashSet<>();
+				}
+			}
+			if (!batch.isEmpty()) {
+				batches.add(batch);
+			}
+			return queryExecutor.get().query(SQLFunction.readOnly((context) -> {
+				Set<UUID> uuids = new HashSet<>();
+				for (Set<UUID> onlineBatch : batches) {
+					uuids.addAll(query.apply(context, onlineBatch));
+				}
+				return uuids;
+			}));
+		});
+	}
+
 	private <T> CentralisedFuture<T> completedFuture(T value) {
 		return futuresFactory.completedFuture(value);
 	}
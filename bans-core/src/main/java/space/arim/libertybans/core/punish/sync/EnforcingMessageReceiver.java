@@ -22,12 +22,15 @@ package space.arim.libertybans.core.punish.sync;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.punish.EnforcementOptions;
 import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.api.select.PunishmentSelector;
 import space.arim.libertybans.core.punish.EnforcementOpts;
 import space.arim.libertybans.core.punish.LocalEnforcer;
 import space.arim.libertybans.core.punish.Mode;
+import space.arim.libertybans.core.selector.cache.ActiveBanIndex;
+import space.arim.libertybans.core.selector.cache.BanVictimFilter;
 import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 import space.arim.omnibus.util.concurrent.ReactionStage;
@@ -37,14 +40,20 @@ public final class EnforcingMessageReceiver implements MessageReceiver {
 	private final FactoryOfTheFuture futuresFactory;
 	private final PunishmentSelector selector;
 	private final LocalEnforcer enforcer;
+	private final ActiveBanIndex banIndex;
+	private final BanVictimFilter banVictimFilter;
 
 	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
 	@Inject
-	public EnforcingMessageReceiver(FactoryOfTheFuture futuresFactory, PunishmentSelector selector, LocalEnforcer enforcer) {
+	public EnforcingMessageReceiver(FactoryOfTheFuture futuresFactory, PunishmentSelector selector,
+									LocalEnforcer enforcer, ActiveBanIndex banIndex,
+									BanVictimFilter banVictimFilter) {
 		this.futuresFactory = futuresFactory;
 		this.selector = selector;
 		this.enforcer = enforcer;
+		this.banIndex = banIndex;
+		this.banVictimFilter = banVictimFilter;
 	}
 
 	@Override
@@ -56,6 +65,9 @@ public final class EnforcingMessageReceiver implements MessageReceiver {
 				.targetArgument(message.targetArgument)
 				.unOperator(message.unOperator)
 				.build();
+		if (message.mode == Mode.UNDO && message.type == PunishmentType.BAN) {
+			banIndex.unindexPunishment(message.id);
+		}
 		if (message.broadcasting == EnforcementOptions.Broadcasting.NONE && message.mode == Mode.UNDO) {
 			// Optimization: We do not need the full punishment details to simply undo a punishment
 			return enforcer.unenforceWithoutSynchronization(message.id, message.type, enforcementOptions);
@@ -72,6 +84,8 @@ public final class EnforcingMessageReceiver implements MessageReceiver {
 			}
 			// Enforce this punishment
 			assert message.mode == Mode.DO : "Mode " + message.mode;
+			banIndex.indexPunishment(punishment);
+			banVictimFilter.addPunishment(punishment);
 			return enforcer.enforceWithoutSynchronization(punishment, enforcementOptions);
 		});
 	}
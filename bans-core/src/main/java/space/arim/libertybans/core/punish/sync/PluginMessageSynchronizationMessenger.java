@@ -0,0 +1,125 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish.sync;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.core.env.EnvMessageChannel;
+import space.arim.omnibus.util.ThisClass;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Synchronization messenger which sends messages over the platform's message channel,
+ * without involving the database. <br>
+ * <br>
+ * Messages which cannot be sent immediately, such as because no player is online to carry
+ * them, are retried in order whenever this messenger is polled.
+ *
+ */
+@Singleton
+public final class PluginMessageSynchronizationMessenger implements SynchronizationMessenger {
+
+	private final FactoryOfTheFuture futuresFactory;
+	private final Provider<EnvMessageChannel> channel;
+
+	private final Queue<byte[]> unsent = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger unsentCount = new AtomicInteger();
+	private final AtomicBoolean sending = new AtomicBoolean();
+
+	static final int MAX_UNSENT_MESSAGES = 1000;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public PluginMessageSynchronizationMessenger(FactoryOfTheFuture futuresFactory,
+												 Provider<EnvMessageChannel> channel) {
+		this.futuresFactory = futuresFactory;
+		this.channel = channel;
+	}
+
+	@Override
+	public CentralisedFuture<?> dispatch(byte[] message) {
+		int maxMessageSize = channel.get().maxMessageSize();
+		if (message.length > maxMessageSize) {
+			// Would never be sent, and would hold up the messages queued after it
+			logger.warn("Discarding synchronization message of {} bytes, which exceeds the maximum of {} bytes " +
+					"for plugin messaging.", message.length, maxMessageSize);
+			return futuresFactory.failedFuture(new IllegalArgumentException("Synchronization message is too large"));
+		}
+		if (unsentCount.incrementAndGet() > MAX_UNSENT_MESSAGES) {
+			unsent.poll();
+			unsentCount.decrementAndGet();
+			logger.warn("Too many synchronization messages could not be sent. Discarding the oldest message.");
+		}
+		unsent.offer(message);
+		return sendUnsent();
+	}
+
+	private CentralisedFuture<?> sendUnsent() {
+		if (!sending.compareAndSet(false, true)) {
+			// Another sender will handle the queue, or it will be handled on the next poll
+			return futuresFactory.completedFuture(null);
+		}
+		return sendNext().whenComplete((ignore, ex) -> sending.set(false));
+	}
+
+	private CentralisedFuture<?> sendNext() {
+		byte[] message = unsent.peek();
+		if (message == null) {
+			return futuresFactory.completedFuture(null);
+		}
+		return channel.get().send(message).thenCompose((sent) -> {
+			if (!sent) {
+				// Try again later
+				return futuresFactory.completedFuture(null);
+			}
+			unsent.poll();
+			unsentCount.decrementAndGet();
+			return sendNext();
+		});
+	}
+
+	@Override
+	public CentralisedFuture<byte[][]> poll() {
+		// Messages are received as they arrive. Polling is used to retry sending
+		return sendUnsent().thenApply((ignore) -> new byte[][] {});
+	}
+
+	@Override
+	public void startListening(Consumer<byte[][]> receiver) {
+		channel.get().installHandler((message) -> receiver.accept(new byte[][] {message}));
+	}
+
+	@Override
+	public void stopListening() {
+		channel.get().uninstallHandler();
+	}
+
+}
@@ -0,0 +1,251 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish.sync;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.jooq.impl.DSL;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.database.Vendor;
+import space.arim.libertybans.core.service.SimpleThreadFactory;
+import space.arim.libertybans.core.service.Time;
+import space.arim.omnibus.util.ThisClass;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Synchronization messenger which receives messages through PostgreSQL's LISTEN and NOTIFY. <br>
+ * <br>
+ * Messages are still recorded in the messages table, so that polling may resume if the listening
+ * connection is lost. While messages are pushed, the polling window only advances to the time up to
+ * which the listening connection was confirmed to work, so that polling resumes from there once the
+ * connection is lost. Messages pushed shortly before the loss may therefore be received again. Once
+ * listening starts or resumes, messages sent before then are polled once. <br>
+ * <br>
+ * On other databases, or if native notifications are disabled, this messenger simply delegates to
+ * {@link SQLSynchronizationMessenger}.
+ *
+ */
+@Singleton
+public final class PostgresSynchronizationMessenger implements SynchronizationMessenger {
+
+	private final Configs configs;
+	private final FactoryOfTheFuture futuresFactory;
+	private final Provider<InternalDatabase> dbProvider;
+	private final SQLSynchronizationMessenger pollingMessenger;
+	private final Time time;
+
+	private volatile Listener listener;
+
+	static final String CHANNEL = "libertybans_sync";
+	/** PostgreSQL rejects payloads of 8000 bytes or longer */
+	private static final int MAX_PAYLOAD_LENGTH = 7999;
+	private static final int LISTEN_TIMEOUT_MILLIS = 10_000;
+	private static final long RECONNECT_DELAY_MILLIS = 5_000L;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public PostgresSynchronizationMessenger(Configs configs, FactoryOfTheFuture futuresFactory,
+											Provider<InternalDatabase> dbProvider,
+											SQLSynchronizationMessenger pollingMessenger, Time time) {
+		this.configs = configs;
+		this.futuresFactory = futuresFactory;
+		this.dbProvider = dbProvider;
+		this.pollingMessenger = pollingMessenger;
+		this.time = time;
+	}
+
+	private boolean usesNotifications(InternalDatabase database) {
+		// CockroachDB does not implement LISTEN and NOTIFY
+		return database.getVendor() == Vendor.POSTGRES
+				&& configs.getSqlConfig().synchronization().useNativeNotifications();
+	}
+
+	@Override
+	public CentralisedFuture<?> dispatch(byte[] message) {
+		InternalDatabase database = dbProvider.get();
+		if (!usesNotifications(database)) {
+			return pollingMessenger.dispatch(message);
+		}
+		String payload = Base64.getEncoder().encodeToString(message);
+		if (payload.length() > MAX_PAYLOAD_LENGTH) {
+			// Too large to send directly; ask listeners to poll instead
+			payload = "";
+		}
+		String finalPayload = payload;
+		return database.execute((context) -> {
+			pollingMessenger.insertMessage(context, message);
+			// The notification is delivered when the transaction commits
+			context.select(DSL.function("pg_notify", Object.class, DSL.val(CHANNEL), DSL.val(finalPayload)))
+					.fetch();
+		});
+	}
+
+	@Override
+	public CentralisedFuture<byte[][]> poll() {
+		Listener listener = this.listener;
+		if (listener == null || !listener.listening) {
+			return pollingMessenger.poll();
+		}
+		boolean pollRequested = listener.pollRequested.getAndSet(false);
+		boolean catchUpRequested = listener.catchUpRequested.getAndSet(false);
+		if (pollRequested) {
+			return pollingMessenger.poll();
+		}
+		if (catchUpRequested) {
+			// Receive messages sent before listening started
+			return pollingMessenger.pollUntil(listener.listeningSince);
+		}
+		// Messages are being pushed. Advance the polling window only as far as they were surely received
+		pollingMessenger.skipUntil(listener.confirmedUntil);
+		return futuresFactory.completedFuture(new byte[][] {});
+	}
+
+	@Override
+	public void startListening(Consumer<byte[][]> receiver) {
+		InternalDatabase database = dbProvider.get();
+		if (!usesNotifications(database)) {
+			return;
+		}
+		Listener listener = new Listener(database, time, receiver);
+		this.listener = listener;
+		SimpleThreadFactory.create("Synchronization").newThread(listener).start();
+	}
+
+	@Override
+	public void stopListening() {
+		Listener listener = this.listener;
+		if (listener != null) {
+			this.listener = null;
+			listener.running = false;
+		}
+	}
+
+	private static final class Listener implements Runnable {
+
+		private final InternalDatabase database;
+		private final Time time;
+		private final Consumer<byte[][]> receiver;
+
+		volatile boolean running = true;
+		volatile boolean listening;
+		/** When listening most recently started */
+		volatile Instant listeningSince;
+		/** Messages sent up to this time have been pushed */
+		volatile Instant confirmedUntil;
+		/** Set when a message was too large to be pushed */
+		final AtomicBoolean pollRequested = new AtomicBoolean();
+		/** Set when listening starts, to poll for messages sent before then */
+		final AtomicBoolean catchUpRequested = new AtomicBoolean();
+
+		Listener(InternalDatabase database, Time time, Consumer<byte[][]> receiver) {
+			this.database = database;
+			this.time = time;
+			this.receiver = receiver;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				try (Connection connection = database.getConnection()) {
+					listen(connection);
+				} catch (SQLException | RuntimeException ex) {
+					if (running) {
+						logger.warn("Lost connection used to listen for synchronization messages. " +
+								"Polling will be used until the connection is restored.", ex);
+					}
+				} finally {
+					listening = false;
+				}
+				if (running) {
+					try {
+						Thread.sleep(RECONNECT_DELAY_MILLIS);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}
+
+		private void listen(Connection connection) throws SQLException {
+			PGConnection pgConnection = connection.unwrap(PGConnection.class);
+			Instant listenTime = time.currentTimestamp();
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("LISTEN " + CHANNEL);
+			}
+			connection.commit();
+			listeningSince = listenTime;
+			confirmedUntil = listenTime;
+			catchUpRequested.set(true);
+			listening = true;
+			logger.debug("Listening for synchronization messages");
+
+			Instant previousCheck = listenTime;
+			while (running) {
+				Instant currentCheck = time.currentTimestamp();
+				PGNotification[] notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MILLIS);
+				if (notifications == null || notifications.length == 0) {
+					// Detect a silently dropped connection
+					if (!connection.isValid(LISTEN_TIMEOUT_MILLIS / 1000)) {
+						throw new SQLException("Listening connection is no longer valid");
+					}
+				} else {
+					receive(notifications);
+				}
+				// Notifications sent before the previous check have surely arrived by now
+				confirmedUntil = previousCheck;
+				previousCheck = currentCheck;
+			}
+		}
+
+		private void receive(PGNotification[] notifications) {
+			List<byte[]> messages = new ArrayList<>(notifications.length);
+			for (PGNotification notification : notifications) {
+				String payload = notification.getParameter();
+				if (payload.isEmpty()) {
+					pollRequested.set(true);
+				} else {
+					messages.add(Base64.getDecoder().decode(payload));
+				}
+			}
+			if (!messages.isEmpty()) {
+				receiver.accept(messages.toArray(byte[][]::new));
+			}
+		}
+	}
+}
@@ -23,6 +23,7 @@ import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 import org.jooq.Condition;
+import org.jooq.DSLContext;
 import space.arim.libertybans.core.database.execute.QueryExecutor;
 import space.arim.libertybans.core.database.execute.SQLFunction;
 import space.arim.libertybans.core.service.Time;
@@ -53,22 +54,38 @@ public final class SQLSynchronizationMessenger implements SynchronizationMesseng
 	@Override
 	public CentralisedFuture<?> dispatch(byte[] message) {
 		return queryExecutor.get().execute((context) -> {
-			context
-					.insertInto(MESSAGES)
-					.columns(MESSAGES.MESSAGE, MESSAGES.TIME)
-					.values(message, time.currentTimestamp())
-					.execute();
+			insertMessage(context, message);
 		});
 	}
 
+	void insertMessage(DSLContext context, byte[] message) {
+		context
+				.insertInto(MESSAGES)
+				.columns(MESSAGES.MESSAGE, MESSAGES.TIME)
+				.values(message, time.currentTimestamp())
+				.execute();
+	}
+
 	@Override
 	public CentralisedFuture<byte[][]> poll() {
-		Instant currentTime = time.currentTimestamp();
+		return pollUntil(time.currentTimestamp());
+	}
+
+	/**
+	 * Polls for messages sent after the last poll, up to and including the given time
+	 *
+	 * @param currentTime the end of the polling window
+	 * @return a future yielding the messages
+	 */
+	CentralisedFuture<byte[][]> pollUntil(Instant currentTime) {
 		if (lastTimestamp == null) {
 			// The server has recently started up or LibertyBans has restarted
 			lastTimestamp = currentTime;
 			return futuresFactory.completedFuture(new byte[][] {});
 		}
+		if (!currentTime.isAfter(lastTimestamp)) {
+			return futuresFactory.completedFuture(new byte[][] {});
+		}
 		Condition timeCondition = MESSAGES.TIME.lessOrEqual(currentTime).and(MESSAGES.TIME.greaterThan(lastTimestamp));
 		var future = queryExecutor.get().query(SQLFunction.readOnly((context) -> {
 			return context
@@ -82,6 +99,18 @@ public final class SQLSynchronizationMessenger implements SynchronizationMesseng
 		return future;
 	}
 
+	/**
+	 * Skips messages sent up to and including the given time, which were received otherwise.
+	 * Does nothing if the polling window has already passed the given time
+	 *
+	 * @param receivedUntil the time up to which messages were received
+	 */
+	void skipUntil(Instant receivedUntil) {
+		if (lastTimestamp == null || receivedUntil.isAfter(lastTimestamp)) {
+			lastTimestamp = receivedUntil;
+		}
+	}
+
 	public void setInitialTimestamp() {
 		lastTimestamp = time.currentTimestamp();
 	}
@@ -21,10 +21,28 @@ package space.arim.libertybans.core.punish.sync;
 
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
+import java.util.function.Consumer;
+
 public interface SynchronizationMessenger {
 
 	CentralisedFuture<?> dispatch(byte[] message);
 
 	CentralisedFuture<byte[][]> poll();
 
+	/**
+	 * Starts receiving messages as soon as they arrive, if this messenger supports doing so. <br>
+	 * <br>
+	 * Messages given to the receiver are not also yielded by {@link #poll()}. Polling should continue
+	 * regardless, as a fallback for when push delivery is unavailable.
+	 *
+	 * @param receiver the receiver of incoming messages, called with messages in the order they were sent
+	 */
+	default void startListening(Consumer<byte[][]> receiver) {}
+
+	/**
+	 * Stops receiving messages started by {@link #startListening(Consumer)}
+	 *
+	 */
+	default void stopListening() {}
+
 }
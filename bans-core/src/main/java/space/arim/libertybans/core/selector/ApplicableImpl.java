@@ -23,9 +23,15 @@ import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
 import org.jooq.impl.DSL;
+import space.arim.libertybans.api.AddressVictim;
+import space.arim.libertybans.api.CompositeVictim;
 import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PlayerVictim;
 import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
 import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.database.InternalDatabase;
@@ -34,6 +40,7 @@ import space.arim.libertybans.core.database.sql.EndTimeCondition;
 import space.arim.libertybans.core.database.sql.EndTimeOrdering;
 import space.arim.libertybans.core.database.sql.TableForType;
 import space.arim.libertybans.core.database.sql.VictimCondition;
+import space.arim.libertybans.core.env.UUIDAndAddress;
 import space.arim.libertybans.core.punish.MiscUtil;
 import space.arim.libertybans.core.punish.PunishmentCreator;
 import space.arim.libertybans.core.service.Time;
@@ -41,10 +48,19 @@ import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
-import static space.arim.libertybans.core.schema.tables.StrictLinks.STRICT_LINKS;
+import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
+import static space.arim.libertybans.core.schema.tables.ApplicableAddressIndex.APPLICABLE_ADDRESS_INDEX;
+import static space.arim.libertybans.core.schema.tables.ApplicableIndex.APPLICABLE_INDEX;
 
 @Singleton
 public class ApplicableImpl {
@@ -56,6 +72,9 @@ public class ApplicableImpl {
 
 	private final Time time;
 
+	/** Maximum number of users whose punishments are selected in one query */
+	private static final int BATCH_SIZE = 500;
+
 	@Inject
 	public ApplicableImpl(Configs configs, FactoryOfTheFuture futuresFactory,
 						  Provider<InternalDatabase> dbProvider, PunishmentCreator creator,
@@ -70,12 +89,17 @@ public class ApplicableImpl {
 	Punishment selectApplicable(DSLContext context,
 								UUID uuid, NetworkAddress address,
 								PunishmentType type, final Instant currentTime) {
-		var applView = new TableForType(type).applicableView();
-
 		AddressStrictness strictness = configs.getMainConfig().enforcement().addressStrictness();
+		return selectApplicable(context, uuid, address, type, currentTime, strictness);
+	}
+
+	Punishment selectApplicable(DSLContext context,
+								UUID uuid, NetworkAddress address,
+								PunishmentType type, final Instant currentTime,
+								AddressStrictness strictness) {
+		var simpleView = new TableForType(type).simpleView();
 		switch (strictness) {
 		case LENIENT:
-			var simpleView = new TableForType(type).simpleView();
 			return context
 					.select(
 							simpleView.id(),
@@ -90,31 +114,41 @@ public class ApplicableImpl {
 					.limit(1)
 					.fetchOne(creator.punishmentMapper(type));
 		case NORMAL:
+			// Probe the applicable index by uuid, then look up the chosen punishment
 			return context
 					.select(
-							applView.id(),
-							applView.victimType(), applView.victimUuid(), applView.victimAddress(),
-							applView.operator(), applView.reason(),
-							applView.scope(), applView.start(), applView.end()
-					).from(applView.table())
-					.where(applView.uuid().eq(uuid))
-					.and(new EndTimeCondition(applView).isNotExpired(currentTime))
-					.orderBy(new EndTimeOrdering(applView).expiresLeastSoon())
+							simpleView.id(),
+							simpleView.victimType(), simpleView.victimUuid(), simpleView.victimAddress(),
+							simpleView.operator(), simpleView.reason(),
+							simpleView.scope(), simpleView.start(), simpleView.end()
+					)
+					.from(APPLICABLE_INDEX)
+					.innerJoin(simpleView.table())
+					.on(simpleView.id().eq(APPLICABLE_INDEX.ID))
+					.where(APPLICABLE_INDEX.UUID.eq(uuid))
+					.and(APPLICABLE_INDEX.TYPE.eq(type))
+					.and(new EndTimeCondition(APPLICABLE_INDEX.END).isNotExpired(currentTime))
+					.orderBy(new EndTimeOrdering(APPLICABLE_INDEX.END).expiresLeastSoon())
 					.limit(1)
 					.fetchOne(creator.punishmentMapper(type));
 		case STRICT:
+			// Probe the address index by each of the user's addresses
 			return context
 					.select(
-							applView.id(),
-							applView.victimType(), applView.victimUuid(), applView.victimAddress(),
-							applView.operator(), applView.reason(),
-							applView.scope(), applView.start(), applView.end()
-					).from(applView.table())
-					.innerJoin(STRICT_LINKS)
-					.on(applView.uuid().eq(STRICT_LINKS.UUID1))
-					.where(STRICT_LINKS.UUID2.eq(uuid))
-					.and(new EndTimeCondition(applView).isNotExpired(currentTime))
-					.orderBy(new EndTimeOrdering(applView).expiresLeastSoon())
+							simpleView.id(),
+							simpleView.victimType(), simpleView.victimUuid(), simpleView.victimAddress(),
+							simpleView.operator(), simpleView.reason(),
+							simpleView.scope(), simpleView.start(), simpleView.end()
+					)
+					.from(ADDRESSES)
+					.innerJoin(APPLICABLE_ADDRESS_INDEX)
+					.on(APPLICABLE_ADDRESS_INDEX.ADDRESS.eq(ADDRESSES.ADDRESS))
+					.innerJoin(simpleView.table())
+					.on(simpleView.id().eq(APPLICABLE_ADDRESS_INDEX.ID))
+					.where(ADDRESSES.UUID.eq(uuid))
+					.and(APPLICABLE_ADDRESS_INDEX.TYPE.eq(type))
+					.and(new EndTimeCondition(APPLICABLE_ADDRESS_INDEX.END).isNotExpired(currentTime))
+					.orderBy(new EndTimeOrdering(APPLICABLE_ADDRESS_INDEX.END).expiresLeastSoon())
 					.limit(1)
 					.fetchOne(creator.punishmentMapper(type));
 		default:
@@ -122,6 +156,167 @@ public class ApplicableImpl {
 		}
 	}
 
+	/**
+	 * Selects the applicable punishment for each of many users. Equivalent to calling
+	 * {@link #selectApplicable(DSLContext, UUID, NetworkAddress, PunishmentType, Instant, AddressStrictness)}
+	 * for each user, but uses a single set-based query
+	 *
+	 * @param context the query context
+	 * @param users the users' uuids and addresses
+	 * @param type the punishment type
+	 * @param currentTime the current time
+	 * @param strictness the address strictness
+	 * @return the applicable punishment of each user who has one
+	 */
+	Map<UUIDAndAddress, Punishment> selectApplicable(DSLContext context,
+													 Collection<UUIDAndAddress> users,
+													 PunishmentType type, final Instant currentTime,
+													 AddressStrictness strictness) {
+		var simpleView = new TableForType(type).simpleView();
+		var mapper = creator.punishmentMapper(type);
+		Set<UUID> uuids = new HashSet<>(users.size());
+		for (UUIDAndAddress user : users) {
+			uuids.add(user.uuid());
+		}
+		Map<UUIDAndAddress, Punishment> applicable = new HashMap<>();
+		switch (strictness) {
+		case LENIENT:
+			Set<NetworkAddress> addresses = new HashSet<>(users.size());
+			for (UUIDAndAddress user : users) {
+				addresses.add(user.address());
+			}
+			List<Punishment> candidates = context
+					.select(
+							simpleView.id(),
+							simpleView.victimType(), simpleView.victimUuid(), simpleView.victimAddress(),
+							simpleView.operator(), simpleView.reason(),
+							simpleView.scope(), simpleView.start(), simpleView.end()
+					)
+					.from(simpleView.table())
+					.where(simpleView.victimUuid().in(uuids).or(simpleView.victimAddress().in(addresses)))
+					.and(new EndTimeCondition(simpleView).isNotExpired(currentTime))
+					.fetch(mapper);
+			Map<UUID, List<Punishment>> byUuid = new HashMap<>();
+			Map<NetworkAddress, List<Punishment>> byAddress = new HashMap<>();
+			for (Punishment candidate : candidates) {
+				Victim victim = candidate.getVictim();
+				switch (victim.getType()) {
+				case PLAYER:
+					byUuid.computeIfAbsent(((PlayerVictim) victim).getUUID(), (u) -> new ArrayList<>()).add(candidate);
+					break;
+				case ADDRESS:
+					byAddress.computeIfAbsent(((AddressVictim) victim).getAddress(), (a) -> new ArrayList<>()).add(candidate);
+					break;
+				case COMPOSITE:
+					CompositeVictim compositeVictim = (CompositeVictim) victim;
+					byUuid.computeIfAbsent(compositeVictim.getUUID(), (u) -> new ArrayList<>()).add(candidate);
+					byAddress.computeIfAbsent(compositeVictim.getAddress(), (a) -> new ArrayList<>()).add(candidate);
+					break;
+				default:
+					throw MiscUtil.unknownVictimType(victim.getType());
+				}
+			}
+			for (UUIDAndAddress user : users) {
+				Punishment punishment = expiresLeastSoon(null, byUuid.get(user.uuid()));
+				punishment = expiresLeastSoon(punishment, byAddress.get(user.address()));
+				if (punishment != null) {
+					applicable.put(user, punishment);
+				}
+			}
+			return applicable;
+		case NORMAL:
+		case STRICT:
+			// Probe the applicable index by uuid, or the address index by the users' addresses
+			Field<UUID> userUuid;
+			Field<Long> indexId;
+			Field<PunishmentType> indexType;
+			Field<Instant> indexEnd;
+			Table<?> index;
+			if (strictness == AddressStrictness.NORMAL) {
+				userUuid = APPLICABLE_INDEX.UUID;
+				indexId = APPLICABLE_INDEX.ID;
+				indexType = APPLICABLE_INDEX.TYPE;
+				indexEnd = APPLICABLE_INDEX.END;
+				index = APPLICABLE_INDEX;
+			} else {
+				userUuid = ADDRESSES.UUID;
+				indexId = APPLICABLE_ADDRESS_INDEX.ID;
+				indexType = APPLICABLE_ADDRESS_INDEX.TYPE;
+				indexEnd = APPLICABLE_ADDRESS_INDEX.END;
+				index = ADDRESSES
+						.innerJoin(APPLICABLE_ADDRESS_INDEX)
+						.on(APPLICABLE_ADDRESS_INDEX.ADDRESS.eq(ADDRESSES.ADDRESS));
+			}
+			var rows = context
+					.select(
+							userUuid, simpleView.id(),
+							simpleView.victimType(), simpleView.victimUuid(), simpleView.victimAddress(),
+							simpleView.operator(), simpleView.reason(),
+							simpleView.scope(), simpleView.start(), simpleView.end()
+					)
+					.from(index)
+					.innerJoin(simpleView.table())
+					.on(simpleView.id().eq(indexId))
+					.where(userUuid.in(uuids))
+					.and(indexType.eq(type))
+					.and(new EndTimeCondition(indexEnd).isNotExpired(currentTime))
+					.fetch();
+			Map<UUID, Punishment> byUserUuid = new HashMap<>();
+			for (var row : rows) {
+				Punishment candidate = mapper.map(row.into(
+						simpleView.id(),
+						simpleView.victimType(), simpleView.victimUuid(), simpleView.victimAddress(),
+						simpleView.operator(), simpleView.reason(),
+						simpleView.scope(), simpleView.start(), simpleView.end()
+				));
+				byUserUuid.merge(row.value1(), candidate, ApplicableImpl::expiresLeastSoon);
+			}
+			for (UUIDAndAddress user : users) {
+				Punishment punishment = byUserUuid.get(user.uuid());
+				if (punishment != null) {
+					applicable.put(user, punishment);
+				}
+			}
+			return applicable;
+		default:
+			throw MiscUtil.unknownAddressStrictness(strictness);
+		}
+	}
+
+	private static Punishment expiresLeastSoon(Punishment current, List<Punishment> candidates) {
+		if (candidates == null) {
+			return current;
+		}
+		for (Punishment candidate : candidates) {
+			current = (current == null) ? candidate : expiresLeastSoon(current, candidate);
+		}
+		return current;
+	}
+
+	private static Punishment expiresLeastSoon(Punishment first, Punishment second) {
+		// Permanent punishments have an end date of Instant.MAX and therefore come first
+		return second.getEndDate().isAfter(first.getEndDate()) ? second : first;
+	}
+
+	CentralisedFuture<Map<UUIDAndAddress, Punishment>> getApplicablePunishments(Collection<UUIDAndAddress> users,
+																				PunishmentType type) {
+		Objects.requireNonNull(type, "type");
+		if (type == PunishmentType.KICK || users.isEmpty()) {
+			return futuresFactory.completedFuture(Map.of());
+		}
+		AddressStrictness strictness = configs.getMainConfig().enforcement().addressStrictness();
+		List<UUIDAndAddress> userList = List.copyOf(users);
+		return dbProvider.get().query(SQLFunction.readOnly((context) -> {
+			Instant currentTime = time.currentTimestamp();
+			Map<UUIDAndAddress, Punishment> applicable = new HashMap<>();
+			for (int from = 0; from < userList.size(); from += BATCH_SIZE) {
+				List<UUIDAndAddress> batch = userList.subList(from, Math.min(from + BATCH_SIZE, userList.size()));
+				applicable.putAll(selectApplicable(context, batch, type, currentTime, strictness));
+			}
+			return applicable;
+		}));
+	}
+
 	CentralisedFuture<Punishment> getApplicablePunishment(UUID uuid, NetworkAddress address, PunishmentType type) {
 		Objects.requireNonNull(type, "type");
 		if (type == PunishmentType.KICK) {
@@ -0,0 +1,217 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Subscription to elements retrieved from the database in batches. <br>
+ * <br>
+ * A batch is only retrieved once the subscriber has requested more elements than were
+ * already retrieved, so that no more than one batch is held in memory. Each batch follows
+ * on from the last element of the previous one. No database connection is held between
+ * batches, nor while waiting for the subscriber.
+ *
+ * @param <T> the element type
+ */
+final class BatchedSubscription<T> implements Flow.Subscription {
+
+	private final Flow.Subscriber<? super T> subscriber;
+	private final int batchSize;
+	private final int limit;
+	private final BatchQuery<T> query;
+
+	// Guarded by this
+	private long demand;
+	private final Queue<T> batch = new ArrayDeque<>();
+	private T lastElement;
+	private int retrieved;
+	private boolean querying;
+	private boolean exhausted;
+	private Throwable failure;
+	private boolean cancelled;
+	private boolean draining;
+	private boolean missedDrain;
+
+	/**
+	 * Creates the subscription
+	 *
+	 * @param subscriber the subscriber
+	 * @param batchSize the maximum number of elements to retrieve at once
+	 * @param limit the maximum number of elements to retrieve in total, or 0 for no limit
+	 * @param query the query retrieving each batch
+	 */
+	BatchedSubscription(Flow.Subscriber<? super T> subscriber, int batchSize, int limit, BatchQuery<T> query) {
+		this.subscriber = Objects.requireNonNull(subscriber, "subscriber");
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.batchSize = batchSize;
+		this.limit = limit;
+		this.query = Objects.requireNonNull(query, "query");
+	}
+
+	/**
+	 * Retrieves a batch of elements
+	 *
+	 * @param <T> the element type
+	 */
+	interface BatchQuery<T> {
+
+		/**
+		 * Retrieves the elements following the given element, in order
+		 *
+		 * @param lastElement the last element of the previous batch, or null for the first batch
+		 * @param count the maximum number of elements to retrieve
+		 * @return a future yielding the retrieved elements. If fewer than {@code count}, there are no more
+		 */
+		CompletionStage<List<T>> retrieveBatch(@Nullable T lastElement, int count);
+
+	}
+
+	@Override
+	public void request(long n) {
+		synchronized (this) {
+			if (cancelled) {
+				return;
+			}
+			if (n <= 0) {
+				failure = new IllegalArgumentException("Requested non-positive number of elements: " + n);
+			} else {
+				demand += n;
+				if (demand < 0) {
+					// Overflow means unbounded demand
+					demand = Long.MAX_VALUE;
+				}
+			}
+		}
+		drain();
+	}
+
+	@Override
+	public synchronized void cancel() {
+		cancelled = true;
+		batch.clear();
+	}
+
+	/**
+	 * Emits as many elements as the subscriber has requested, retrieving batches as necessary,
+	 * and signals completion or failure. Reentrant calls, such as by the subscriber requesting
+	 * more elements from {@code onNext}, are handled by the outermost call.
+	 *
+	 */
+	private void drain() {
+		synchronized (this) {
+			if (draining) {
+				missedDrain = true;
+				return;
+			}
+			draining = true;
+		}
+		while (true) {
+			T element = null;
+			Throwable failure = null;
+			boolean complete = false;
+			int retrieveCount = 0;
+			T retrieveAfter = null;
+			synchronized (this) {
+				if (cancelled) {
+					draining = false;
+					return;
+				}
+				if (this.failure != null) {
+					failure = this.failure;
+					cancelled = true;
+				} else if (demand > 0 && !batch.isEmpty()) {
+					element = batch.poll();
+					if (demand != Long.MAX_VALUE) {
+						demand--;
+					}
+				} else if (batch.isEmpty() && exhausted) {
+					complete = true;
+					cancelled = true;
+				} else if (demand > 0 && !querying) {
+					retrieveCount = (limit == 0) ? batchSize : Math.min(batchSize, limit - retrieved);
+					if (retrieveCount == 0) {
+						complete = true;
+						cancelled = true;
+					} else {
+						querying = true;
+						retrieveAfter = lastElement;
+					}
+				} else if (missedDrain) {
+					missedDrain = false;
+					continue;
+				} else {
+					draining = false;
+					return;
+				}
+			}
+			if (element != null) {
+				subscriber.onNext(element);
+			} else if (failure != null) {
+				if (failure instanceof CompletionException && failure.getCause() != null) {
+					failure = failure.getCause();
+				}
+				subscriber.onError(failure);
+			} else if (complete) {
+				subscriber.onComplete();
+			} else {
+				retrieveBatch(retrieveAfter, retrieveCount);
+			}
+		}
+	}
+
+	private void retrieveBatch(T retrieveAfter, int count) {
+		CompletionStage<List<T>> retrieval;
+		try {
+			retrieval = query.retrieveBatch(retrieveAfter, count);
+		} catch (RuntimeException ex) {
+			retrieval = CompletableFuture.failedFuture(ex);
+		}
+		retrieval.whenComplete((elements, ex) -> {
+			synchronized (this) {
+				querying = false;
+				if (ex != null) {
+					failure = ex;
+				} else if (!cancelled) {
+					batch.addAll(elements);
+					retrieved += elements.size();
+					if (!elements.isEmpty()) {
+						lastElement = elements.get(elements.size() - 1);
+					}
+					if (elements.size() < count) {
+						exhausted = true;
+					}
+				}
+			}
+			drain();
+		});
+	}
+}
@@ -55,7 +55,10 @@ public interface EnforcementConfig {
 		"LENIENT - If the player's current address matches the punished address, the punishment applies to the player",
 		"NORMAL - If any of player's past addresses matches the punished address, the punishment applies to the player",
 		"STRICT - If any of player's past addresses match any related address linked by a common player,",
-		"the punishment applies to the player"})
+		"the punishment applies to the player",
+		"",
+		"STRICT keeps an extra index of punishments by address, which is filled on startup when switching to STRICT.",
+		"This may take a while on large databases. If multiple servers share the database, they should use the same setting."})
 	@DefaultString("NORMAL")
 	AddressStrictness addressStrictness(); // Sensitive name used in integration testing
 
@@ -89,6 +92,10 @@ public interface EnforcementConfig {
 	@SubSection
 	ConnectionLimitConfig connectionLimiter();
 
+	@ConfKey("login-admission")
+	@SubSection
+	LoginAdmissionConfig loginAdmission();
+
 	@ConfKey("mute-commands")
 	@ConfComments({"",
 		"A list of commands muted players will not be able to execute",
@@ -21,7 +21,9 @@ package space.arim.libertybans.core.selector;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
 import net.kyori.adventure.text.Component;
+import org.jooq.DSLContext;
 import space.arim.libertybans.api.NetworkAddress;
 import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.punish.Punishment;
@@ -31,16 +33,26 @@ import space.arim.libertybans.core.alts.ConnectionLimiter;
 import space.arim.libertybans.core.alts.DetectedAlt;
 import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.config.InternalFormatter;
+import space.arim.libertybans.core.database.execute.LatencyHistogram;
 import space.arim.libertybans.core.database.execute.QueryExecutor;
-import space.arim.libertybans.core.punish.Association;
+import space.arim.libertybans.core.punish.AssociationQueue;
+import space.arim.libertybans.core.punish.MiscUtil;
+import space.arim.libertybans.core.selector.cache.ActiveBanIndex;
+import space.arim.libertybans.core.selector.cache.BanVictimFilter;
 import space.arim.libertybans.core.service.Time;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static space.arim.libertybans.core.schema.tables.Addresses.ADDRESSES;
+
+@Singleton
 public final class Gatekeeper {
 
 	private final Configs configs;
@@ -53,11 +65,18 @@ public final class Gatekeeper {
 	private final Time time;
 
 	private final ApplicableImpl applicableImpl;
+	private final ActiveBanIndex banIndex;
+	private final BanVictimFilter banVictimFilter;
+	private final AssociationQueue associationQueue;
+
+	private final LatencyHistogram decisionTime = new LatencyHistogram();
 
 	@Inject
 	public Gatekeeper(Configs configs, FactoryOfTheFuture futuresFactory, Provider<QueryExecutor> queryExecutor,
 					  InternalFormatter formatter, ConnectionLimiter connectionLimiter, AltDetection altDetection,
-					  AltNotification altNotification, Time time, ApplicableImpl applicableImpl) {
+					  AltNotification altNotification, Time time, ApplicableImpl applicableImpl,
+					  ActiveBanIndex banIndex, BanVictimFilter banVictimFilter,
+					  AssociationQueue associationQueue) {
 		this.configs = configs;
 		this.futuresFactory = futuresFactory;
 		this.queryExecutor = queryExecutor;
@@ -67,17 +86,40 @@ public final class Gatekeeper {
 		this.altNotification = altNotification;
 		this.time = time;
 		this.applicableImpl = applicableImpl;
+		this.banIndex = banIndex;
+		this.banVictimFilter = banVictimFilter;
+		this.associationQueue = associationQueue;
+	}
+
+	/**
+	 * Time taken to decide whether a player may join, from when the check starts to when
+	 * the denial message, if any, is ready
+	 *
+	 * @return the login decision time histogram
+	 */
+	public LatencyHistogram decisionTime() {
+		return decisionTime;
 	}
 
 	CentralisedFuture<Component> executeAndCheckConnection(UUID uuid, String name, NetworkAddress address) {
+		long checkStart = System.nanoTime();
+		// Set by the attempt which commits
+		AtomicReference<AssociationQueue.PendingAssociation> deferredAssociation = new AtomicReference<>();
 		return queryExecutor.get().queryWithRetry((context, transaction) -> {
 			Instant currentTime = time.currentTimestamp();
 
-			Association association = new Association(uuid, context);
-			association.associateCurrentName(name, currentTime);
-			association.associateCurrentAddress(address, currentTime);
+			EnforcementConfig enforcement = configs.getMainConfig().enforcement();
+			EnforcementConfig.AltsAutoShow altsAutoShow = enforcement.altsAutoShow();
+			// These features rely on the current address having been recorded
+			boolean addressRequiredNow = enforcement.addressStrictness() == AddressStrictness.STRICT
+					|| enforcement.connectionLimiter().enable()
+					|| altsAutoShow.enable();
+			AssociationQueue.PendingAssociation pendingAssociation = associationQueue.associateCurrent(
+					context, uuid, name, address, currentTime, addressRequiredNow);
+			deferredAssociation.set(pendingAssociation);
+			boolean addressDeferred = pendingAssociation != null && pendingAssociation.addressDeferred();
 
-			Punishment ban = applicableImpl.selectApplicable(context, uuid, address, PunishmentType.BAN, currentTime);
+			Punishment ban = selectApplicableBan(context, uuid, address, currentTime, addressDeferred);
 			if (ban != null) {
 				return ban;
 			}
@@ -86,13 +128,14 @@ public final class Gatekeeper {
 				return connectionLimitMessage;
 			}
 			// The player may join, but should be checked for alts
-			EnforcementConfig.AltsAutoShow altsAutoShow = configs.getMainConfig().enforcement().altsAutoShow();
 			if (altsAutoShow.enable()) {
 				List<DetectedAlt> detectedAlts = altDetection.detectAlts(context, uuid, address, altsAutoShow.showWhichAlts());
 				return detectedAlts;
 			}
 			return null;
 		}).thenCompose((banOrLimitMessageOrDetectedAltsOrNull) -> {
+			// The transaction has committed
+			associationQueue.enqueue(deferredAssociation.get());
 			if (banOrLimitMessageOrDetectedAltsOrNull instanceof Punishment) {
 				return formatter.getPunishmentMessage((Punishment) banOrLimitMessageOrDetectedAltsOrNull);
 			}
@@ -105,6 +148,57 @@ public final class Gatekeeper {
 				altNotification.notifyFoundAlts(uuid, name, address, detectedAlts);
 			}
 			return futuresFactory.completedFuture(null);
+		}).whenComplete((ignore1, ignore2) -> {
+			decisionTime.record(System.nanoTime() - checkStart);
 		});
 	}
+
+	private Punishment selectApplicableBan(DSLContext context, UUID uuid, NetworkAddress address,
+										   Instant currentTime, boolean addressDeferred) {
+		boolean banIndexReady = banIndex.isReady();
+		if (banIndexReady || banVictimFilter.isReady()) {
+			AddressStrictness strictness = configs.getMainConfig().enforcement().addressStrictness();
+			Set<NetworkAddress> addresses;
+			switch (strictness) {
+			case LENIENT:
+				addresses = Set.of(address);
+				break;
+			case NORMAL:
+				addresses = pastAddresses(context, uuid, address);
+				break;
+			case STRICT:
+				// Linked accounts are neither indexed nor filtered; use the database
+				addresses = null;
+				break;
+			default:
+				throw MiscUtil.unknownAddressStrictness(strictness);
+			}
+			if (addresses != null) {
+				if (banIndexReady) {
+					return banIndex.findApplicableBan(uuid, addresses, currentTime);
+				}
+				if (!banVictimFilter.mightBeBanned(uuid, addresses)) {
+					return null;
+				}
+			}
+		}
+		Punishment ban = applicableImpl.selectApplicable(context, uuid, address, PunishmentType.BAN, currentTime);
+		if (ban == null && addressDeferred) {
+			// The applicable index cannot see the current address until it is written
+			ban = applicableImpl.selectApplicable(
+					context, uuid, address, PunishmentType.BAN, currentTime, AddressStrictness.LENIENT);
+		}
+		return ban;
+	}
+
+	private static Set<NetworkAddress> pastAddresses(DSLContext context, UUID uuid, NetworkAddress address) {
+		Set<NetworkAddress> pastAddresses = new HashSet<>(context
+				.select(ADDRESSES.ADDRESS)
+				.from(ADDRESSES)
+				.where(ADDRESSES.UUID.eq(uuid))
+				.fetchSet(ADDRESSES.ADDRESS));
+		// The current address may not have been written yet
+		pastAddresses.add(address);
+		return pastAddresses;
+	}
 }
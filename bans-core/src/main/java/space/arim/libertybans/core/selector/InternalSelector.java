@@ -19,6 +19,8 @@
 
 package space.arim.libertybans.core.selector;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 
 import net.kyori.adventure.text.Component;
@@ -27,6 +29,7 @@ import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.libertybans.api.NetworkAddress;
 import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.api.select.PunishmentSelector;
+import space.arim.libertybans.core.env.UUIDAndAddress;
 
 public interface InternalSelector extends PunishmentSelector {
 
@@ -43,4 +46,13 @@ public interface InternalSelector extends PunishmentSelector {
 
 	CentralisedFuture<Punishment> getApplicableMute(UUID uuid, NetworkAddress address);
 
+	/**
+	 * Gets the applicable mutes of many players at once, using set-based queries rather
+	 * than one query per player
+	 *
+	 * @param players the players' uuids and addresses
+	 * @return a future which yields the applicable mute of each player who has one
+	 */
+	CentralisedFuture<Map<UUIDAndAddress, Punishment>> getApplicableMutes(Collection<UUIDAndAddress> players);
+
 }
@@ -0,0 +1,303 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import net.kyori.adventure.text.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.database.execute.LatencyHistogram;
+import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.omnibus.util.ThisClass;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.EnhancedExecutor;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the login check. <br>
+ * <br>
+ * At most a configured number of login checks run at once. Further logins wait in a FIFO
+ * queue, which is bounded in size and in waiting time. Logins which cannot be admitted in
+ * time are denied or admitted with a deferred check, according to the degrade policy. <br>
+ * <br>
+ * Deferred checks wait in their own queue, bounded separately, and run after queued logins.
+ * Beyond that bound, admitted logins are not checked.
+ *
+ */
+@Singleton
+public final class LoginAdmission {
+
+	private final Configs configs;
+	private final FactoryOfTheFuture futuresFactory;
+	private final EnhancedExecutor enhancedExecutor;
+	private final EnvEnforcer<?> envEnforcer;
+
+	// Guarded by this
+	private final ArrayDeque<PendingLogin> queue = new ArrayDeque<>();
+	private final ArrayDeque<PendingLogin> deferredQueue = new ArrayDeque<>();
+	private int inFlight;
+
+	private final LatencyHistogram queueWait = new LatencyHistogram();
+	private final LongAccumulator peakQueueDepth = new LongAccumulator(Math::max, 0L);
+	private final LongAdder deniedLogins = new LongAdder();
+	private final LongAdder deferredLogins = new LongAdder();
+	private final LongAdder droppedDeferredChecks = new LongAdder();
+
+	private static final Duration KICK_RETRY_DELAY = Duration.ofSeconds(2L);
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public LoginAdmission(Configs configs, FactoryOfTheFuture futuresFactory,
+						  EnhancedExecutor enhancedExecutor, EnvEnforcer<?> envEnforcer) {
+		this.configs = configs;
+		this.futuresFactory = futuresFactory;
+		this.enhancedExecutor = enhancedExecutor;
+		this.envEnforcer = envEnforcer;
+	}
+
+	/**
+	 * Runs a login check once admitted
+	 *
+	 * @param uuid the uuid of the player logging in
+	 * @param loginCheck the login check, yielding the denial message or {@code null} to allow the
+	 *                   login. May be run more than once if the check is deferred
+	 * @return a future yielding the denial message or {@code null}
+	 */
+	CentralisedFuture<Component> admit(UUID uuid, Supplier<CentralisedFuture<Component>> loginCheck) {
+		LoginAdmissionConfig config = configs.getMainConfig().enforcement().loginAdmission();
+		if (!config.enable()) {
+			return loginCheck.get();
+		}
+		PendingLogin login = new PendingLogin(loginCheck);
+		boolean runNow;
+		boolean queued;
+		synchronized (this) {
+			runNow = inFlight < config.maxInFlight();
+			queued = !runNow && queue.size() < config.maxQueued();
+			if (runNow) {
+				inFlight++;
+			} else if (queued) {
+				queue.addLast(login);
+				peakQueueDepth.accumulate(queue.size() + deferredQueue.size());
+			}
+		}
+		if (runNow) {
+			login.run();
+		} else if (!queued) {
+			return degrade(uuid, login, config);
+		} else {
+			enhancedExecutor.schedule(() -> {
+				boolean timedOut;
+				synchronized (this) {
+					timedOut = queue.remove(login);
+				}
+				if (timedOut) {
+					degrade(uuid, login, config);
+				}
+			}, Duration.ofMillis(config.maxWaitMillis()));
+		}
+		return login.result;
+	}
+
+	private CentralisedFuture<Component> degrade(UUID uuid, PendingLogin login, LoginAdmissionConfig config) {
+		switch (config.degradePolicy()) {
+		case DENY:
+			deniedLogins.increment();
+			login.result.complete(config.denialMessage());
+			break;
+		case ADMIT:
+			deferredLogins.increment();
+			login.result.complete(null);
+			PendingLogin deferredCheck = new PendingLogin(login.loginCheck);
+			boolean runNow;
+			boolean dropped = false;
+			synchronized (this) {
+				runNow = inFlight < config.maxInFlight();
+				if (runNow) {
+					inFlight++;
+				} else if (deferredQueue.size() < config.maxDeferredChecks()) {
+					deferredQueue.addLast(deferredCheck);
+					peakQueueDepth.accumulate(queue.size() + deferredQueue.size());
+				} else {
+					dropped = true;
+				}
+			}
+			if (dropped) {
+				droppedDeferredChecks.increment();
+				logger.warn("Too many deferred login checks are waiting. Admitted {} without a login check.", uuid);
+				break;
+			}
+			if (runNow) {
+				deferredCheck.run();
+			}
+			deferredCheck.result.thenAccept((message) -> {
+				if (message != null) {
+					kickDeferred(uuid, message, true);
+				}
+			}).exceptionally((ex) -> {
+				logger.warn("Deferred login check failed", ex);
+				return null;
+			});
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown degrade policy " + config.degradePolicy());
+		}
+		return login.result;
+	}
+
+	private void kickDeferred(UUID uuid, Component message, boolean retry) {
+		kickIfOnline(envEnforcer, uuid, message).thenAccept((kicked) -> {
+			// The player may not have finished joining
+			if (!kicked && retry) {
+				enhancedExecutor.schedule(() -> kickDeferred(uuid, message, false), KICK_RETRY_DELAY);
+			}
+		});
+	}
+
+	private static <P> CentralisedFuture<Boolean> kickIfOnline(EnvEnforcer<P> envEnforcer,
+																UUID uuid, Component message) {
+		AtomicBoolean kicked = new AtomicBoolean();
+		return envEnforcer.doForPlayerIfOnline(uuid, (player) -> {
+			envEnforcer.kickPlayer(player, message);
+			kicked.set(true);
+		}).thenApply((ignore) -> kicked.get());
+	}
+
+	private void release() {
+		PendingLogin next;
+		synchronized (this) {
+			next = queue.pollFirst();
+			if (next == null) {
+				next = deferredQueue.pollFirst();
+			}
+			if (next == null) {
+				inFlight--;
+				return;
+			}
+			// The slot passes directly to the next login
+		}
+		next.run();
+	}
+
+	/**
+	 * Time spent by logins waiting to be checked, including logins admitted immediately
+	 *
+	 * @return the queue wait histogram
+	 */
+	public LatencyHistogram queueWait() {
+		return queueWait;
+	}
+
+	/**
+	 * The current number of logins and deferred checks waiting in the queues
+	 *
+	 * @return the queue depth
+	 */
+	public synchronized int queueDepth() {
+		return queue.size() + deferredQueue.size();
+	}
+
+	/**
+	 * The greatest number of logins and deferred checks which have waited in the queues at once
+	 *
+	 * @return the peak queue depth
+	 */
+	public long peakQueueDepth() {
+		return peakQueueDepth.get();
+	}
+
+	/**
+	 * The current number of login checks running
+	 *
+	 * @return the in-flight count
+	 */
+	public synchronized int inFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * The number of logins denied by the degrade policy
+	 *
+	 * @return the denied login count
+	 */
+	public long deniedLogins() {
+		return deniedLogins.sum();
+	}
+
+	/**
+	 * The number of logins admitted with a deferred check by the degrade policy
+	 *
+	 * @return the deferred login count
+	 */
+	public long deferredLogins() {
+		return deferredLogins.sum();
+	}
+
+	/**
+	 * The number of logins admitted by the degrade policy whose deferred check was dropped
+	 * because too many deferred checks were waiting
+	 *
+	 * @return the dropped deferred check count
+	 */
+	public long droppedDeferredChecks() {
+		return droppedDeferredChecks.sum();
+	}
+
+	private final class PendingLogin {
+
+		private final Supplier<CentralisedFuture<Component>> loginCheck;
+		private final long enqueuedAt = System.nanoTime();
+		private final CentralisedFuture<Component> result = futuresFactory.newIncompleteFuture();
+
+		private PendingLogin(Supplier<CentralisedFuture<Component>> loginCheck) {
+			this.loginCheck = loginCheck;
+		}
+
+		void run() {
+			queueWait.record(System.nanoTime() - enqueuedAt);
+			CentralisedFuture<Component> check;
+			try {
+				check = loginCheck.get();
+			} catch (RuntimeException ex) {
+				release();
+				result.completeExceptionally(ex);
+				return;
+			}
+			check.whenComplete((message, ex) -> {
+				release();
+				if (ex != null) {
+					result.completeExceptionally(ex);
+				} else {
+					result.complete(message);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector;
+
+import net.kyori.adventure.text.Component;
+import space.arim.dazzleconf.annote.ConfComments;
+import space.arim.dazzleconf.annote.ConfDefault;
+import space.arim.dazzleconf.annote.ConfHeader;
+import space.arim.dazzleconf.annote.ConfKey;
+import space.arim.dazzleconf.annote.NumericRange;
+
+@ConfHeader({
+		"Limits the number of logins being checked against the database at once.",
+		"",
+		"When the database is slow to respond, logins beyond the limit wait in a queue, in the order they arrived.",
+		"Logins which do not fit in the queue, or which wait in it for too long, are handled by the degrade policy."
+})
+public interface LoginAdmissionConfig {
+
+	@ConfComments("Whether to enable this feature")
+	@ConfDefault.DefaultBoolean(false)
+	boolean enable();
+
+	@ConfKey("max-in-flight")
+	@ConfComments("The maximum number of logins checked at once")
+	@ConfDefault.DefaultInteger(8)
+	@NumericRange(min = 1)
+	int maxInFlight();
+
+	@ConfKey("max-queued")
+	@ConfComments("The maximum number of logins waiting to be checked")
+	@ConfDefault.DefaultInteger(100)
+	@NumericRange(min = 0)
+	int maxQueued();
+
+	@ConfKey("max-wait-millis")
+	@ConfComments({"How long may a login wait in the queue, in milliseconds?",
+			"This should be well below 12 seconds, after which a login check is considered to have failed."})
+	@ConfDefault.DefaultInteger(5000)
+	@NumericRange(min = 1)
+	long maxWaitMillis();
+
+	@ConfKey("degrade-policy")
+	@ConfComments({"What should happen to logins which cannot be checked in time?",
+			"",
+			"DENY - deny the login with the denial message, so that the player may try again",
+			"ADMIT - admit the player, and check the login once the queue has room.",
+			"If the player turns out to be banned, they are kicked at that point."})
+	@ConfDefault.DefaultString("DENY")
+	DegradePolicy degradePolicy();
+
+	enum DegradePolicy {
+		DENY,
+		ADMIT
+	}
+
+	@ConfKey("max-deferred-checks")
+	@ConfComments({"The maximum number of deferred login checks waiting to run, with the ADMIT policy.",
+			"Players admitted beyond this limit are not checked, so this should be generous."})
+	@ConfDefault.DefaultInteger(1000)
+	@NumericRange(min = 0)
+	int maxDeferredChecks();
+
+	@ConfKey("denial-message")
+	@ConfComments("The message when a player is denied from joining by the DENY policy")
+	@ConfDefault.DefaultString("The server is busy. Please try again in a moment.")
+	Component denialMessage();
+
+}
@@ -34,6 +34,7 @@ import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.api.scope.ServerScope;
 import space.arim.libertybans.api.select.SelectionOrder;
 import space.arim.libertybans.api.select.SelectionPredicate;
+import space.arim.libertybans.core.database.DatabaseConstants;
 import space.arim.libertybans.core.database.InternalDatabase;
 import space.arim.libertybans.core.database.execute.SQLFunction;
 import space.arim.libertybans.core.database.sql.DeserializedVictim;
@@ -53,7 +54,10 @@ import space.arim.omnibus.util.concurrent.ReactionStage;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 
 @Singleton
 public class SelectionImpl {
@@ -164,6 +168,16 @@ public class SelectionImpl {
 				);
 			}
 		}
+		Instant seekBeforeStartTime = selection.seekBeforeStartTime();
+		if (!seekBeforeStartTime.equals(Instant.MAX)) {
+			// start < seekBeforeStartTime OR (start = seekBeforeStartTime AND id <= seekBeforeId)
+			long seekBeforeId = selection.seekBeforeId();
+			condition = condition.and(
+					fields.start().lessThan(seekBeforeStartTime).or(
+							fields.start().eq(seekBeforeStartTime).and(fields.id().lessOrEqual(seekBeforeId))
+					)
+			);
+		}
 		return condition;
 	}
 
@@ -231,6 +245,7 @@ public class SelectionImpl {
 		} else {
 			// Has OFFSET
 			assert seekAfterStartTime.equals(Instant.EPOCH) : "seekAfter is exclusive with skipFirstRetrieved";
+			assert selection.seekBeforeStartTime().equals(Instant.MAX) : "seekBefore is exclusive with skipFirstRetrieved";
 			var offsetQuery = selectOrderBy.offset(offset);
 			return (limit == 0) ? offsetQuery : offsetQuery.limit(limit);
 		}
@@ -248,7 +263,7 @@ public class SelectionImpl {
 			return futuresFactory.completedFuture(null);
 		}
 		InternalDatabase database = dbProvider.get();
-		return database.query(SQLFunction.readOnly((context) -> {
+		return database.query(SQLFunction.readOnly("SelectionImpl.selectFirst", (context) -> {
 			PunishmentFields fields = getPunishmentFieldsToUse(selection);
 			return selectMatchingPunishments(selection, fields, context, true)
 					.fetchOne((record) -> fromRecordAndSelection(record, selection, fields));
@@ -261,13 +276,95 @@ public class SelectionImpl {
 			return futuresFactory.completedFuture(List.of());
 		}
 		InternalDatabase database = dbProvider.get();
-		return database.query(SQLFunction.readOnly((context) -> {
+		return database.query(SQLFunction.readOnly("SelectionImpl.select", (context) -> {
 			PunishmentFields fields = getPunishmentFieldsToUse(selection);
 			return selectMatchingPunishments(selection, fields, context, false)
 					.fetch((record) -> fromRecordAndSelection(record, selection, fields));
 		}));
 	}
 
+	void streamSpecificPunishments(SelectionOrder selection, Flow.Subscriber<? super Punishment> subscriber) {
+		BatchedSubscription.BatchQuery<Punishment> batchQuery;
+		if (selectActiveKicks(selection)) {
+			// Kicks cannot possibly be active. They are all history
+			batchQuery = (lastPunishment, count) -> futuresFactory.completedFuture(List.of());
+		} else {
+			batchQuery = (lastPunishment, count) -> selectBatchOfPunishments(selection, lastPunishment, count);
+		}
+		subscriber.onSubscribe(new BatchedSubscription<>(
+				subscriber, DatabaseConstants.FETCH_SIZE, selection.limitToRetrieve(), batchQuery
+		));
+	}
+
+	private ReactionStage<List<Punishment>> selectBatchOfPunishments(SelectionOrder selection,
+																	 Punishment lastPunishment, int count) {
+		InternalDatabase database = dbProvider.get();
+		return database.query(SQLFunction.readOnly("SelectionImpl.stream", (context) -> {
+			PunishmentFields fields = getPunishmentFieldsToUse(selection);
+			Condition condition = getPredication(selection, fields);
+			int offset;
+			if (lastPunishment == null) {
+				offset = selection.skipCount();
+			} else {
+				// Seek before the last punishment, exclusively
+				// start < lastStart OR (start = lastStart AND id < lastId)
+				Instant lastStart = lastPunishment.getStartDate();
+				condition = condition.and(
+						fields.start().lessThan(lastStart).or(
+								fields.start().eq(lastStart).and(fields.id().lessThan(lastPunishment.getIdentifier()))
+						)
+				);
+				offset = 0;
+			}
+			var selectOrderBy = context
+					.select(getColumns(selection, fields))
+					.from(fields.table())
+					.where(condition)
+					.orderBy(
+							fields.start().desc(), fields.id().desc()
+					);
+			var selectLimit = (offset == 0) ? selectOrderBy.limit(count) : selectOrderBy.offset(offset).limit(count);
+			return selectLimit.fetch((record) -> fromRecordAndSelection(record, selection, fields));
+		}));
+	}
+
+	ReactionStage<Integer> countPunishments(SelectionOrder selection) {
+		if (selectActiveKicks(selection)) {
+			// Kicks cannot possibly be active. They are all history
+			return futuresFactory.completedFuture(0);
+		}
+		InternalDatabase database = dbProvider.get();
+		return database.query(SQLFunction.readOnly("SelectionImpl.count", (context) -> {
+			PunishmentFields fields = getPunishmentFieldsToUse(selection);
+			return context
+					.selectCount()
+					.from(fields.table())
+					.where(getPredication(selection, fields))
+					.fetchSingle()
+					.value1();
+		}));
+	}
+
+	<G> ReactionStage<Map<G, Integer>> countPunishmentsGroupedBy(SelectionOrder selection,
+																 Function<PunishmentFields, Field<G>> groupField) {
+		if (selectActiveKicks(selection)) {
+			// Kicks cannot possibly be active. They are all history
+			return futuresFactory.completedFuture(Map.of());
+		}
+		InternalDatabase database = dbProvider.get();
+		return database.query(SQLFunction.readOnly("SelectionImpl.countGrouped", (context) -> {
+			PunishmentFields fields = getPunishmentFieldsToUse(selection);
+			Field<G> group = groupField.apply(fields);
+			Field<Integer> count = DSL.count();
+			return context
+					.select(group, count)
+					.from(fields.table())
+					.where(getPredication(selection, fields))
+					.groupBy(group)
+					.fetchMap(group, count);
+		}));
+	}
+
 	private PunishmentFields getPunishmentFieldsToUse(SelectionOrder selection) {
 		if (selection.selectActiveOnly()) {
 			if (selection.getTypes().isSimpleEquality()) {
@@ -42,6 +42,8 @@ class SelectionOrderBuilderImpl implements SelectionOrderBuilder {
 	private int limitToRetrieve;
 	private Instant seekAfterStartTime = Instant.EPOCH;
 	private long seekAfterId;
+	private Instant seekBeforeStartTime = Instant.MAX;
+	private long seekBeforeId;
 
 	SelectionOrderBuilderImpl(SelectorImpl selector) {
 		this.selector = selector;
@@ -102,12 +104,20 @@ class SelectionOrderBuilderImpl implements SelectionOrderBuilder {
 		return this;
 	}
 
+	@Override
+	public SelectionOrderBuilder seekBefore(Instant maximumStartTime, long maximumId) {
+		this.seekBeforeStartTime = Objects.requireNonNull(maximumStartTime, "maximumStartTime");
+		this.seekBeforeId = maximumId;
+		return this;
+	}
+
 	@Override
 	public SelectionOrder build() {
 		return new SelectionOrderImpl(selector,
 				types, victims, operators, scopes,
 				selectActiveOnly, skipCount, limitToRetrieve,
-				seekAfterStartTime, seekAfterId
+				seekAfterStartTime, seekAfterId,
+				seekBeforeStartTime, seekBeforeId
 		);
 	}
 	
@@ -30,8 +30,10 @@ import space.arim.omnibus.util.concurrent.ReactionStage;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Flow;
 
 class SelectionOrderImpl implements SelectionOrder {
 
@@ -46,12 +48,15 @@ class SelectionOrderImpl implements SelectionOrder {
 	private final int limitToRetrieve;
 	private final Instant seekAfterStartTime;
 	private final long seekAfterId;
+	private final Instant seekBeforeStartTime;
+	private final long seekBeforeId;
 
 	SelectionOrderImpl(SelectorImpl selector,
 					   SelectionPredicate<PunishmentType> types, SelectionPredicate<Victim> victims,
 					   SelectionPredicate<Operator> operators, SelectionPredicate<ServerScope> scopes,
 					   boolean selectActiveOnly, int skipCount, int limitToRetrieve,
-					   Instant seekAfterStartTime, long seekAfterId) {
+					   Instant seekAfterStartTime, long seekAfterId,
+					   Instant seekBeforeStartTime, long seekBeforeId) {
 		this.selector = Objects.requireNonNull(selector, "selector");
 
 		this.types = Objects.requireNonNull(types, "types");
@@ -64,6 +69,9 @@ class SelectionOrderImpl implements SelectionOrder {
 		this.seekAfterStartTime = Objects.requireNonNull(seekAfterStartTime, "seekAfterStartTime");
 		// Zero-out seekAfterId if start time is unset, so that equals and hashCode function reliably
 		this.seekAfterId = (seekAfterStartTime.equals(Instant.EPOCH) ? 0 : seekAfterId);
+		this.seekBeforeStartTime = Objects.requireNonNull(seekBeforeStartTime, "seekBeforeStartTime");
+		// Likewise for seekBeforeId
+		this.seekBeforeId = (seekBeforeStartTime.equals(Instant.MAX) ? 0 : seekBeforeId);
 	}
 
 	@Override
@@ -111,6 +119,16 @@ class SelectionOrderImpl implements SelectionOrder {
 		return seekAfterId;
 	}
 
+	@Override
+	public Instant seekBeforeStartTime() {
+		return seekBeforeStartTime;
+	}
+
+	@Override
+	public long seekBeforeId() {
+		return seekBeforeId;
+	}
+
 	@Override
 	public ReactionStage<Optional<Punishment>> getFirstSpecificPunishment() {
 		return selector.getFirstSpecificPunishment(this).thenApply(Optional::ofNullable);
@@ -121,6 +139,28 @@ class SelectionOrderImpl implements SelectionOrder {
 		return selector.getSpecificPunishments(this);
 	}
 
+	@Override
+	public Flow.Publisher<Punishment> streamAllSpecificPunishments() {
+		return (subscriber) -> {
+			selector.streamSpecificPunishments(this, Objects.requireNonNull(subscriber, "subscriber"));
+		};
+	}
+
+	@Override
+	public ReactionStage<Integer> countMatchingPunishments() {
+		return selector.countPunishments(this);
+	}
+
+	@Override
+	public ReactionStage<Map<PunishmentType, Integer>> countMatchingPunishmentsByType() {
+		return selector.countPunishmentsByType(this);
+	}
+
+	@Override
+	public ReactionStage<Map<Operator, Integer>> countMatchingPunishmentsByOperator() {
+		return selector.countPunishmentsByOperator(this);
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -130,11 +170,13 @@ class SelectionOrderImpl implements SelectionOrder {
 				&& skipCount == that.skipCount
 				&& limitToRetrieve == that.limitToRetrieve
 				&& seekAfterId == that.seekAfterId
+				&& seekBeforeId == that.seekBeforeId
 				&& types.equals(that.types)
 				&& victims.equals(that.victims)
 				&& operators.equals(that.operators)
 				&& scopes.equals(that.scopes)
-				&& seekAfterStartTime.equals(that.seekAfterStartTime);
+				&& seekAfterStartTime.equals(that.seekAfterStartTime)
+				&& seekBeforeStartTime.equals(that.seekBeforeStartTime);
 	}
 
 	@Override
@@ -148,6 +190,8 @@ class SelectionOrderImpl implements SelectionOrder {
 		result = 31 * result + limitToRetrieve;
 		result = 31 * result + seekAfterStartTime.hashCode();
 		result = 31 * result + (int) (seekAfterId ^ (seekAfterId >>> 32));
+		result = 31 * result + seekBeforeStartTime.hashCode();
+		result = 31 * result + (int) (seekBeforeId ^ (seekBeforeId >>> 32));
 		return result;
 	}
 
@@ -163,6 +207,8 @@ class SelectionOrderImpl implements SelectionOrder {
 				", limitToRetrieve=" + limitToRetrieve +
 				", seekAfterStartTime=" + seekAfterStartTime +
 				", seekAfterId=" + seekAfterId +
+				", seekBeforeStartTime=" + seekBeforeStartTime +
+				", seekBeforeId=" + seekBeforeId +
 				'}';
 	}
 }
@@ -19,22 +19,28 @@
 
 package space.arim.libertybans.core.selector;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Flow;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
 import net.kyori.adventure.text.Component;
+import space.arim.libertybans.core.database.sql.PunishmentFields;
+import space.arim.libertybans.core.env.UUIDAndAddress;
 import space.arim.libertybans.api.select.SelectionOrder;
 import space.arim.libertybans.core.selector.cache.MuteCache;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.ReactionStage;
 
 import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.Operator;
 import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.api.select.SelectionOrderBuilder;
@@ -46,15 +52,17 @@ public class SelectorImpl implements InternalSelector {
 	private final IDImpl idImpl;
 	private final ApplicableImpl applicableImpl;
 	private final Gatekeeper gatekeeper;
+	private final LoginAdmission loginAdmission;
 	private final Provider<MuteCache> muteCache;
 
 	@Inject
 	public SelectorImpl(SelectionImpl selectionImpl, IDImpl idImpl, ApplicableImpl applicableImpl,
-						Gatekeeper gatekeeper, Provider<MuteCache> muteCache) {
+						Gatekeeper gatekeeper, LoginAdmission loginAdmission, Provider<MuteCache> muteCache) {
 		this.selectionImpl = selectionImpl;
 		this.idImpl = idImpl;
 		this.applicableImpl = applicableImpl;
 		this.gatekeeper = gatekeeper;
+		this.loginAdmission = loginAdmission;
 		this.muteCache = muteCache;
 	}
 
@@ -77,6 +85,22 @@ public class SelectorImpl implements InternalSelector {
 		return selectionImpl.getSpecificPunishments(selection);
 	}
 
+	void streamSpecificPunishments(SelectionOrder selection, Flow.Subscriber<? super Punishment> subscriber) {
+		selectionImpl.streamSpecificPunishments(selection, subscriber);
+	}
+
+	ReactionStage<Integer> countPunishments(SelectionOrder selection) {
+		return selectionImpl.countPunishments(selection);
+	}
+
+	ReactionStage<Map<PunishmentType, Integer>> countPunishmentsByType(SelectionOrder selection) {
+		return selectionImpl.countPunishmentsGroupedBy(selection, PunishmentFields::type);
+	}
+
+	ReactionStage<Map<Operator, Integer>> countPunishmentsByOperator(SelectionOrder selection) {
+		return selectionImpl.countPunishmentsGroupedBy(selection, PunishmentFields::operator);
+	}
+
 	/*
 	 * 
 	 * ID related methods
@@ -111,7 +135,7 @@ public class SelectorImpl implements InternalSelector {
 
 	@Override
 	public CentralisedFuture<Component> executeAndCheckConnection(UUID uuid, String name, NetworkAddress address) {
-		return gatekeeper.executeAndCheckConnection(uuid, name, address);
+		return loginAdmission.admit(uuid, () -> gatekeeper.executeAndCheckConnection(uuid, name, address));
 	}
 
 	@Override
@@ -130,4 +154,9 @@ public class SelectorImpl implements InternalSelector {
 		return applicableImpl.getApplicablePunishment(uuid, address, PunishmentType.MUTE);
 	}
 
+	@Override
+	public CentralisedFuture<Map<UUIDAndAddress, Punishment>> getApplicableMutes(Collection<UUIDAndAddress> players) {
+		return applicableImpl.getApplicablePunishments(players, PunishmentType.MUTE);
+	}
+
 }
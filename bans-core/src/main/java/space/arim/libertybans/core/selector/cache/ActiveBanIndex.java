@@ -0,0 +1,321 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector.cache;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.AddressVictim;
+import space.arim.libertybans.api.CompositeVictim;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.Part;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.execute.SQLFunction;
+import space.arim.libertybans.core.database.sql.EndTimeCondition;
+import space.arim.libertybans.core.punish.MiscUtil;
+import space.arim.libertybans.core.punish.PunishmentCreator;
+import space.arim.libertybans.core.service.Time;
+import space.arim.omnibus.util.ThisClass;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static space.arim.libertybans.core.schema.tables.SimpleBans.SIMPLE_BANS;
+
+/**
+ * Node-local index of active bans, keyed by victim UUID and victim address. <br>
+ * <br>
+ * The index is filled from the database on startup. Afterwards, it is kept up to date by
+ * punishment enactment and revocation on this instance, and by synchronization messages
+ * received from other instances. It is therefore only accurate if punishments are not
+ * modified in the database by other means. Expired bans are ignored by lookups and pruned
+ * periodically by the refresh task.
+ *
+ */
+@Singleton
+public final class ActiveBanIndex implements Part {
+
+	private final Configs configs;
+	private final Provider<QueryExecutor> queryExecutor;
+	private final PunishmentCreator creator;
+	private final Time time;
+
+	private volatile @Nullable Index index;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public ActiveBanIndex(Configs configs, Provider<QueryExecutor> queryExecutor,
+						  PunishmentCreator creator, Time time) {
+		this.configs = configs;
+		this.queryExecutor = queryExecutor;
+		this.creator = creator;
+		this.time = time;
+	}
+
+	@Override
+	public void startup() {
+		SqlConfig sqlConfig = configs.getSqlConfig();
+		if (!sqlConfig.banIndex().enable()) {
+			return;
+		}
+		if (!sqlConfig.synchronization().mode().reachesEveryInstance()) {
+			logger.warn("The ban index cannot be used with PLUGIN_MESSAGING synchronization and will remain disabled.");
+			return;
+		}
+		Index index = new Index();
+		// Install the index first so that concurrent enactments and revocations are not missed
+		this.index = index;
+
+		Instant currentTime = time.currentTimestamp();
+		List<Punishment> activeBans = queryExecutor.get().query(SQLFunction.readOnly((context) -> {
+			return context
+					.select(
+							SIMPLE_BANS.ID,
+							SIMPLE_BANS.VICTIM_TYPE, SIMPLE_BANS.VICTIM_UUID, SIMPLE_BANS.VICTIM_ADDRESS,
+							SIMPLE_BANS.OPERATOR, SIMPLE_BANS.REASON,
+							SIMPLE_BANS.SCOPE, SIMPLE_BANS.START, SIMPLE_BANS.END
+					)
+					.from(SIMPLE_BANS)
+					.where(new EndTimeCondition(SIMPLE_BANS.END).isNotExpired(currentTime))
+					.fetch(creator.punishmentMapper(PunishmentType.BAN));
+		})).join();
+		index.populate(activeBans);
+		logger.debug("Indexed {} active bans", activeBans.size());
+	}
+
+	@Override
+	public void restart() {
+		shutdown();
+		startup();
+	}
+
+	@Override
+	public void shutdown() {
+		index = null;
+	}
+
+	/**
+	 * Whether the index is enabled and fully populated, such that it may be used in place of
+	 * querying the database for applicable bans
+	 *
+	 * @return true if the index is usable
+	 */
+	public boolean isReady() {
+		Index index = this.index;
+		return index != null && index.populated;
+	}
+
+	/**
+	 * Adds a punishment to the index if it is a ban. Does nothing if the index is disabled
+	 *
+	 * @param punishment the punishment which was enacted
+	 */
+	public void indexPunishment(Punishment punishment) {
+		Index index = this.index;
+		if (index != null && punishment.getType() == PunishmentType.BAN) {
+			index.add(punishment);
+		}
+	}
+
+	/**
+	 * Removes a punishment from the index. Does nothing if the index is disabled or the
+	 * punishment is not indexed
+	 *
+	 * @param id the id of the punishment which was revoked
+	 */
+	public void unindexPunishment(long id) {
+		Index index = this.index;
+		if (index != null) {
+			index.remove(id);
+		}
+	}
+
+	/**
+	 * Removes expired bans from the index. Does nothing if the index is disabled
+	 *
+	 * @param currentTime the current time
+	 */
+	public void pruneExpired(Instant currentTime) {
+		Index index = this.index;
+		if (index == null) {
+			return;
+		}
+		int pruned = 0;
+		for (Punishment ban : index.byId.values()) {
+			if (isExpired(ban, currentTime)) {
+				index.remove(ban.getIdentifier());
+				pruned++;
+			}
+		}
+		logger.debug("Pruned {} expired bans from the index", pruned);
+	}
+
+	private static boolean isExpired(Punishment ban, Instant currentTime) {
+		return !ban.isPermanent() && !ban.getEndDate().isAfter(currentTime);
+	}
+
+	/**
+	 * Finds the ban applicable to the given UUID and any of the given addresses. If multiple
+	 * bans apply, the one lasting the longest is chosen, similar to the ordering used for
+	 * database queries.
+	 *
+	 * @param uuid the uuid
+	 * @param addresses the addresses relevant to the user, according to address strictness
+	 * @param currentTime the current time, used to ignore expired bans
+	 * @return the applicable ban, or {@code null} if none applies or if the index is not ready
+	 */
+	public @Nullable Punishment findApplicableBan(UUID uuid, Iterable<NetworkAddress> addresses,
+												  Instant currentTime) {
+		Index index = this.index;
+		if (index == null) {
+			return null;
+		}
+		Punishment applicable = mostApplicable(null, index.byUuid.get(uuid), currentTime);
+		for (NetworkAddress address : addresses) {
+			applicable = mostApplicable(applicable, index.byAddress.get(address), currentTime);
+		}
+		return applicable;
+	}
+
+	private static Punishment mostApplicable(Punishment current, Set<Punishment> candidates, Instant currentTime) {
+		if (candidates == null) {
+			return current;
+		}
+		for (Punishment candidate : candidates) {
+			if (isExpired(candidate, currentTime)) {
+				continue;
+			}
+			// Permanent punishments have an end date of Instant.MAX and therefore come first
+			if (current == null || candidate.getEndDate().isAfter(current.getEndDate())) {
+				current = candidate;
+			}
+		}
+		return current;
+	}
+
+	private static final class Index {
+
+		private final ConcurrentHashMap<Long, Punishment> byId = new ConcurrentHashMap<>();
+		private final ConcurrentHashMap<UUID, Set<Punishment>> byUuid = new ConcurrentHashMap<>();
+		private final ConcurrentHashMap<NetworkAddress, Set<Punishment>> byAddress = new ConcurrentHashMap<>();
+		/** Revocations witnessed while the index is being populated. Guarded by populateLock */
+		private final Set<Long> removedWhilePopulating = new HashSet<>();
+		private final Object populateLock = new Object();
+		private volatile boolean populated;
+
+		void populate(List<Punishment> activeBans) {
+			for (Punishment ban : activeBans) {
+				// Prevents a revocation from slipping between the check and the addition
+				synchronized (populateLock) {
+					if (!removedWhilePopulating.contains(ban.getIdentifier())) {
+						add(ban);
+					}
+				}
+			}
+			synchronized (populateLock) {
+				populated = true;
+				removedWhilePopulating.clear();
+			}
+		}
+
+		void add(Punishment ban) {
+			if (byId.putIfAbsent(ban.getIdentifier(), ban) != null) {
+				return;
+			}
+			Victim victim = ban.getVictim();
+			switch (victim.getType()) {
+			case PLAYER:
+				addTo(byUuid, ((PlayerVictim) victim).getUUID(), ban);
+				break;
+			case ADDRESS:
+				addTo(byAddress, ((AddressVictim) victim).getAddress(), ban);
+				break;
+			case COMPOSITE:
+				CompositeVictim compositeVictim = (CompositeVictim) victim;
+				addTo(byUuid, compositeVictim.getUUID(), ban);
+				addTo(byAddress, compositeVictim.getAddress(), ban);
+				break;
+			default:
+				throw MiscUtil.unknownVictimType(victim.getType());
+			}
+		}
+
+		void remove(long id) {
+			if (!populated) {
+				synchronized (populateLock) {
+					if (!populated) {
+						removedWhilePopulating.add(id);
+					}
+				}
+			}
+			Punishment ban = byId.remove(id);
+			if (ban == null) {
+				return;
+			}
+			Victim victim = ban.getVictim();
+			switch (victim.getType()) {
+			case PLAYER:
+				removeFrom(byUuid, ((PlayerVictim) victim).getUUID(), ban);
+				break;
+			case ADDRESS:
+				removeFrom(byAddress, ((AddressVictim) victim).getAddress(), ban);
+				break;
+			case COMPOSITE:
+				CompositeVictim compositeVictim = (CompositeVictim) victim;
+				removeFrom(byUuid, compositeVictim.getUUID(), ban);
+				removeFrom(byAddress, compositeVictim.getAddress(), ban);
+				break;
+			default:
+				throw MiscUtil.unknownVictimType(victim.getType());
+			}
+		}
+
+		private static <K> void addTo(ConcurrentHashMap<K, Set<Punishment>> map, K key, Punishment ban) {
+			map.compute(key, (k, bans) -> {
+				if (bans == null) {
+					bans = ConcurrentHashMap.newKeySet();
+				}
+				bans.add(ban);
+				return bans;
+			});
+		}
+
+		private static <K> void removeFrom(ConcurrentHashMap<K, Set<Punishment>> map, K key, Punishment ban) {
+			map.computeIfPresent(key, (k, bans) -> {
+				bans.remove(ban);
+				return bans.isEmpty() ? null : bans;
+			});
+		}
+	}
+}
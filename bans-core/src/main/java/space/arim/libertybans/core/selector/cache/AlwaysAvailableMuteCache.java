@@ -23,14 +23,17 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import net.kyori.adventure.text.Component;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import space.arim.libertybans.api.NetworkAddress;
 import space.arim.libertybans.api.punish.Punishment;
-import space.arim.libertybans.api.select.PunishmentSelector;
 import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.config.InternalFormatter;
 import space.arim.libertybans.core.config.SqlConfig;
 import space.arim.libertybans.core.env.EnvUserResolver;
+import space.arim.libertybans.core.selector.InternalSelector;
 import space.arim.libertybans.core.service.Time;
+import space.arim.omnibus.util.ThisClass;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.DelayCalculators;
 import space.arim.omnibus.util.concurrent.EnhancedExecutor;
@@ -38,11 +41,15 @@ import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 import space.arim.omnibus.util.concurrent.ScheduledTask;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -53,12 +60,19 @@ import java.util.function.Predicate;
  * For offline players no such guarantee is made. <br>
  * <br>
  * This is used for platforms such as Bukkit and Sponge where mute information must be available
- * synchronously.
+ * synchronously. <br>
+ * <br>
+ * Cached entries are replaced when mutes are enacted or revoked, and when a cached mute expires.
+ * The end dates of cached mutes are held in a {@link TimingWheel}, which drops each mute when it
+ * expires, so that requests need not check for expiry. Periodic refreshing from the database is
+ * only a safety net, unless the configured expiration semantic indicates that mutes may be
+ * modified by other programs.
  *
  */
 @Singleton
 public final class AlwaysAvailableMuteCache extends BaseMuteCache {
 
+	private final Configs configs;
 	private final FactoryOfTheFuture futuresFactory;
 	private final EnhancedExecutor enhancedExecutor;
 	private final EnvUserResolver envUserResolver;
@@ -69,12 +83,16 @@ public final class AlwaysAvailableMuteCache extends BaseMuteCache {
 
 	static final long GRACE_PERIOD_NANOS = TimeUnit.MINUTES.toNanos(4);
 	static final Duration PURGE_TASK_INTERVAL = Duration.ofMinutes(3L);
+	static final Duration EXPIRY_TICK = Duration.ofSeconds(1L);
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
 
 	@Inject
 	public AlwaysAvailableMuteCache(Configs configs, FactoryOfTheFuture futuresFactory,
-									PunishmentSelector selector, EnhancedExecutor enhancedExecutor,
+									InternalSelector selector, EnhancedExecutor enhancedExecutor,
 									EnvUserResolver envUserResolver, InternalFormatter formatter, Time time) {
 		super(configs, selector);
+		this.configs = configs;
 		this.futuresFactory = futuresFactory;
 		this.enhancedExecutor = enhancedExecutor;
 		this.envUserResolver = envUserResolver;
@@ -84,15 +102,55 @@ public final class AlwaysAvailableMuteCache extends BaseMuteCache {
 
 	@Override
 	void installCache(Duration expirationTime, SqlConfig.MuteCaching.ExpirationSemantic expirationSemantic) {
-		ConcurrentHashMap<MuteCacheKey, Entry> map = new ConcurrentHashMap<>();
-		Cache cache = new Cache(map, expirationTime);
-		cache.startPurgeTask();
+		SqlConfig.MuteCaching muteCaching = configs.getSqlConfig().muteCaching();
+		Duration refreshInterval;
+		// Use the configured semantic, not the one given, which is forced by synchronization
+		// Entries are kept up to date through synchronization, so the refresh interval is a safety net
+		if (muteCaching.expirationSemantic() == SqlConfig.MuteCaching.ExpirationSemantic.EXPIRE_AFTER_WRITE) {
+			// Mutes may be modified by other programs, which we would not otherwise hear about
+			refreshInterval = expirationTime;
+		} else {
+			refreshInterval = Duration.ofSeconds(muteCaching.refreshIntervalSeconds());
+		}
+		Cache cache = new Cache(new ConcurrentHashMap<>(), refreshInterval);
+		Cache previousCache = this.cache;
+		if (previousCache != null) {
+			// Restarting. Fill the new cache for players who are still online, so it is immediately usable
+			preload(cache, previousCache.map.keySet());
+		}
+		cache.startTasks();
 		this.cache = cache;
 	}
 
+	private void preload(Cache cache, Set<MuteCacheKey> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		long currentTime = nanoTime();
+		Map<MuteCacheKey, CentralisedFuture<MuteAndMessage>> futureValues = new HashMap<>(keys.size());
+		try {
+			Map<MuteCacheKey, Punishment> mutes = queryPunishments(keys).join();
+			for (MuteCacheKey key : keys) {
+				Punishment mute = mutes.get(key);
+				futureValues.put(key, (mute == null) ? futuresFactory.completedFuture(null) : formatMessage(mute));
+			}
+			futuresFactory.allOf(futureValues.values()).join();
+		} catch (CompletionException | CancellationException ex) {
+			logger.warn("Unable to preload the mutes of online players. They will be loaded when needed.", ex);
+			return;
+		}
+		futureValues.forEach((key, futureValue) -> {
+			MuteAndMessage value = futureValue.join();
+			cache.map.put(key, new Entry(value, currentTime, null));
+			cache.trackExpiry(key, value);
+		});
+		logger.debug("Preloaded the mutes of {} players", keys.size());
+	}
+
 	@Override
 	void uninstallCache() {
-		cache.stopPurgeTask();
+		cache.stopTasks();
+		logger.debug("Mute cache statistics: {}", statistics());
 	}
 
 	private long nanoTime() {
@@ -131,42 +189,98 @@ public final class AlwaysAvailableMuteCache extends BaseMuteCache {
 
 	private CentralisedFuture<Optional<MuteAndMessage>> cacheRequest(MuteCacheKey cacheKey) {
 		Cache cache = this.cache;
-		Entry cacheEntry = cache.map.computeIfPresent(cacheKey, (key, entry) -> {
-
-			MuteAndMessage currentValue = entry.currentValue;
-			long lastUpdated = entry.lastUpdated;
-			CentralisedFuture<MuteAndMessage> nextValue = entry.nextValue;
+		Entry cacheEntry = cache.map.computeIfPresent(cacheKey, (key, existingEntry) -> {
 
 			// If the next value is ready, replace the current value with it
-			if (nextValue != null && nextValue.isDone()) {
-				currentValue = nextValue.join();
-				nextValue = null;
-			}
-			// If the current value is old, begin to compute a new value for it
+			Entry entry = promoteNextValue(cache, key, existingEntry);
+
 			final long currentTime = nanoTime();
-			long updatedAgo = currentTime - lastUpdated;
-			if (updatedAgo >= cache.expirationTimeNanos) {
-				nextValue = queryPunishmentAndMessage(key);
-				lastUpdated = currentTime;
+			// If the current value is old, begin to compute a new value for it
+			long updatedAgo = currentTime - entry.lastUpdated;
+			if (updatedAgo >= cache.refreshIntervalNanos) {
+				refreshes.increment();
+				return new Entry(entry.currentValue, currentTime, queryPunishmentAndMessage(key));
 			}
-			return new Entry(currentValue, lastUpdated, nextValue);
+			return entry;
 		});
 		if (cacheEntry == null) {
 			// The player is offline. This should only happen through an API request.
 			// In that case, we query the database and skip caching
+			misses.increment();
 			return queryPunishmentAndMessage(cacheKey).thenApply(Optional::ofNullable);
 		}
+		hits.increment();
 		return futuresFactory.completedFuture(Optional.ofNullable(cacheEntry.currentValue));
 	}
 
+	/**
+	 * Replaces the current value of an entry with its next value, if the next value is ready. <br>
+	 * <br>
+	 * The expiry wheel only learns of a mute once it is promoted, so the next value may hold a mute
+	 * which expired while it awaited promotion. Such a mute is dropped instead, and the database is
+	 * queried again since another mute may still apply.
+	 *
+	 * @param cache the cache
+	 * @param key the cache key
+	 * @param entry the existing entry
+	 * @return the entry with its next value promoted, or the same entry if the next value is not ready
+	 */
+	private Entry promoteNextValue(Cache cache, MuteCacheKey key, Entry entry) {
+		CentralisedFuture<MuteAndMessage> nextValue = entry.nextValue;
+		if (nextValue == null || !nextValue.isDone()) {
+			return entry;
+		}
+		MuteAndMessage value = nextValue.join();
+		if (value != null && cache.hasExpired(value.mute())) {
+			logger.debug("Mute {} for {} expired before it could be used", value.mute().getIdentifier(), key);
+			cache.trackExpiry(key, null);
+			refreshes.increment();
+			return new Entry(null, nanoTime(), queryPunishmentAndMessage(key));
+		}
+		cache.trackExpiry(key, value);
+		return new Entry(value, entry.lastUpdated, null);
+	}
+
 	@Override
 	void clearCachedMuteIf(Predicate<Punishment> removeIfMatches) {
-		// Do nothing - the mute will automatically expire in due time
+		Cache cache = this.cache;
+		final long currentTime = nanoTime();
+		for (MuteCacheKey cacheKey : cache.map.keySet()) {
+			cache.map.computeIfPresent(cacheKey, (key, entry) -> {
+				return invalidateEntry(cache, key, entry, removeIfMatches, currentTime);
+			});
+		}
+	}
+
+	private Entry invalidateEntry(Cache cache, MuteCacheKey key, Entry entry,
+								  Predicate<Punishment> removeIfMatches, long currentTime) {
+		// If the next value is ready, replace the current value with it
+		entry = promoteNextValue(cache, key, entry);
+		MuteAndMessage currentValue = entry.currentValue;
+		CentralisedFuture<MuteAndMessage> nextValue = entry.nextValue;
+
+		if (nextValue != null) {
+			// The computation may have started before the mute was removed
+			nextValue = nextValue.thenCompose((value) -> {
+				if (value != null && removeIfMatches.test(value.mute())) {
+					return queryPunishmentAndMessage(key);
+				}
+				return futuresFactory.completedFuture(value);
+			});
+		}
+		if (currentValue == null || !removeIfMatches.test(currentValue.mute())) {
+			return new Entry(currentValue, entry.lastUpdated, nextValue);
+		}
+		invalidations.increment();
+		cache.trackExpiry(key, null);
+		// Another mute may still apply
+		return new Entry(null, currentTime, queryPunishmentAndMessage(key));
 	}
 
 	@Override
 	public CentralisedFuture<?> cacheOnLogin(UUID uuid, NetworkAddress address) {
 		final long currentTime = nanoTime();
+		Cache cache = this.cache;
 		// There might be an existing entry if the player rejoins before periodic invalidation
 		Entry entry = cache.map.compute(new MuteCacheKey(uuid, address), (key, existingEntry) -> {
 			if (existingEntry == null) {
@@ -174,20 +288,16 @@ public final class AlwaysAvailableMuteCache extends BaseMuteCache {
 				return new Entry(null, currentTime, queryPunishmentAndMessage(key));
 			}
 			// Use the existing entry; refresh it if necessary
-			MuteAndMessage currentValue = existingEntry.currentValue;
-			CentralisedFuture<MuteAndMessage> nextValue = existingEntry.nextValue;
 			// If the next value is ready, replace the current value with it
-			if (nextValue != null && nextValue.isDone()) {
-				currentValue = nextValue.join();
-				nextValue = null;
-			}
-			long originallyUpdatedAgo = currentTime - existingEntry.lastUpdated;
-			if (originallyUpdatedAgo >= cache.expirationTimeNanos) {
+			Entry entry = promoteNextValue(cache, key, existingEntry);
+			CentralisedFuture<MuteAndMessage> nextValue = entry.nextValue;
+			long updatedAgo = currentTime - entry.lastUpdated;
+			if (updatedAgo >= cache.refreshIntervalNanos) {
 				nextValue = queryPunishmentAndMessage(key);
 			}
 			// Always update lastUpdated, to prevent periodic invalidation
 			// But subtract 1 to signal to ourselves outside the lambda
-			return new Entry(currentValue, currentTime - 1, nextValue);
+			return new Entry(entry.currentValue, currentTime - 1, nextValue);
 		});
 		if (entry.lastUpdated == currentTime) {
 			// Wait for our newly-entered computation
@@ -199,90 +309,177 @@ public final class AlwaysAvailableMuteCache extends BaseMuteCache {
 
 	@Override
 	void setCachedMute(MuteCacheKey cacheKey, Punishment mute) {
-		cache.map.compute(cacheKey, (key, entry) -> {
+		Cache cache = this.cache;
+		cache.map.compute(cacheKey, (key, existingEntry) -> {
 			// If there is no existing entry, store the new entry
-			if (entry == null) {
+			if (existingEntry == null) {
 				return new Entry(null, nanoTime(), formatMessage(mute));
 			}
 
+			// If the next value is ready, replace the current value with it
+			Entry entry = promoteNextValue(cache, key, existingEntry);
+			if (entry.nextValue != null) {
+				// There is a next value in-progress but not yet ready
+				// Keep it, as it will be more accurate in case there are multiple applicable mutes
+				return entry;
+			}
 			// Update the old entry, if needed, with the new mute
 			MuteAndMessage currentValue = entry.currentValue;
-			long lastUpdated = entry.lastUpdated;
-			CentralisedFuture<MuteAndMessage> nextValue = entry.nextValue;
-
-			if (nextValue != null) {
-				// If the next value is ready, replace the current value with it
-				if (nextValue.isDone()) {
-					currentValue = nextValue.join();
-					nextValue = null;
-				} else {
-					// There is a next value in-progress but not yet ready
-					// Keep it, as it will be more accurate in case there are multiple applicable mutes
-					return entry;
-				}
-			}
 			// If there is no current mute, or the new mute will expire less soon, use the new mute
 			if (currentValue == null || mute.getEndDate().isAfter(currentValue.mute().getEndDate())) {
-				nextValue = formatMessage(mute);
-				lastUpdated = nanoTime();
+				return new Entry(currentValue, nanoTime(), formatMessage(mute));
 			}
-			return new Entry(currentValue, lastUpdated, nextValue);
+			return entry;
 		});
 	}
 
 	private final class Cache {
 
 		private final ConcurrentHashMap<MuteCacheKey, Entry> map;
-		private final long expirationTimeNanos;
+		private final long refreshIntervalNanos;
+		private final TimingWheel<ExpiringMute> expiryWheel;
+		// Guarded by expiryWheel
+		private final Map<MuteCacheKey, TimingWheel.Timeout<ExpiringMute>> expiries = new HashMap<>();
 		private ScheduledTask purgeTask;
+		private ScheduledTask expiryTask;
 
-		private Cache(ConcurrentHashMap<MuteCacheKey, Entry> map, Duration expirationTime) {
+		private Cache(ConcurrentHashMap<MuteCacheKey, Entry> map, Duration refreshInterval) {
 			this.map = map;
-			this.expirationTimeNanos = expirationTime.toNanos();
+			this.refreshIntervalNanos = refreshInterval.toNanos();
+			expiryWheel = new TimingWheel<>(currentTick());
+		}
+
+		// Each tick of the expiry wheel is a second
+		private long currentTick() {
+			return time.currentTimestamp().getEpochSecond();
+		}
+
+		private long deadlineTick(Instant endDate) {
+			// Round up, so that the mute is never dropped before it expires
+			return endDate.getEpochSecond() + ((endDate.getNano() == 0) ? 0 : 1);
+		}
+
+		boolean hasExpired(Punishment mute) {
+			Instant endDate = mute.getEndDate();
+			return !endDate.equals(Punishment.PERMANENT_END_DATE) && !endDate.isAfter(time.currentTimestamp());
+		}
+
+		/**
+		 * Tracks the end date of the current mute for a cache key, replacing any previous mute.
+		 * Should be called whenever the current value of an entry changes
+		 *
+		 * @param key the cache key
+		 * @param currentValue the new current value, or null if there is no current mute
+		 */
+		void trackExpiry(MuteCacheKey key, @Nullable MuteAndMessage currentValue) {
+			Punishment mute = (currentValue == null) ? null : currentValue.mute();
+			synchronized (expiryWheel) {
+				TimingWheel.Timeout<ExpiringMute> existing = expiries.get(key);
+				if (existing != null) {
+					if (existing.value().mute.equals(mute)) {
+						return;
+					}
+					expiryWheel.cancel(existing);
+					expiries.remove(key);
+				}
+				if (mute == null) {
+					return;
+				}
+				Instant endDate = mute.getEndDate();
+				if (!endDate.equals(Punishment.PERMANENT_END_DATE)) {
+					expiries.put(key, expiryWheel.schedule(new ExpiringMute(key, mute), deadlineTick(endDate)));
+				}
+			}
+		}
+
+		private void expireMutes() {
+			List<TimingWheel.Timeout<ExpiringMute>> expired;
+			synchronized (expiryWheel) {
+				expired = expiryWheel.advance(currentTick());
+				for (TimingWheel.Timeout<ExpiringMute> timeout : expired) {
+					expiries.remove(timeout.value().key, timeout);
+				}
+			}
+			// Update entries outside the lock, since map operations acquire it
+			for (TimingWheel.Timeout<ExpiringMute> timeout : expired) {
+				ExpiringMute expiring = timeout.value();
+				map.computeIfPresent(expiring.key, (key, entry) -> {
+					MuteAndMessage currentValue = entry.currentValue;
+					if (currentValue == null || !currentValue.mute().equals(expiring.mute)) {
+						return entry;
+					}
+					logger.debug("Mute {} for {} has expired", expiring.mute.getIdentifier(), key);
+					// Drop the mute. Another mute may still apply
+					CentralisedFuture<MuteAndMessage> nextValue = entry.nextValue;
+					long lastUpdated = entry.lastUpdated;
+					if (nextValue == null) {
+						refreshes.increment();
+						nextValue = queryPunishmentAndMessage(key);
+						lastUpdated = nanoTime();
+					}
+					return new Entry(null, lastUpdated, nextValue);
+				});
+			}
 		}
 
-		private void startPurgeTask() {
+		private void startTasks() {
+			expiryTask = enhancedExecutor.scheduleRepeating(
+					this::expireMutes, EXPIRY_TICK, DelayCalculators.fixedDelay());
 			purgeTask = enhancedExecutor.scheduleRepeating(() -> {
 
-				Collection<CentralisedFuture<Void>> removalFutures = new ArrayList<>(map.size() + 10);
 				long currentTime = nanoTime();
+				// One lookup for all players, rather than one per cache entry
+				Set<UUID> onlineUUIDs = envUserResolver.lookupOnlineUUIDs().join();
 
 				for (Map.Entry<MuteCacheKey, Entry> mapEntry : map.entrySet()) {
 					MuteCacheKey key = mapEntry.getKey();
-					var thisFuture = envUserResolver.lookupName(key.uuid()).thenAccept((nameIfOnline) -> {
-						if (nameIfOnline.isPresent()) {
-							// The player is online
-							return;
+					if (onlineUUIDs.contains(key.uuid())) {
+						// The player is online
+						continue;
+					}
+					Entry entry = mapEntry.getValue();
+					if (currentTime - entry.lastUpdated <= GRACE_PERIOD_NANOS) {
+						/*
+						Not enough time has passed. This allows a grace period in which cache entries may exist
+						despite the player is not logged in.
+
+						This solves the login process conundrum which occurs when the client is between
+						the login event and join event (AsyncPlayerPreLoginEvent and PlayerJoinEvent on Bukkit).
+						We reasonably assume the time between login event and join event < 4 minutes.
+						 */
+						continue;
+					}
+					// The player is offline and the grace period has passed
+					// IMPORTANT: This relies on the exact Entry instance for concurrent correctness
+					map.computeIfPresent(key, (k, currentEntry) -> {
+						if (currentEntry != entry) {
+							return currentEntry;
 						}
-						Entry entry = mapEntry.getValue();
-						if (currentTime - entry.lastUpdated <= GRACE_PERIOD_NANOS) {
-							/*
-							Not enough time has passed. This allows a grace period in which cache entries may exist
-							despite the player is not logged in.
-
-							This solves the login process conundrum which occurs when the client is between
-							the login event and join event (AsyncPlayerPreLoginEvent and PlayerJoinEvent on Bukkit).
-							We reasonably assume the time between login event and join event < 4 minutes.
-							 */
-							return;
-						}
-						// The player is offline and the grace period has passed
-						// IMPORTANT: This relies on the exact Entry instance for concurrent correctness
-						map.remove(key, entry);
+						trackExpiry(k, null);
+						return null;
 					});
-					removalFutures.add(thisFuture);
 				}
-				// Wait for all futures to complete
-				futuresFactory.allOf(removalFutures).join();
 
 			}, PURGE_TASK_INTERVAL, DelayCalculators.fixedDelay());
 		}
 
-		private void stopPurgeTask() {
+		private void stopTasks() {
+			expiryTask.cancel();
 			purgeTask.cancel();
 		}
 	}
 
+	private static final class ExpiringMute {
+
+		private final MuteCacheKey key;
+		private final Punishment mute;
+
+		private ExpiringMute(MuteCacheKey key, Punishment mute) {
+			this.key = key;
+			this.mute = mute;
+		}
+	}
+
 	private static final class Entry {
 
 		private final @Nullable MuteAndMessage currentValue;
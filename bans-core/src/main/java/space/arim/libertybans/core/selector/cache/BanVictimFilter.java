@@ -0,0 +1,380 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.selector.cache;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.jooq.Record3;
+import org.jooq.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.api.AddressVictim;
+import space.arim.libertybans.api.CompositeVictim;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.Part;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.execute.SQLFunction;
+import space.arim.libertybans.core.database.sql.EndTimeCondition;
+import space.arim.libertybans.core.punish.MiscUtil;
+import space.arim.libertybans.core.service.Time;
+import space.arim.omnibus.util.ThisClass;
+import space.arim.omnibus.util.concurrent.EnhancedExecutor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static space.arim.libertybans.core.schema.tables.SimpleBans.SIMPLE_BANS;
+
+/**
+ * Node-local Bloom filter of the uuids and addresses targeted by active bans. <br>
+ * <br>
+ * A negative answer means no active ban targets the uuid or any of the addresses, so the
+ * query for applicable bans may be skipped. Revoked and expired bans are not removed, which
+ * only makes false positives more likely until the filter is next rebuilt. <br>
+ * <br>
+ * Like {@link ActiveBanIndex}, the filter is filled from the database on startup and is then kept
+ * up to date by punishment enactment on this instance and by synchronization messages. It is
+ * rebuilt periodically by the refresh task, and as soon as more victims are added than it was
+ * sized for.
+ *
+ */
+@Singleton
+public final class BanVictimFilter implements Part {
+
+	private final Configs configs;
+	private final EnhancedExecutor enhancedExecutor;
+	private final Provider<QueryExecutor> queryExecutor;
+	private final Time time;
+
+	private volatile @Nullable Filter filter;
+	/** Victims added while a filter is being rebuilt. Guarded by this object */
+	private @Nullable List<Victim> addedWhileRebuilding;
+	/** Whether a rebuild has been scheduled because the filter is full. Guarded by this object */
+	private boolean rebuildScheduled;
+
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+	/** Room for bans added after the filter is built */
+	private static final int MINIMUM_CAPACITY = 10_000;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public BanVictimFilter(Configs configs, EnhancedExecutor enhancedExecutor,
+						   Provider<QueryExecutor> queryExecutor, Time time) {
+		this.configs = configs;
+		this.enhancedExecutor = enhancedExecutor;
+		this.queryExecutor = queryExecutor;
+		this.time = time;
+	}
+
+	@Override
+	public void startup() {
+		SqlConfig sqlConfig = configs.getSqlConfig();
+		if (!sqlConfig.banVictimFilter().enable()) {
+			return;
+		}
+		if (!sqlConfig.synchronization().mode().reachesEveryInstance()) {
+			logger.warn("The ban victim filter cannot be used with PLUGIN_MESSAGING synchronization " +
+					"and will remain disabled.");
+			return;
+		}
+		build();
+	}
+
+	@Override
+	public void restart() {
+		shutdown();
+		startup();
+	}
+
+	@Override
+	public synchronized void shutdown() {
+		filter = null;
+		addedWhileRebuilding = null;
+	}
+
+	/**
+	 * Whether the filter is enabled and populated
+	 *
+	 * @return true if ready
+	 */
+	public boolean isReady() {
+		return filter != null;
+	}
+
+	/**
+	 * Rebuilds the filter from the database, blocking until complete. Used periodically, and
+	 * after bans are added by other means, such as importing. Does nothing if the filter is
+	 * disabled. <br>
+	 * <br>
+	 * The previous filter continues to answer lookups until the new one is ready.
+	 *
+	 */
+	public void rebuild() {
+		if (isReady()) {
+			build();
+		}
+	}
+
+	private void build() {
+		synchronized (this) {
+			if (addedWhileRebuilding != null) {
+				// Another rebuild is ongoing
+				return;
+			}
+			addedWhileRebuilding = new ArrayList<>();
+		}
+		Instant currentTime = time.currentTimestamp();
+		Result<Record3<Victim.VictimType, UUID, NetworkAddress>> victims;
+		try {
+			victims = queryExecutor.get().query(SQLFunction.readOnly((context) -> {
+				return context
+						.select(SIMPLE_BANS.VICTIM_TYPE, SIMPLE_BANS.VICTIM_UUID, SIMPLE_BANS.VICTIM_ADDRESS)
+						.from(SIMPLE_BANS)
+						.where(new EndTimeCondition(SIMPLE_BANS.END).isNotExpired(currentTime))
+						.fetch();
+			})).join();
+		} catch (RuntimeException ex) {
+			synchronized (this) {
+				addedWhileRebuilding = null;
+			}
+			throw ex;
+		}
+		Filter filter = new Filter(Math.max(2L * victims.size(), MINIMUM_CAPACITY), FALSE_POSITIVE_RATE);
+		for (Record3<Victim.VictimType, UUID, NetworkAddress> victim : victims) {
+			switch (victim.value1()) {
+			case PLAYER:
+				filter.add(victim.value2());
+				break;
+			case ADDRESS:
+				filter.add(victim.value3());
+				break;
+			case COMPOSITE:
+				filter.add(victim.value2());
+				filter.add(victim.value3());
+				break;
+			default:
+				throw MiscUtil.unknownVictimType(victim.value1());
+			}
+		}
+		synchronized (this) {
+			if (addedWhileRebuilding == null) {
+				// Shut down meanwhile
+				return;
+			}
+			for (Victim victim : addedWhileRebuilding) {
+				filter.add(victim);
+			}
+			addedWhileRebuilding = null;
+			this.filter = filter;
+		}
+		logger.debug("Built ban victim filter from {} active bans", victims.size());
+	}
+
+	/**
+	 * Adds the victim of a punishment if it is a ban. Does nothing if the filter is disabled
+	 *
+	 * @param punishment the punishment which was enacted
+	 */
+	public void addPunishment(Punishment punishment) {
+		if (punishment.getType() != PunishmentType.BAN) {
+			return;
+		}
+		Victim victim = punishment.getVictim();
+		synchronized (this) {
+			Filter filter = this.filter;
+			if (filter != null) {
+				filter.add(victim);
+				if (filter.isFull() && !rebuildScheduled) {
+					// False positives become frequent past the expected insertions
+					rebuildScheduled = true;
+					enhancedExecutor.execute(this::rebuildWhenFull);
+				}
+			}
+			if (addedWhileRebuilding != null) {
+				addedWhileRebuilding.add(victim);
+			}
+		}
+	}
+
+	private void rebuildWhenFull() {
+		try {
+			logger.debug("Rebuilding ban victim filter because it is full");
+			rebuild();
+		} finally {
+			synchronized (this) {
+				rebuildScheduled = false;
+			}
+		}
+	}
+
+	/**
+	 * Determines whether a ban might apply to the given uuid or any of the given addresses
+	 *
+	 * @param uuid the uuid
+	 * @param addresses the addresses relevant to the user, according to address strictness
+	 * @return false if no active ban applies, true if a ban may apply or if the filter is not ready
+	 */
+	public boolean mightBeBanned(UUID uuid, Iterable<NetworkAddress> addresses) {
+		Filter filter = this.filter;
+		if (filter == null || filter.mightContain(uuid)) {
+			return true;
+		}
+		for (NetworkAddress address : addresses) {
+			if (filter.mightContain(address)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static final class Filter {
+
+		private final AtomicLongArray bits;
+		private final long bitCount;
+		private final int hashCount;
+		private final long expectedInsertions;
+		private final AtomicLong insertions = new AtomicLong();
+
+		private static final long UUID_SEED = 0x9E3779B97F4A7C15L;
+		private static final long ADDRESS_SEED = 0xC2B2AE3D27D4EB4FL;
+
+		Filter(long expectedInsertions, double falsePositiveRate) {
+			double ln2 = Math.log(2);
+			long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+			int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (optimalBits + 63) / 64));
+			bits = new AtomicLongArray(words);
+			bitCount = 64L * words;
+			hashCount = (int) Math.max(1L, Math.round((double) bitCount / expectedInsertions * ln2));
+			this.expectedInsertions = expectedInsertions;
+		}
+
+		/**
+		 * Whether more insertions were made than the filter was sized for
+		 *
+		 * @return true if full
+		 */
+		boolean isFull() {
+			return insertions.get() > expectedInsertions;
+		}
+
+		// Finalizer of MurmurHash3
+		private static long mix(long hash) {
+			hash ^= hash >>> 33;
+			hash *= 0xFF51AFD7ED558CCDL;
+			hash ^= hash >>> 33;
+			hash *= 0xC4CEB9FE1A85EC53L;
+			hash ^= hash >>> 33;
+			return hash;
+		}
+
+		private static long hash(UUID uuid) {
+			return mix(UUID_SEED ^ mix(uuid.getMostSignificantBits()) ^ uuid.getLeastSignificantBits());
+		}
+
+		private static long hash(NetworkAddress address) {
+			long hash = ADDRESS_SEED;
+			byte[] rawAddress = address.getRawAddress();
+			long word = 0;
+			for (int n = 0; n < rawAddress.length; n++) {
+				word = (word << 8) | (rawAddress[n] & 0xFF);
+				if (n % 8 == 7) {
+					hash = mix(hash ^ word);
+					word = 0;
+				}
+			}
+			return mix(hash ^ word ^ rawAddress.length);
+		}
+
+		void add(Victim victim) {
+			switch (victim.getType()) {
+			case PLAYER:
+				add(((PlayerVictim) victim).getUUID());
+				break;
+			case ADDRESS:
+				add(((AddressVictim) victim).getAddress());
+				break;
+			case COMPOSITE:
+				CompositeVictim compositeVictim = (CompositeVictim) victim;
+				add(compositeVictim.getUUID());
+				add(compositeVictim.getAddress());
+				break;
+			default:
+				throw MiscUtil.unknownVictimType(victim.getType());
+			}
+		}
+
+		void add(UUID uuid) {
+			add(hash(uuid));
+		}
+
+		void add(NetworkAddress address) {
+			add(hash(address));
+		}
+
+		boolean mightContain(UUID uuid) {
+			return mightContain(hash(uuid));
+		}
+
+		boolean mightContain(NetworkAddress address) {
+			return mightContain(hash(address));
+		}
+
+		// Each bit index is derived from two halves of the hash, per Kirsch and Mitzenmacher
+		private void add(long hash) {
+			insertions.incrementAndGet();
+			int hash1 = (int) hash;
+			int hash2 = (int) (hash >>> 32);
+			for (int n = 1; n <= hashCount; n++) {
+				long bitIndex = Math.floorMod(hash1 + (long) n * hash2, bitCount);
+				int wordIndex = (int) (bitIndex >>> 6);
+				long mask = 1L << bitIndex;
+				long word;
+				while (((word = bits.get(wordIndex)) & mask) == 0
+						&& !bits.compareAndSet(wordIndex, word, word | mask)) {
+					// Retry
+				}
+			}
+		}
+
+		private boolean mightContain(long hash) {
+			int hash1 = (int) hash;
+			int hash2 = (int) (hash >>> 32);
+			for (int n = 1; n <= hashCount; n++) {
+				long bitIndex = Math.floorMod(hash1 + (long) n * hash2, bitCount);
+				if ((bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
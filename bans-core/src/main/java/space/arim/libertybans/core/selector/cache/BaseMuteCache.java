@@ -22,23 +22,35 @@ package space.arim.libertybans.core.selector.cache;
 import space.arim.libertybans.api.NetworkAddress;
 import space.arim.libertybans.api.PunishmentType;
 import space.arim.libertybans.api.punish.Punishment;
-import space.arim.libertybans.api.select.PunishmentSelector;
 import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.config.SqlConfig;
 import space.arim.libertybans.core.config.SqlConfig.MuteCaching.ExpirationSemantic;
+import space.arim.libertybans.core.env.UUIDAndAddress;
+import space.arim.libertybans.core.selector.InternalSelector;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 
 abstract class BaseMuteCache implements MuteCache {
 
 	private final Configs configs;
-	private final PunishmentSelector selector;
+	private final InternalSelector selector;
 
-	BaseMuteCache(Configs configs, PunishmentSelector selector) {
+	final LongAdder hits = new LongAdder();
+	final LongAdder misses = new LongAdder();
+	final LongAdder refreshes = new LongAdder();
+	final LongAdder invalidations = new LongAdder();
+
+	BaseMuteCache(Configs configs, InternalSelector selector) {
 		this.configs = configs;
 		this.selector = selector;
 	}
@@ -54,6 +66,7 @@ abstract class BaseMuteCache implements MuteCache {
 		ExpirationSemantic expirationSemantic;
 		if (sqlConfig.synchronization().enabled()) {
 			// If synchronization is enabled, always use expire-after-write semantics
+			// The always-available cache is an exception; see its installCache
 			expirationSemantic = ExpirationSemantic.EXPIRE_AFTER_WRITE;
 		} else {
 			expirationSemantic = muteCaching.expirationSemantic();
@@ -84,8 +97,27 @@ abstract class BaseMuteCache implements MuteCache {
 				.toCompletableFuture();
 	}
 
+	final CentralisedFuture<Map<MuteCacheKey, Punishment>> queryPunishments(Collection<MuteCacheKey> keys) {
+		List<UUIDAndAddress> players = new ArrayList<>(keys.size());
+		for (MuteCacheKey key : keys) {
+			players.add(new UUIDAndAddress(key.uuid(), key.address()));
+		}
+		return selector.getApplicableMutes(players).thenApply((mutes) -> {
+			Map<MuteCacheKey, Punishment> mutesByKey = new HashMap<>(mutes.size());
+			mutes.forEach((player, mute) -> {
+				mutesByKey.put(new MuteCacheKey(player.uuid(), player.address()), mute);
+			});
+			return mutesByKey;
+		});
+	}
+
 	// Management
 
+	@Override
+	public MuteCacheStatistics statistics() {
+		return new MuteCacheStatistics(hits.sum(), misses.sum(), refreshes.sum(), invalidations.sum());
+	}
+
 	@Override
 	public void clearCachedMute(Punishment punishment) {
 		if (punishment.getType() != PunishmentType.MUTE) {
@@ -49,4 +49,11 @@ public interface MuteCache extends Part {
 
 	void clearCachedMute(long id);
 
+	/**
+	 * Takes a snapshot of the cache statistics
+	 *
+	 * @return the statistics since the plugin started
+	 */
+	MuteCacheStatistics statistics();
+
 }
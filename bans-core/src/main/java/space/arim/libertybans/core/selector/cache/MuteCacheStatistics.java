@@ -0,0 +1,112 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector.cache;
+
+import java.util.Objects;
+
+/**
+ * Counts of mute cache activity
+ *
+ */
+public final class MuteCacheStatistics {
+
+	private final long hits;
+	private final long misses;
+	private final long refreshes;
+	private final long invalidations;
+
+	MuteCacheStatistics(long hits, long misses, long refreshes, long invalidations) {
+		this.hits = hits;
+		this.misses = misses;
+		this.refreshes = refreshes;
+		this.invalidations = invalidations;
+	}
+
+	/**
+	 * The number of requests answered from the cache
+	 *
+	 * @return the hit count
+	 */
+	public long hits() {
+		return hits;
+	}
+
+	/**
+	 * The number of requests for entries not in the cache, which required a query
+	 *
+	 * @return the miss count
+	 */
+	public long misses() {
+		return misses;
+	}
+
+	/**
+	 * The number of entries queried again because they became outdated, either because the
+	 * refresh interval passed or because the cached mute expired
+	 *
+	 * @return the refresh count
+	 */
+	public long refreshes() {
+		return refreshes;
+	}
+
+	/**
+	 * The number of cached mutes dropped because the mute was removed
+	 *
+	 * @return the invalidation count
+	 */
+	public long invalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * The proportion of requests answered from the cache
+	 *
+	 * @return the hit ratio from 0 to 1, or 1 if there have been no requests
+	 */
+	public double hitRatio() {
+		long requests = hits + misses;
+		return (requests == 0) ? 1D : (double) hits / requests;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		MuteCacheStatistics that = (MuteCacheStatistics) o;
+		return hits == that.hits && misses == that.misses
+				&& refreshes == that.refreshes && invalidations == that.invalidations;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(hits, misses, refreshes, invalidations);
+	}
+
+	@Override
+	public String toString() {
+		return "MuteCacheStatistics{" +
+				"hits=" + hits +
+				", misses=" + misses +
+				", refreshes=" + refreshes +
+				", invalidations=" + invalidations +
+				'}';
+	}
+}
@@ -21,6 +21,7 @@ package space.arim.libertybans.core.selector.cache;
 
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.github.benmanes.caffeine.cache.Scheduler;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -28,22 +29,27 @@ import net.kyori.adventure.text.Component;
 import org.slf4j.LoggerFactory;
 import space.arim.libertybans.api.NetworkAddress;
 import space.arim.libertybans.api.punish.Punishment;
-import space.arim.libertybans.api.select.PunishmentSelector;
 import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.config.InternalFormatter;
 import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.selector.InternalSelector;
 import space.arim.libertybans.core.service.Time;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Predicate;
 
 /**
  * Mute cache used for Velocity and BungeeCord which queries for mutes as needed,
- * using a layer of caching for efficiency.
+ * using a layer of caching for efficiency. <br>
+ * <br>
+ * Cached mutes are given a variable expiration which never extends past the end of the
+ * mute itself. Caffeine tracks these expirations in its own timer wheel, so expired mutes
+ * are never returned and requests need not check for expiry.
  *
  */
 @Singleton
@@ -57,7 +63,7 @@ public final class OnDemandMuteCache extends BaseMuteCache {
 
 	@Inject
 	public OnDemandMuteCache(Configs configs, FactoryOfTheFuture futuresFactory,
-							 PunishmentSelector selector, InternalFormatter formatter, Time time) {
+							 InternalSelector selector, InternalFormatter formatter, Time time) {
 		super(configs, selector);
 		this.futuresFactory = futuresFactory;
 		this.formatter = formatter;
@@ -67,18 +73,19 @@ public final class OnDemandMuteCache extends BaseMuteCache {
 	@Override
 	void installCache(Duration expirationTime, SqlConfig.MuteCaching.ExpirationSemantic expirationSemantic) {
 
-		Caffeine<Object, Object> builder = Caffeine.newBuilder();
+		boolean expireAfterAccess;
 		switch (expirationSemantic) {
 		case EXPIRE_AFTER_ACCESS:
-			builder = builder.expireAfterAccess(expirationTime);
+			expireAfterAccess = true;
 			break;
 		case EXPIRE_AFTER_WRITE:
-			builder = builder.expireAfterWrite(expirationTime);
+			expireAfterAccess = false;
 			break;
 		default:
 			throw new IllegalStateException("Unknown expiration semantic " + expirationSemantic);
 		}
-		cache = builder
+		cache = Caffeine.newBuilder()
+				.expireAfter(new MuteExpiry(expirationTime, expireAfterAccess))
 				.scheduler(Scheduler.disabledScheduler())
 				.ticker(time.toCaffeineTicker())
 				.buildAsync((key, executor) -> {
@@ -111,15 +118,12 @@ public final class OnDemandMuteCache extends BaseMuteCache {
 
 	private CentralisedFuture<Optional<Punishment>> cacheRequest(MuteCacheKey key) {
 		var cache = this.cache;
-		var muteFuture = cache.get(key);
-		// We need to check if the cached mute is expired, and if so, re-compute the mute.
-		if (muteFuture.isDone()) {
-			Punishment mute = muteFuture.join().orElse(null);
-			if (mute != null && mute.isExpired(time.toJdkClock())) {
-				// Remove from the cache and re-request
-				cache.asMap().remove(key, muteFuture);
-				return cacheRequest(key);
-			}
+		var muteFuture = cache.getIfPresent(key);
+		if (muteFuture == null) {
+			misses.increment();
+			muteFuture = cache.get(key);
+		} else {
+			hits.increment();
 		}
 		return futuresFactory.copyFuture(muteFuture);
 	}
@@ -127,7 +131,11 @@ public final class OnDemandMuteCache extends BaseMuteCache {
 	@Override
 	void clearCachedMuteIf(Predicate<Punishment> removeIfMatches) {
 		cache.synchronous().asMap().values().removeIf((mute) -> {
-			return mute.isPresent() && removeIfMatches.test(mute.get());
+			if (mute.isPresent() && removeIfMatches.test(mute.get())) {
+				invalidations.increment();
+				return true;
+			}
+			return false;
 		});
 	}
 
@@ -156,4 +164,51 @@ public final class OnDemandMuteCache extends BaseMuteCache {
 			return future;
 		});
 	}
+
+	private final class MuteExpiry implements Expiry<MuteCacheKey, Optional<Punishment>> {
+
+		private final long expirationTimeNanos;
+		private final boolean expireAfterAccess;
+
+		MuteExpiry(Duration expirationTime, boolean expireAfterAccess) {
+			this.expirationTimeNanos = expirationTime.toNanos();
+			this.expireAfterAccess = expireAfterAccess;
+		}
+
+		private long expireAfter(Optional<Punishment> value) {
+			if (value.isEmpty()) {
+				return expirationTimeNanos;
+			}
+			Instant endDate = value.get().getEndDate();
+			if (endDate.equals(Punishment.PERMANENT_END_DATE)) {
+				return expirationTimeNanos;
+			}
+			Duration untilEnd = Duration.between(time.currentTimestamp(), endDate);
+			if (untilEnd.isNegative()) {
+				return 0L;
+			}
+			// Compare before converting, since a distant end date would overflow in nanoseconds
+			if (untilEnd.compareTo(Duration.ofNanos(expirationTimeNanos)) >= 0) {
+				return expirationTimeNanos;
+			}
+			return untilEnd.toNanos();
+		}
+
+		@Override
+		public long expireAfterCreate(MuteCacheKey key, Optional<Punishment> value, long currentTime) {
+			return expireAfter(value);
+		}
+
+		@Override
+		public long expireAfterUpdate(MuteCacheKey key, Optional<Punishment> value,
+									  long currentTime, long currentDuration) {
+			return expireAfter(value);
+		}
+
+		@Override
+		public long expireAfterRead(MuteCacheKey key, Optional<Punishment> value,
+									long currentTime, long currentDuration) {
+			return (expireAfterAccess) ? expireAfter(value) : currentDuration;
+		}
+	}
 }
@@ -0,0 +1,231 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.selector.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A hierarchical timing wheel. Timeouts are scheduled at a deadline tick, and are returned
+ * by {@link #advance(long)} once that tick is reached. Scheduling and cancelling are O(1). <br>
+ * <br>
+ * Each of the levels has 64 slots. A slot at level {@code n} spans {@code 64^n} ticks; when the
+ * lower levels wrap around, the timeouts in the next slot of the level above are redistributed
+ * downward. Deadlines beyond the range of the highest level are parked there and redistributed
+ * until they come within range. <br>
+ * <br>
+ * Not thread safe. Callers must synchronize externally.
+ *
+ * @param <T> the type of value attached to timeouts
+ */
+final class TimingWheel<T> {
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOT_COUNT = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOT_COUNT - 1;
+	private static final int LEVEL_COUNT = 5;
+	private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVEL_COUNT)) - 1;
+
+	private final Timeout<T>[][] slots;
+	private final Timeout<T> overdue = sentinel();
+	/** The next tick to be processed */
+	private long currentTick;
+	private int size;
+
+	@SuppressWarnings("unchecked")
+	TimingWheel(long startTick) {
+		slots = new Timeout[LEVEL_COUNT][SLOT_COUNT];
+		for (Timeout<T>[] level : slots) {
+			for (int n = 0; n < SLOT_COUNT; n++) {
+				level[n] = sentinel();
+			}
+		}
+		currentTick = startTick;
+	}
+
+	private static <T> Timeout<T> sentinel() {
+		// Heads a circular list
+		Timeout<T> sentinel = new Timeout<>(null, 0L);
+		sentinel.previous = sentinel;
+		sentinel.next = sentinel;
+		return sentinel;
+	}
+
+	/**
+	 * Schedules a timeout. If the deadline has already passed, the timeout is returned by
+	 * the next call to {@link #advance(long)}
+	 *
+	 * @param value the value to attach
+	 * @param deadlineTick the tick at which the timeout is due
+	 * @return the timeout, which may be used to cancel it
+	 */
+	Timeout<T> schedule(T value, long deadlineTick) {
+		Timeout<T> timeout = new Timeout<>(Objects.requireNonNull(value, "value"), deadlineTick);
+		place(timeout);
+		size++;
+		return timeout;
+	}
+
+	/**
+	 * Cancels a timeout
+	 *
+	 * @param timeout the timeout
+	 * @return true if cancelled, false if it was already cancelled or returned as due
+	 */
+	boolean cancel(Timeout<T> timeout) {
+		if (timeout.next == null) {
+			return false;
+		}
+		timeout.unlink();
+		size--;
+		return true;
+	}
+
+	/**
+	 * Advances the wheel up to and including the given tick
+	 *
+	 * @param toTick the current tick
+	 * @return the timeouts which became due, in order of their deadlines
+	 */
+	List<Timeout<T>> advance(long toTick) {
+		if (size == 0) {
+			currentTick = Math.max(currentTick, toTick + 1);
+			return List.of();
+		}
+		List<Timeout<T>> due = new ArrayList<>();
+		detachAll(overdue, due);
+		List<Timeout<T>> redistribute = new ArrayList<>();
+		while (currentTick <= toTick) {
+			// Redistribute higher levels whenever the levels beneath them wrap around
+			for (int level = 1; level < LEVEL_COUNT; level++) {
+				if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+					break;
+				}
+				detachAll(slots[level][slotIndex(currentTick, level)], redistribute);
+				for (Timeout<T> timeout : redistribute) {
+					place(timeout);
+				}
+				redistribute.clear();
+			}
+			detachAll(slots[0][slotIndex(currentTick, 0)], due);
+			currentTick++;
+		}
+		size -= due.size();
+		return due;
+	}
+
+	/**
+	 * Gets the number of scheduled timeouts
+	 *
+	 * @return the number of timeouts
+	 */
+	int size() {
+		return size;
+	}
+
+	private static int slotIndex(long tick, int level) {
+		return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+	}
+
+	private void place(Timeout<T> timeout) {
+		long deadline = timeout.deadlineTick;
+		if (deadline < currentTick) {
+			// The deadline's tick was already processed
+			timeout.linkBefore(overdue);
+			return;
+		}
+		long delta = deadline - currentTick;
+		if (delta > MAX_DELTA) {
+			// Park the timeout in the highest level until it comes within range
+			delta = MAX_DELTA;
+			deadline = currentTick + MAX_DELTA;
+		}
+		int level = 0;
+		while (delta >= (1L << (SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+		timeout.linkBefore(slots[level][slotIndex(deadline, level)]);
+	}
+
+	private static <T> void detachAll(Timeout<T> sentinel, List<Timeout<T>> into) {
+		Timeout<T> timeout = sentinel.next;
+		while (timeout != sentinel) {
+			Timeout<T> next = timeout.next;
+			timeout.previous = null;
+			timeout.next = null;
+			into.add(timeout);
+			timeout = next;
+		}
+		sentinel.previous = sentinel;
+		sentinel.next = sentinel;
+	}
+
+	static final class Timeout<T> {
+
+		private final T value;
+		private final long deadlineTick;
+		private Timeout<T> previous;
+		private Timeout<T> next;
+
+		private Timeout(T value, long deadlineTick) {
+			this.value = value;
+			this.deadlineTick = deadlineTick;
+		}
+
+		T value() {
+			return value;
+		}
+
+		long deadlineTick() {
+			return deadlineTick;
+		}
+
+		private void linkBefore(Timeout<T> sentinel) {
+			Timeout<T> last = sentinel.previous;
+			previous = last;
+			next = sentinel;
+			last.next = this;
+			sentinel.previous = this;
+		}
+
+		private void unlink() {
+			previous.next = next;
+			next.previous = previous;
+			previous = null;
+			next = null;
+		}
+
+		@Override
+		public String toString() {
+			return "TimingWheel.Timeout{" +
+					"value=" + value +
+					", deadlineTick=" + deadlineTick +
+					'}';
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "TimingWheel{" +
+				"currentTick=" + currentTick +
+				", size=" + size +
+				'}';
+	}
+}
@@ -0,0 +1,20 @@
+-- Maintained lookup table for punishments applicable to each user by uuid or past address
+-- This holds the same uuid and punishment pairs as the applicable_* views, which remain for compatibility.
+-- Unlike the views, lookups by uuid are able to use an index.
+
+CREATE TABLE "${tableprefix}applicable_index" (
+  "uuid" ${uuidtype} NOT NULL,
+  "id" BIGINT NOT NULL,
+  "type" SMALLINT NOT NULL,
+  "end" BIGINT NOT NULL,
+  CONSTRAINT "${tableprefix}applicable_index_uniqueness" UNIQUE ("uuid", "id"),
+  CONSTRAINT "${tableprefix}applicable_index_id_validity" FOREIGN KEY ("id") REFERENCES "${tableprefix}punishments" ("id") ON DELETE CASCADE,
+  CONSTRAINT "${tableprefix}applicable_index_type_validity" CHECK ("type" >= 0 AND "type" <= 2)
+)${extratableoptions};
+
+CREATE INDEX "${tableprefix}applicable_index_lookup_index" ON "${tableprefix}applicable_index" ("uuid", "type");
+CREATE INDEX "${tableprefix}applicable_index_id_index" ON "${tableprefix}applicable_index" ("id");
+CREATE INDEX "${tableprefix}applicable_index_end_index" ON "${tableprefix}applicable_index" ("end");
+
+INSERT INTO "${tableprefix}applicable_index" ("uuid", "id", "type", "end")
+  SELECT DISTINCT "uuid", "id", "type", "end" FROM "${tableprefix}applicable_active";
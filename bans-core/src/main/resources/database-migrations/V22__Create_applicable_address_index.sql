@@ -0,0 +1,25 @@
+-- Maintained lookup table for punishments applicable to each address through the accounts which have used it,
+-- used for STRICT address enforcement. A user is subject to the punishments indexed for each of their addresses.
+-- Unlike the strict_links view, which remains for compatibility, lookups start from the user's own addresses,
+-- and the table grows with the address associations of punished users, not with the square of shared addresses.
+
+CREATE TABLE "${tableprefix}applicable_address_index" (
+  "address" ${inettype} NOT NULL,
+  "id" BIGINT NOT NULL,
+  "type" SMALLINT NOT NULL,
+  "end" BIGINT NOT NULL,
+  CONSTRAINT "${tableprefix}applicable_address_index_uniqueness" UNIQUE ("address", "id"),
+  CONSTRAINT "${tableprefix}applicable_address_index_id_validity" FOREIGN KEY ("id") REFERENCES "${tableprefix}punishments" ("id") ON DELETE CASCADE,
+  CONSTRAINT "${tableprefix}applicable_address_index_type_validity" CHECK ("type" >= 0 AND "type" <= 2)
+)${extratableoptions};
+
+CREATE INDEX "${tableprefix}applicable_address_index_lookup_index" ON "${tableprefix}applicable_address_index" ("address", "type");
+CREATE INDEX "${tableprefix}applicable_address_index_id_index" ON "${tableprefix}applicable_address_index" ("id");
+
+-- The address index is only maintained while address strictness is STRICT. It is maintained if and only if
+-- this table has a row, and complete once "filled" is 1. Switching to STRICT fills the index on startup.
+
+CREATE TABLE "${tableprefix}applicable_address_index_state" (
+  "constant" CHARACTER VARYING(8) NOT NULL UNIQUE CHECK ("constant" = 'Constant'),
+  "filled" SMALLINT NOT NULL CHECK ("filled" = 0 OR "filled" = 1)
+)${extratableoptions};
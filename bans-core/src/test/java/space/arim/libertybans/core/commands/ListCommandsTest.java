@@ -19,20 +19,40 @@
 
 package space.arim.libertybans.core.commands;
 
+import net.kyori.adventure.text.Component;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.api.jsonchat.adventure.util.ComponentText;
+import space.arim.libertybans.api.ConsoleOperator;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.punish.Punishment;
 import space.arim.libertybans.api.select.PunishmentSelector;
+import space.arim.libertybans.api.select.SelectionOrder;
+import space.arim.libertybans.api.select.SelectionOrderBuilder;
 import space.arim.libertybans.core.commands.extra.TabCompletion;
+import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.config.InternalFormatter;
+import space.arim.libertybans.core.config.ListSection;
+import space.arim.libertybans.core.config.MessagesConfig;
 import space.arim.libertybans.core.env.CmdSender;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +63,7 @@ public class ListCommandsTest {
 	private final PunishmentSelector selector;
 	private final InternalFormatter formatter;
 	private final TabCompletion tabCompletion;
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
 
 	public ListCommandsTest(@Mock PunishmentSelector selector, @Mock InternalFormatter formatter,
 							@Mock TabCompletion tabCompletion) {
@@ -62,4 +83,47 @@ public class ListCommandsTest {
 		when(tabCompletion.completeOfflinePlayerNames(sender)).thenReturn(playerNames.stream());
 		assertEquals(playerNames, listCommands.suggest(sender, "history", 0).collect(Collectors.toUnmodifiableSet()));
 	}
+
+	private Punishment punishment(long id, Instant start) {
+		Punishment punishment = mock(Punishment.class);
+		when(punishment.getIdentifier()).thenReturn(id);
+		when(punishment.getStartDate()).thenReturn(start);
+		return punishment;
+	}
+
+	@Test
+	public void nextPageSeeksFromLastPunishmentShown(@Mock CmdSender sender, /* Mock */ Configs configs,
+													 @Mock MessagesConfig messagesConfig,
+													 @Mock ListSection listSection,
+													 @Mock ListSection.PunishmentList banList,
+													 @Mock SelectionOrder selectionOrder) {
+		when(sender.getOperator()).thenReturn(ConsoleOperator.INSTANCE);
+		when(sender.hasPermission(any())).thenReturn(true);
+		when(configs.getMessagesConfig()).thenReturn(messagesConfig);
+		when(messagesConfig.lists()).thenReturn(listSection);
+		when(listSection.forType(ListSection.ListType.BANLIST)).thenReturn(banList);
+		when(banList.perPage()).thenReturn(2);
+		ComponentText layout = ComponentText.create(Component.text("layout"));
+		when(banList.layoutHeader()).thenReturn(layout);
+		when(banList.layoutBody()).thenReturn(layout);
+		when(banList.layoutFooter()).thenReturn(layout);
+		when(formatter.formatWithPunishment(any(), any())).thenAnswer((i) -> futuresFactory.completedFuture(Component.text("entry")));
+
+		SelectionOrderBuilder firstPageBuilder = mock(SelectionOrderBuilder.class, RETURNS_SELF);
+		SelectionOrderBuilder secondPageBuilder = mock(SelectionOrderBuilder.class, RETURNS_SELF);
+		when(selector.selectionBuilder()).thenReturn(firstPageBuilder, secondPageBuilder);
+		when(firstPageBuilder.build()).thenReturn(selectionOrder);
+		when(secondPageBuilder.build()).thenReturn(selectionOrder);
+		Instant start = Instant.ofEpochSecond(1_000_000L);
+		List<Punishment> firstPage = List.of(mock(Punishment.class), punishment(5L, start));
+		when(selectionOrder.getAllSpecificPunishments()).thenAnswer((i) -> futuresFactory.completedFuture(firstPage));
+
+		listCommands.execute(sender, ArrayCommandPackage.create(), "banlist").executeNow();
+		verify(firstPageBuilder).type(PunishmentType.BAN);
+		verify(firstPageBuilder).skipFirstRetrieved(0);
+
+		listCommands.execute(sender, ArrayCommandPackage.create("2"), "banlist").executeNow();
+		verify(secondPageBuilder).seekBefore(start, 4L);
+		verify(secondPageBuilder, never()).skipFirstRetrieved(anyInt());
+	}
 }
@@ -148,7 +148,29 @@ public class SpecifiedConfigs implements Configs {
 
 	@Override
 	public ImportConfig getImportConfig() {
-		return delegate.getImportConfig();
+		if (!spec.bulkImport()) {
+			return delegate.getImportConfig();
+		}
+		return new Delegator<>(ImportConfig.class, delegate.getImportConfig()) {
+			@Override
+			Object replacementFor(ImportConfig original, String methodName) {
+				if (methodName.equals("bulkMode")) {
+					return new ImportConfig.BulkMode() {
+						@Override
+						public boolean enable() {
+							return true;
+						}
+
+						@Override
+						public int batchSize() {
+							// Small enough that the samples span several batches
+							return 20;
+						}
+					};
+				}
+				return null;
+			}
+		}.proxy();
 	}
 
 	@Override
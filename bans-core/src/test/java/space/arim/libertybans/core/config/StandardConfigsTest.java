@@ -24,6 +24,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import space.arim.libertybans.core.env.EnvMessageChannel;
+import space.arim.libertybans.core.env.LoopbackMessageChannel;
+import space.arim.libertybans.core.env.UnavailableMessageChannel;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -39,11 +42,12 @@ public class StandardConfigsTest {
 	@TempDir
 	public Path folder;
 
+	private EnvMessageChannel messageChannel = new LoopbackMessageChannel.Network().createChannel();
 	private StandardConfigs configs;
 
 	@BeforeEach
 	public void setup() {
-		configs = new StandardConfigs(folder);
+		configs = new StandardConfigs(folder, () -> messageChannel);
 	}
 
 	@Test
@@ -57,6 +61,23 @@ public class StandardConfigsTest {
 		assertTrue(configs.reloadConfigs().join());
 	}
 
+	private SqlConfig.Synchronization.SyncMode loadSyncMode(String syncMode) throws IOException {
+		Files.writeString(folder.resolve("sql.yml"), "synchronization:\n  mode: " + syncMode + "\n");
+		assertTrue(configs.reloadConfigs().join());
+		return configs.getSqlConfig().synchronization().mode();
+	}
+
+	@Test
+	public void acceptPluginMessagingIfAvailable() throws IOException {
+		assertEquals(SqlConfig.Synchronization.SyncMode.PLUGIN_MESSAGING, loadSyncMode("PLUGIN_MESSAGING"));
+	}
+
+	@Test
+	public void rejectPluginMessagingIfUnavailable() throws IOException {
+		messageChannel = new UnavailableMessageChannel("this is a test");
+		assertEquals(SqlConfig.Synchronization.SyncMode.NONE, loadSyncMode("PLUGIN_MESSAGING"));
+	}
+
 	@ParameterizedTest
 	@EnumSource
 	public void copyAndValidateTranslations(Translation translation) throws IOException {
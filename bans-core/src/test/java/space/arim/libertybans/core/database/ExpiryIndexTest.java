@@ -0,0 +1,110 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.punish.Punishment;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpiryIndexTest {
+
+	private final ExpiryIndex expiryIndex = new ExpiryIndex();
+	private final Instant now = Instant.parse("2022-01-01T00:00:00Z");
+
+	private static List<Long> ids(List<ExpiryIndex.Entry> entries) {
+		return entries.stream().map(ExpiryIndex.Entry::id).collect(Collectors.toList());
+	}
+
+	@Test
+	public void pollDueInOrderOfExpiration() {
+		expiryIndex.add(1L, PunishmentType.BAN, now.minusSeconds(10L));
+		expiryIndex.add(2L, PunishmentType.MUTE, now.minusSeconds(30L));
+		expiryIndex.add(3L, PunishmentType.WARN, now.minusSeconds(20L));
+		expiryIndex.add(4L, PunishmentType.BAN, now.plusSeconds(10L));
+
+		assertEquals(List.of(2L, 3L, 1L), ids(expiryIndex.pollDue(now, 10)));
+		assertEquals(List.of(), ids(expiryIndex.pollDue(now, 10)));
+		assertEquals(1, expiryIndex.size());
+	}
+
+	@Test
+	public void pollDueRespectsLimit() {
+		expiryIndex.add(1L, PunishmentType.BAN, now.minusSeconds(3L));
+		expiryIndex.add(2L, PunishmentType.BAN, now.minusSeconds(2L));
+		expiryIndex.add(3L, PunishmentType.BAN, now.minusSeconds(1L));
+
+		assertEquals(List.of(1L, 2L), ids(expiryIndex.pollDue(now, 2)));
+		assertEquals(List.of(3L), ids(expiryIndex.pollDue(now, 2)));
+	}
+
+	@Test
+	public void sameEndDifferentIds() {
+		Instant end = now.minusSeconds(1L);
+		expiryIndex.add(2L, PunishmentType.BAN, end);
+		expiryIndex.add(1L, PunishmentType.BAN, end);
+
+		assertEquals(List.of(1L, 2L), ids(expiryIndex.pollDue(now, 10)));
+	}
+
+	@Test
+	public void ignorePermanentAndKicks() {
+		expiryIndex.add(1L, PunishmentType.BAN, Punishment.PERMANENT_END_DATE);
+		expiryIndex.add(2L, PunishmentType.KICK, now.minusSeconds(1L));
+
+		assertEquals(0, expiryIndex.size());
+	}
+
+	@Test
+	public void restoreFailedEntries() {
+		expiryIndex.add(1L, PunishmentType.MUTE, now.minusSeconds(1L));
+		List<ExpiryIndex.Entry> due = expiryIndex.pollDue(now, 10);
+		expiryIndex.restore(due);
+
+		assertEquals(due, expiryIndex.pollDue(now, 10));
+	}
+
+	@Test
+	public void scheduleWithinLookahead(@Mock Punishment punishment) {
+		when(punishment.getIdentifier()).thenReturn(1L);
+		when(punishment.getType()).thenReturn(PunishmentType.BAN);
+		when(punishment.getEndDate()).thenReturn(now.plusSeconds(60L));
+		expiryIndex.schedule(punishment, now);
+
+		assertEquals(List.of(1L), ids(expiryIndex.pollDue(now.plusSeconds(61L), 10)));
+	}
+
+	@Test
+	public void scheduleBeyondLookahead(@Mock Punishment punishment) {
+		when(punishment.getEndDate()).thenReturn(now.plus(ExpiryIndex.LOOKAHEAD).plusSeconds(1L));
+		expiryIndex.schedule(punishment, now);
+
+		assertEquals(0, expiryIndex.size());
+	}
+}
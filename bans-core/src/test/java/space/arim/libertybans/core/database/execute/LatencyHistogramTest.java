@@ -0,0 +1,67 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.database.execute;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	@Test
+	public void bucketsContainTheirValues() {
+		for (long value : new long[] {0L, 1L, 7L, 8L, 9L, 15L, 16L, 17L, 1000L, 123_456_789L, Long.MAX_VALUE}) {
+			int index = LatencyHistogram.bucketIndex(value);
+			long lowerBound = (index == 0) ? 0L : LatencyHistogram.bucketUpperBound(index - 1) + 1;
+			long upperBound = LatencyHistogram.bucketUpperBound(index);
+			assertTrue(lowerBound <= value && value <= upperBound, "Value " + value + " in bucket " + index);
+		}
+	}
+
+	@Test
+	public void emptySnapshot() {
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(0L, snapshot.count());
+		assertEquals(Duration.ZERO, snapshot.percentile(99));
+		assertEquals(Duration.ZERO, snapshot.max());
+	}
+
+	@Test
+	public void percentilesWithinAnEighth() {
+		for (int n = 1; n <= 1000; n++) {
+			histogram.record(Duration.ofMillis(n).toNanos());
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(1000L, snapshot.count());
+		assertEquals(Duration.ofMillis(1000L), snapshot.max());
+		assertWithinAnEighth(Duration.ofMillis(500L), snapshot.percentile(50));
+		assertWithinAnEighth(Duration.ofMillis(990L), snapshot.percentile(99));
+		assertEquals(Duration.ofMillis(1000L), snapshot.percentile(100));
+	}
+
+	private static void assertWithinAnEighth(Duration expected, Duration actual) {
+		long difference = Math.abs(expected.toNanos() - actual.toNanos());
+		assertTrue(difference <= expected.toNanos() / 8, "Expected about " + expected + " but was " + actual);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.database.execute;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class QueryTraceTest {
+
+	private final QueryStatistics queryStatistics = new QueryStatistics();
+
+	@Test
+	public void recordPhases() {
+		QueryStatistics.CallSiteTimings timings = queryStatistics.timings("Test");
+		QueryTrace trace = new QueryTrace("Test", timings, 1_000L, Duration.ZERO);
+		trace.recordPermitAcquired(3_000L);
+		trace.recordConnectionAcquisition(500L);
+		trace.recordExecution(7_000L);
+		trace.recordCommit(200L);
+		trace.finish();
+
+		assertEquals(Duration.ofNanos(2_000L), timings.queueWait().snapshot().max());
+		assertEquals(Duration.ofNanos(500L), timings.connectionAcquisition().snapshot().max());
+		assertEquals(Duration.ofNanos(7_000L), timings.execution().snapshot().max());
+		assertEquals(Duration.ofNanos(200L), timings.commit().snapshot().max());
+		assertEquals(timings, queryStatistics.timingsByLabel().get("Test"));
+	}
+
+	@Test
+	public void recordStatementsOnlyIfSlowQueryLogEnabled() {
+		QueryStatistics.CallSiteTimings timings = queryStatistics.timings("Test");
+		assertNull(new QueryTrace("Test", timings, 0L, Duration.ZERO).executeListener());
+		assertNotNull(new QueryTrace("Test", timings, 0L, Duration.ofSeconds(1L)).executeListener());
+	}
+
+	@Test
+	public void recordFirstStatementsOnly() {
+		QueryStatistics.CallSiteTimings timings = queryStatistics.timings("Test");
+		ExecuteListener listener = new QueryTrace("Test", timings, 0L, Duration.ofSeconds(1L)).executeListener();
+		ExecuteContext ctx = mock(ExecuteContext.class);
+		when(ctx.sql()).thenReturn("SELECT 1");
+		int statementCount = QueryTrace.MAX_RECORDED_STATEMENTS + 5;
+		for (int n = 0; n < statementCount; n++) {
+			listener.executeStart(ctx);
+			listener.executeEnd(ctx);
+		}
+		String rendered = listener.toString();
+		assertEquals(QueryTrace.MAX_RECORDED_STATEMENTS, rendered.split("SELECT 1", -1).length - 1);
+		assertTrue(rendered.endsWith("...and 5 more"), rendered);
+	}
+}
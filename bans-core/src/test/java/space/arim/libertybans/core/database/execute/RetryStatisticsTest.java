@@ -0,0 +1,81 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.database.execute;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RetryStatisticsTest {
+
+	private final RetryStatistics retryStatistics = new RetryStatistics();
+
+	@Test
+	public void lambdaCommandType() {
+		SQLTransactionalRunnable command = (context, transaction) -> {};
+		assertEquals("RetryStatisticsTest", RetryStatistics.commandType(command));
+	}
+
+	@Test
+	public void nestedClassCommandType() {
+		class LocalCommand implements SQLTransactionalRunnable {
+
+			@Override
+			public void run(DSLContext context, Transaction transaction) {}
+		}
+		assertEquals("RetryStatisticsTest$1LocalCommand", RetryStatistics.commandType(new LocalCommand()));
+	}
+
+	@Test
+	public void readOnlyLabelIsWrappedCommandLabel() {
+		SQLFunction<?> command = SQLFunction.readOnly((context) -> null);
+		assertEquals("RetryStatisticsTest", command.label());
+		SQLRunnable runnable = SQLRunnable.readOnly((context) -> {});
+		assertEquals("RetryStatisticsTest", runnable.label());
+	}
+
+	@Test
+	public void explicitLabel() {
+		SQLFunction<?> command = SQLFunction.readOnly(SQLFunction.labeled("Test.select", (context) -> null));
+		assertEquals("Test.select", command.label());
+		assertTrue(command.isReadOnly());
+	}
+
+	@Test
+	public void countByCommandType() {
+		assertTrue(retryStatistics.snapshot().isEmpty());
+
+		retryStatistics.recordSerializationFailure("Enactor");
+		retryStatistics.recordRetry("Enactor");
+		retryStatistics.recordSerializationFailure("Enactor");
+		retryStatistics.recordRetriesExhausted("Enactor");
+		retryStatistics.recordSerializationFailure("Revoker");
+		retryStatistics.recordRetry("Revoker");
+
+		assertEquals(Map.of(
+				"Enactor", new RetryStatistics.Counts(2, 1, 1),
+				"Revoker", new RetryStatistics.Counts(1, 1, 0)
+		), retryStatistics.snapshot());
+	}
+}
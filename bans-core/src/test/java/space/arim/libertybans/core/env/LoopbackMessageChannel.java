@@ -0,0 +1,94 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.env;
+
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * In-process message channel, delivering messages to every other channel on the same network
+ *
+ */
+public final class LoopbackMessageChannel implements EnvMessageChannel {
+
+	private final Network network;
+	private volatile Consumer<byte[]> handler;
+	private volatile boolean connected = true;
+
+	private LoopbackMessageChannel(Network network) {
+		this.network = network;
+	}
+
+	public static final class Network {
+
+		private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+		private final Set<LoopbackMessageChannel> channels = new CopyOnWriteArraySet<>();
+
+		public LoopbackMessageChannel createChannel() {
+			LoopbackMessageChannel channel = new LoopbackMessageChannel(this);
+			channels.add(channel);
+			return channel;
+		}
+	}
+
+	/**
+	 * Sets whether this channel is able to send messages, simulating whether
+	 * a connection is available to carry them
+	 *
+	 * @param connected whether connected
+	 */
+	public void setConnected(boolean connected) {
+		this.connected = connected;
+	}
+
+	@Override
+	public void installHandler(Consumer<byte[]> handler) {
+		this.handler = handler;
+	}
+
+	@Override
+	public void uninstallHandler() {
+		handler = null;
+	}
+
+	@Override
+	public CentralisedFuture<Boolean> send(byte[] message) {
+		if (!connected) {
+			return network.futuresFactory.completedFuture(false);
+		}
+		for (LoopbackMessageChannel channel : network.channels) {
+			Consumer<byte[]> handler = channel.handler;
+			if (channel != this && handler != null) {
+				handler.accept(message.clone());
+			}
+		}
+		return network.futuresFactory.completedFuture(true);
+	}
+
+	@Override
+	public int maxMessageSize() {
+		return Integer.MAX_VALUE;
+	}
+}
@@ -27,10 +27,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -73,6 +75,11 @@ public class DatabaseStreamTest {
 		}
 	}
 
+	private static Optional<Row> mapRow(ResultSet resultSet) throws SQLException {
+		return Optional.of(new Row(
+				resultSet.getInt("tally"), resultSet.getString("textual"), resultSet.getBoolean("flag")));
+	}
+
 	private Set<Row> sourceRows() {
 		return databaseStream.streamRows(new SchemaRowMapper<Row>() {
 
@@ -83,12 +90,39 @@ public class DatabaseStreamTest {
 
 			@Override
 			public Optional<Row> mapRow(ResultSet resultSet) throws SQLException {
-				return Optional.of(new Row(
-						resultSet.getInt("tally"), resultSet.getString("textual"), resultSet.getBoolean("flag")));
+				return DatabaseStreamTest.mapRow(resultSet);
 			}
 		}).collect(Collectors.toUnmodifiableSet());
 	}
 
+	private Set<Row> sourceRowsPartitioned() {
+		DatabaseStream partitionedStream = new DatabaseStream(connectionSource, 2, 3);
+		try (Stream<Row> rows = partitionedStream.streamRows(new PartitionedRowMapper<Row>() {
+
+			@Override
+			public String selectStatement() {
+				return "SELECT * FROM test_rows";
+			}
+
+			@Override
+			public String keyRangeStatement() {
+				return "SELECT MIN(tally), MAX(tally) FROM test_rows";
+			}
+
+			@Override
+			public String partitionStatement() {
+				return "SELECT * FROM test_rows WHERE tally >= ? AND tally < ?";
+			}
+
+			@Override
+			public Optional<Row> mapRow(ResultSet resultSet) throws SQLException {
+				return DatabaseStreamTest.mapRow(resultSet);
+			}
+		})) {
+			return rows.collect(Collectors.toUnmodifiableSet());
+		}
+	}
+
 	@Test
 	public void empty() {
 		assertEquals(Set.of(), sourceRows());
@@ -136,6 +170,28 @@ public class DatabaseStreamTest {
 		assertEquals(expectedRows, sourceRows());
 	}
 
+	@Test
+	public void partitionedEmpty() {
+		assertEquals(Set.of(), sourceRowsPartitioned());
+	}
+
+	@Test
+	public void partitionedSingleRow() {
+		Set<Row> expectedRows = Set.of(new Row(-1, "some text", true));
+		insertAllData(expectedRows);
+		assertEquals(expectedRows, sourceRowsPartitioned());
+	}
+
+	@Test
+	public void partitionedManyRows() {
+		Set<Row> expectedRows = new HashSet<>();
+		for (int n = -20; n < 200; n += 3) {
+			expectedRows.add(new Row(n, "row " + n, n % 2 == 0));
+		}
+		insertAllData(expectedRows);
+		assertEquals(expectedRows, sourceRowsPartitioned());
+	}
+
 	private static class Row {
 		private final int tally;
 		private final String text;
@@ -0,0 +1,65 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.metrics;
+
+import org.junit.jupiter.api.Test;
+import space.arim.libertybans.api.metrics.CounterMetric;
+import space.arim.libertybans.api.metrics.GaugeMetric;
+import space.arim.libertybans.api.metrics.TimerMetric;
+import space.arim.libertybans.core.database.execute.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SimpleMetricTest {
+
+	@Test
+	public void counterReadsLiveValue() {
+		AtomicLong count = new AtomicLong();
+		CounterMetric counter = SimpleMetric.counter("test.counter", "Counts things", count::get);
+		assertEquals(0L, counter.getCount());
+		count.set(3L);
+		assertEquals(3L, counter.getCount());
+		assertEquals("test.counter 3", counter.toString());
+	}
+
+	@Test
+	public void gaugeFormatting() {
+		GaugeMetric gauge = SimpleMetric.gauge("test.gauge", "Measures things", () -> 0.25D);
+		assertEquals(0.25D, gauge.getValue());
+		assertEquals("test.gauge 0.250", gauge.toString());
+	}
+
+	@Test
+	public void timerSnapshot() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		TimerMetric timer = SimpleMetric.timer("test.timer", "Times things", histogram);
+		assertEquals(0L, timer.takeSnapshot().getCount());
+
+		histogram.record(Duration.ofMillis(2L).toNanos());
+		TimerMetric.Snapshot snapshot = timer.takeSnapshot();
+		assertEquals(1L, snapshot.getCount());
+		assertEquals(Duration.ofMillis(2L), snapshot.getMax());
+		assertEquals(Duration.ofMillis(2L), snapshot.getPercentile(99));
+		assertEquals("test.timer count=1 p50=2.000ms p99=2.000ms p999=2.000ms max=2.000ms", timer.toString());
+	}
+}
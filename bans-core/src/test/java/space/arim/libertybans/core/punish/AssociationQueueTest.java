@@ -0,0 +1,187 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.execute.SQLTransactionalFunction;
+import space.arim.libertybans.it.util.RandomUtil;
+import space.arim.omnibus.util.concurrent.EnhancedExecutor;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.ScheduledTask;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AssociationQueueTest {
+
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+	private final EnhancedExecutor enhancedExecutor;
+	private final QueryExecutor queryExecutor;
+	private final SqlConfig.DeferredAssociations conf;
+	private final DSLContext context;
+	private final List<Runnable> executedTasks = new ArrayList<>();
+
+	private AssociationQueue associationQueue;
+
+	public AssociationQueueTest(@Mock EnhancedExecutor enhancedExecutor, @Mock QueryExecutor queryExecutor,
+								@Mock SqlConfig.DeferredAssociations conf, @Mock DSLContext context) {
+		this.enhancedExecutor = enhancedExecutor;
+		this.queryExecutor = queryExecutor;
+		this.conf = conf;
+		this.context = context;
+	}
+
+	@BeforeEach
+	public void setAssociationQueue(@Mock Configs configs, @Mock SqlConfig sqlConfig, @Mock ScheduledTask flushTask) {
+		when(configs.getSqlConfig()).thenReturn(sqlConfig);
+		when(sqlConfig.deferredAssociations()).thenReturn(conf);
+		when(conf.enable()).thenReturn(true);
+		when(conf.flushIntervalMillis()).thenReturn(1000L);
+		when(conf.maxQueued()).thenReturn(100);
+		when(conf.batchSize()).thenReturn(3);
+		when(enhancedExecutor.scheduleRepeating((Runnable) any(), any(), any())).thenReturn(flushTask);
+		lenient().doAnswer((invocation) -> {
+			executedTasks.add(invocation.getArgument(0));
+			return null;
+		}).when(enhancedExecutor).execute(any());
+		lenient().when(queryExecutor.queryWithRetry(any(SQLTransactionalFunction.class)))
+				.thenReturn(futuresFactory.completedFuture(List.of()));
+
+		associationQueue = new AssociationQueue(configs, enhancedExecutor, () -> queryExecutor);
+		associationQueue.startup();
+	}
+
+	private AssociationQueue.PendingAssociation associateInTransaction() {
+		return associationQueue.associateCurrent(
+				context, UUID.randomUUID(), "Player", RandomUtil.randomAddress(), Instant.EPOCH, false);
+	}
+
+	private boolean associate() {
+		AssociationQueue.PendingAssociation pending = associateInTransaction();
+		// The login transaction commits
+		associationQueue.enqueue(pending);
+		return pending != null && pending.addressDeferred();
+	}
+
+	@Test
+	public void deferAssociations() {
+		assertTrue(associate());
+		verifyNoInteractions(context);
+		verify(queryExecutor, never()).queryWithRetry(any(SQLTransactionalFunction.class));
+	}
+
+	@Test
+	public void queueOnlyAfterCommit() {
+		for (int n = 0; n < 4; n++) {
+			assertNotNull(associateInTransaction());
+		}
+		assertEquals(0, executedTasks.size(), "Nothing should be queued before commit");
+		associationQueue.shutdown();
+		verifyNoInteractions(queryExecutor);
+	}
+
+	@Test
+	public void enqueueAfterShutdownWritesImmediately() {
+		AssociationQueue.PendingAssociation pending = associateInTransaction();
+		associationQueue.shutdown();
+		verifyNoInteractions(queryExecutor);
+
+		associationQueue.enqueue(pending);
+		verify(queryExecutor).queryWithRetry(any(SQLTransactionalFunction.class));
+	}
+
+	@Test
+	public void flushWhenBatchFilled() {
+		associate();
+		associate();
+		assertEquals(0, executedTasks.size());
+		associate();
+		associate();
+		assertEquals(1, executedTasks.size(), "Flush should be triggered once");
+
+		executedTasks.get(0).run();
+		verify(queryExecutor).queryWithRetry(any(SQLTransactionalFunction.class));
+		verifyNoInteractions(context);
+	}
+
+	@Test
+	public void flushRemainingOnShutdown() {
+		associate();
+		associationQueue.shutdown();
+		verify(queryExecutor).queryWithRetry(any(SQLTransactionalFunction.class));
+	}
+
+	@Test
+	public void requeueFailedBatch() {
+		when(queryExecutor.queryWithRetry(any(SQLTransactionalFunction.class)))
+				.thenReturn(futuresFactory.failedFuture(new IllegalStateException("Simulated failure")))
+				.thenReturn(futuresFactory.completedFuture(List.of()));
+		for (int n = 0; n < 4; n++) {
+			associate();
+		}
+		executedTasks.get(0).run();
+		verify(queryExecutor).queryWithRetry(any(SQLTransactionalFunction.class));
+
+		// The failed associations are written in the next flush
+		associationQueue.shutdown();
+		verify(queryExecutor, times(2)).queryWithRetry(any(SQLTransactionalFunction.class));
+	}
+
+	@Test
+	public void writeFailedBatchSinglyAfterShutdown() {
+		when(queryExecutor.queryWithRetry(any(SQLTransactionalFunction.class)))
+				.thenReturn(futuresFactory.failedFuture(new IllegalStateException("Simulated failure")))
+				.thenReturn(futuresFactory.completedFuture(List.of()));
+		associate();
+		associate();
+		associationQueue.shutdown();
+		// One failed batch, then one write per association
+		verify(queryExecutor, times(3)).queryWithRetry(any(SQLTransactionalFunction.class));
+	}
+
+	@Test
+	public void nothingToFlush() {
+		associationQueue.shutdown();
+		verifyNoInteractions(queryExecutor);
+	}
+}
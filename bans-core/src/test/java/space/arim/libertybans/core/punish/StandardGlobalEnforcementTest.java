@@ -39,6 +39,9 @@ import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
 
 import java.util.concurrent.ThreadLocalRandom;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.notNull;
@@ -244,4 +247,16 @@ public class StandardGlobalEnforcementTest {
 		verify(enforcer).unenforceWithoutSynchronization(punishment.getIdentifier(), type, enforcementOpts);
 		verify(synchronizationMessenger).dispatch(notNull());
 	}
+
+	// Polling
+
+	@Test
+	public void pollRecordsDuration() {
+		when(synchronizationMessenger.poll()).thenReturn(futuresFactory.completedFuture(new byte[0][]));
+		assertNull(globalEnforcement.timeSinceLastPoll());
+
+		globalEnforcement.run();
+		assertEquals(1L, globalEnforcement.pollDuration().snapshot().count());
+		assertNotNull(globalEnforcement.timeSinceLastPoll());
+	}
 }
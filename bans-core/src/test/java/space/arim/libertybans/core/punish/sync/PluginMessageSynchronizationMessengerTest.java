@@ -0,0 +1,87 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish.sync;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import space.arim.libertybans.core.env.LoopbackMessageChannel;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PluginMessageSynchronizationMessengerTest {
+
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+
+	private LoopbackMessageChannel senderChannel;
+	private PluginMessageSynchronizationMessenger sender;
+	private final List<byte[]> received = new ArrayList<>();
+
+	@BeforeEach
+	public void setMessengers() {
+		LoopbackMessageChannel.Network network = new LoopbackMessageChannel.Network();
+		senderChannel = network.createChannel();
+		LoopbackMessageChannel receiverChannel = network.createChannel();
+
+		sender = new PluginMessageSynchronizationMessenger(futuresFactory, () -> senderChannel);
+		sender.startListening((messages) -> {
+			throw new AssertionError("Messages should not be echoed to the sender");
+		});
+		var receiver = new PluginMessageSynchronizationMessenger(futuresFactory, () -> receiverChannel);
+		receiver.startListening((messages) -> received.addAll(List.of(messages)));
+	}
+
+	@Test
+	public void sendAndReceive() {
+		byte[] message = new byte[] {1, 2, 3};
+		sender.dispatch(message).join();
+		assertEquals(1, received.size());
+		assertArrayEquals(message, received.get(0));
+	}
+
+	@Test
+	public void retryUnsentInOrder() {
+		byte[] message1 = new byte[] {1};
+		byte[] message2 = new byte[] {2};
+		senderChannel.setConnected(false);
+		sender.dispatch(message1).join();
+		sender.dispatch(message2).join();
+		assertTrue(received.isEmpty());
+
+		senderChannel.setConnected(true);
+		assertArrayEquals(new byte[][] {}, sender.poll().join());
+		assertEquals(2, received.size());
+		assertArrayEquals(message1, received.get(0));
+		assertArrayEquals(message2, received.get(1));
+	}
+
+	@Test
+	public void sendAfterSenderStopsListening() {
+		sender.stopListening();
+		sender.dispatch(new byte[] {4}).join();
+		assertEquals(1, received.size());
+	}
+}
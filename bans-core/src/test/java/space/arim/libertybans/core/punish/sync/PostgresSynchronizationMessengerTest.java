@@ -0,0 +1,107 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.punish.sync;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.InternalDatabase;
+import space.arim.libertybans.core.database.Vendor;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.execute.SQLRunnable;
+import space.arim.libertybans.core.service.SettableTimeImpl;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PostgresSynchronizationMessengerTest {
+
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+	private final InternalDatabase database;
+	private final SqlConfig.Synchronization conf;
+	private final QueryExecutor queryExecutor;
+
+	private PostgresSynchronizationMessenger messenger;
+
+	public PostgresSynchronizationMessengerTest(@Mock InternalDatabase database,
+												@Mock SqlConfig.Synchronization conf,
+												@Mock QueryExecutor queryExecutor) {
+		this.database = database;
+		this.conf = conf;
+		this.queryExecutor = queryExecutor;
+	}
+
+	@BeforeEach
+	public void setMessenger(@Mock Configs configs, @Mock SqlConfig sqlConfig) {
+		lenient().when(configs.getSqlConfig()).thenReturn(sqlConfig);
+		lenient().when(sqlConfig.synchronization()).thenReturn(conf);
+		var time = new SettableTimeImpl(Instant.EPOCH);
+		var pollingMessenger = new SQLSynchronizationMessenger(futuresFactory, () -> queryExecutor, time);
+		messenger = new PostgresSynchronizationMessenger(
+				configs, futuresFactory, () -> database, pollingMessenger, time);
+	}
+
+	private void assertDelegatesToPolling() {
+		when(queryExecutor.execute(any(SQLRunnable.class))).thenReturn(futuresFactory.completedFuture(null));
+
+		messenger.startListening((messages) -> {
+			throw new AssertionError("No messages should be pushed");
+		});
+		messenger.dispatch(new byte[] {1, 2, 3}).join();
+		verify(queryExecutor).execute(any(SQLRunnable.class));
+		verifyNoMoreInteractions(queryExecutor);
+
+		// The first poll only initializes the polling window
+		assertArrayEquals(new byte[][] {}, messenger.poll().join());
+		messenger.stopListening();
+	}
+
+	@Test
+	public void otherVendorUsesPolling() {
+		when(database.getVendor()).thenReturn(Vendor.MARIADB);
+		assertDelegatesToPolling();
+	}
+
+	@Test
+	public void cockroachUsesPolling() {
+		when(database.getVendor()).thenReturn(Vendor.COCKROACH);
+		assertDelegatesToPolling();
+	}
+
+	@Test
+	public void notificationsDisabledUsesPolling() {
+		when(database.getVendor()).thenReturn(Vendor.POSTGRES);
+		when(conf.useNativeNotifications()).thenReturn(false);
+		assertDelegatesToPolling();
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchedSubscriptionTest {
+
+	private final Flow.Subscriber<String> subscriber;
+	private final List<String> retrievals = new ArrayList<>();
+
+	public BatchedSubscriptionTest(@Mock Flow.Subscriber<String> subscriber) {
+		this.subscriber = subscriber;
+	}
+
+	private BatchedSubscription<String> subscription(int batchSize, int limit, List<String> elements) {
+		return new BatchedSubscription<>(subscriber, batchSize, limit, (lastElement, count) -> {
+			retrievals.add(lastElement + ":" + count);
+			int start = (lastElement == null) ? 0 : elements.indexOf(lastElement) + 1;
+			return CompletableFuture.completedFuture(
+					elements.subList(start, Math.min(start + count, elements.size()))
+			);
+		});
+	}
+
+	@Test
+	public void retrieveNothingUntilRequested() {
+		subscription(2, 0, List.of("first", "second"));
+		assertEquals(List.of(), retrievals);
+		verifyNoMoreInteractions(subscriber);
+	}
+
+	@Test
+	public void emitRequestedElementsInBatches() {
+		var subscription = subscription(2, 0, List.of("first", "second", "third", "fourth"));
+		subscription.request(3L);
+		verify(subscriber).onNext("first");
+		verify(subscriber).onNext("second");
+		verify(subscriber).onNext("third");
+		verifyNoMoreInteractions(subscriber);
+		assertEquals(List.of("null:2", "second:2"), retrievals);
+	}
+
+	@Test
+	public void completeOnceExhausted() {
+		var subscription = subscription(2, 0, List.of("first", "second", "third"));
+		subscription.request(Long.MAX_VALUE);
+		verify(subscriber).onNext("first");
+		verify(subscriber).onNext("second");
+		verify(subscriber).onNext("third");
+		verify(subscriber).onComplete();
+		verifyNoMoreInteractions(subscriber);
+		assertEquals(List.of("null:2", "second:2"), retrievals);
+	}
+
+	@Test
+	public void respectLimit() {
+		var subscription = subscription(2, 3, List.of("first", "second", "third", "fourth"));
+		subscription.request(Long.MAX_VALUE);
+		verify(subscriber).onNext("first");
+		verify(subscriber).onNext("second");
+		verify(subscriber).onNext("third");
+		verify(subscriber).onComplete();
+		verifyNoMoreInteractions(subscriber);
+		assertEquals(List.of("null:2", "second:1"), retrievals);
+	}
+
+	@Test
+	public void requestFromOnNext() {
+		var subscription = subscription(2, 0, List.of("first", "second", "third"));
+		doAnswer((invocation) -> {
+			subscription.request(1L);
+			return null;
+		}).when(subscriber).onNext(any());
+		subscription.request(1L);
+		verify(subscriber).onNext("first");
+		verify(subscriber).onNext("second");
+		verify(subscriber).onNext("third");
+		verify(subscriber).onComplete();
+		verifyNoMoreInteractions(subscriber);
+	}
+
+	@Test
+	public void cancelledSubscriptionIsNotTerminated() {
+		var subscription = subscription(2, 0, List.of("first", "second"));
+		subscription.request(1L);
+		subscription.cancel();
+		subscription.request(1L);
+		verify(subscriber).onNext("first");
+		verifyNoMoreInteractions(subscriber);
+	}
+
+	@Test
+	public void nonPositiveRequestSignalsError() {
+		var subscription = subscription(2, 0, List.of("first"));
+		subscription.request(0L);
+		verify(subscriber).onError(any(IllegalArgumentException.class));
+		verifyNoMoreInteractions(subscriber);
+		assertEquals(List.of(), retrievals);
+	}
+
+	@Test
+	public void failureIsUnwrapped() {
+		IllegalStateException failure = new IllegalStateException("Database failure");
+		var subscription = new BatchedSubscription<String>(subscriber, 2, 0, (lastElement, count) -> {
+			return CompletableFuture.failedFuture(new CompletionException(failure));
+		});
+		subscription.request(1L);
+		verify(subscriber).onError(failure);
+		verifyNoMoreInteractions(subscriber);
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector;
+
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.MainConfig;
+import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.EnhancedExecutor;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginAdmissionTest {
+
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+
+	private final Configs configs;
+	private final EnhancedExecutor enhancedExecutor;
+	private final EnvEnforcer<Object> envEnforcer;
+	private final LoginAdmissionConfig conf;
+
+	private LoginAdmission admission;
+
+	public LoginAdmissionTest(@Mock Configs configs, @Mock EnhancedExecutor enhancedExecutor,
+							  @Mock EnvEnforcer<Object> envEnforcer, @Mock LoginAdmissionConfig conf) {
+		this.configs = configs;
+		this.enhancedExecutor = enhancedExecutor;
+		this.envEnforcer = envEnforcer;
+		this.conf = conf;
+	}
+
+	@BeforeEach
+	public void setAdmission(@Mock MainConfig mainConfig, @Mock EnforcementConfig enforcementConfig) {
+		when(configs.getMainConfig()).thenReturn(mainConfig);
+		when(mainConfig.enforcement()).thenReturn(enforcementConfig);
+		when(enforcementConfig.loginAdmission()).thenReturn(conf);
+		admission = new LoginAdmission(configs, futuresFactory, enhancedExecutor, envEnforcer);
+	}
+
+	private void enable(int maxInFlight, int maxQueued) {
+		when(conf.enable()).thenReturn(true);
+		when(conf.maxInFlight()).thenReturn(maxInFlight);
+		when(conf.maxQueued()).thenReturn(maxQueued);
+	}
+
+	/**
+	 * A login check which completes only when the test says so
+	 */
+	private final class ControlledCheck implements Supplier<CentralisedFuture<Component>> {
+
+		private final AtomicInteger runs = new AtomicInteger();
+		private CentralisedFuture<Component> future;
+
+		@Override
+		public CentralisedFuture<Component> get() {
+			runs.incrementAndGet();
+			return future = futuresFactory.newIncompleteFuture();
+		}
+
+		boolean hasRun() {
+			return runs.get() > 0;
+		}
+
+		void complete(Component message) {
+			future.complete(message);
+		}
+	}
+
+	@Test
+	public void disabledRunsCheckDirectly() {
+		when(conf.enable()).thenReturn(false);
+		Component message = Component.text("Banned");
+		CentralisedFuture<Component> result = admission.admit(
+				UUID.randomUUID(), () -> futuresFactory.completedFuture(message));
+		assertSame(message, result.join());
+	}
+
+	@Test
+	public void queuedLoginsRunInOrder() {
+		enable(1, 2);
+		ControlledCheck first = new ControlledCheck();
+		ControlledCheck second = new ControlledCheck();
+		ControlledCheck third = new ControlledCheck();
+		CentralisedFuture<Component> firstResult = admission.admit(UUID.randomUUID(), first);
+		CentralisedFuture<Component> secondResult = admission.admit(UUID.randomUUID(), second);
+		CentralisedFuture<Component> thirdResult = admission.admit(UUID.randomUUID(), third);
+		assertTrue(first.hasRun());
+		assertFalse(second.hasRun());
+		assertFalse(third.hasRun());
+		assertEquals(1, admission.inFlight());
+		assertEquals(2, admission.queueDepth());
+
+		first.complete(null);
+		assertNull(firstResult.join());
+		assertTrue(second.hasRun());
+		assertFalse(third.hasRun());
+		assertEquals(1, admission.queueDepth());
+
+		Component message = Component.text("Banned");
+		second.complete(message);
+		assertSame(message, secondResult.join());
+		assertTrue(third.hasRun());
+
+		third.complete(null);
+		assertNull(thirdResult.join());
+		assertEquals(0, admission.inFlight());
+		assertEquals(0, admission.queueDepth());
+		assertEquals(2, admission.peakQueueDepth());
+		assertEquals(3, admission.queueWait().snapshot().count());
+	}
+
+	@Test
+	public void denyWhenQueueFull() {
+		enable(1, 0);
+		Component denialMessage = Component.text("Try again");
+		when(conf.degradePolicy()).thenReturn(LoginAdmissionConfig.DegradePolicy.DENY);
+		when(conf.denialMessage()).thenReturn(denialMessage);
+
+		admission.admit(UUID.randomUUID(), new ControlledCheck());
+		ControlledCheck rejected = new ControlledCheck();
+		assertSame(denialMessage, admission.admit(UUID.randomUUID(), rejected).join());
+		assertFalse(rejected.hasRun());
+		assertEquals(1, admission.deniedLogins());
+	}
+
+	@Test
+	public void denyAfterWaitingTooLong() {
+		enable(1, 1);
+		when(conf.maxWaitMillis()).thenReturn(1000L);
+		Component denialMessage = Component.text("Try again");
+		when(conf.degradePolicy()).thenReturn(LoginAdmissionConfig.DegradePolicy.DENY);
+		when(conf.denialMessage()).thenReturn(denialMessage);
+
+		ControlledCheck first = new ControlledCheck();
+		ControlledCheck waiting = new ControlledCheck();
+		admission.admit(UUID.randomUUID(), first);
+		CentralisedFuture<Component> waitingResult = admission.admit(UUID.randomUUID(), waiting);
+
+		ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+		verify(enhancedExecutor).schedule(timeout.capture(), eq(Duration.ofSeconds(1L)));
+		timeout.getValue().run();
+		assertSame(denialMessage, waitingResult.join());
+		assertEquals(0, admission.queueDepth());
+
+		first.complete(null);
+		assertFalse(waiting.hasRun());
+		assertEquals(0, admission.inFlight());
+	}
+
+	@Test
+	public void admitWithDeferredCheck() {
+		enable(1, 0);
+		when(conf.degradePolicy()).thenReturn(LoginAdmissionConfig.DegradePolicy.ADMIT);
+		when(conf.maxDeferredChecks()).thenReturn(1);
+		Object player = new Object();
+		when(envEnforcer.doForPlayerIfOnline(any(), any())).thenAnswer((invocation) -> {
+			Consumer<Object> callback = invocation.getArgument(1);
+			callback.accept(player);
+			return futuresFactory.completedFuture(null);
+		});
+
+		ControlledCheck first = new ControlledCheck();
+		admission.admit(UUID.randomUUID(), first);
+		UUID uuid = UUID.randomUUID();
+		ControlledCheck deferred = new ControlledCheck();
+		assertNull(admission.admit(uuid, deferred).join(), "Admitted immediately");
+		assertFalse(deferred.hasRun());
+		assertEquals(1, admission.deferredLogins());
+		assertEquals(1, admission.queueDepth());
+		assertEquals(1, admission.peakQueueDepth());
+
+		first.complete(null);
+		assertTrue(deferred.hasRun());
+		assertEquals(0, admission.queueDepth());
+		Component banMessage = Component.text("Banned");
+		deferred.complete(banMessage);
+		verify(envEnforcer).doForPlayerIfOnline(eq(uuid), any());
+		verify(envEnforcer).kickPlayer(player, banMessage);
+	}
+
+	@Test
+	public void dropDeferredChecksBeyondLimit() {
+		enable(1, 0);
+		when(conf.degradePolicy()).thenReturn(LoginAdmissionConfig.DegradePolicy.ADMIT);
+		when(conf.maxDeferredChecks()).thenReturn(1);
+
+		ControlledCheck first = new ControlledCheck();
+		admission.admit(UUID.randomUUID(), first);
+		ControlledCheck deferred = new ControlledCheck();
+		ControlledCheck dropped = new ControlledCheck();
+		assertNull(admission.admit(UUID.randomUUID(), deferred).join());
+		assertNull(admission.admit(UUID.randomUUID(), dropped).join());
+		assertEquals(2, admission.deferredLogins());
+		assertEquals(1, admission.droppedDeferredChecks());
+		assertEquals(1, admission.queueDepth());
+
+		first.complete(null);
+		assertTrue(deferred.hasRun());
+		deferred.complete(null);
+		assertFalse(dropped.hasRun());
+		assertEquals(0, admission.inFlight());
+	}
+}
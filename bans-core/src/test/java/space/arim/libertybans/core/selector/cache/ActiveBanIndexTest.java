@@ -0,0 +1,201 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.core.selector.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.libertybans.api.AddressVictim;
+import space.arim.libertybans.api.CompositeVictim;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.punish.PunishmentCreator;
+import space.arim.libertybans.core.service.SettableTime;
+import space.arim.libertybans.core.service.SettableTimeImpl;
+import space.arim.libertybans.it.util.RandomUtil;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ActiveBanIndexTest {
+
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+	private final SettableTime time = new SettableTimeImpl(Instant.EPOCH.plus(Duration.ofDays(1L)));
+	private final AtomicLong idCounter = new AtomicLong();
+
+	private final Configs configs;
+	private final QueryExecutor queryExecutor;
+	private final SqlConfig.BanIndex banIndexConf;
+
+	private ActiveBanIndex banIndex;
+
+	public ActiveBanIndexTest(@Mock Configs configs, @Mock QueryExecutor queryExecutor,
+							  @Mock SqlConfig.BanIndex banIndexConf) {
+		this.configs = configs;
+		this.queryExecutor = queryExecutor;
+		this.banIndexConf = banIndexConf;
+	}
+
+	@BeforeEach
+	public void setBanIndex(@Mock SqlConfig sqlConfig, @Mock SqlConfig.Synchronization synchronization) {
+		when(configs.getSqlConfig()).thenReturn(sqlConfig);
+		when(sqlConfig.banIndex()).thenReturn(banIndexConf);
+		lenient().when(sqlConfig.synchronization()).thenReturn(synchronization);
+		lenient().when(synchronization.mode()).thenReturn(SqlConfig.Synchronization.SyncMode.NONE);
+		banIndex = new ActiveBanIndex(configs, () -> queryExecutor, mock(PunishmentCreator.class), time);
+	}
+
+	private void startWithExistingBans(Punishment...existingBans) {
+		when(banIndexConf.enable()).thenReturn(true);
+		when(queryExecutor.query(any())).thenReturn(futuresFactory.completedFuture(List.of(existingBans)));
+		banIndex.startup();
+	}
+
+	private Punishment ban(Victim victim, Instant end) {
+		Punishment ban = mock(Punishment.class);
+		lenient().when(ban.getIdentifier()).thenReturn(idCounter.incrementAndGet());
+		lenient().when(ban.getType()).thenReturn(PunishmentType.BAN);
+		lenient().when(ban.getVictim()).thenReturn(victim);
+		lenient().when(ban.getEndDate()).thenReturn(end);
+		lenient().when(ban.isPermanent()).thenReturn(end.equals(Punishment.PERMANENT_END_DATE));
+		return ban;
+	}
+
+	@Test
+	public void disabled() {
+		when(banIndexConf.enable()).thenReturn(false);
+		banIndex.startup();
+		assertFalse(banIndex.isReady());
+
+		Punishment ban = ban(PlayerVictim.of(UUID.randomUUID()), Punishment.PERMANENT_END_DATE);
+		banIndex.indexPunishment(ban);
+		assertNull(banIndex.findApplicableBan(
+				((PlayerVictim) ban.getVictim()).getUUID(), Set.of(), time.currentTimestamp()));
+	}
+
+	@Test
+	public void findExistingBans() {
+		UUID uuid = UUID.randomUUID();
+		NetworkAddress address = RandomUtil.randomAddress();
+		Punishment uuidBan = ban(PlayerVictim.of(uuid), Punishment.PERMANENT_END_DATE);
+		Punishment addressBan = ban(AddressVictim.of(address), Punishment.PERMANENT_END_DATE);
+		startWithExistingBans(uuidBan, addressBan);
+		assertTrue(banIndex.isReady());
+
+		Instant currentTime = time.currentTimestamp();
+		assertEquals(uuidBan, banIndex.findApplicableBan(uuid, Set.of(), currentTime));
+		assertEquals(addressBan, banIndex.findApplicableBan(UUID.randomUUID(), Set.of(address), currentTime));
+		assertNull(banIndex.findApplicableBan(UUID.randomUUID(), Set.of(RandomUtil.randomAddress()), currentTime));
+	}
+
+	@Test
+	public void compositeMatchesEither() {
+		UUID uuid = UUID.randomUUID();
+		NetworkAddress address = RandomUtil.randomAddress();
+		startWithExistingBans();
+		Punishment compositeBan = ban(CompositeVictim.of(uuid, address), Punishment.PERMANENT_END_DATE);
+		banIndex.indexPunishment(compositeBan);
+
+		Instant currentTime = time.currentTimestamp();
+		assertEquals(compositeBan, banIndex.findApplicableBan(uuid, Set.of(), currentTime));
+		assertEquals(compositeBan, banIndex.findApplicableBan(UUID.randomUUID(), Set.of(address), currentTime));
+	}
+
+	@Test
+	public void longestLastingBanChosen() {
+		UUID uuid = UUID.randomUUID();
+		NetworkAddress address = RandomUtil.randomAddress();
+		Instant currentTime = time.currentTimestamp();
+		Punishment shortBan = ban(PlayerVictim.of(uuid), currentTime.plus(Duration.ofHours(1L)));
+		Punishment longBan = ban(AddressVictim.of(address), currentTime.plus(Duration.ofDays(1L)));
+		startWithExistingBans(shortBan, longBan);
+
+		assertEquals(longBan, banIndex.findApplicableBan(uuid, Set.of(address), currentTime));
+	}
+
+	@Test
+	public void expiredBansIgnored() {
+		UUID uuid = UUID.randomUUID();
+		Punishment ban = ban(PlayerVictim.of(uuid), time.currentTimestamp().plus(Duration.ofMinutes(1L)));
+		startWithExistingBans(ban);
+		assertEquals(ban, banIndex.findApplicableBan(uuid, Set.of(), time.currentTimestamp()));
+
+		time.advanceBy(Duration.ofMinutes(2L));
+		assertNull(banIndex.findApplicableBan(uuid, Set.of(), time.currentTimestamp()));
+	}
+
+	@Test
+	public void pruneExpiredBans() {
+		UUID uuid = UUID.randomUUID();
+		Instant startTime = time.currentTimestamp();
+		Punishment expiringBan = ban(PlayerVictim.of(uuid), startTime.plus(Duration.ofMinutes(1L)));
+		Punishment permanentBan = ban(AddressVictim.of(RandomUtil.randomAddress()), Punishment.PERMANENT_END_DATE);
+		startWithExistingBans(expiringBan, permanentBan);
+
+		time.advanceBy(Duration.ofMinutes(2L));
+		banIndex.pruneExpired(time.currentTimestamp());
+		// Looking up at an earlier time shows whether the expired ban is still held
+		assertNull(banIndex.findApplicableBan(uuid, Set.of(), startTime));
+		assertEquals(permanentBan, banIndex.findApplicableBan(
+				UUID.randomUUID(), Set.of(((AddressVictim) permanentBan.getVictim()).getAddress()), startTime));
+	}
+
+	@Test
+	public void unindexRevokedBan() {
+		UUID uuid = UUID.randomUUID();
+		Punishment ban = ban(PlayerVictim.of(uuid), Punishment.PERMANENT_END_DATE);
+		startWithExistingBans(ban);
+
+		banIndex.unindexPunishment(ban.getIdentifier());
+		assertNull(banIndex.findApplicableBan(uuid, Set.of(), time.currentTimestamp()));
+	}
+
+	@Test
+	public void ignoreNonBans(@Mock Punishment mute) {
+		startWithExistingBans();
+		when(mute.getType()).thenReturn(PunishmentType.MUTE);
+		banIndex.indexPunishment(mute);
+		assertNull(banIndex.findApplicableBan(UUID.randomUUID(), Set.of(), time.currentTimestamp()));
+	}
+}
@@ -33,6 +33,7 @@ import space.arim.libertybans.core.config.Configs;
 import space.arim.libertybans.core.config.InternalFormatter;
 import space.arim.libertybans.core.config.SqlConfig;
 import space.arim.libertybans.core.env.EnvUserResolver;
+import space.arim.libertybans.core.env.UUIDAndAddress;
 import space.arim.libertybans.core.selector.InternalSelector;
 import space.arim.libertybans.core.service.SettableTime;
 import space.arim.libertybans.core.service.SettableTimeImpl;
@@ -40,19 +41,24 @@ import space.arim.libertybans.it.util.RandomUtil;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.EnhancedExecutor;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.ScheduledTask;
 import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -99,7 +105,7 @@ public class AlwaysAvailableMuteCacheTest {
 		when(enhancedExecutor.scheduleRepeating((Runnable) any(), any(), any())).thenAnswer((invocation) -> {
 			Runnable command = invocation.getArgument(0);
 			scheduledTasks.add(command);
-			return null;
+			return mock(ScheduledTask.class);
 		});
 
 		muteCache = new AlwaysAvailableMuteCache(
@@ -108,7 +114,7 @@ public class AlwaysAvailableMuteCacheTest {
 
 		uuid = UUID.randomUUID();
 		address = RandomUtil.randomAddress();
-		when(envUserResolver.lookupName(uuid)).thenReturn(futuresFactory.completedFuture(Optional.of("Username")));
+		when(envUserResolver.lookupOnlineUUIDs()).thenReturn(futuresFactory.completedFuture(Set.of(uuid)));
 	}
 
 	private void assertAvailableCacheResult(@Nullable Component muteMessage) {
@@ -156,6 +162,7 @@ public class AlwaysAvailableMuteCacheTest {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(mute)));
 		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
 		muteCache.cacheOnLogin(uuid, address).join();
 		runScheduledTasks();
 
@@ -223,6 +230,7 @@ public class AlwaysAvailableMuteCacheTest {
 		CentralisedFuture<Optional<Punishment>> futurePunishment = futuresFactory.newIncompleteFuture();
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE)).thenReturn(futurePunishment);
 		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
 
 		// Wait, but not past expiration time. The old mute should be used
 		time.advanceBy(Duration.ofSeconds(3L));
@@ -251,12 +259,44 @@ public class AlwaysAvailableMuteCacheTest {
 		assertAvailableCacheResult(muteMessage);
 	}
 
+	@Test
+	public void refreshIntervalIsUsedWithSynchronization(@Mock Configs configs, @Mock SqlConfig sqlConfig,
+														 @Mock SqlConfig.MuteCaching muteCaching,
+														 @Mock SqlConfig.Synchronization synchronization) {
+		Duration refreshInterval = EXPIRATION_TIME.multipliedBy(2L);
+		when(configs.getSqlConfig()).thenReturn(sqlConfig);
+		when(sqlConfig.muteCaching()).thenReturn(muteCaching);
+		when(muteCaching.expirationTimeSeconds()).thenReturn((int) EXPIRATION_TIME.toSeconds());
+		when(muteCaching.expirationSemantic()).thenReturn(SqlConfig.MuteCaching.ExpirationSemantic.EXPIRE_AFTER_ACCESS);
+		when(muteCaching.refreshIntervalSeconds()).thenReturn((int) refreshInterval.toSeconds());
+		when(sqlConfig.synchronization()).thenReturn(synchronization);
+		when(synchronization.enabled()).thenReturn(true);
+		MuteCache muteCache = new AlwaysAvailableMuteCache(
+				configs, futuresFactory, selector, enhancedExecutor, envUserResolver, formatter, time);
+		muteCache.startup();
+
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.empty()));
+		muteCache.cacheOnLogin(uuid, address).join();
+
+		// Past the expiration time, but not the refresh interval
+		time.advanceBy(EXPIRATION_TIME.plusSeconds(1L));
+		assertEquals(Optional.empty(), muteCache.getCachedMuteMessage(uuid, address).join());
+		verify(selector, times(1)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+
+		// Past the refresh interval
+		time.advanceBy(EXPIRATION_TIME);
+		assertEquals(Optional.empty(), muteCache.getCachedMuteMessage(uuid, address).join());
+		verify(selector, times(2)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+	}
+
 	@Test
 	public void clearMuteAfterExpirationTime(@Mock Punishment mute) {
 		Component muteMessage = Component.text("Muted forever");
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(mute)));
 		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
 
 		muteCache.cacheOnLogin(uuid, address).join();
 
@@ -300,6 +340,7 @@ public class AlwaysAvailableMuteCacheTest {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(oldMute)));
 		when(formatter.getPunishmentMessage(oldMute)).thenReturn(futuresFactory.completedFuture(oldMuteMessage));
+		when(oldMute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
 
 		muteCache.cacheOnLogin(uuid, address).join();
 
@@ -311,6 +352,7 @@ public class AlwaysAvailableMuteCacheTest {
 		CentralisedFuture<Optional<Punishment>> futurePunishment = futuresFactory.newIncompleteFuture();
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE)).thenReturn(futurePunishment);
 		when(formatter.getPunishmentMessage(newMute)).thenReturn(futuresFactory.completedFuture(newMuteMessage));
+		when(newMute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
 
 		// Wait, but not past expiration time. The old mute should be used
 		time.advanceBy(Duration.ofSeconds(3L));
@@ -377,6 +419,172 @@ public class AlwaysAvailableMuteCacheTest {
 		assertEquals(Optional.of(newMute), muteCache.getCachedMute(uuid, address).join());
 	}
 
+	// clearCachedMute
+
+	@Test
+	public void removedMuteIsDroppedImmediately(@Mock Punishment mute) {
+		Component muteMessage = Component.text("Muted forever");
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.of(mute)));
+		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getType()).thenReturn(PunishmentType.MUTE);
+		when(mute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
+
+		muteCache.cacheOnLogin(uuid, address).join();
+		assertAvailableCacheResult(muteMessage);
+
+		// Remove the mute, well before the expiration time
+		CentralisedFuture<Optional<Punishment>> futurePunishment = futuresFactory.newIncompleteFuture();
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE)).thenReturn(futurePunishment);
+		time.advanceBy(Duration.ofSeconds(1L));
+		muteCache.clearCachedMute(mute);
+		assertAvailableCacheResult(null);
+		// The database is asked whether another mute applies
+		verify(selector, times(2)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+
+		futurePunishment.complete(Optional.empty());
+		assertAvailableCacheResult(null);
+		assertEquals(1L, ((AlwaysAvailableMuteCache) muteCache).statistics().invalidations());
+	}
+
+	@Test
+	public void clearingOtherMuteKeepsEntry(@Mock Punishment mute) {
+		Component muteMessage = Component.text("Muted forever");
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.of(mute)));
+		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getIdentifier()).thenReturn(1L);
+		when(mute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
+
+		muteCache.cacheOnLogin(uuid, address).join();
+		muteCache.clearCachedMute(2L);
+		assertAvailableCacheResult(muteMessage);
+		verify(selector, times(1)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+	}
+
+	@Test
+	public void expiredMuteIsDroppedAtItsEndDate(@Mock Punishment mute) {
+		Component muteMessage = Component.text("Muted for a minute");
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.of(mute)));
+		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getEndDate()).thenReturn(Instant.EPOCH.plus(Duration.ofMinutes(1L)));
+
+		muteCache.cacheOnLogin(uuid, address).join();
+		assertAvailableCacheResult(muteMessage);
+
+		CentralisedFuture<Optional<Punishment>> futurePunishment = futuresFactory.newIncompleteFuture();
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE)).thenReturn(futurePunishment);
+
+		// Just before the end date, the mute remains
+		time.advanceBy(Duration.ofSeconds(59L));
+		runScheduledTasks();
+		assertAvailableCacheResult(muteMessage);
+		verify(selector, times(1)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+
+		// At the end date, the mute is dropped without needing a request
+		time.advanceBy(Duration.ofSeconds(1L));
+		runScheduledTasks();
+		verify(selector, times(2)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+		assertAvailableCacheResult(null);
+
+		futurePunishment.complete(Optional.empty());
+		assertAvailableCacheResult(null);
+	}
+
+	@Test
+	public void muteExpiredBeforePromotionIsNotUsed(@Mock Punishment mute) {
+		Component muteMessage = Component.text("Muted for a minute");
+		CentralisedFuture<Optional<Punishment>> databaseQuery = futuresFactory.newIncompleteFuture();
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE)).thenReturn(databaseQuery);
+		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getEndDate()).thenReturn(Instant.EPOCH.plus(Duration.ofMinutes(1L)));
+
+		muteCache.cacheOnLogin(uuid, address);
+
+		// The query completes while the mute is active, but its result is not yet used
+		time.advanceBy(Duration.ofSeconds(30L));
+		databaseQuery.complete(Optional.of(mute));
+
+		// The mute expires before anything promotes the result
+		CentralisedFuture<Optional<Punishment>> futurePunishment = futuresFactory.newIncompleteFuture();
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE)).thenReturn(futurePunishment);
+		time.advanceBy(Duration.ofMinutes(1L));
+		runScheduledTasks();
+		verify(selector, times(1)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+
+		// The expired mute is dropped when promoted, and the database is asked whether another mute applies
+		assertAvailableCacheResult(null);
+		verify(selector, times(2)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+
+		futurePunishment.complete(Optional.empty());
+		assertAvailableCacheResult(null);
+		assertEquals(new MuteCacheStatistics(2L, 0L, 1L, 0L), muteCache.statistics());
+	}
+
+	@Test
+	public void revokedMuteIsNotDroppedAgainAtItsEndDate(@Mock Punishment mute) {
+		Component muteMessage = Component.text("Muted for a minute");
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.of(mute)));
+		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getType()).thenReturn(PunishmentType.MUTE);
+		when(mute.getEndDate()).thenReturn(Instant.EPOCH.plus(Duration.ofMinutes(1L)));
+
+		muteCache.cacheOnLogin(uuid, address).join();
+		assertAvailableCacheResult(muteMessage);
+
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.empty()));
+		muteCache.clearCachedMute(mute);
+		assertAvailableCacheResult(null);
+		verify(selector, times(2)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+
+		// The expiry was cancelled alongside the mute
+		time.advanceBy(Duration.ofMinutes(1L));
+		runScheduledTasks();
+		assertAvailableCacheResult(null);
+		verify(selector, times(2)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+		assertEquals(new MuteCacheStatistics(3L, 0L, 0L, 1L), muteCache.statistics());
+	}
+
+	// restart
+
+	@Test
+	public void restartPreloadsOnlinePlayers(@Mock Punishment mute) {
+		Component muteMessage = Component.text("Muted forever");
+		UUID otherUuid = UUID.randomUUID();
+		NetworkAddress otherAddress = RandomUtil.randomAddress();
+		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.empty()));
+		when(selector.getApplicablePunishment(otherUuid, otherAddress, PunishmentType.MUTE))
+				.thenReturn(futuresFactory.completedFuture(Optional.empty()));
+		muteCache.cacheOnLogin(uuid, address).join();
+		muteCache.cacheOnLogin(otherUuid, otherAddress).join();
+
+		UUIDAndAddress muted = new UUIDAndAddress(uuid, address);
+		UUIDAndAddress notMuted = new UUIDAndAddress(otherUuid, otherAddress);
+		when(selector.getApplicableMutes(any())).thenAnswer((invocation) -> {
+			assertEquals(Set.of(muted, notMuted), Set.copyOf(invocation.<List<UUIDAndAddress>>getArgument(0)));
+			return futuresFactory.completedFuture(Map.of(muted, mute));
+		});
+		when(formatter.getPunishmentMessage(mute)).thenReturn(futuresFactory.completedFuture(muteMessage));
+		when(mute.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
+		muteCache.restart();
+
+		// Both players are available from the cache without individual queries
+		assertAvailableCacheResult(muteMessage);
+		assertEquals(Optional.empty(), muteCache.getCachedMuteMessage(otherUuid, otherAddress).join());
+		verify(selector, times(1)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+		verify(selector, times(1)).getApplicablePunishment(otherUuid, otherAddress, PunishmentType.MUTE);
+	}
+
+	@Test
+	public void restartWithoutPlayers() {
+		muteCache.restart();
+		verify(selector, never()).getApplicableMutes(any());
+	}
+
 	// uncacheOnQuit
 
 	@Test
@@ -391,7 +599,7 @@ public class AlwaysAvailableMuteCacheTest {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(databaseQuery);
 
-		when(envUserResolver.lookupName(uuid)).thenReturn(futuresFactory.completedFuture(Optional.empty()));
+		when(envUserResolver.lookupOnlineUUIDs()).thenReturn(futuresFactory.completedFuture(Set.of()));
 		// Player is now logged out, but mute is still cached
 		assertAvailableCacheResult(null);
 
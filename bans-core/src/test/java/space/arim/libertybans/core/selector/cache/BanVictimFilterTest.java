@@ -0,0 +1,212 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.selector.cache;
+
+import org.jooq.DSLContext;
+import org.jooq.Record3;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.libertybans.api.AddressVictim;
+import space.arim.libertybans.api.CompositeVictim;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.SqlConfig;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.database.sql.EmptyData;
+import space.arim.libertybans.core.service.SettableTimeImpl;
+import space.arim.libertybans.it.util.RandomUtil;
+import space.arim.omnibus.util.concurrent.EnhancedExecutor;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+import space.arim.omnibus.util.concurrent.impl.IndifferentFactoryOfTheFuture;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static space.arim.libertybans.core.schema.tables.SimpleBans.SIMPLE_BANS;
+
+@ExtendWith(MockitoExtension.class)
+public class BanVictimFilterTest {
+
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+
+	private final Configs configs;
+	private final EnhancedExecutor enhancedExecutor;
+	private final QueryExecutor queryExecutor;
+	private final SqlConfig.BanVictimFilter filterConf;
+
+	private BanVictimFilter filter;
+
+	public BanVictimFilterTest(@Mock Configs configs, @Mock EnhancedExecutor enhancedExecutor,
+							   @Mock QueryExecutor queryExecutor, @Mock SqlConfig.BanVictimFilter filterConf) {
+		this.configs = configs;
+		this.enhancedExecutor = enhancedExecutor;
+		this.queryExecutor = queryExecutor;
+		this.filterConf = filterConf;
+	}
+
+	@BeforeEach
+	public void setFilter(@Mock SqlConfig sqlConfig, @Mock SqlConfig.Synchronization synchronization) {
+		when(configs.getSqlConfig()).thenReturn(sqlConfig);
+		when(sqlConfig.banVictimFilter()).thenReturn(filterConf);
+		lenient().when(sqlConfig.synchronization()).thenReturn(synchronization);
+		lenient().when(synchronization.mode()).thenReturn(SqlConfig.Synchronization.SyncMode.NONE);
+		filter = new BanVictimFilter(configs, enhancedExecutor, () -> queryExecutor, new SettableTimeImpl(Instant.EPOCH));
+	}
+
+	private void startWithExistingVictims(Victim...victims) {
+		DSLContext context = DSL.using(SQLDialect.DEFAULT);
+		Result<Record3<Victim.VictimType, UUID, NetworkAddress>> result = context.newResult(
+				SIMPLE_BANS.VICTIM_TYPE, SIMPLE_BANS.VICTIM_UUID, SIMPLE_BANS.VICTIM_ADDRESS);
+		for (Victim victim : victims) {
+			UUID uuid = EmptyData.UUID;
+			NetworkAddress address = EmptyData.ADDRESS;
+			if (victim instanceof PlayerVictim) {
+				uuid = ((PlayerVictim) victim).getUUID();
+			} else if (victim instanceof AddressVictim) {
+				address = ((AddressVictim) victim).getAddress();
+			} else {
+				uuid = ((CompositeVictim) victim).getUUID();
+				address = ((CompositeVictim) victim).getAddress();
+			}
+			result.add(context
+					.newRecord(SIMPLE_BANS.VICTIM_TYPE, SIMPLE_BANS.VICTIM_UUID, SIMPLE_BANS.VICTIM_ADDRESS)
+					.values(victim.getType(), uuid, address));
+		}
+		when(filterConf.enable()).thenReturn(true);
+		when(queryExecutor.query(any())).thenReturn(futuresFactory.completedFuture(result));
+		filter.startup();
+	}
+
+	private static Punishment ban(Victim victim) {
+		Punishment ban = mock(Punishment.class);
+		lenient().when(ban.getType()).thenReturn(PunishmentType.BAN);
+		lenient().when(ban.getVictim()).thenReturn(victim);
+		return ban;
+	}
+
+	@Test
+	public void disabledFilterAllowsEverything() {
+		when(filterConf.enable()).thenReturn(false);
+		filter.startup();
+		assertFalse(filter.isReady());
+		assertTrue(filter.mightBeBanned(UUID.randomUUID(), Set.of(RandomUtil.randomAddress())));
+	}
+
+	@Test
+	public void existingVictims() {
+		UUID uuid = UUID.randomUUID();
+		NetworkAddress address = RandomUtil.randomAddress();
+		UUID compositeUuid = UUID.randomUUID();
+		NetworkAddress compositeAddress = RandomUtil.randomAddress();
+		startWithExistingVictims(
+				PlayerVictim.of(uuid), AddressVictim.of(address), CompositeVictim.of(compositeUuid, compositeAddress));
+		assertTrue(filter.isReady());
+
+		assertTrue(filter.mightBeBanned(uuid, Set.of()));
+		assertTrue(filter.mightBeBanned(UUID.randomUUID(), Set.of(RandomUtil.randomAddress(), address)));
+		assertTrue(filter.mightBeBanned(compositeUuid, Set.of()));
+		assertTrue(filter.mightBeBanned(UUID.randomUUID(), Set.of(compositeAddress)));
+	}
+
+	@Test
+	public void addEnactedBans() {
+		startWithExistingVictims();
+		UUID uuid = UUID.randomUUID();
+		NetworkAddress address = RandomUtil.randomAddress();
+		filter.addPunishment(ban(PlayerVictim.of(uuid)));
+		filter.addPunishment(ban(AddressVictim.of(address)));
+
+		assertTrue(filter.mightBeBanned(uuid, Set.of()));
+		assertTrue(filter.mightBeBanned(UUID.randomUUID(), Set.of(address)));
+	}
+
+	@Test
+	public void ignoreNonBans(@Mock Punishment mute) {
+		startWithExistingVictims();
+		UUID uuid = UUID.randomUUID();
+		when(mute.getType()).thenReturn(PunishmentType.MUTE);
+		filter.addPunishment(mute);
+		assertFalse(filter.mightBeBanned(uuid, Set.of()));
+	}
+
+	@Test
+	public void rebuildWhenFull() {
+		startWithExistingVictims();
+		Punishment ban = ban(PlayerVictim.of(UUID.randomUUID()));
+		for (int n = 0; n < 10_000; n++) {
+			filter.addPunishment(ban);
+		}
+		verify(enhancedExecutor, times(0)).execute(any());
+		filter.addPunishment(ban);
+		filter.addPunishment(ban);
+		ArgumentCaptor<Runnable> rebuild = ArgumentCaptor.forClass(Runnable.class);
+		verify(enhancedExecutor).execute(rebuild.capture());
+
+		rebuild.getValue().run();
+		verify(queryExecutor, times(2)).query(any());
+	}
+
+	@Test
+	public void filterIsFullPastExpectedInsertions() {
+		BanVictimFilter.Filter bloomFilter = new BanVictimFilter.Filter(100, 0.01);
+		for (int n = 0; n < 100; n++) {
+			bloomFilter.add(UUID.randomUUID());
+		}
+		assertFalse(bloomFilter.isFull());
+		bloomFilter.add(RandomUtil.randomAddress());
+		assertTrue(bloomFilter.isFull());
+	}
+
+	@Test
+	public void falsePositivesAreRare() {
+		BanVictimFilter.Filter bloomFilter = new BanVictimFilter.Filter(10_000, 0.01);
+		for (int n = 0; n < 10_000; n++) {
+			bloomFilter.add(UUID.randomUUID());
+			bloomFilter.add(RandomUtil.randomAddress());
+		}
+		int falsePositives = 0;
+		for (int n = 0; n < 10_000; n++) {
+			if (bloomFilter.mightContain(UUID.randomUUID())) {
+				falsePositives++;
+			}
+		}
+		// Twice as many insertions as expected gives a rate of about 15 percent
+		assertTrue(falsePositives < 2_500, "False positives: " + falsePositives);
+	}
+}
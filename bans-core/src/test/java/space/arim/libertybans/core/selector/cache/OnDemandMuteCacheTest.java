@@ -43,7 +43,6 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -94,7 +93,7 @@ public class OnDemandMuteCacheTest {
 	public void efficiencyOfReuse(@Mock Punishment punishment) {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(punishment)));
-		when(punishment.isExpired(any())).thenReturn(false);
+		when(punishment.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
 
 		assertEquals(Optional.of(punishment), muteCache.getCachedMute(uuid, address).join());
 
@@ -104,13 +103,14 @@ public class OnDemandMuteCacheTest {
 
 		// Make sure the database was only queried once
 		verify(selector, times(1)).getApplicablePunishment(uuid, address, PunishmentType.MUTE);
+		assertEquals(new MuteCacheStatistics(1L, 1L, 0L, 0L), muteCache.statistics());
 	}
 
 	@Test
 	public void recomputeAfterCacheExpiry(@Mock Punishment punishment) {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(punishment)));
-		when(punishment.isExpired(any())).thenReturn(false);
+		when(punishment.getEndDate()).thenReturn(Punishment.PERMANENT_END_DATE);
 
 		assertEquals(Optional.of(punishment), muteCache.getCachedMute(uuid, address).join());
 
@@ -126,23 +126,25 @@ public class OnDemandMuteCacheTest {
 	public void cachedPunishmentItselfExpires(@Mock Punishment punishment) {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(punishment)));
-		when(punishment.isExpired(any())).thenReturn(false);
+		when(punishment.getEndDate()).thenReturn(Instant.EPOCH.plusSeconds(10L));
 
 		assertEquals(Optional.of(punishment), muteCache.getCachedMute(uuid, address).join());
 
-		// Expire the punishment
+		// Expire the punishment, well before the cache expiration time
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.empty()));
-		when(punishment.isExpired(any())).thenReturn(true);
+		time.advanceBy(Duration.ofSeconds(9L));
+		assertEquals(Optional.of(punishment), muteCache.getCachedMute(uuid, address).join());
+		time.advanceBy(Duration.ofSeconds(1L));
 
 		assertEquals(Optional.empty(), muteCache.getCachedMute(uuid, address).join());
+		assertEquals(new MuteCacheStatistics(1L, 2L, 0L, 0L), muteCache.statistics());
 	}
 
 	@Test
 	public void doNotReplaceOlderMuteDueToItsLaterEndDate(@Mock Punishment oldMute, @Mock Punishment newMute) {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(oldMute)));
-		when(oldMute.isExpired(any())).thenReturn(false);
 		when(newMute.getType()).thenReturn(PunishmentType.MUTE);
 		when(oldMute.getEndDate()).thenReturn(Instant.EPOCH.plus(Duration.ofDays(200L)));
 		when(newMute.getEndDate()).thenReturn(Instant.EPOCH.plus(Duration.ofDays(100L)));
@@ -158,8 +160,6 @@ public class OnDemandMuteCacheTest {
 	public void replaceOlderMuteDueToItsSoonerEndDate(@Mock Punishment oldMute, @Mock Punishment newMute) {
 		when(selector.getApplicablePunishment(uuid, address, PunishmentType.MUTE))
 				.thenReturn(futuresFactory.completedFuture(Optional.of(oldMute)));
-		when(oldMute.isExpired(any())).thenReturn(false);
-		when(newMute.isExpired(any())).thenReturn(false);
 		when(newMute.getType()).thenReturn(PunishmentType.MUTE);
 		when(oldMute.getEndDate()).thenReturn(Instant.EPOCH.plus(Duration.ofDays(100L)));
 		when(newMute.getEndDate()).thenReturn(Instant.EPOCH.plus(Duration.ofDays(200L)));
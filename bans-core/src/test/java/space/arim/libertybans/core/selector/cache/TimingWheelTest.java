@@ -0,0 +1,97 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.core.selector.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+
+	private static final long START = 1_640_995_200L;
+
+	private final TimingWheel<String> wheel = new TimingWheel<>(START);
+
+	private List<String> advance(long toTick) {
+		return wheel.advance(toTick).stream().map(TimingWheel.Timeout::value).collect(Collectors.toList());
+	}
+
+	@Test
+	public void dueAtDeadline() {
+		wheel.schedule("value", START + 10L);
+
+		assertEquals(List.of(), advance(START + 9L));
+		assertEquals(List.of("value"), advance(START + 10L));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void dueInOrderOfDeadline() {
+		wheel.schedule("third", START + 5_000L);
+		wheel.schedule("first", START + 3L);
+		wheel.schedule("second", START + 100L);
+
+		assertEquals(List.of("first", "second", "third"), advance(START + 10_000L));
+	}
+
+	@Test
+	public void distantDeadlines() {
+		// Spans each level of the wheel
+		long[] offsets = {63L, 64L, 4_095L, 4_096L, 262_143L, 262_144L, 16_777_215L, 16_777_216L};
+		for (long offset : offsets) {
+			wheel.schedule(Long.toString(offset), START + offset);
+		}
+		for (long offset : offsets) {
+			assertEquals(List.of(), advance(START + offset - 1L), "Before " + offset);
+			assertEquals(List.of(Long.toString(offset)), advance(START + offset), "At " + offset);
+		}
+	}
+
+	@Test
+	public void cancel() {
+		TimingWheel.Timeout<String> timeout = wheel.schedule("value", START + 100L);
+		wheel.schedule("other", START + 100L);
+
+		assertTrue(wheel.cancel(timeout));
+		assertFalse(wheel.cancel(timeout));
+		assertEquals(1, wheel.size());
+		assertEquals(List.of("other"), advance(START + 100L));
+	}
+
+	@Test
+	public void cannotCancelOnceDue() {
+		TimingWheel.Timeout<String> timeout = wheel.schedule("value", START);
+
+		assertEquals(List.of("value"), advance(START));
+		assertFalse(wheel.cancel(timeout));
+	}
+
+	@Test
+	public void pastDeadlineIsDueNextAdvance() {
+		advance(START + 50L);
+		wheel.schedule("value", START + 20L);
+
+		assertEquals(List.of("value"), advance(START + 50L));
+	}
+}
@@ -31,12 +31,15 @@ public final class ConfigSpec {
 	private final AddressStrictness addressStrictness;
 	private final ServerType serverType;
 	private final long unixTime;
+	private final boolean bulkImport;
 	
-	ConfigSpec(Vendor vendor, AddressStrictness addressStrictness, ServerType serverType, long unixTime) {
+	ConfigSpec(Vendor vendor, AddressStrictness addressStrictness, ServerType serverType, long unixTime,
+			   boolean bulkImport) {
 		this.vendor = Objects.requireNonNull(vendor, "vendor");
 		this.addressStrictness = Objects.requireNonNull(addressStrictness, "addressStrictness");
 		this.serverType = Objects.requireNonNull(serverType, "serverType");
 		this.unixTime = unixTime;
+		this.bulkImport = bulkImport;
 	}
 	
 	public Vendor vendor() {
@@ -55,12 +58,16 @@ public final class ConfigSpec {
 		return Instant.ofEpochSecond(unixTime);
 	}
 
+	public boolean bulkImport() {
+		return bulkImport;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		ConfigSpec that = (ConfigSpec) o;
-		return unixTime == that.unixTime && vendor == that.vendor
+		return unixTime == that.unixTime && bulkImport == that.bulkImport && vendor == that.vendor
 				&& addressStrictness == that.addressStrictness && serverType == that.serverType;
 	}
 
@@ -70,6 +77,7 @@ public final class ConfigSpec {
 		result = 31 * result + addressStrictness.hashCode();
 		result = 31 * result + serverType.hashCode();
 		result = 31 * result + (int) (unixTime ^ (unixTime >>> 32));
+		result = 31 * result + (bulkImport ? 1 : 0);
 		return result;
 	}
 
@@ -80,6 +88,7 @@ public final class ConfigSpec {
 				", addressStrictness=" + addressStrictness +
 				", serverType=" + serverType +
 				", unixTime=" + unixTime +
+				", bulkImport=" + bulkImport +
 				'}';
 	}
 
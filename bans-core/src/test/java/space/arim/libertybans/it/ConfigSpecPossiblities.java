@@ -40,7 +40,9 @@ class ConfigSpecPossiblities {
 		for (Vendor vendor : Vendor.values()) {
 			for (AddressStrictness addressStrictness : AddressStrictness.values()) {
 				for (ServerType serverType : ServerType.values()) {
-					possibilities.add(new ConfigSpec(vendor, addressStrictness, serverType, time));
+					for (boolean bulkImport : new boolean[] {false, true}) {
+						possibilities.add(new ConfigSpec(vendor, addressStrictness, serverType, time, bulkImport));
+					}
 				}
 			}
 		}
@@ -50,7 +52,7 @@ class ConfigSpecPossiblities {
 	private ConfigConstraints getConstraints() {
 		if (element.getAnnotation(NoDbAccess.class) != null) {
 			return new ConfigConstraints(
-					Set.of(Vendor.HSQLDB), Set.of(AddressStrictness.NORMAL), Set.of(ServerType.ONLINE));
+					Set.of(Vendor.HSQLDB), Set.of(AddressStrictness.NORMAL), Set.of(ServerType.ONLINE), Set.of(false));
 		}
 		Set<AddressStrictness> addressStrictnesses;
 		{
@@ -83,7 +85,18 @@ class ConfigSpecPossiblities {
 				vendors = Set.of(vendorConstraint.value());
 			}
 		}
-		return new ConfigConstraints(vendors, addressStrictnesses, serverTypes);
+		Set<Boolean> bulkImports;
+		{
+			SetBulkImport bulkImportConstraint = element.getAnnotation(SetBulkImport.class);
+			if (bulkImportConstraint == null) {
+				bulkImports = Set.of(false);
+			} else if (bulkImportConstraint.all()) {
+				bulkImports = Set.of(false, true);
+			} else {
+				bulkImports = Set.of(bulkImportConstraint.value());
+			}
+		}
+		return new ConfigConstraints(vendors, addressStrictnesses, serverTypes, bulkImports);
 	}
 
 	private static class ConfigConstraints {
@@ -91,18 +104,22 @@ class ConfigSpecPossiblities {
 		private final Set<AddressStrictness> strictnesses;
 		private final Set<Vendor> vendors;
 		private final Set<ServerType> serverTypes;
+		private final Set<Boolean> bulkImports;
 
-		ConfigConstraints(Set<Vendor> vendors, Set<AddressStrictness> strictnesses, Set<ServerType> serverTypes) {
+		ConfigConstraints(Set<Vendor> vendors, Set<AddressStrictness> strictnesses, Set<ServerType> serverTypes,
+						  Set<Boolean> bulkImports) {
 
 			this.vendors = vendors;
 			this.strictnesses = strictnesses;
 			this.serverTypes = serverTypes;
+			this.bulkImports = bulkImports;
 		}
 
 		boolean allows(ConfigSpec configSpec) {
 			return vendors.contains(configSpec.vendor())
 					&& strictnesses.contains(configSpec.addressStrictness())
-					&& serverTypes.contains(configSpec.serverType());
+					&& serverTypes.contains(configSpec.serverType())
+					&& bulkImports.contains(configSpec.bulkImport());
 		}
 
 	}
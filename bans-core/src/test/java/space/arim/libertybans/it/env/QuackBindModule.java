@@ -22,8 +22,10 @@ package space.arim.libertybans.it.env;
 import jakarta.inject.Singleton;
 import space.arim.api.env.PlatformHandle;
 import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.libertybans.core.env.EnvMessageChannel;
 import space.arim.libertybans.core.env.EnvUserResolver;
 import space.arim.libertybans.core.env.Environment;
+import space.arim.libertybans.core.env.LoopbackMessageChannel;
 import space.arim.libertybans.core.importing.PlatformImportSource;
 import space.arim.libertybans.core.selector.cache.MuteCache;
 import space.arim.libertybans.core.selector.cache.OnDemandMuteCache;
@@ -63,4 +65,9 @@ public class QuackBindModule {
 		throw new UnsupportedOperationException("PlatformImportSource not available");
 	}
 
+	@Singleton
+	public EnvMessageChannel messageChannel() {
+		return new LoopbackMessageChannel.Network().createChannel();
+	}
+
 }
@@ -0,0 +1,101 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.it.test.applicable;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+import space.arim.libertybans.api.AddressVictim;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.api.punish.PunishmentDrafter;
+import space.arim.libertybans.core.env.UUIDAndAddress;
+import space.arim.libertybans.core.selector.InternalSelector;
+import space.arim.libertybans.it.InjectionInvocationContextProvider;
+import space.arim.libertybans.it.SetAddressStrictness;
+import space.arim.libertybans.it.util.RandomUtil;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(InjectionInvocationContextProvider.class)
+public class ApplicableMutesIT {
+
+	private final StrictnessAssertHelper assertHelper;
+	private final PunishmentDrafter drafter;
+	private final InternalSelector selector;
+
+	@Inject
+	public ApplicableMutesIT(StrictnessAssertHelper assertHelper,
+							 PunishmentDrafter drafter, InternalSelector selector) {
+		this.assertHelper = assertHelper;
+		this.drafter = drafter;
+		this.selector = selector;
+	}
+
+	private UUIDAndAddress connectRandomUser() {
+		UUID uuid = UUID.randomUUID();
+		NetworkAddress address = RandomUtil.randomAddress();
+		assertHelper.connectAndAssumeUnbannedUser(uuid, "User", address);
+		return new UUIDAndAddress(uuid, address);
+	}
+
+	private Punishment mute(Victim victim, Duration duration) {
+		return drafter.draftBuilder()
+				.type(PunishmentType.MUTE)
+				.victim(victim)
+				.reason("Spamming")
+				.duration(duration)
+				.build().enactPunishment()
+				.toCompletableFuture().join()
+				.orElseThrow(AssertionError::new);
+	}
+
+	@TestTemplate
+	@SetAddressStrictness(all = true)
+	public void sameAsIndividualSelection() {
+		UUIDAndAddress mutedByUuid = connectRandomUser();
+		UUIDAndAddress mutedByAddress = connectRandomUser();
+		UUIDAndAddress mutedTwice = connectRandomUser();
+		UUIDAndAddress notMuted = connectRandomUser();
+
+		mute(PlayerVictim.of(mutedByUuid.uuid()), Duration.ZERO);
+		mute(AddressVictim.of(mutedByAddress.address()), Duration.ofDays(1L));
+		mute(PlayerVictim.of(mutedTwice.uuid()), Duration.ofDays(1L));
+		mute(AddressVictim.of(mutedTwice.address()), Duration.ofDays(2L));
+
+		List<UUIDAndAddress> users = List.of(mutedByUuid, mutedByAddress, mutedTwice, notMuted);
+		Map<UUIDAndAddress, Punishment> expected = new HashMap<>();
+		for (UUIDAndAddress user : users) {
+			selector.getApplicablePunishment(user.uuid(), user.address(), PunishmentType.MUTE)
+					.toCompletableFuture().join()
+					.ifPresent((mute) -> expected.put(user, mute));
+		}
+		assertEquals(3, expected.size());
+		assertEquals(expected, selector.getApplicableMutes(users).join());
+	}
+}
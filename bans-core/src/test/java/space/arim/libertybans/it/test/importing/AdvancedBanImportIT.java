@@ -36,6 +36,7 @@ import space.arim.libertybans.core.uuid.ServerType;
 import space.arim.libertybans.core.uuid.UUIDManager;
 import space.arim.libertybans.it.DontInject;
 import space.arim.libertybans.it.InjectionInvocationContextProvider;
+import space.arim.libertybans.it.SetBulkImport;
 import space.arim.libertybans.it.SetServerType;
 import space.arim.libertybans.it.SetTime;
 import space.arim.omnibus.util.UUIDUtil;
@@ -56,12 +57,15 @@ public class AdvancedBanImportIT {
 
 	private final ImportExecutor importExecutor;
 	private final UUIDManager uuidManager;
+	private final ImportedDataAssertions importedData;
 	private PluginDatabaseSetup pluginDatabaseSetup;
 
 	@Inject
-	public AdvancedBanImportIT(ImportExecutor importExecutor, UUIDManager uuidManager) {
+	public AdvancedBanImportIT(ImportExecutor importExecutor, UUIDManager uuidManager,
+							   ImportedDataAssertions importedData) {
 		this.importExecutor = importExecutor;
 		this.uuidManager = uuidManager;
+		this.importedData = importedData;
 	}
 
 	@BeforeEach
@@ -85,9 +89,12 @@ public class AdvancedBanImportIT {
 		assertDoesNotThrow(futureImport::join, "Import failed: error");
 		assertEquals(expectedStatistics, futureImport.join(),
 				"Import failed: unexpected import statistics");
+		importedData.assertApplicableIndexComplete();
+		importedData.assertPunishmentsEnactable();
 	}
 
 	@TestTemplate
+	@SetBulkImport(all = true)
 	@SetTime(unixTime = SetTime.DEFAULT_TIME)
 	@SetServerType(ServerType.OFFLINE)
 	public void sampleOneOffline() {
@@ -95,6 +102,7 @@ public class AdvancedBanImportIT {
 	}
 
 	@TestTemplate
+	@SetBulkImport(all = true)
 	@SetTime(unixTime = SetTime.DEFAULT_TIME)
 	@SetServerType(ServerType.ONLINE)
 	public void sampleTwoOnline(UUIDManager uuidManager) {
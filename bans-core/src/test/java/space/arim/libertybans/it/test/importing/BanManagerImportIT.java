@@ -36,6 +36,7 @@ import space.arim.libertybans.core.importing.PluginDatabaseSetup;
 import space.arim.libertybans.core.scope.ScopeImpl;
 import space.arim.libertybans.it.DontInject;
 import space.arim.libertybans.it.InjectionInvocationContextProvider;
+import space.arim.libertybans.it.SetBulkImport;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -52,12 +53,15 @@ public class BanManagerImportIT {
 
 	private final ImportExecutor importExecutor;
 	private final Provider<QueryExecutor> queryExecutor;
+	private final ImportedDataAssertions importedData;
 	private PluginDatabaseSetup pluginDatabaseSetup;
 
 	@Inject
-	public BanManagerImportIT(ImportExecutor importExecutor, Provider<QueryExecutor> queryExecutor) {
+	public BanManagerImportIT(ImportExecutor importExecutor, Provider<QueryExecutor> queryExecutor,
+							  ImportedDataAssertions importedData) {
 		this.importExecutor = importExecutor;
 		this.queryExecutor = queryExecutor;
+		this.importedData = importedData;
 	}
 
 	@BeforeEach
@@ -78,6 +82,7 @@ public class BanManagerImportIT {
 	}
 
 	@TestTemplate
+	@SetBulkImport(all = true)
 	public void fabricatedData() {
 		ScopeManager scopeManager = createScopeManager();
 		pluginDatabaseSetup.initBanManagerSchema();
@@ -90,5 +95,7 @@ public class BanManagerImportIT {
 		assertEquals(6, selectCount(SIMPLE_HISTORY));
 		assertEquals(1, selectCount(NAMES));
 		assertEquals(1, selectCount(ADDRESSES));
+		importedData.assertApplicableIndexComplete();
+		importedData.assertPunishmentsEnactable();
 	}
 }
@@ -0,0 +1,104 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.it.test.importing;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import space.arim.libertybans.api.PlayerVictim;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.Victim;
+import space.arim.libertybans.api.punish.DraftPunishment;
+import space.arim.libertybans.api.punish.EnforcementOptions;
+import space.arim.libertybans.api.punish.PunishmentDrafter;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static space.arim.libertybans.core.schema.Tables.APPLICABLE_ACTIVE;
+import static space.arim.libertybans.core.schema.Tables.APPLICABLE_INDEX;
+import static space.arim.libertybans.core.schema.Tables.VICTIMS;
+
+/**
+ * Checks imported data which is not covered by import statistics. These matter especially
+ * for bulk mode, which reserves IDs in ranges, caches victims in memory, and rebuilds
+ * derived tables after the transfer.
+ *
+ */
+public final class ImportedDataAssertions {
+
+	private final Provider<QueryExecutor> queryExecutor;
+	private final PunishmentDrafter drafter;
+
+	@Inject
+	public ImportedDataAssertions(Provider<QueryExecutor> queryExecutor, PunishmentDrafter drafter) {
+		this.queryExecutor = queryExecutor;
+		this.drafter = drafter;
+	}
+
+	/**
+	 * Asserts that the applicable index holds the same pairs as the applicable_active view
+	 *
+	 */
+	public void assertApplicableIndexComplete() {
+		queryExecutor.get().execute((context) -> {
+			int expected = context.fetchCount(context
+					.selectDistinct(APPLICABLE_ACTIVE.UUID, APPLICABLE_ACTIVE.ID)
+					.from(APPLICABLE_ACTIVE)
+			);
+			assertEquals(expected, context.fetchCount(APPLICABLE_INDEX), "Applicable index is incomplete");
+		}).join();
+	}
+
+	/**
+	 * Asserts that punishments may be enacted against an imported victim and a new victim,
+	 * which requires the punishment and victim ID sequences to be past the imported IDs
+	 *
+	 */
+	public void assertPunishmentsEnactable() {
+		UUID importedVictim = queryExecutor.get().query((context) -> {
+			return context
+					.select(VICTIMS.UUID)
+					.from(VICTIMS)
+					.where(VICTIMS.TYPE.eq(Victim.VictimType.PLAYER))
+					.limit(1)
+					.fetchOne(VICTIMS.UUID);
+		}).join();
+		if (importedVictim != null) {
+			assertTrue(enactWarn(importedVictim), "Unable to warn an imported victim");
+		}
+		assertTrue(enactWarn(UUID.randomUUID()), "Unable to warn a new victim");
+	}
+
+	private boolean enactWarn(UUID uuid) {
+		DraftPunishment draft = drafter.draftBuilder()
+				.type(PunishmentType.WARN)
+				.victim(PlayerVictim.of(uuid))
+				.reason("Warning after import to make sure the ID sequences are available")
+				.build();
+		EnforcementOptions noEnforcement = draft
+				.enforcementOptionsBuilder()
+				.enforcement(EnforcementOptions.Enforcement.NONE)
+				.broadcasting(EnforcementOptions.Broadcasting.NONE)
+				.build();
+		return draft.enactPunishment(noEnforcement).toCompletableFuture().join().isPresent();
+	}
+}
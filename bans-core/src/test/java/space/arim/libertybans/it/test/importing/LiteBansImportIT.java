@@ -34,6 +34,7 @@ import space.arim.libertybans.core.importing.PluginDatabaseSetup;
 import space.arim.libertybans.core.scope.ScopeImpl;
 import space.arim.libertybans.it.DontInject;
 import space.arim.libertybans.it.InjectionInvocationContextProvider;
+import space.arim.libertybans.it.SetBulkImport;
 import space.arim.libertybans.it.SetTime;
 
 import java.util.concurrent.CompletableFuture;
@@ -50,11 +51,13 @@ import static org.mockito.Mockito.when;
 public class LiteBansImportIT {
 
 	private final ImportExecutor importExecutor;
+	private final ImportedDataAssertions importedData;
 	private PluginDatabaseSetup pluginDatabaseSetup;
 
 	@Inject
-	public LiteBansImportIT(ImportExecutor importExecutor) {
+	public LiteBansImportIT(ImportExecutor importExecutor, ImportedDataAssertions importedData) {
 		this.importExecutor = importExecutor;
+		this.importedData = importedData;
 	}
 
 	@BeforeEach
@@ -77,9 +80,12 @@ public class LiteBansImportIT {
 		assertDoesNotThrow(futureImport::join, "Import failed: error");
 		assertEquals(expectedStatistics, futureImport.join(),
 				"Import failed: unexpected import statistics");
+		importedData.assertApplicableIndexComplete();
+		importedData.assertPunishmentsEnactable();
 	}
 
 	@TestTemplate
+	@SetBulkImport(all = true)
 	@SetTime(unixTime = 1621390560)
 	public void sampleOne() {
 		pluginDatabaseSetup.initLiteBansSchema();
@@ -87,6 +93,7 @@ public class LiteBansImportIT {
 	}
 
 	@TestTemplate
+	@SetBulkImport(all = true)
 	@SetTime(unixTime = 1622836000)
 	public void sampleTwo() {
 		// This sample already contains the schema definition
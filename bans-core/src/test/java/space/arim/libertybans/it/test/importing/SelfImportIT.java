@@ -39,6 +39,7 @@ import space.arim.libertybans.core.importing.SelfImportProcess;
 import space.arim.libertybans.core.punish.PunishmentCreator;
 import space.arim.libertybans.core.scope.ScopeImpl;
 import space.arim.libertybans.it.InjectionInvocationContextProvider;
+import space.arim.libertybans.it.SetBulkImport;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -105,6 +106,7 @@ public class SelfImportIT {
 	}
 
 	@TestTemplate
+	@SetBulkImport(all = true)
 	public void blueTree242(PunishmentCreator creator) throws IOException {
 		Path folder = copyImportData("bluetree242");
 
@@ -177,6 +179,7 @@ public class SelfImportIT {
 	}
 
 	@TestTemplate
+	@SetBulkImport(all = true)
 	public void blueTree242sequences(PunishmentDrafter drafter) throws IOException {
 		Path folder = copyImportData("bluetree242");
 
@@ -0,0 +1,173 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+package space.arim.libertybans.it.test.punish;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.libertybans.api.AddressVictim;
+import space.arim.libertybans.api.NetworkAddress;
+import space.arim.libertybans.api.PunishmentType;
+import space.arim.libertybans.api.punish.EnforcementOptions;
+import space.arim.libertybans.api.punish.Punishment;
+import space.arim.libertybans.api.punish.PunishmentDrafter;
+import space.arim.libertybans.api.select.PunishmentSelector;
+import space.arim.libertybans.core.config.Configs;
+import space.arim.libertybans.core.config.InternalFormatter;
+import space.arim.libertybans.core.database.execute.QueryExecutor;
+import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.libertybans.core.env.EnvUserResolver;
+import space.arim.libertybans.core.env.TargetMatcher;
+import space.arim.libertybans.core.punish.EnforcementOpts;
+import space.arim.libertybans.core.punish.Guardian;
+import space.arim.libertybans.core.punish.StandardLocalEnforcer;
+import space.arim.libertybans.core.selector.AddressStrictness;
+import space.arim.libertybans.core.selector.cache.MuteCache;
+import space.arim.libertybans.it.InjectionInvocationContextProvider;
+import space.arim.libertybans.it.SetAddressStrictness;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static space.arim.libertybans.it.util.RandomUtil.randomAddress;
+import static space.arim.libertybans.it.util.RandomUtil.randomName;
+
+/**
+ * Checks that address punishments are only matched against online players, whose uuids
+ * restrict the enforcement query
+ *
+ */
+@ExtendWith(InjectionInvocationContextProvider.class)
+@ExtendWith(MockitoExtension.class)
+public class AddressEnforcementIT {
+
+	private final Configs configs;
+	private final FactoryOfTheFuture futuresFactory;
+	private final Provider<QueryExecutor> queryExecutor;
+	private final PunishmentDrafter drafter;
+	private final PunishmentSelector selector;
+	private final InternalFormatter formatter;
+	private final MuteCache muteCache;
+	private final Guardian guardian;
+
+	@Inject
+	public AddressEnforcementIT(Configs configs, FactoryOfTheFuture futuresFactory,
+								Provider<QueryExecutor> queryExecutor, PunishmentDrafter drafter,
+								PunishmentSelector selector, InternalFormatter formatter, MuteCache muteCache,
+								Guardian guardian) {
+		this.configs = configs;
+		this.futuresFactory = futuresFactory;
+		this.queryExecutor = queryExecutor;
+		this.drafter = drafter;
+		this.selector = selector;
+		this.formatter = formatter;
+		this.muteCache = muteCache;
+		this.guardian = guardian;
+	}
+
+	private void connect(UUID uuid, NetworkAddress address) {
+		assumeTrue(null == guardian.executeAndCheckConnection(uuid, randomName(), address).join());
+	}
+
+	private Punishment banAddress(NetworkAddress address) {
+		Punishment punishment = drafter.draftBuilder()
+				.type(PunishmentType.BAN)
+				.victim(AddressVictim.of(address))
+				.reason("Shared address")
+				.build()
+				.enactPunishment(EnforcementOpts.builder().enforcement(EnforcementOptions.Enforcement.NONE).build())
+				.toCompletableFuture().join().orElse(null);
+		assertNotNull(punishment);
+		return punishment;
+	}
+
+	@SuppressWarnings("unchecked")
+	private TargetMatcher<Object> enforce(Punishment punishment, Provider<QueryExecutor> queryExecutor,
+										  Set<UUID> onlineUUIDs) {
+		EnvEnforcer<Object> envEnforcer = mock(EnvEnforcer.class);
+		EnvUserResolver envUserResolver = mock(EnvUserResolver.class);
+		when(envEnforcer.enforceMatcher(any())).thenReturn(futuresFactory.completedFuture(null));
+		when(envUserResolver.lookupOnlineUUIDs()).thenReturn(futuresFactory.completedFuture(onlineUUIDs));
+
+		new StandardLocalEnforcer(
+				configs, futuresFactory, queryExecutor, selector, formatter, envEnforcer, envUserResolver, muteCache
+		).enforceWithoutSynchronization(punishment, EnforcementOpts.builder()
+				.enforcement(EnforcementOptions.Enforcement.SINGLE_SERVER_ONLY)
+				.broadcasting(EnforcementOptions.Broadcasting.NONE)
+				.build()
+		).join();
+
+		ArgumentCaptor<TargetMatcher<Object>> matcher = ArgumentCaptor.forClass(TargetMatcher.class);
+		verify(envEnforcer).enforceMatcher(matcher.capture());
+		return matcher.getValue();
+	}
+
+	@TestTemplate
+	@SetAddressStrictness({AddressStrictness.NORMAL, AddressStrictness.STRICT})
+	public void matchOnlyOnlineAccounts() {
+		NetworkAddress bannedAddress = randomAddress();
+		NetworkAddress otherAddress = randomAddress();
+		UUID online = UUID.randomUUID();
+		UUID offline = UUID.randomUUID();
+		UUID onlineLinked = UUID.randomUUID();
+		UUID offlineLinked = UUID.randomUUID();
+		connect(online, bannedAddress);
+		connect(offline, bannedAddress);
+		// Linked to the banned address through the offline account, which matters under STRICT
+		connect(offline, otherAddress);
+		connect(onlineLinked, otherAddress);
+		connect(offlineLinked, otherAddress);
+		Punishment ban = banAddress(bannedAddress);
+
+		TargetMatcher<Object> matcher = enforce(ban, queryExecutor, Set.of(online, onlineLinked));
+		boolean strict = configs.getMainConfig().enforcement().addressStrictness() == AddressStrictness.STRICT;
+		assertTrue(matcher.matches(online, randomAddress().toInetAddress()));
+		assertFalse(matcher.matches(offline, bannedAddress.toInetAddress()));
+		assertFalse(matcher.matches(offlineLinked, otherAddress.toInetAddress()));
+		assertEquals(strict, matcher.matches(onlineLinked, otherAddress.toInetAddress()));
+	}
+
+	@TestTemplate
+	@SetAddressStrictness({AddressStrictness.NORMAL, AddressStrictness.STRICT})
+	public void noQueryWithoutOnlinePlayers() {
+		NetworkAddress bannedAddress = randomAddress();
+		UUID offline = UUID.randomUUID();
+		connect(offline, bannedAddress);
+		Punishment ban = banAddress(bannedAddress);
+
+		QueryExecutor queryExecutor = mock(QueryExecutor.class);
+		TargetMatcher<Object> matcher = enforce(ban, () -> queryExecutor, Set.of());
+		assertFalse(matcher.matches(offline, bannedAddress.toInetAddress()));
+		verifyNoInteractions(queryExecutor);
+	}
+}
@@ -42,9 +42,14 @@ import space.arim.libertybans.it.resolver.RandomVictimResolver;
 import space.arim.omnibus.util.concurrent.CentralisedFuture;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -82,6 +87,42 @@ public class SelectionIT {
 		return selectionBuilder.build().getAllSpecificPunishments().toCompletableFuture().join();
 	}
 
+	private static List<Punishment> streamPunishments(SelectionOrderBuilder selectionBuilder) {
+		CompletableFuture<List<Punishment>> future = new CompletableFuture<>();
+		selectionBuilder.build().streamAllSpecificPunishments().subscribe(new Flow.Subscriber<>() {
+
+			private final List<Punishment> punishments = new ArrayList<>();
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1L);
+			}
+
+			@Override
+			public void onNext(Punishment item) {
+				punishments.add(item);
+				subscription.request(1L);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				future.completeExceptionally(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				future.complete(punishments);
+			}
+		});
+		return future.join();
+	}
+
+	private static int countPunishments(SelectionOrderBuilder selectionBuilder) {
+		return selectionBuilder.build().countMatchingPunishments().toCompletableFuture().join();
+	}
+
 	private static void assertEmpty(SelectionOrderBuilder selectionBuilder) {
 		List<Punishment> punishments = getPunishments(selectionBuilder);
 		assertTrue(punishments.isEmpty(), "Non-empty punishments, retrieved " + punishments);
@@ -161,6 +202,73 @@ public class SelectionIT {
 		);
 	}
 
+	@TestTemplate
+	public void seekBeforeWarnsForVictim(@DontInject Victim victim) {
+		final PunishmentType type = PunishmentType.WARN;
+
+		Punishment pun1 = getPunishment(
+				draftBuilder(type, victim, "first warn"));
+		time.advanceBy(ONE_SECOND);
+
+		// Same start time, so the ID decides the order
+		Punishment pun2 = getPunishment(
+				draftBuilder(type, victim, "second warn"));
+		Punishment pun3 = getPunishment(
+				draftBuilder(type, victim, "third warn"));
+		time.advanceBy(ONE_SECOND);
+
+		Punishment pun4 = getPunishment(
+				draftBuilder(type, victim, "fourth warn"));
+
+		assertEquals(
+				List.of(pun4, pun3),
+				getPunishments(selectionBuilder(type).victim(victim).limitToRetrieve(2)));
+		assertEquals(
+				List.of(pun2, pun1),
+				getPunishments(selectionBuilder(type).victim(victim).limitToRetrieve(2)
+						.seekBefore(pun3.getStartDate(), pun3.getIdentifier() - 1)));
+		assertEquals(
+				List.of(pun3, pun2, pun1),
+				getPunishments(selectionBuilder(type).victim(victim)
+						.seekBefore(pun3.getStartDate(), pun3.getIdentifier())));
+		assertEquals(
+				List.of(pun1),
+				getPunishments(selectionBuilder(type).victim(victim)
+						.seekBefore(pun2.getStartDate(), pun2.getIdentifier() - 1)));
+		assertEquals(
+				List.of(pun4, pun3, pun2, pun1),
+				getPunishments(selectionBuilder(type).victim(victim).seekBefore(Instant.MAX, 0L)));
+	}
+
+	@TestTemplate
+	public void streamHistoricalWarns(@DontInject Victim victim) {
+		final PunishmentType type = PunishmentType.WARN;
+
+		Punishment expired = getPunishment(
+				draftBuilder(type, victim, "expired warn").duration(ONE_SECOND));
+		time.advanceBy(TWO_SECONDS);
+
+		Punishment active1 = getPunishment(
+				draftBuilder(type, victim, "active warn"));
+		time.advanceBy(ONE_SECOND);
+
+		Punishment active2 = getPunishment(
+				draftBuilder(type, victim, "another active warn"));
+
+		assertEquals(
+				List.of(active2, active1),
+				streamPunishments(selectionBuilder(type).victim(victim)));
+		assertEquals(
+				List.of(active2, active1, expired),
+				streamPunishments(selectionBuilder(type).victim(victim).selectAll()));
+		assertEquals(
+				List.of(active1),
+				streamPunishments(selectionBuilder(type).victim(victim).skipFirstRetrieved(1).limitToRetrieve(1)));
+		assertEquals(
+				List.of(),
+				streamPunishments(selectionBuilder(PunishmentType.KICK).victim(victim)));
+	}
+
 	@TestTemplate
 	public void selectHistoricalBansMutes(@DontInject @SingularPunishment PunishmentType type,
 			@DontInject Victim victim) {
@@ -212,4 +320,26 @@ public class SelectionIT {
 				getPunishments(selector.selectionBuilder().operator(operator2)));
 	}
 
+	@TestTemplate
+	public void countPunishments(@DontInject Victim victim1, @DontInject Victim victim2,
+								 @DontInject Operator operator1, @DontInject @NotConsole Operator operator2) {
+		getPunishment(draftBuilder(PunishmentType.BAN, victim1, "banhammer").operator(operator1));
+		getPunishment(draftBuilder(PunishmentType.WARN, victim1, "warning").operator(operator2));
+		getPunishment(draftBuilder(PunishmentType.WARN, victim1, "another warning").operator(operator2));
+		getPunishment(draftBuilder(PunishmentType.MUTE, victim2, "muted").operator(operator1));
+
+		assertEquals(4, countPunishments(selector.selectionBuilder()));
+		assertEquals(3, countPunishments(selector.selectionBuilder().victim(victim1)));
+		assertEquals(2, countPunishments(selectionBuilder(PunishmentType.WARN).victim(victim1)));
+		assertEquals(0, countPunishments(selectionBuilder(PunishmentType.KICK)));
+		assertEquals(3, countPunishments(selector.selectionBuilder().victim(victim1).limitToRetrieve(1)),
+				"Count is unaffected by limit");
+		assertEquals(
+				Map.of(PunishmentType.BAN, 1, PunishmentType.WARN, 2, PunishmentType.MUTE, 1),
+				selector.selectionBuilder().build().countMatchingPunishmentsByType().toCompletableFuture().join());
+		assertEquals(
+				Map.of(operator1, 2, operator2, 2),
+				selector.selectionBuilder().build().countMatchingPunishmentsByOperator().toCompletableFuture().join());
+	}
+
 }
@@ -28,8 +28,10 @@ import space.arim.api.env.bungee.BungeeAudienceRepresenter;
 import space.arim.api.env.bungee.BungeePlatformHandle;
 import space.arim.api.env.PlatformHandle;
 import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.libertybans.core.env.EnvMessageChannel;
 import space.arim.libertybans.core.env.EnvUserResolver;
 import space.arim.libertybans.core.env.Environment;
+import space.arim.libertybans.core.env.UnavailableMessageChannel;
 import space.arim.libertybans.core.importing.PlatformImportSource;
 import space.arim.libertybans.core.selector.cache.MuteCache;
 import space.arim.libertybans.core.selector.cache.OnDemandMuteCache;
@@ -69,4 +71,9 @@ public class BungeeBindModule {
 		throw new UnsupportedOperationException("It is impossible to import from vanilla on BungeeCord");
 	}
 
+	public EnvMessageChannel messageChannel() {
+		return new UnavailableMessageChannel(
+				"it is only available on backend servers, whereas this is a BungeeCord proxy");
+	}
+
 }
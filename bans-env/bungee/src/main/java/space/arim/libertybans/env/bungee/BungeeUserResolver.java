@@ -28,7 +28,9 @@ import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import java.net.InetAddress;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Supplier;
 
@@ -71,4 +73,13 @@ public final class BungeeUserResolver extends SimpleEnvUserResolver {
 				.map((player) -> new UUIDAndAddress(player.getUniqueId(), addressReporter.getAddress(player)));
 	}
 
+	@Override
+	public Set<UUID> lookupOnlineUUIDs0() {
+		Set<UUID> uuids = new HashSet<>();
+		for (ProxiedPlayer player : server.getPlayers()) {
+			uuids.add(player.getUniqueId());
+		}
+		return uuids;
+	}
+
 }
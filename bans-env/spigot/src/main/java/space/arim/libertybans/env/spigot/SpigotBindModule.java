@@ -27,6 +27,7 @@ import space.arim.api.env.PlatformHandle;
 import space.arim.api.env.bukkit.BukkitAudienceRepresenter;
 import space.arim.api.env.bukkit.BukkitPlatformHandle;
 import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.libertybans.core.env.EnvMessageChannel;
 import space.arim.libertybans.core.env.EnvUserResolver;
 import space.arim.libertybans.core.env.Environment;
 import space.arim.libertybans.core.importing.PlatformImportSource;
@@ -81,4 +82,8 @@ public class SpigotBindModule {
 		return importSource;
 	}
 
+	public EnvMessageChannel messageChannel(SpigotMessageChannel messageChannel) {
+		return messageChannel;
+	}
+
 }
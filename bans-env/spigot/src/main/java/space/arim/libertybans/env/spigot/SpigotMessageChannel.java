@@ -0,0 +1,146 @@
+/*
+ * LibertyBans
+ * Copyright © 2022 Anand Beh
+ *
+ * LibertyBans is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * LibertyBans is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with LibertyBans. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Affero General Public License.
+ */
+
+package space.arim.libertybans.env.spigot;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.messaging.Messenger;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import space.arim.libertybans.core.env.EnvMessageChannel;
+import space.arim.omnibus.util.ThisClass;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Sends messages to other backend servers using the BungeeCord plugin messaging channel,
+ * which is also implemented by Velocity. Messages are forwarded by the proxy to all servers
+ * with players online.
+ *
+ */
+@Singleton
+public final class SpigotMessageChannel implements EnvMessageChannel, PluginMessageListener {
+
+	private final JavaPlugin plugin;
+	private final Server server;
+	private final FactoryOfTheFuture futuresFactory;
+
+	private volatile Consumer<byte[]> handler;
+
+	static final String BUNGEE_CHANNEL = "BungeeCord";
+	static final String SUBCHANNEL = "LibertyBans";
+	/** The largest message which fits in a plugin message after the forwarding header */
+	static final int MAX_MESSAGE_SIZE = Messenger.MAX_MESSAGE_SIZE - forwardMessage(new byte[0]).length;
+
+	private static final Logger logger = LoggerFactory.getLogger(ThisClass.get());
+
+	@Inject
+	public SpigotMessageChannel(JavaPlugin plugin, Server server, FactoryOfTheFuture futuresFactory) {
+		this.plugin = plugin;
+		this.server = server;
+		this.futuresFactory = futuresFactory;
+	}
+
+	@Override
+	public void installHandler(Consumer<byte[]> handler) {
+		this.handler = handler;
+		Messenger messenger = server.getMessenger();
+		messenger.registerOutgoingPluginChannel(plugin, BUNGEE_CHANNEL);
+		messenger.registerIncomingPluginChannel(plugin, BUNGEE_CHANNEL, this);
+	}
+
+	@Override
+	public void uninstallHandler() {
+		Messenger messenger = server.getMessenger();
+		messenger.unregisterIncomingPluginChannel(plugin, BUNGEE_CHANNEL, this);
+		messenger.unregisterOutgoingPluginChannel(plugin, BUNGEE_CHANNEL);
+		handler = null;
+	}
+
+	@Override
+	public CentralisedFuture<Boolean> send(byte[] message) {
+		if (message.length > MAX_MESSAGE_SIZE) {
+			throw new IllegalArgumentException(
+					"Message of " + message.length + " bytes exceeds the maximum of " + MAX_MESSAGE_SIZE);
+		}
+		byte[] forwardMessage = forwardMessage(message);
+		return futuresFactory.supplySync(() -> {
+			// Plugin messages can only be sent through a player's connection
+			Iterator<? extends Player> players = server.getOnlinePlayers().iterator();
+			if (!players.hasNext()) {
+				return false;
+			}
+			players.next().sendPluginMessage(plugin, BUNGEE_CHANNEL, forwardMessage);
+			return true;
+		});
+	}
+
+	private static byte[] forwardMessage(byte[] message) {
+		ByteArrayOutputStream byteArrayOutput = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(byteArrayOutput)) {
+			output.writeUTF("Forward");
+			output.writeUTF("ONLINE");
+			output.writeUTF(SUBCHANNEL);
+			output.writeShort(message.length);
+			output.write(message);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return byteArrayOutput.toByteArray();
+	}
+
+	@Override
+	public int maxMessageSize() {
+		return MAX_MESSAGE_SIZE;
+	}
+
+	@Override
+	public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+		Consumer<byte[]> handler = this.handler;
+		if (!channel.equals(BUNGEE_CHANNEL) || handler == null) {
+			return;
+		}
+		byte[] payload;
+		try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(message))) {
+			if (!input.readUTF().equals(SUBCHANNEL)) {
+				return;
+			}
+			payload = new byte[input.readUnsignedShort()];
+			input.readFully(payload);
+		} catch (IOException ex) {
+			logger.warn("Received malformed synchronization message", ex);
+			return;
+		}
+		handler.accept(payload);
+	}
+}
@@ -28,8 +28,10 @@ import space.arim.api.env.PlatformHandle;
 import space.arim.api.env.sponge.SpongeAudienceRepresenter;
 import space.arim.api.env.sponge.SpongePlatformHandle;
 import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.libertybans.core.env.EnvMessageChannel;
 import space.arim.libertybans.core.env.EnvUserResolver;
 import space.arim.libertybans.core.env.Environment;
+import space.arim.libertybans.core.env.UnavailableMessageChannel;
 import space.arim.libertybans.core.importing.PlatformImportSource;
 import space.arim.libertybans.core.selector.cache.AlwaysAvailableMuteCache;
 import space.arim.libertybans.core.selector.cache.MuteCache;
@@ -75,4 +77,8 @@ public class SpongeBindModule {
 		return platformAccess;
 	}
 
+	public EnvMessageChannel messageChannel() {
+		return new UnavailableMessageChannel("plugin messaging is not yet supported on Sponge");
+	}
+
 }
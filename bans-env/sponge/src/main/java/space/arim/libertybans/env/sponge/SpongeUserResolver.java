@@ -28,7 +28,9 @@ import space.arim.omnibus.util.concurrent.CentralisedFuture;
 import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
 
 import java.net.InetAddress;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Supplier;
 
@@ -69,4 +71,13 @@ public final class SpongeUserResolver extends SimpleEnvUserResolver {
 				.map((player) -> new UUIDAndAddress(player.uniqueId(), player.connection().address().getAddress()));
 	}
 
+	@Override
+	public Set<UUID> lookupOnlineUUIDs0() {
+		Set<UUID> uuids = new HashSet<>();
+		for (ServerPlayer player : game.server().onlinePlayers()) {
+			uuids.add(player.uniqueId());
+		}
+		return uuids;
+	}
+
 }
@@ -25,8 +25,10 @@ import jakarta.inject.Singleton;
 import space.arim.api.env.PlatformHandle;
 import space.arim.api.env.velocity.VelocityPlatformHandle;
 import space.arim.libertybans.core.env.EnvEnforcer;
+import space.arim.libertybans.core.env.EnvMessageChannel;
 import space.arim.libertybans.core.env.EnvUserResolver;
 import space.arim.libertybans.core.env.Environment;
+import space.arim.libertybans.core.env.UnavailableMessageChannel;
 import space.arim.libertybans.core.importing.PlatformImportSource;
 import space.arim.libertybans.core.selector.cache.MuteCache;
 import space.arim.libertybans.core.selector.cache.OnDemandMuteCache;
@@ -58,4 +60,9 @@ public class VelocityBindModule {
 		throw new UnsupportedOperationException("It is impossible to import from vanilla on Velocity");
 	}
 
+	public EnvMessageChannel messageChannel() {
+		return new UnavailableMessageChannel(
+				"it is only available on backend servers, whereas this is a Velocity proxy");
+	}
+
 }